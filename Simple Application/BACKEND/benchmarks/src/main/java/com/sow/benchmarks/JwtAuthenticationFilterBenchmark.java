@@ -0,0 +1,97 @@
+package com.sow.benchmarks;
+
+import com.sow.simple.application.entity.Role;
+import com.sow.simple.application.entity.User;
+import com.sow.simple.application.security.JwtAuthenticationFilter;
+import com.sow.simple.application.security.JwtUtil;
+import com.sow.simple.application.security.RevokedTokenStore;
+import com.sow.simple.application.security.UserSecurityVersions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of {@link JwtAuthenticationFilter} with a stub chain: header parsing, claims lookup,
+ * revocation and security-version checks, and building the authentication. The user table and denylist
+ * are the real in-memory structures, populated up front so no database is involved.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class JwtAuthenticationFilterBenchmark {
+    
+    private static final int USERS = 256;
+    
+    @Param({"0", "10000"})
+    public int cacheMaxEntries;
+    
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest[] authenticated;
+    private MockHttpServletRequest anonymous;
+    private MockHttpServletResponse response;
+    private int next;
+    
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = JwtBenchmark.newJwtUtil(cacheMaxEntries);
+        // Every user is preloaded, so the repository is never consulted
+        UserSecurityVersions userSecurityVersions = new UserSecurityVersions(null);
+        RevokedTokenStore revokedTokenStore = new RevokedTokenStore(new SimpleMeterRegistry(), 100000, 0.001, 1000, 4096);
+        filter = new JwtAuthenticationFilter(jwtUtil, userSecurityVersions, revokedTokenStore);
+        
+        authenticated = new MockHttpServletRequest[USERS];
+        for (int i = 0; i < USERS; i++) {
+            User user = JwtBenchmark.user(i + 1L, "user" + i, Role.USER);
+            userSecurityVersions.update(user);
+            authenticated[i] = request();
+            authenticated[i].addHeader("Authorization", "Bearer " + jwtUtil.generateToken(user));
+        }
+        anonymous = request();
+        response = new MockHttpServletResponse();
+    }
+    
+    @Benchmark
+    public void authenticatedRequest(Blackhole blackhole) throws Exception {
+        MockHttpServletRequest request = authenticated[next];
+        next = (next + 1) % USERS;
+        filter.doFilter(request, response, chain(blackhole));
+    }
+    
+    @Benchmark
+    public void anonymousRequest(Blackhole blackhole) throws Exception {
+        filter.doFilter(anonymous, response, chain(blackhole));
+    }
+    
+    // Consumes the authentication the filter set and resets the context as the real chain does at the end of a request
+    private static FilterChain chain(Blackhole blackhole) {
+        return (request, response) -> {
+            blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+            SecurityContextHolder.clearContext();
+        };
+    }
+    
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/licenses");
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+}
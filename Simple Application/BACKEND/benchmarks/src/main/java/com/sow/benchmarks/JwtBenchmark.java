@@ -0,0 +1,95 @@
+package com.sow.benchmarks;
+
+import com.sow.simple.application.entity.Role;
+import com.sow.simple.application.entity.User;
+import com.sow.simple.application.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and verification as done on login and on every authenticated request. Verification cycles
+ * through a pool of tokens so the claims cache sees realistic hit patterns rather than one hot entry;
+ * {@code cacheMaxEntries=0} is the uncached parse-and-verify path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class JwtBenchmark {
+    
+    static final String SECRET = "sowndaryaSecretKeyForJWTTokenGeneration2024";
+    private static final int TOKENS = 256;
+    
+    @Param({"0", "10000"})
+    public int cacheMaxEntries;
+    
+    private JwtUtil jwtUtil;
+    private User[] users;
+    private String[] tokens;
+    private int next;
+    
+    @Setup
+    public void setUp() {
+        jwtUtil = newJwtUtil(cacheMaxEntries);
+        users = new User[TOKENS];
+        tokens = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            users[i] = user(i + 1L, "user" + i, Role.USER);
+            tokens[i] = jwtUtil.generateToken(users[i]);
+        }
+    }
+    
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(users[nextIndex()]);
+    }
+    
+    // The filter's path: one verified parse, then the subject and expiry checks against the same claims
+    @Benchmark
+    public boolean validateToken() {
+        int i = nextIndex();
+        Claims claims = jwtUtil.extractAllClaims(tokens[i]);
+        return jwtUtil.validateToken(claims, users[i]);
+    }
+    
+    private int nextIndex() {
+        int i = next;
+        next = (i + 1) % TOKENS;
+        return i;
+    }
+    
+    static JwtUtil newJwtUtil(int cacheMaxEntries) {
+        JwtUtil jwtUtil = new JwtUtil(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 86400000L);
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaxEntries", cacheMaxEntries);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+    
+    static User user(long id, String username, Role role) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setRole(role);
+        user.setIsActive(true);
+        user.setSecurityVersion(0L);
+        return user;
+    }
+}
@@ -0,0 +1,96 @@
+package com.sow.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sow.simple.application.dto.LicenseResponse;
+import com.sow.simple.application.entity.License;
+import com.sow.simple.application.entity.LicenseStatus;
+import com.sow.simple.application.entity.Role;
+import com.sow.simple.application.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of license lists at the default and maximum page sizes. {@code LicenseResponse} is
+ * what the list endpoints write; the {@code License} entity (with its creator) is kept as the baseline the
+ * API used to return. The mapper is configured the way Spring Boot configures the application's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class LicenseSerializationBenchmark {
+    
+    @Param({"50", "500"})
+    public int size;
+    
+    private ObjectMapper objectMapper;
+    private List<License> entities;
+    private List<LicenseResponse> responses;
+    
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        User creator = JwtBenchmark.user(1L, "manager", Role.MANAGER);
+        creator.setEmail("manager@example.com");
+        creator.setFirstName("Manager");
+        creator.setLastName("User");
+        creator.setCreatedAt(LocalDateTime.now());
+        creator.setUpdatedAt(LocalDateTime.now());
+        
+        entities = new ArrayList<>(size);
+        responses = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            License license = license(i, creator);
+            entities.add(license);
+            responses.add(LicenseResponse.of(license, creator));
+        }
+    }
+    
+    @Benchmark
+    public byte[] licenseResponses() throws Exception {
+        return objectMapper.writeValueAsBytes(responses);
+    }
+    
+    @Benchmark
+    public byte[] licenseEntities() throws Exception {
+        return objectMapper.writeValueAsBytes(entities);
+    }
+    
+    static License license(long id, User creator) {
+        License license = new License();
+        license.setId(id);
+        license.setLicenseKey("BENCH-" + id);
+        license.setProductName("Product " + (id % 40));
+        license.setCustomerName("Customer " + (id % 5000));
+        license.setCustomerEmail("customer" + id + "@example.com");
+        license.setIssueDate(LocalDate.of(2025, 1, 1).plusDays(id % 365));
+        license.setExpiryDate(LocalDate.of(2026, 1, 1).plusDays(id % 730));
+        license.setStatus(LicenseStatus.values()[(int) (id % LicenseStatus.values().length)]);
+        license.setMaxUsers(10);
+        license.setCurrentUsers((int) (id % 10));
+        license.setDescription(id % 3 == 0 ? null : "Seat license for team " + (id % 97));
+        license.setCreatedAt(LocalDateTime.of(2025, 1, 1, 9, 0).plusMinutes(id));
+        license.setUpdatedAt(LocalDateTime.of(2025, 6, 1, 9, 0).plusMinutes(id));
+        license.setVersion(id % 4);
+        license.setCreatedBy(creator);
+        return license;
+    }
+}
@@ -0,0 +1,166 @@
+package com.sow.benchmarks;
+
+import com.sow.simple.application.Application;
+import com.sow.simple.application.dto.CursorPage;
+import com.sow.simple.application.dto.LicenseResponse;
+import com.sow.simple.application.entity.LicenseStatus;
+import com.sow.simple.application.service.LicenseService;
+import com.sow.simple.application.util.KeysetCursor;
+import com.sow.simple.application.util.LicenseKeyFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LicenseService} reads through the full Spring context (repositories, Hibernate, connection pool)
+ * against an in-memory H2 database migrated by Flyway and seeded with structured license keys. The lookups
+ * pick their ids, keys and cursors from a fixed random sample so every measured call misses the first-level
+ * cache the way independent requests do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LicenseServiceBenchmark {
+    
+    private static final int SAMPLES = 4096;
+    private static final int CUSTOMERS = 5000;
+    private static final int BATCH_SIZE = 1000;
+    private static final String INSERT = "INSERT INTO licenses (id, license_key, product_name, customer_name, customer_email, " +
+            "issue_date, expiry_date, status, max_users, current_users, description, created_at, updated_at, created_by, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    
+    @Param({"10000", "100000"})
+    public int licenses;
+    
+    private ConfigurableApplicationContext context;
+    private LicenseService licenseService;
+    private final long[] ids = new long[SAMPLES];
+    private final String[] keys = new String[SAMPLES];
+    private final String[] cursors = new String[SAMPLES];
+    private final String[] customers = new String[SAMPLES];
+    private int next;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "spring.datasource.url=jdbc:h2:mem:license-bench-" + licenses + ";DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.format_sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.sow.simple.application=WARN",
+                        "logging.level.org.springframework.security=WARN",
+                        "security.password.bcrypt.min-strength=4",
+                        "security.password.bcrypt.max-strength=4",
+                        "licenses.certificate.key-dir=" + Files.createTempDirectory("license-bench-keys"),
+                        "licenses.audit.dir=" + Files.createTempDirectory("license-bench-audit"))
+                .run();
+        licenseService = context.getBean(LicenseService.class);
+        seed(context.getBean(JdbcTemplate.class));
+        
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            long id = random.nextLong(1, licenses + 1);
+            ids[i] = id;
+            keys[i] = licenseKey(id);
+            cursors[i] = new KeysetCursor(null, random.nextLong(1, licenses + 1)).encode();
+            customers[i] = "Customer " + random.nextInt(CUSTOMERS);
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public LicenseResponse getLicenseById() {
+        return licenseService.getLicenseById(ids[nextIndex()]);
+    }
+    
+    @Benchmark
+    public LicenseResponse getLicenseByKey() {
+        return licenseService.getLicenseByKey(keys[nextIndex()]);
+    }
+    
+    @Benchmark
+    public CursorPage<LicenseResponse> getAllLicensesFirstPage() {
+        return licenseService.getAllLicenses(null, 50);
+    }
+    
+    @Benchmark
+    public CursorPage<LicenseResponse> getAllLicensesFromCursor() {
+        return licenseService.getAllLicenses(cursors[nextIndex()], 50);
+    }
+    
+    @Benchmark
+    public CursorPage<LicenseResponse> getLicensesByCustomer() {
+        return licenseService.getLicensesByCustomer(customers[nextIndex()], null, 50);
+    }
+    
+    private int nextIndex() {
+        int i = next;
+        next = (i + 1) % SAMPLES;
+        return i;
+    }
+    
+    // Same distribution as the query-plan seed: 40 products, 5000 customers, a spread of statuses and dates
+    private void seed(JdbcTemplate jdbcTemplate) {
+        Long creator = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class);
+        LicenseStatus[] statuses = {LicenseStatus.ACTIVE, LicenseStatus.ACTIVE, LicenseStatus.ACTIVE,
+                LicenseStatus.EXPIRED, LicenseStatus.SUSPENDED, LicenseStatus.REVOKED};
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (long id = 1; id <= licenses; id++) {
+            LocalDate issued = LocalDate.of(2022, 1, 1).plusDays(id % 1500);
+            batch.add(new Object[]{id, licenseKey(id), "Product " + (id % 40), "Customer " + (id % CUSTOMERS),
+                    "customer" + id + "@example.com", Date.valueOf(issued), Date.valueOf(issued.plusDays(365 + id % 730)),
+                    statuses[(int) (id % statuses.length)].name(), 10, (int) (id % 10),
+                    id % 3 == 0 ? null : "Seat license for team " + (id % 97), now, now, creator});
+            if (batch.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, batch);
+        }
+    }
+    
+    // Deterministic per id, so the sampled keys can be recomputed instead of read back
+    private static String licenseKey(long id) {
+        return LicenseKeyFormat.format("LIC", id, id * 0x9E3779B97F4A7C15L >>> 9);
+    }
+}
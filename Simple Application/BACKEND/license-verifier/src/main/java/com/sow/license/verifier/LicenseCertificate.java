@@ -0,0 +1,42 @@
+package com.sow.license.verifier;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Verified contents of a license certificate. Only {@link LicenseVerifier#verify} creates these,
+ * so every field has been covered by a valid signature.
+ *
+ * @param expiresAt    end of the certificate's own validity; refresh it from the server before then
+ * @param refreshAfter when a client that can reach the server should fetch a fresh certificate
+ * @param maxUsers     null for licenses without a seat limit
+ */
+public record LicenseCertificate(String keyId,
+                                 String issuer,
+                                 long licenseId,
+                                 String licenseKey,
+                                 String productName,
+                                 String customerName,
+                                 String status,
+                                 LocalDate licenseExpiry,
+                                 Integer maxUsers,
+                                 Instant issuedAt,
+                                 Instant refreshAfter,
+                                 Instant expiresAt) {
+    
+    public static final String ACTIVE = "ACTIVE";
+    
+    // Usable right now: certificate still current, license ACTIVE and not past its expiry date (same rule as the server)
+    public boolean isValid(Clock clock) {
+        return isCurrent(clock) && ACTIVE.equals(status) && licenseExpiry.isAfter(LocalDate.now(clock));
+    }
+    
+    public boolean isCurrent(Clock clock) {
+        return clock.instant().isBefore(expiresAt);
+    }
+    
+    public boolean needsRefresh(Clock clock) {
+        return !clock.instant().isBefore(refreshAfter);
+    }
+}
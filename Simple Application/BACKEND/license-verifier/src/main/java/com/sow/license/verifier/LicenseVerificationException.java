@@ -0,0 +1,15 @@
+package com.sow.license.verifier;
+
+/**
+ * The certificate is malformed, signed by an unknown key, or its signature does not match.
+ */
+public class LicenseVerificationException extends Exception {
+    
+    public LicenseVerificationException(String message) {
+        super(message);
+    }
+    
+    public LicenseVerificationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,161 @@
+package com.sow.license.verifier;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verifies license certificates offline. A certificate is a JWS in compact form,
+ * {@code base64url(header).base64url(payload).base64url(signature)}, signed with Ed25519 ({@code alg: EdDSA});
+ * the header's {@code kid} picks the key from the server's published key set
+ * ({@code GET /api/v1/licenses/certificate-keys}, a JWKS of OKP keys). Load the key set once, keep a copy
+ * next to the cached certificate, and fetch it again only when a certificate names an unknown key.
+ * <pre>
+ * LicenseVerifier verifier = LicenseVerifier.fromKeySet(keySetJson);
+ * LicenseCertificate certificate = verifier.verify(certificateText);
+ * if (!certificate.isValid(Clock.systemDefaultZone())) { ... }
+ * </pre>
+ * Instances are immutable and thread-safe.
+ */
+public final class LicenseVerifier {
+    
+    public static final String ALGORITHM = "EdDSA";
+    
+    // DER prefix of an X.509 SubjectPublicKeyInfo for a raw 32-byte Ed25519 key (RFC 8410)
+    private static final byte[] ED25519_SPKI_PREFIX = {
+            0x30, 0x2a, 0x30, 0x05, 0x06, 0x03, 0x2b, 0x65, 0x70, 0x03, 0x21, 0x00
+    };
+    private static final int ED25519_KEY_LENGTH = 32;
+    private static final int MAX_CERTIFICATE_LENGTH = 16 * 1024;
+    
+    private final Map<String, PublicKey> keys;
+    
+    private LicenseVerifier(Map<String, PublicKey> keys) {
+        this.keys = Map.copyOf(keys);
+    }
+    
+    public static LicenseVerifier of(Map<String, PublicKey> keysById) {
+        return new LicenseVerifier(keysById);
+    }
+    
+    // Accepts the JSON served by the certificate-keys endpoint; keys of other types are ignored
+    public static LicenseVerifier fromKeySet(String keySetJson) throws LicenseVerificationException {
+        Map<String, PublicKey> keys = new LinkedHashMap<>();
+        try {
+            Object keyList = asObject(Json.parse(keySetJson)).get("keys");
+            if (!(keyList instanceof List<?> entries)) {
+                throw new LicenseVerificationException("Key set has no keys array");
+            }
+            for (Object entry : entries) {
+                Map<String, Object> jwk = asObject(entry);
+                if ("OKP".equals(jwk.get("kty")) && "Ed25519".equals(jwk.get("crv"))
+                        && jwk.get("kid") instanceof String kid && jwk.get("x") instanceof String x) {
+                    keys.put(kid, ed25519Key(Base64.getUrlDecoder().decode(x)));
+                }
+            }
+        } catch (IllegalArgumentException | GeneralSecurityException ex) {
+            throw new LicenseVerificationException("Invalid key set: " + ex.getMessage(), ex);
+        }
+        if (keys.isEmpty()) {
+            throw new LicenseVerificationException("Key set contains no Ed25519 keys");
+        }
+        return new LicenseVerifier(keys);
+    }
+    
+    public boolean knowsKey(String keyId) {
+        return keys.containsKey(keyId);
+    }
+    
+    public LicenseCertificate verify(String certificate) throws LicenseVerificationException {
+        if (certificate == null || certificate.length() > MAX_CERTIFICATE_LENGTH) {
+            throw new LicenseVerificationException("Missing or oversized certificate");
+        }
+        String trimmed = certificate.trim();
+        int first = trimmed.indexOf('.');
+        int second = trimmed.indexOf('.', first + 1);
+        if (first < 0 || second < 0 || trimmed.indexOf('.', second + 1) >= 0) {
+            throw new LicenseVerificationException("Certificate must have three dot-separated parts");
+        }
+        
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            Map<String, Object> header = asObject(Json.parse(
+                    new String(decoder.decode(trimmed.substring(0, first)), StandardCharsets.UTF_8)));
+            if (!ALGORITHM.equals(header.get("alg"))) {
+                throw new LicenseVerificationException("Unsupported algorithm: " + header.get("alg"));
+            }
+            String keyId = text(header, "kid");
+            PublicKey key = keys.get(keyId);
+            if (key == null) {
+                throw new LicenseVerificationException("Unknown signing key: " + keyId);
+            }
+            
+            Signature verifier = Signature.getInstance("Ed25519");
+            verifier.initVerify(key);
+            verifier.update(trimmed.substring(0, second).getBytes(StandardCharsets.US_ASCII));
+            if (!verifier.verify(decoder.decode(trimmed.substring(second + 1)))) {
+                throw new LicenseVerificationException("Signature does not match");
+            }
+            
+            // Only parsed once the signature is known to be good
+            Map<String, Object> claims = asObject(Json.parse(
+                    new String(decoder.decode(trimmed.substring(first + 1, second)), StandardCharsets.UTF_8)));
+            BigDecimal maxUsers = (BigDecimal) claims.get("max");
+            return new LicenseCertificate(keyId, (String) claims.get("iss"), number(claims, "lid").longValueExact(),
+                    text(claims, "sub"), text(claims, "prd"), text(claims, "cus"), text(claims, "sts"),
+                    LocalDate.parse(text(claims, "lexp")), maxUsers != null ? maxUsers.intValueExact() : null,
+                    instant(claims, "iat"), instant(claims, "rfa"), instant(claims, "exp"));
+        } catch (IllegalArgumentException | ClassCastException | ArithmeticException | DateTimeParseException ex) {
+            throw new LicenseVerificationException("Malformed certificate: " + ex.getMessage(), ex);
+        } catch (GeneralSecurityException ex) {
+            throw new LicenseVerificationException("Signature check failed: " + ex.getMessage(), ex);
+        }
+    }
+    
+    static PublicKey ed25519Key(byte[] raw) throws GeneralSecurityException {
+        if (raw.length != ED25519_KEY_LENGTH) {
+            throw new IllegalArgumentException("Ed25519 keys are 32 bytes");
+        }
+        byte[] encoded = new byte[ED25519_SPKI_PREFIX.length + raw.length];
+        System.arraycopy(ED25519_SPKI_PREFIX, 0, encoded, 0, ED25519_SPKI_PREFIX.length);
+        System.arraycopy(raw, 0, encoded, ED25519_SPKI_PREFIX.length, raw.length);
+        return KeyFactory.getInstance("Ed25519").generatePublic(new X509EncodedKeySpec(encoded));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asObject(Object value) {
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        return (Map<String, Object>) value;
+    }
+    
+    private static String text(Map<String, Object> claims, String name) {
+        if (!(claims.get(name) instanceof String value)) {
+            throw new IllegalArgumentException("Missing claim " + name);
+        }
+        return value;
+    }
+    
+    private static BigDecimal number(Map<String, Object> claims, String name) {
+        if (!(claims.get(name) instanceof BigDecimal value)) {
+            throw new IllegalArgumentException("Missing claim " + name);
+        }
+        return value;
+    }
+    
+    private static Instant instant(Map<String, Object> claims, String name) {
+        return Instant.ofEpochSecond(number(claims, name).longValueExact());
+    }
+}
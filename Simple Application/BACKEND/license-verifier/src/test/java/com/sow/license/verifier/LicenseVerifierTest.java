@@ -0,0 +1,127 @@
+package com.sow.license.verifier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LicenseVerifierTest {
+
+    private static final Instant ISSUED = Instant.parse("2026-01-01T00:00:00Z");
+    private static final String PAYLOAD = "{\"iss\":\"license-server\",\"lid\":42,\"sub\":\"LIC-00000-0Z800-3PZGX-5AE44\","
+            + "\"prd\":\"Software Pro\",\"cus\":\"Acme \\\"Corp\\\" \\u00e9\",\"sts\":\"ACTIVE\",\"lexp\":\"2026-06-30\","
+            + "\"max\":10,\"iat\":" + ISSUED.getEpochSecond() + ",\"rfa\":" + ISSUED.plusSeconds(3600).getEpochSecond()
+            + ",\"exp\":" + ISSUED.plusSeconds(7200).getEpochSecond() + "}";
+
+    private KeyPair keyPair;
+    private LicenseVerifier verifier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        verifier = LicenseVerifier.fromKeySet(keySet("k1", keyPair));
+    }
+
+    @Test
+    void verifiesSignedCertificate() throws Exception {
+        LicenseCertificate certificate = verifier.verify(sign("k1", keyPair.getPrivate(), PAYLOAD));
+
+        assertEquals("k1", certificate.keyId());
+        assertEquals(42L, certificate.licenseId());
+        assertEquals("LIC-00000-0Z800-3PZGX-5AE44", certificate.licenseKey());
+        assertEquals("Acme \"Corp\" é", certificate.customerName());
+        assertEquals(LocalDate.of(2026, 6, 30), certificate.licenseExpiry());
+        assertEquals(10, certificate.maxUsers());
+        assertEquals(ISSUED.plusSeconds(7200), certificate.expiresAt());
+    }
+
+    @Test
+    void validityFollowsCertificateAndLicenseExpiry() throws Exception {
+        LicenseCertificate certificate = verifier.verify(sign("k1", keyPair.getPrivate(), PAYLOAD));
+
+        assertTrue(certificate.isValid(at(ISSUED.plusSeconds(60))));
+        assertFalse(certificate.needsRefresh(at(ISSUED.plusSeconds(60))));
+        assertTrue(certificate.needsRefresh(at(ISSUED.plusSeconds(3600))));
+        assertFalse(certificate.isValid(at(ISSUED.plusSeconds(7200))));
+    }
+
+    @Test
+    void rejectsTamperedPayload() throws Exception {
+        String certificate = sign("k1", keyPair.getPrivate(), PAYLOAD);
+        String[] parts = certificate.split("\\.");
+        String forged = parts[0] + "." + encode(PAYLOAD.replace("\"max\":10", "\"max\":1000")) + "." + parts[2];
+
+        assertThrows(LicenseVerificationException.class, () -> verifier.verify(forged));
+    }
+
+    @Test
+    void rejectsUnknownKeyAndOtherAlgorithms() throws Exception {
+        KeyPair other = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+
+        assertThrows(LicenseVerificationException.class, () -> verifier.verify(sign("k2", other.getPrivate(), PAYLOAD)));
+        assertThrows(LicenseVerificationException.class, () -> verifier.verify(sign("k1", other.getPrivate(), PAYLOAD)));
+        String none = encode("{\"alg\":\"none\",\"kid\":\"k1\"}") + "." + encode(PAYLOAD) + ".";
+        assertThrows(LicenseVerificationException.class, () -> verifier.verify(none));
+    }
+
+    @Test
+    void acceptsAnyPublishedKeyDuringRotation() throws Exception {
+        KeyPair next = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        String keySet = "{\"keys\":[" + jwk("k1", keyPair) + "," + jwk("k2", next) + "]}";
+        LicenseVerifier rotated = LicenseVerifier.fromKeySet(keySet);
+
+        assertEquals("k1", rotated.verify(sign("k1", keyPair.getPrivate(), PAYLOAD)).keyId());
+        assertEquals("k2", rotated.verify(sign("k2", next.getPrivate(), PAYLOAD)).keyId());
+        assertNull(rotated.verify(sign("k2", next.getPrivate(), PAYLOAD.replace("\"max\":10", "\"max\":null"))).maxUsers());
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        assertThrows(LicenseVerificationException.class, () -> verifier.verify("not-a-certificate"));
+        assertThrows(LicenseVerificationException.class, () -> verifier.verify("a.b.c.d"));
+        assertThrows(LicenseVerificationException.class, () -> LicenseVerifier.fromKeySet("{\"keys\":[]}"));
+    }
+
+    private static String sign(String keyId, PrivateKey key, String payload) throws Exception {
+        String signingInput = encode("{\"alg\":\"EdDSA\",\"kid\":\"" + keyId + "\"}") + "." + encode(payload);
+        Signature signature = Signature.getInstance("Ed25519");
+        signature.initSign(key);
+        signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature.sign());
+    }
+
+    private static String keySet(String keyId, KeyPair keyPair) {
+        return "{\"keys\":[" + jwk(keyId, keyPair) + "]}";
+    }
+
+    private static String jwk(String keyId, KeyPair keyPair) {
+        byte[] encoded = keyPair.getPublic().getEncoded();
+        byte[] raw = Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length);
+        return "{\"kty\":\"OKP\",\"crv\":\"Ed25519\",\"kid\":\"" + keyId + "\",\"x\":\""
+                + Base64.getUrlEncoder().withoutPadding().encodeToString(raw) + "\"}";
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Clock at(Instant instant) {
+        return Clock.fixed(instant, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,147 @@
+package com.sow.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms (microseconds, 3 significant digits) and status counts per operation for one measured
+ * window. Latency runs from the request's scheduled send time, not the actual one, so a slow server is charged
+ * for the requests it delayed. The summary is written as JSON and compared against a stored baseline.
+ */
+public class LatencyReport {
+    
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_KEYS = {"p50", "p90", "p99", "p999"};
+    
+    private final Map<Operation, Endpoint> endpoints = new EnumMap<>(Operation.class);
+    
+    private record Endpoint(Histogram latencies, Map<Integer, LongAdder> statuses, LongAdder failures) {
+    }
+    
+    public LatencyReport(Iterable<Operation> operations) {
+        for (Operation operation : operations) {
+            endpoints.put(operation, new Endpoint(new ConcurrentHistogram(3), new ConcurrentHashMap<>(), new LongAdder()));
+        }
+    }
+    
+    // Only 2xx responses go into the histogram; everything else is counted by status
+    public void record(Operation operation, int status, long latencyNanos) {
+        Endpoint endpoint = endpoints.get(operation);
+        endpoint.statuses().computeIfAbsent(status, key -> new LongAdder()).increment();
+        if (status >= 200 && status < 300) {
+            endpoint.latencies().recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        }
+    }
+    
+    // No response at all (connection error or timeout)
+    public void recordFailure(Operation operation) {
+        endpoints.get(operation).failures().increment();
+    }
+    
+    public ObjectNode toJson(ObjectMapper objectMapper, Scenario scenario, double seconds, long scheduled, long maxDispatchLagMicros) {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("scenario", scenario.name());
+        root.put("ratePerSecond", scenario.ratePerSecond());
+        root.put("durationSeconds", seconds);
+        root.put("scheduled", scheduled);
+        root.put("maxDispatchLagMicros", maxDispatchLagMicros);
+        ObjectNode operations = root.putObject("operations");
+        endpoints.forEach((operation, endpoint) -> {
+            ObjectNode node = operations.putObject(operation.getName());
+            Histogram latencies = endpoint.latencies();
+            long total = endpoint.failures().sum() + endpoint.statuses().values().stream().mapToLong(LongAdder::sum).sum();
+            node.put("endpoint", operation.getEndpoint());
+            node.put("requests", total);
+            node.put("ok", latencies.getTotalCount());
+            node.put("errorRate", total == 0 ? 0 : (double) (total - latencies.getTotalCount()) / total);
+            node.put("throughput", latencies.getTotalCount() / seconds);
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                node.put(PERCENTILE_KEYS[i] + "Micros", latencies.getValueAtPercentile(PERCENTILES[i]));
+            }
+            node.put("maxMicros", latencies.getMaxValue());
+            ObjectNode statuses = node.putObject("statuses");
+            new TreeMap<>(endpoint.statuses()).forEach((status, count) -> statuses.put(String.valueOf(status), count.sum()));
+            node.put("failures", endpoint.failures().sum());
+        });
+        return root;
+    }
+    
+    // Full percentile distributions in milliseconds, loadable by the HdrHistogram plotter
+    public void writeHistograms(Path directory, String prefix) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<Operation, Endpoint> entry : endpoints.entrySet()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(
+                    directory.resolve(prefix + "-" + entry.getKey().getName() + ".hgrm")))) {
+                entry.getValue().latencies().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+    
+    public static void print(JsonNode result, PrintStream out) {
+        out.printf("%nScenario %s at %d req/s for %.0f s (%d requests scheduled, max dispatch lag %.1f ms)%n",
+                result.path("scenario").asText(), result.path("ratePerSecond").asInt(), result.path("durationSeconds").asDouble(),
+                result.path("scheduled").asLong(), result.path("maxDispatchLagMicros").asLong() / 1000.0);
+        out.printf("  %-30s %9s %8s %9s %9s %9s %9s %9s%n", "endpoint", "ok", "err %", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms");
+        result.path("operations").forEach(node -> out.printf("  %-30s %9d %8.2f %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                node.path("endpoint").asText(), node.path("ok").asLong(), node.path("errorRate").asDouble() * 100,
+                node.path("throughput").asDouble(), millis(node, "p50Micros"), millis(node, "p90Micros"),
+                millis(node, "p99Micros"), millis(node, "p999Micros")));
+    }
+    
+    /**
+     * Compares each operation's percentiles and error rate with the baseline and prints the ratios.
+     * Returns one line per regression: a percentile more than {@code tolerance} slower than the baseline,
+     * or an error rate more than half a percentage point higher.
+     */
+    public static List<String> compare(JsonNode current, JsonNode baseline, double tolerance, PrintStream out) {
+        List<String> regressions = new ArrayList<>();
+        out.printf("%nAgainst baseline (tolerance %.0f%%)%n", tolerance * 100);
+        out.printf("  %-20s %12s %12s %12s %12s %12s%n", "operation", "p50", "p90", "p99", "p99.9", "err % delta");
+        current.path("operations").properties().forEach(entry -> {
+            String operation = entry.getKey();
+            JsonNode now = entry.getValue();
+            JsonNode before = baseline.path("operations").path(operation);
+            if (before.isMissingNode()) {
+                out.printf("  %-20s %12s%n", operation, "(not in baseline)");
+                return;
+            }
+            StringBuilder row = new StringBuilder(String.format("  %-20s", operation));
+            for (String key : PERCENTILE_KEYS) {
+                double was = before.path(key + "Micros").asDouble();
+                double is = now.path(key + "Micros").asDouble();
+                double ratio = was > 0 ? is / was : 1;
+                row.append(String.format(" %11.2fx", ratio));
+                if (ratio > 1 + tolerance) {
+                    regressions.add(String.format("%s %s %.2f ms -> %.2f ms", operation, key, was / 1000, is / 1000));
+                }
+            }
+            double errorDelta = now.path("errorRate").asDouble() - before.path("errorRate").asDouble();
+            row.append(String.format(" %+12.2f", errorDelta * 100));
+            if (errorDelta > 0.005) {
+                regressions.add(String.format("%s error rate %+.2f%%", operation, errorDelta * 100));
+            }
+            out.println(row);
+        });
+        return regressions;
+    }
+    
+    private static double millis(JsonNode node, String field) {
+        return node.path(field).asLong() / 1000.0;
+    }
+}
@@ -0,0 +1,257 @@
+package com.sow.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sow.simple.application.util.KeysetCursor;
+import com.sow.simple.application.util.LicenseKeyFormat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the license API over HTTP. {@link #prepare} registers and logs in the scenario's synthetic users and
+ * seeds licenses through the bulk import; {@link #run} then sends the operation mix at a fixed arrival rate.
+ * The schedule is open: request {@code i} is due at {@code start + i / rate} whether or not earlier requests
+ * have completed, each is sent on its own virtual thread, and its latency is measured from the due time.
+ */
+public class LoadDriver {
+    
+    private static final String PASSWORD = "load-test-secret";
+    private static final int REGISTRATION_CONCURRENCY = 8;
+    private static final int IMPORT_CHUNK = 5000;
+    private static final int PAGE_SIZE = 50;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final String KEY_PREFIX = "LT";
+    // Serials of licenses created during the run, above those of the seeded ones
+    private static final long WRITE_SERIALS = 1L << 39;
+    
+    private final HttpClient client;
+    private final String baseUrl;
+    private final ObjectMapper objectMapper;
+    // Keeps users and license keys of repeated runs against one server apart
+    private final int runNumber = ThreadLocalRandom.current().nextInt(0x100000, 0x1000000);
+    private final String runId = Integer.toHexString(runNumber);
+    
+    private final List<String> userTokens = new ArrayList<>();
+    private final List<String> managerTokens = new ArrayList<>();
+    private final List<Long> ids = new ArrayList<>();
+    private final List<String> keys = new ArrayList<>();
+    private long createdCount;
+    
+    public record Phase(long scheduled, double seconds, long maxDispatchLagMicros) {
+    }
+    
+    public LoadDriver(String baseUrl, ObjectMapper objectMapper) {
+        this.baseUrl = baseUrl;
+        this.objectMapper = objectMapper;
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+    
+    public void prepare(Scenario scenario) throws Exception {
+        // Managers first: seeding needs one
+        managerTokens.addAll(signUp("m", scenario.managers(), "MANAGER"));
+        userTokens.addAll(signUp("u", scenario.users(), "USER"));
+        seed(scenario.seedLicenses());
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No licenses were seeded");
+        }
+    }
+    
+    public Phase run(Scenario scenario, int seconds, LatencyReport report) {
+        Map<Operation, Integer> weights = scenario.weights();
+        Operation[] operations = weights.keySet().toArray(Operation[]::new);
+        int[] cumulative = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulative[i] = total;
+        }
+        
+        SplittableRandom random = new SplittableRandom();
+        double nanosPerRequest = 1e9 / scenario.ratePerSecond();
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        long scheduled = 0;
+        long maxLag = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long due = start + (long) (i * nanosPerRequest);
+                if (due >= end) {
+                    break;
+                }
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                // How far the generator itself fell behind; large values mean the numbers are not trustworthy
+                maxLag = Math.max(maxLag, System.nanoTime() - due);
+                
+                int pick = random.nextInt(total);
+                int index = 0;
+                while (cumulative[index] <= pick) {
+                    index++;
+                }
+                Operation operation = operations[index];
+                HttpRequest request = request(operation, random);
+                executor.execute(() -> send(operation, request, due, report));
+                scheduled++;
+            }
+            // Closing the executor waits for the requests still in flight
+        }
+        return new Phase(scheduled, (end - start) / 1e9, TimeUnit.NANOSECONDS.toMicros(maxLag));
+    }
+    
+    private void send(Operation operation, HttpRequest request, long due, LatencyReport report) {
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (report != null) {
+                report.record(operation, response.statusCode(), System.nanoTime() - due);
+            }
+        } catch (IOException ex) {
+            if (report != null) {
+                report.recordFailure(operation);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private HttpRequest request(Operation operation, SplittableRandom random) {
+        List<String> tokens = operation.isWrite() ? managerTokens : userTokens;
+        HttpRequest.Builder builder = switch (operation) {
+            case LIST -> get("/licenses?size=" + PAGE_SIZE);
+            case LIST_FROM_CURSOR -> get("/licenses?size=" + PAGE_SIZE + "&cursor="
+                    + encode(new KeysetCursor(null, randomId(random)).encode()));
+            case GET_BY_ID -> get("/licenses/" + randomId(random));
+            case GET_BY_KEY -> get("/licenses/key/" + encode(keys.get(random.nextInt(keys.size()))));
+            case CREATE -> HttpRequest.newBuilder(uri("/licenses"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(licenseJson(licenseKey(WRITE_SERIALS + createdCount++))));
+            case UPDATE_STATUS -> HttpRequest.newBuilder(uri("/licenses/" + randomId(random) + "/status?status="
+                            + (random.nextBoolean() ? "ACTIVE" : "SUSPENDED")))
+                    .method("PATCH", HttpRequest.BodyPublishers.noBody());
+        };
+        return builder.header("Authorization", "Bearer " + tokens.get(random.nextInt(tokens.size())))
+                .header("Accept", "application/json")
+                .timeout(REQUEST_TIMEOUT)
+                .build();
+    }
+    
+    private List<String> signUp(String kind, int count, String role) throws Exception {
+        List<Future<String>> logins = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(REGISTRATION_CONCURRENCY)) {
+            for (int i = 0; i < count; i++) {
+                String username = "lt" + runId + kind + i;
+                logins.add(executor.submit(() -> {
+                    ObjectNode registration = objectMapper.createObjectNode()
+                            .put("username", username)
+                            .put("email", username + "@load.test")
+                            .put("password", PASSWORD)
+                            .put("firstName", "Load")
+                            .put("lastName", "Test")
+                            .put("role", role);
+                    post("/auth/register", "application/json", registration.toString(), null);
+                    ObjectNode login = objectMapper.createObjectNode().put("username", username).put("password", PASSWORD);
+                    return post("/auth/login", "application/json", login.toString(), null).path("token").asText();
+                }));
+            }
+            List<String> tokens = new ArrayList<>();
+            for (Future<String> login : logins) {
+                tokens.add(login.get());
+            }
+            return tokens;
+        }
+    }
+    
+    private void seed(int count) throws IOException, InterruptedException {
+        String token = managerTokens.get(0);
+        for (int from = 0; from < count; from += IMPORT_CHUNK) {
+            StringBuilder ndjson = new StringBuilder();
+            for (int n = from; n < Math.min(count, from + IMPORT_CHUNK); n++) {
+                ndjson.append(licenseJson(licenseKey(n))).append('\n');
+            }
+            JsonNode result = post("/licenses/bulk", "application/x-ndjson", ndjson.toString(), token);
+            for (JsonNode row : result.path("rows")) {
+                if (row.path("created").asBoolean()) {
+                    ids.add(row.path("id").asLong());
+                    keys.add(row.path("licenseKey").asText());
+                }
+            }
+        }
+    }
+    
+    // Structured keys, so the server accepts them whether or not it still takes legacy ones; the run number
+    // fills the random part, which keeps keys of repeated runs apart
+    private String licenseKey(long serial) {
+        return LicenseKeyFormat.format(KEY_PREFIX, serial, runNumber);
+    }
+    
+    // Same spread as the other seeds: 40 products, 5000 customers, issue and expiry dates over a few years
+    private String licenseJson(String licenseKey) {
+        int n = Math.abs(licenseKey.hashCode());
+        LocalDate issued = LocalDate.of(2024, 1, 1).plusDays(n % 700);
+        return objectMapper.createObjectNode()
+                .put("licenseKey", licenseKey)
+                .put("productName", "Product " + n % 40)
+                .put("customerName", "Customer " + n % 5000)
+                .put("customerEmail", "customer" + n % 5000 + "@load.test")
+                .put("issueDate", issued.toString())
+                .put("expiryDate", issued.plusDays(365 + n % 730).toString())
+                .put("status", "ACTIVE")
+                .put("maxUsers", 10)
+                .toString();
+    }
+    
+    private JsonNode post(String path, String contentType, String body, String token) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", contentType)
+                .header("Accept", "application/json")
+                .timeout(Duration.ofMinutes(5))
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        HttpResponse<String> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("POST " + path + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return objectMapper.readTree(response.body());
+    }
+    
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET();
+    }
+    
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+    
+    private long randomId(SplittableRandom random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+    
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
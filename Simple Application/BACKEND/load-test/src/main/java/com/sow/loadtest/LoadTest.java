@@ -0,0 +1,139 @@
+package com.sow.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sow.simple.application.Application;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load test entry point. Starts simple.application in this JVM on the h2 profile (or targets a running server
+ * with {@code --target}), prepares the scenario's users and data, runs the warmup and the measured window,
+ * then writes {@code <out>/<scenario>.json} plus one {@code .hgrm} distribution per operation and compares
+ * the run with {@code baselines/<scenario>.json}.
+ *
+ * <pre>
+ * --scenario=mixed            built-in name or path to a scenario JSON file
+ * --target=URL                API base URL of a running server, e.g. http://host:8080/api/v1
+ * --rate=N                    override the scenario's requests per second
+ * --out=DIR                   result directory (default target/load-test)
+ * --baseline=FILE             baseline to compare with (default baselines/&lt;scenario&gt;.json)
+ * --save-baseline             store this run as the baseline
+ * --tolerance=0.2             allowed percentile slowdown before a regression is reported
+ * --fail-on-regression        exit with status 1 on any regression
+ * </pre>
+ * Any other {@code --name=value} argument is passed to the in-process server, e.g.
+ * {@code --spring.profiles.include=virtual-threads}.
+ */
+public final class LoadTest {
+    
+    private static final List<String> OPTIONS = List.of("scenario", "target", "rate", "out", "baseline",
+            "save-baseline", "tolerance", "fail-on-regression");
+    
+    private LoadTest() {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> serverArgs = new ArrayList<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2).split("=", 2)[0] : arg;
+            if (OPTIONS.contains(option)) {
+                options.put(option, arg.contains("=") ? arg.substring(arg.indexOf('=') + 1) : "true");
+            } else {
+                serverArgs.add(arg);
+            }
+        }
+        
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Scenario scenario = Scenario.load(options.getOrDefault("scenario", "mixed"), objectMapper);
+        if (options.containsKey("rate")) {
+            scenario = new Scenario(scenario.name(), Integer.parseInt(options.get("rate")), scenario.warmupSeconds(),
+                    scenario.durationSeconds(), scenario.users(), scenario.managers(), scenario.seedLicenses(), scenario.mix());
+        }
+        
+        String baseUrl = options.get("target");
+        ConfigurableApplicationContext server = baseUrl == null ? startServer(serverArgs) : null;
+        int exitCode;
+        try {
+            if (server != null) {
+                baseUrl = "http://localhost:" + server.getEnvironment().getProperty("local.server.port") + "/api/v1";
+            }
+            exitCode = run(scenario, baseUrl, options, objectMapper);
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+        System.exit(exitCode);
+    }
+    
+    private static int run(Scenario scenario, String baseUrl, Map<String, String> options, ObjectMapper objectMapper)
+            throws Exception {
+        LoadDriver driver = new LoadDriver(baseUrl, objectMapper);
+        System.out.printf("Preparing %d users, %d managers and %d licenses at %s%n",
+                scenario.users(), scenario.managers(), scenario.seedLicenses(), baseUrl);
+        driver.prepare(scenario);
+        
+        System.out.printf("Warming up for %d s at %d req/s%n", scenario.warmupSeconds(), scenario.ratePerSecond());
+        driver.run(scenario, scenario.warmupSeconds(), null);
+        System.out.printf("Measuring for %d s at %d req/s%n", scenario.durationSeconds(), scenario.ratePerSecond());
+        LatencyReport report = new LatencyReport(scenario.weights().keySet());
+        LoadDriver.Phase phase = driver.run(scenario, scenario.durationSeconds(), report);
+        
+        Path out = Path.of(options.getOrDefault("out", "target/load-test"));
+        report.writeHistograms(out, scenario.name());
+        ObjectNode result = report.toJson(objectMapper, scenario, phase.seconds(), phase.scheduled(), phase.maxDispatchLagMicros());
+        Path resultFile = out.resolve(scenario.name() + ".json");
+        objectMapper.writeValue(resultFile.toFile(), result);
+        LatencyReport.print(result, System.out);
+        System.out.printf("Results written to %s%n", resultFile.toAbsolutePath());
+        
+        Path baseline = Path.of(options.getOrDefault("baseline", "baselines/" + scenario.name() + ".json"));
+        if (options.containsKey("save-baseline")) {
+            Files.createDirectories(baseline.toAbsolutePath().getParent());
+            objectMapper.writeValue(baseline.toFile(), result);
+            System.out.printf("Saved as baseline %s%n", baseline.toAbsolutePath());
+            return 0;
+        }
+        if (!Files.isRegularFile(baseline)) {
+            System.out.printf("No baseline at %s; run with --save-baseline to create one%n", baseline.toAbsolutePath());
+            return 0;
+        }
+        JsonNode stored = objectMapper.readTree(baseline.toFile());
+        if (stored.path("ratePerSecond").asInt() != scenario.ratePerSecond()) {
+            System.out.printf("Warning: baseline was recorded at %d req/s%n", stored.path("ratePerSecond").asInt());
+        }
+        double tolerance = Double.parseDouble(options.getOrDefault("tolerance", "0.2"));
+        List<String> regressions = LatencyReport.compare(result, stored, tolerance, System.out);
+        if (regressions.isEmpty()) {
+            System.out.println("No regressions against the baseline");
+            return 0;
+        }
+        System.out.println("Regressions:");
+        regressions.forEach(regression -> System.out.println("  " + regression));
+        return options.containsKey("fail-on-regression") ? 1 : 0;
+    }
+    
+    private static ConfigurableApplicationContext startServer(List<String> serverArgs) throws Exception {
+        return new SpringApplicationBuilder(Application.class)
+                .profiles("h2")
+                .properties(
+                        "server.port=0",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.com.sow.simple.application=WARN",
+                        "logging.level.org.springframework.security=WARN",
+                        "licenses.certificate.key-dir=" + Files.createTempDirectory("load-test-keys"),
+                        "licenses.audit.dir=" + Files.createTempDirectory("load-test-audit"))
+                .run(serverArgs.toArray(String[]::new));
+    }
+}
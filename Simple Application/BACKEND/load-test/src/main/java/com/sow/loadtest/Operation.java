@@ -0,0 +1,45 @@
+package com.sow.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * The requests a scenario can mix. Reads are sent with a USER token, writes with a MANAGER token.
+ */
+public enum Operation {
+    LIST("list", "GET /licenses", false),
+    LIST_FROM_CURSOR("list-from-cursor", "GET /licenses?cursor", false),
+    GET_BY_ID("get-by-id", "GET /licenses/{id}", false),
+    GET_BY_KEY("get-by-key", "GET /licenses/key/{key}", false),
+    CREATE("create", "POST /licenses", true),
+    UPDATE_STATUS("update-status", "PATCH /licenses/{id}/status", true);
+    
+    private final String name;
+    private final String endpoint;
+    private final boolean write;
+    
+    Operation(String name, String endpoint, boolean write) {
+        this.name = name;
+        this.endpoint = endpoint;
+        this.write = write;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getEndpoint() {
+        return endpoint;
+    }
+    
+    public boolean isWrite() {
+        return write;
+    }
+    
+    public static Operation byName(String name) {
+        return Arrays.stream(values())
+                .filter(operation -> operation.name.equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown operation " + name + ", expected one of "
+                        + Arrays.stream(values()).map(Operation::getName).toList()));
+    }
+}
@@ -0,0 +1,60 @@
+package com.sow.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A load profile: a fixed arrival rate held for a warmup and a measured window, the synthetic users it
+ * needs, the licenses seeded before it starts, and the operation mix as relative weights keyed by
+ * {@link Operation} name. Loaded from {@code scenarios/<name>.json} on the classpath or from a file path.
+ */
+public record Scenario(String name,
+                       int ratePerSecond,
+                       int warmupSeconds,
+                       int durationSeconds,
+                       int users,
+                       int managers,
+                       int seedLicenses,
+                       Map<String, Integer> mix) {
+    
+    public Scenario {
+        if (ratePerSecond <= 0 || durationSeconds <= 0) {
+            throw new IllegalArgumentException("Scenario " + name + " needs a positive rate and duration");
+        }
+        if (users <= 0 || managers <= 0) {
+            throw new IllegalArgumentException("Scenario " + name + " needs at least one user and one manager");
+        }
+        if (mix == null || mix.isEmpty()) {
+            throw new IllegalArgumentException("Scenario " + name + " has an empty operation mix");
+        }
+    }
+    
+    public static Scenario load(String nameOrPath, ObjectMapper objectMapper) throws IOException {
+        Path file = Path.of(nameOrPath);
+        if (Files.isRegularFile(file)) {
+            return objectMapper.readValue(file.toFile(), Scenario.class);
+        }
+        try (InputStream in = Scenario.class.getResourceAsStream("/scenarios/" + nameOrPath + ".json")) {
+            if (in == null) {
+                throw new IllegalArgumentException("No scenario file or built-in scenario named " + nameOrPath);
+            }
+            return objectMapper.readValue(in, Scenario.class);
+        }
+    }
+    
+    public Map<Operation, Integer> weights() {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        mix.forEach((operation, weight) -> {
+            if (weight > 0) {
+                weights.put(Operation.byName(operation), weight);
+            }
+        });
+        return weights;
+    }
+}
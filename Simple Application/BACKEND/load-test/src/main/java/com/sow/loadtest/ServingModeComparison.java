@@ -0,0 +1,198 @@
+package com.sow.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sow.simple.application.Application;
+import com.sow.simple.application.config.VirtualThreadPinningMonitor;
+import com.sow.simple.application.util.LicenseKeyFormat;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.LongStream;
+
+/**
+ * Throughput and latency of {@code GET /licenses} and {@code POST /auth/login} with the default platform-thread
+ * Tomcat pool and with the virtual-threads profile, against the same seeded PostgreSQL (Testcontainers, so Docker
+ * is needed) and the same JDBC pool size. Many more concurrent clients than Tomcat's 200 platform workers are used,
+ * so the platform run queues requests where the virtual-thread run waits on the connection pool instead.
+ * Unlike {@link LoadTest} the load is a closed loop: each client sends its next request when the previous one
+ * completes.
+ *
+ * <pre>
+ * java -cp target/load-test.jar com.sow.loadtest.ServingModeComparison
+ * </pre>
+ */
+public final class ServingModeComparison {
+    
+    private static final int LICENSES = 20000;
+    private static final int CLIENTS = 400;
+    private static final int POOL_SIZE = 20;
+    private static final Duration WARMUP = Duration.ofSeconds(10);
+    private static final Duration MEASURED = Duration.ofSeconds(30);
+    private static final String KEY_PREFIX = "VT";
+    private static final String LOGIN_BODY = "{\"username\":\"user\",\"password\":\"user123\"}";
+    
+    private record Result(Histogram latencies, long failures, double seconds) {
+        
+        double throughput() {
+            return latencies.getTotalCount() / seconds;
+        }
+    }
+    
+    private ServingModeComparison() {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, Result> results = new LinkedHashMap<>();
+        long pinned = 0;
+        try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")) {
+            postgres.start();
+            for (boolean virtual : new boolean[]{false, true}) {
+                String mode = virtual ? "virtual" : "platform";
+                System.out.printf("Measuring %s threads%n", mode);
+                try (ConfigurableApplicationContext context = start(postgres, virtual)) {
+                    seed(context.getBean(JdbcTemplate.class));
+                    String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/v1";
+                    HttpClient client = HttpClient.newBuilder()
+                            .executor(Executors.newVirtualThreadPerTaskExecutor())
+                            .connectTimeout(Duration.ofSeconds(10))
+                            .build();
+                    
+                    HttpRequest login = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(LOGIN_BODY))
+                            .build();
+                    HttpRequest list = HttpRequest.newBuilder(URI.create(baseUrl + "/licenses?size=50"))
+                            .header("Authorization", "Bearer " + token(client, login))
+                            .GET()
+                            .build();
+                    
+                    results.put(mode + " GET /licenses", drive(client, list));
+                    results.put(mode + " POST /auth/login", drive(client, login));
+                    if (virtual) {
+                        pinned = context.getBean(VirtualThreadPinningMonitor.class).pinnedCount();
+                    }
+                }
+            }
+        }
+        
+        System.out.printf("%n%d clients, JDBC pool %d, %d s measured per endpoint%n", CLIENTS, POOL_SIZE, MEASURED.toSeconds());
+        System.out.printf("  %-28s %10s %10s %10s %10s %9s%n", "mode / endpoint", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "failed");
+        results.forEach((name, result) -> System.out.printf("  %-28s %10.0f %10.2f %10.2f %10.2f %9d%n",
+                name, result.throughput(), millis(result.latencies(), 50), millis(result.latencies(), 99),
+                millis(result.latencies(), 99.9), result.failures()));
+        System.out.printf("  pinned virtual threads: %d%n", pinned);
+        
+        boolean idle = results.values().stream().anyMatch(result -> result.latencies().getTotalCount() == 0);
+        System.exit(idle ? 1 : 0);
+    }
+    
+    private static ConfigurableApplicationContext start(PostgreSQLContainer<?> postgres, boolean virtual) throws Exception {
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "spring.datasource.url=" + postgres.getJdbcUrl(),
+                "spring.datasource.username=" + postgres.getUsername(),
+                "spring.datasource.password=" + postgres.getPassword(),
+                "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                "spring.jpa.show-sql=false",
+                "logging.level.com.sow.simple.application=WARN",
+                "logging.level.org.springframework.security=WARN",
+                // Cheap hashes keep login about request handling rather than BCrypt cost
+                "security.password.bcrypt.min-strength=4",
+                "security.password.bcrypt.max-strength=4",
+                "security.password.hashing.queue-capacity=" + CLIENTS,
+                "licenses.certificate.key-dir=" + Files.createTempDirectory("serving-mode-keys"),
+                "licenses.audit.dir=" + Files.createTempDirectory("serving-mode-audit")));
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(Application.class)
+                .properties(properties.toArray(String[]::new));
+        if (virtual) {
+            builder.profiles("virtual-threads");
+        }
+        return builder.run();
+    }
+    
+    // Both runs share the container, so the second one finds the licenses already there
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM licenses", Integer.class);
+        if (existing != null && existing > 0) {
+            return;
+        }
+        Long owner = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class);
+        List<Object[]> rows = LongStream.rangeClosed(1, LICENSES)
+                .mapToObj(n -> new Object[]{n, LicenseKeyFormat.format(KEY_PREFIX, n, 0), "Product " + (n % 40),
+                        "Customer " + (n % 5000), "customer" + n + "@example.com", owner})
+                .toList();
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO licenses (id, license_key, product_name, customer_name, customer_email, issue_date, expiry_date,
+                                      status, max_users, current_users, created_at, updated_at, created_by)
+                VALUES (?, ?, ?, ?, ?, CURRENT_DATE - 30, CURRENT_DATE + 365, 'ACTIVE', 10, 0, now(), now(), ?)
+                """, rows);
+        jdbcTemplate.execute("ANALYZE licenses");
+    }
+    
+    private static String token(HttpClient client, HttpRequest login) throws Exception {
+        HttpResponse<String> response = client.send(login, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed with " + response.statusCode() + ": " + response.body());
+        }
+        return new ObjectMapper().readTree(response.body()).get("token").asText();
+    }
+    
+    private static Result drive(HttpClient client, HttpRequest request) {
+        run(client, request, WARMUP, new ConcurrentHistogram(3), new LongAdder());
+        Histogram latencies = new ConcurrentHistogram(3);
+        LongAdder failures = new LongAdder();
+        long start = System.nanoTime();
+        run(client, request, MEASURED, latencies, failures);
+        return new Result(latencies, failures.sum(), (System.nanoTime() - start) / 1e9);
+    }
+    
+    // Latencies in microseconds; only 200 responses are recorded, everything else counts as a failure
+    private static void run(HttpClient client, HttpRequest request, Duration duration, Histogram latencies, LongAdder failures) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTS; i++) {
+                executor.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200) {
+                                latencies.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent)));
+                            } else {
+                                failures.increment();
+                            }
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } catch (Exception ex) {
+                            failures.increment();
+                        }
+                    }
+                });
+            }
+            // Closing the executor waits for every client to reach the deadline
+        }
+    }
+    
+    private static double millis(Histogram latencies, double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,139 @@
+package com.sow.simple.application.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Hooks the application {@link DataSource} into {@link RequestStatistics}, so every statement is counted whether
+ * Hibernate or a JdbcTemplate runs it: connection acquisition (which includes the pool wait), statement
+ * preparation, single executions and JDBC batches are timed on the connections and statements it hands out.
+ * Like {@link HibernateRequestStatistics} it only adds to the current request's statistics and does nothing on
+ * threads without one.
+ */
+@Component
+public class DataSourceRequestStatistics implements BeanPostProcessor {
+    
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)) {
+            return new CountingDataSource(dataSource);
+        }
+        return bean;
+    }
+    
+    static class CountingDataSource extends DelegatingDataSource {
+        
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+        
+        @Override
+        public Connection getConnection() throws SQLException {
+            long start = System.nanoTime();
+            Connection connection = super.getConnection();
+            return acquired(connection, start);
+        }
+        
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            long start = System.nanoTime();
+            Connection connection = super.getConnection(username, password);
+            return acquired(connection, start);
+        }
+        
+        private static Connection acquired(Connection connection, long start) {
+            RequestStatistics statistics = RequestStatistics.current();
+            if (statistics != null) {
+                statistics.connectionAcquireNanos += System.nanoTime() - start;
+            }
+            return proxy(Connection.class, new ConnectionHandler(connection));
+        }
+    }
+    
+    private record ConnectionHandler(Connection target) implements InvocationHandler {
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals") || name.equals("hashCode")) {
+                return identity(proxy, method, args);
+            }
+            if (name.equals("createStatement")) {
+                Statement statement = (Statement) call(target, method, args);
+                return proxy(Statement.class, new StatementHandler(statement));
+            }
+            if (!name.equals("prepareStatement") && !name.equals("prepareCall")) {
+                return call(target, method, args);
+            }
+            long start = System.nanoTime();
+            Statement statement = (Statement) call(target, method, args);
+            RequestStatistics statistics = RequestStatistics.current();
+            if (statistics != null) {
+                statistics.prepares++;
+                statistics.prepareNanos += System.nanoTime() - start;
+            }
+            Class<? extends Statement> type = name.equals("prepareCall") ? CallableStatement.class : PreparedStatement.class;
+            return proxy(type, new StatementHandler(statement));
+        }
+    }
+    
+    private record StatementHandler(Statement target) implements InvocationHandler {
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals") || name.equals("hashCode")) {
+                return identity(proxy, method, args);
+            }
+            if (!name.startsWith("execute")) {
+                return call(target, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return call(target, method, args);
+            } finally {
+                RequestStatistics statistics = RequestStatistics.current();
+                if (statistics != null) {
+                    long nanos = System.nanoTime() - start;
+                    if (name.equals("executeBatch") || name.equals("executeLargeBatch")) {
+                        statistics.batches++;
+                        statistics.batchNanos += nanos;
+                    } else {
+                        statistics.statements++;
+                        statistics.statementNanos += nanos;
+                    }
+                }
+            }
+        }
+    }
+    
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(DataSourceRequestStatistics.class.getClassLoader(),
+                new Class<?>[]{type}, handler));
+    }
+    
+    // Spring compares connections by identity (transaction synchronization), so a proxy is only equal to itself
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return method.getName().equals("equals") ? proxy == args[0] : System.identityHashCode(proxy);
+    }
+    
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+}
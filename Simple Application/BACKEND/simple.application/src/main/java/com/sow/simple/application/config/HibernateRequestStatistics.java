@@ -0,0 +1,71 @@
+package com.sow.simple.application.config;
+
+import org.hibernate.Interceptor;
+import org.hibernate.SessionEventListener;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.type.Type;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Hooks Hibernate into {@link RequestStatistics}: a session event listener added to every session times flushes
+ * and counts second-level cache gets, and an interceptor counts entity loads. Statements and connections are
+ * counted by {@link DataSourceRequestStatistics}, which also sees JdbcTemplate work. Both only add to the current
+ * request's statistics and do nothing on threads without one.
+ */
+@Component
+public class HibernateRequestStatistics implements HibernatePropertiesCustomizer {
+    
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SessionListener.class.getName());
+        hibernateProperties.put(AvailableSettings.INTERCEPTOR, new LoadInterceptor());
+    }
+    
+    // Instantiated by Hibernate for each session, so the start time needs no synchronization
+    public static class SessionListener implements SessionEventListener {
+        
+        private long flushStart;
+        
+        @Override
+        public void cacheGetEnd(boolean hit) {
+            RequestStatistics statistics = RequestStatistics.current();
+            if (statistics != null) {
+                if (hit) {
+                    statistics.cacheHits++;
+                } else {
+                    statistics.cacheMisses++;
+                }
+            }
+        }
+        
+        @Override
+        public void flushStart() {
+            flushStart = System.nanoTime();
+        }
+        
+        @Override
+        public void flushEnd(int numberOfEntities, int numberOfCollections) {
+            RequestStatistics statistics = RequestStatistics.current();
+            if (statistics != null) {
+                statistics.flushes++;
+                statistics.flushNanos += System.nanoTime() - flushStart;
+            }
+        }
+    }
+    
+    // Shared by all sessions; stateless
+    public static class LoadInterceptor implements Interceptor {
+        
+        @Override
+        public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+            RequestStatistics statistics = RequestStatistics.current();
+            if (statistics != null) {
+                statistics.entityLoads++;
+            }
+            return false;
+        }
+    }
+}
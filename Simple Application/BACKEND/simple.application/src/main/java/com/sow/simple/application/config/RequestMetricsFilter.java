@@ -0,0 +1,113 @@
+package com.sow.simple.application.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-endpoint database cost of each request: SQL statements and their time, connection acquisition (pool
+ * wait) and entity loads, tagged like {@code http.server.requests} by method and URI pattern. Runs outermost,
+ * so authentication is inside the measured time. A sample of requests slower than the threshold is logged
+ * with the breakdown.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+    
+    private final MeterRegistry meterRegistry;
+    private final long slowThresholdNanos;
+    private final double slowSampleRate;
+    
+    public RequestMetricsFilter(MeterRegistry meterRegistry,
+                                @Value("${diagnostics.requests.slow-threshold:500ms}") Duration slowThreshold,
+                                @Value("${diagnostics.requests.slow-sample-rate:0.1}") double slowSampleRate) {
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.slowSampleRate = slowSampleRate;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestStatistics statistics = RequestStatistics.begin();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestStatistics.end();
+            // Streaming exports finish on another thread; their database work is not seen here
+            if (!request.isAsyncStarted()) {
+                record(request, response, statistics, System.nanoTime() - start);
+            }
+        }
+    }
+    
+    private void record(HttpServletRequest request, HttpServletResponse response, RequestStatistics statistics, long nanos) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+        
+        DistributionSummary.builder("request.sql.statements")
+                .description("SQL statements and JDBC batches executed per request")
+                .tags("method", method, "uri", uri)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(statistics.sqlCount());
+        Timer.builder("request.sql.duration")
+                .description("Time spent preparing and executing SQL per request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(statistics.sqlNanos(), TimeUnit.NANOSECONDS);
+        Timer.builder("request.jdbc.connection.acquire")
+                .description("Time spent waiting for pooled connections per request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(statistics.connectionAcquireNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("request.entity.loads")
+                .description("Entities loaded by Hibernate per request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(statistics.entityLoads);
+        if (statistics.cacheHits > 0) {
+            Counter.builder("request.cache.gets").tags("method", method, "uri", uri, "result", "hit")
+                    .register(meterRegistry).increment(statistics.cacheHits);
+        }
+        if (statistics.cacheMisses > 0) {
+            Counter.builder("request.cache.gets").tags("method", method, "uri", uri, "result", "miss")
+                    .register(meterRegistry).increment(statistics.cacheMisses);
+        }
+        
+        if (nanos >= slowThresholdNanos && ThreadLocalRandom.current().nextDouble() < slowSampleRate) {
+            // Flush time already includes the statements it executed
+            long databaseNanos = statistics.sqlNanos() + statistics.connectionAcquireNanos;
+            log.warn("Slow request {} {} ({}) -> {} in {} ms: {} SQL in {} ms ({} prepared, {} batches), "
+                            + "connection wait {} ms, {} flushes in {} ms, {} entities loaded, {} ms outside the database",
+                    method, request.getRequestURI(), uri, response.getStatus(), millis(nanos),
+                    statistics.sqlCount(), millis(statistics.sqlNanos()), statistics.prepares, statistics.batches,
+                    millis(statistics.connectionAcquireNanos), statistics.flushes, millis(statistics.flushNanos),
+                    statistics.entityLoads, millis(Math.max(0, nanos - databaseNanos)));
+        }
+    }
+    
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
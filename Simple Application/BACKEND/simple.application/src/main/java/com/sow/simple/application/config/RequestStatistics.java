@@ -0,0 +1,50 @@
+package com.sow.simple.application.config;
+
+/**
+ * Database work done on behalf of one HTTP request: {@link DataSourceRequestStatistics} fills in the connections
+ * acquired and statements prepared and run on the request thread, {@link HibernateRequestStatistics} the flushes,
+ * entity loads and cache gets.
+ * {@link RequestMetricsFilter} opens it for the request and reads it once the response is written; work done on
+ * other threads (async handlers, background jobs) is not attributed to any request.
+ */
+public class RequestStatistics {
+    
+    private static final ThreadLocal<RequestStatistics> CURRENT = new ThreadLocal<>();
+    
+    long statements;
+    long statementNanos;
+    long prepares;
+    long prepareNanos;
+    long batches;
+    long batchNanos;
+    long connectionAcquireNanos;
+    long flushes;
+    long flushNanos;
+    long entityLoads;
+    long cacheHits;
+    long cacheMisses;
+    
+    static RequestStatistics begin() {
+        RequestStatistics statistics = new RequestStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+    
+    static void end() {
+        CURRENT.remove();
+    }
+    
+    // Null outside a request
+    static RequestStatistics current() {
+        return CURRENT.get();
+    }
+    
+    // Statements executed one by one plus JDBC batches
+    long sqlCount() {
+        return statements + batches;
+    }
+    
+    long sqlNanos() {
+        return statementNanos + prepareNanos + batchNanos;
+    }
+}
@@ -0,0 +1,113 @@
+package com.sow.simple.application.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier (inside a {@code synchronized} block or
+ * a native frame), which turns a virtual thread back into a platform thread for that long. Listens to the
+ * JDK's {@code jdk.VirtualThreadPinned} JFR event in-process and records a counter and timer per location,
+ * the location being the innermost application frame. The first event at a location is logged with its stack.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "diagnostics.pinning.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+    
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "com.sow.";
+    private static final String OTHER_LOCATION = "other";
+    
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private final int maxLocations;
+    private final int stackDepth;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    
+    private RecordingStream stream;
+    
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${diagnostics.pinning.threshold:20ms}") Duration threshold,
+                                       @Value("${diagnostics.pinning.max-locations:50}") int maxLocations,
+                                       @Value("${diagnostics.pinning.stack-depth:16}") int stackDepth) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+        this.maxLocations = maxLocations;
+        this.stackDepth = stackDepth;
+    }
+    
+    @PostConstruct
+    void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::record);
+        stream.startAsync();
+        log.info("Virtual thread pinning monitor started (threshold {} ms)", threshold.toMillis());
+    }
+    
+    @PreDestroy
+    void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+    
+    public long pinnedCount() {
+        return timers.values().stream().mapToLong(Timer::count).sum();
+    }
+    
+    private void record(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() != null ? event.getStackTrace().getFrames() : List.of();
+        String location = frames.stream()
+                .filter(frame -> frame.isJavaFrame() && frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE))
+                .findFirst()
+                .map(VirtualThreadPinningMonitor::describe)
+                .orElse(OTHER_LOCATION);
+        // Bound the tag cardinality; anything past the cap is counted under "other"
+        if (!timers.containsKey(location) && timers.size() >= maxLocations) {
+            location = OTHER_LOCATION;
+        }
+        boolean first = !timers.containsKey(location);
+        Timer timer = timers.computeIfAbsent(location, key -> Timer.builder("jvm.threads.virtual.pinned")
+                .description("Time virtual threads spent blocked while pinned to their carrier thread")
+                .tag("location", key)
+                .register(meterRegistry));
+        timer.record(event.getDuration());
+        if (first) {
+            log.warn("Virtual thread pinned for {} ms at {}:\n{}",
+                    event.getDuration().toMillis(), location, stack(event.getStackTrace()));
+        }
+    }
+    
+    private static String describe(RecordedFrame frame) {
+        String type = frame.getMethod().getType().getName();
+        return type.substring(type.lastIndexOf('.') + 1) + "." + frame.getMethod().getName();
+    }
+    
+    private String stack(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "\t(no stack trace)";
+        }
+        return stackTrace.getFrames().stream()
+                .limit(stackDepth)
+                .map(frame -> "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + (frame.getLineNumber() > 0 ? ":" + frame.getLineNumber() : ""))
+                .collect(Collectors.joining("\n"));
+    }
+}
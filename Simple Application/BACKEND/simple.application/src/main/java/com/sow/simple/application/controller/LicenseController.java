@@ -1,16 +1,58 @@
 package com.sow.simple.application.controller;
 
+import com.sow.simple.application.dto.AuditEntry;
+import com.sow.simple.application.dto.BulkImportResult;
+import com.sow.simple.application.dto.BulkLicenseRequest;
+import com.sow.simple.application.dto.BulkOperationStatus;
+import com.sow.simple.application.dto.CursorPage;
+import com.sow.simple.application.dto.ExportFormat;
+import com.sow.simple.application.dto.LicenseCertificateResponse;
+import com.sow.simple.application.dto.LicenseFilter;
 import com.sow.simple.application.dto.LicenseRequest;
-import com.sow.simple.application.entity.License;
+import com.sow.simple.application.dto.LicenseResponse;
+import com.sow.simple.application.dto.LicenseStatsResponse;
+import com.sow.simple.application.dto.LicenseValidationResponse;
+import com.sow.simple.application.dto.SeatLeaseResponse;
 import com.sow.simple.application.entity.LicenseStatus;
+import com.sow.simple.application.exception.ServiceUnavailableException;
+import com.sow.simple.application.service.LicenseAuditService;
+import com.sow.simple.application.service.LicenseBulkService;
+import com.sow.simple.application.service.LicenseCertificateService;
+import com.sow.simple.application.service.LicenseChangeFeed;
+import com.sow.simple.application.service.LicenseChangeCounter;
+import com.sow.simple.application.service.LicenseExportService;
+import com.sow.simple.application.service.LicenseImportService;
+import com.sow.simple.application.service.LicenseSearchService;
+import com.sow.simple.application.service.LicenseSeatService;
 import com.sow.simple.application.service.LicenseService;
+import com.sow.simple.application.service.LicenseStatsService;
+import com.sow.simple.application.service.LicenseValidationService;
+import com.sow.simple.application.util.ETags;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/licenses")
@@ -18,76 +60,278 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class LicenseController {
     
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+    
     private final LicenseService licenseService;
+    private final LicenseExportService licenseExportService;
+    private final LicenseImportService licenseImportService;
+    private final LicenseValidationService licenseValidationService;
+    private final LicenseSearchService licenseSearchService;
+    private final LicenseStatsService licenseStatsService;
+    private final LicenseSeatService licenseSeatService;
+    private final LicenseCertificateService licenseCertificateService;
+    private final LicenseChangeCounter licenseChangeCounter;
+    private final LicenseBulkService licenseBulkService;
+    private final LicenseAuditService licenseAuditService;
+    private final LicenseChangeFeed licenseChangeFeed;
     
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<License> createLicense(@Valid @RequestBody LicenseRequest request) {
-        License license = licenseService.createLicense(request);
-        return ResponseEntity.ok(license);
+    public ResponseEntity<LicenseResponse> createLicense(@Valid @RequestBody LicenseRequest request) {
+        LicenseResponse license = licenseService.createLicense(request);
+        return ResponseEntity.ok().eTag(eTag(license)).body(license);
+    }
+    
+    @PostMapping(value = "/bulk", consumes = {"application/x-ndjson", "text/csv"})
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<BulkImportResult> importLicenses(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                           InputStream body) throws IOException {
+        ExportFormat format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? ExportFormat.CSV : ExportFormat.NDJSON;
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        BulkImportResult result = licenseImportService.importLicenses(body, format, username);
+        return ResponseEntity.ok(result);
+    }
+    
+    @PostMapping(value = "/bulk/status", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<BulkOperationStatus> bulkChangeStatus(@RequestBody BulkLicenseRequest request) {
+        return accepted(licenseBulkService.changeStatus(request));
+    }
+    
+    @PostMapping(value = "/bulk/extend-expiry", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<BulkOperationStatus> bulkExtendExpiry(@RequestBody BulkLicenseRequest request) {
+        return accepted(licenseBulkService.extendExpiry(request));
+    }
+    
+    @PostMapping(value = "/bulk/delete", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkOperationStatus> bulkDelete(@RequestBody BulkLicenseRequest request) {
+        return accepted(licenseBulkService.delete(request));
+    }
+    
+    @GetMapping("/bulk/jobs/{jobId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<BulkOperationStatus> getBulkJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(licenseBulkService.getJob(jobId));
     }
     
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'USER')")
-    public ResponseEntity<List<License>> getAllLicenses() {
-        List<License> licenses = licenseService.getAllLicenses();
-        return ResponseEntity.ok(licenses);
+    public ResponseEntity<CursorPage<LicenseResponse>> getAllLicenses(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer size,
+                                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return collection(ifNoneMatch, () -> licenseService.getAllLicenses(cursor, size));
+    }
+    
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'USER')")
+    public ResponseEntity<List<LicenseResponse>> searchLicenses(@RequestParam String q,
+                                                        @RequestParam(required = false) Integer limit,
+                                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return collection(ifNoneMatch, () -> licenseSearchService.search(q, limit));
+    }
+    
+    @GetMapping("/stats")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<LicenseStatsResponse> getLicenseStats() {
+        LicenseStatsResponse stats = licenseStatsService.getStats();
+        return ResponseEntity.ok(stats);
+    }
+    
+    @GetMapping("/audit")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<AuditEntry>> getAuditTrail(@RequestParam(required = false) Long licenseId,
+                                                          @RequestParam(required = false) String actor,
+                                                          @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(licenseAuditService.recent(licenseId, actor, limit));
+    }
+    
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'USER')")
+    public ResponseEntity<SseEmitter> streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        try {
+            return ResponseEntity.ok()
+                    .header("X-Accel-Buffering", "no")
+                    .body(licenseChangeFeed.subscribe(lastEventId));
+        } catch (ServiceUnavailableException ex) {
+            // The JSON error body cannot be negotiated for an event-stream request
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+    }
+    
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<StreamingResponseBody> exportLicenses(@RequestParam(defaultValue = "ndjson") String format,
+                                                                @RequestParam(defaultValue = "false") boolean gzip,
+                                                                @RequestParam(required = false) String customer,
+                                                                @RequestParam(required = false) String product,
+                                                                @RequestParam(required = false) LicenseStatus status,
+                                                                @RequestParam(defaultValue = "false") boolean expired,
+                                                                HttpServletRequest request) {
+        ExportFormat exportFormat = ExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        LicenseFilter filter = new LicenseFilter(customer, product, status, expired);
+        
+        // Large exports outlive the container's async timeout; only this request gets the longer one
+        AsyncWebRequest asyncRequest = WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest();
+        if (asyncRequest != null) {
+            asyncRequest.setTimeout(licenseExportService.getTimeout().toMillis());
+        }
+        
+        // Rows are written to the response while the cursor is read; nothing is buffered in between
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192, true);
+                licenseExportService.export(filter, exportFormat, gzipOut);
+                gzipOut.finish();
+            } else {
+                licenseExportService.export(filter, exportFormat, out);
+            }
+        };
+        
+        // A gzip export is a .gz file download, not a transfer encoding, so clients store it as-is
+        String fileName = "licenses." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(gzip ? GZIP : MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
     }
     
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'USER')")
-    public ResponseEntity<License> getLicenseById(@PathVariable Long id) {
-        License license = licenseService.getLicenseById(id);
-        return ResponseEntity.ok(license);
+    public ResponseEntity<LicenseResponse> getLicenseById(@PathVariable Long id,
+                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            String current = licenseService.getLicenseETag(id);
+            if (current != null && ETags.matchesIfNoneMatch(ifNoneMatch, current)) {
+                return notModified(current);
+            }
+        }
+        LicenseResponse license = licenseService.getLicenseById(id);
+        return ResponseEntity.ok().eTag(eTag(license)).body(license);
     }
     
     @GetMapping("/key/{licenseKey}")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'USER')")
-    public ResponseEntity<License> getLicenseByKey(@PathVariable String licenseKey) {
-        License license = licenseService.getLicenseByKey(licenseKey);
-        return ResponseEntity.ok(license);
+    public ResponseEntity<LicenseResponse> getLicenseByKey(@PathVariable String licenseKey,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            String current = licenseService.getLicenseETagByKey(licenseKey);
+            if (current != null && ETags.matchesIfNoneMatch(ifNoneMatch, current)) {
+                return notModified(current);
+            }
+        }
+        LicenseResponse license = licenseService.getLicenseByKey(licenseKey);
+        return ResponseEntity.ok().eTag(eTag(license)).body(license);
+    }
+    
+    @GetMapping("/validate/{licenseKey}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'USER')")
+    public ResponseEntity<LicenseValidationResponse> validateLicense(@PathVariable String licenseKey) {
+        LicenseValidationResponse response = licenseValidationService.validate(licenseKey);
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/key/{licenseKey}/seats/checkout")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'USER')")
+    public ResponseEntity<SeatLeaseResponse> checkoutSeat(@PathVariable String licenseKey,
+                                                          @RequestParam(required = false) String clientId) {
+        SeatLeaseResponse lease = licenseSeatService.checkout(licenseKey, clientId);
+        return ResponseEntity.ok(lease);
+    }
+    
+    @PostMapping("/key/{licenseKey}/seats/heartbeat")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'USER')")
+    public ResponseEntity<SeatLeaseResponse> heartbeatSeat(@PathVariable String licenseKey, @RequestParam String leaseId) {
+        SeatLeaseResponse lease = licenseSeatService.heartbeat(licenseKey, leaseId);
+        return ResponseEntity.ok(lease);
+    }
+    
+    @PostMapping("/key/{licenseKey}/seats/checkin")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'USER')")
+    public ResponseEntity<Void> checkinSeat(@PathVariable String licenseKey, @RequestParam String leaseId) {
+        licenseSeatService.checkin(licenseKey, leaseId);
+        return ResponseEntity.noContent().build();
+    }
+    
+    @GetMapping("/{id}/certificate")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'USER')")
+    public ResponseEntity<LicenseCertificateResponse> getLicenseCertificate(@PathVariable Long id) {
+        LicenseCertificateResponse certificate = licenseCertificateService.issue(id);
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(certificate);
+    }
+    
+    @GetMapping("/key/{licenseKey}/certificate")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'USER')")
+    public ResponseEntity<LicenseCertificateResponse> getLicenseCertificateByKey(@PathVariable String licenseKey) {
+        LicenseCertificateResponse certificate = licenseCertificateService.issueByKey(licenseKey);
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(certificate);
+    }
+    
+    // Public: verifiers fetch it without credentials; short max-age so a rotation is seen within minutes
+    @GetMapping("/certificate-keys")
+    public ResponseEntity<Map<String, Object>> getCertificateKeys() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(licenseCertificateService.keySet());
+    }
+    
+    @PostMapping("/certificate-keys/rotate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, String>> rotateCertificateKey() {
+        return ResponseEntity.ok(Map.of("keyId", licenseCertificateService.rotateKey()));
     }
     
     @GetMapping("/customer/{customerName}")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<List<License>> getLicensesByCustomer(@PathVariable String customerName) {
-        List<License> licenses = licenseService.getLicensesByCustomer(customerName);
-        return ResponseEntity.ok(licenses);
+    public ResponseEntity<CursorPage<LicenseResponse>> getLicensesByCustomer(@PathVariable String customerName,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(required = false) Integer size,
+                                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return collection(ifNoneMatch, () -> licenseService.getLicensesByCustomer(customerName, cursor, size));
     }
     
     @GetMapping("/product/{productName}")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<List<License>> getLicensesByProduct(@PathVariable String productName) {
-        List<License> licenses = licenseService.getLicensesByProduct(productName);
-        return ResponseEntity.ok(licenses);
+    public ResponseEntity<CursorPage<LicenseResponse>> getLicensesByProduct(@PathVariable String productName,
+                                                                    @RequestParam(required = false) String cursor,
+                                                                    @RequestParam(required = false) Integer size,
+                                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return collection(ifNoneMatch, () -> licenseService.getLicensesByProduct(productName, cursor, size));
     }
     
     @GetMapping("/status/{status}")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<List<License>> getLicensesByStatus(@PathVariable LicenseStatus status) {
-        List<License> licenses = licenseService.getLicensesByStatus(status);
-        return ResponseEntity.ok(licenses);
+    public ResponseEntity<CursorPage<LicenseResponse>> getLicensesByStatus(@PathVariable LicenseStatus status,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(required = false) Integer size,
+                                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return collection(ifNoneMatch, () -> licenseService.getLicensesByStatus(status, cursor, size));
     }
     
     @GetMapping("/expired")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<List<License>> getExpiredLicenses() {
-        List<License> licenses = licenseService.getExpiredLicenses();
-        return ResponseEntity.ok(licenses);
+    public ResponseEntity<CursorPage<LicenseResponse>> getExpiredLicenses(@RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer size,
+                                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return collection(ifNoneMatch, () -> licenseService.getExpiredLicenses(cursor, size));
     }
     
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<License> updateLicense(@PathVariable Long id, @Valid @RequestBody LicenseRequest request) {
-        License license = licenseService.updateLicense(id, request);
-        return ResponseEntity.ok(license);
+    public ResponseEntity<LicenseResponse> updateLicense(@PathVariable Long id, @Valid @RequestBody LicenseRequest request,
+                                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        LicenseResponse license = licenseService.updateLicense(id, request, ifMatch);
+        return ResponseEntity.ok().eTag(eTag(license)).body(license);
     }
     
     @PatchMapping("/{id}/status")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<License> updateLicenseStatus(@PathVariable Long id, @RequestParam LicenseStatus status) {
-        License license = licenseService.updateLicenseStatus(id, status);
-        return ResponseEntity.ok(license);
+    public ResponseEntity<LicenseResponse> updateLicenseStatus(@PathVariable Long id, @RequestParam LicenseStatus status,
+                                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        LicenseResponse license = licenseService.updateLicenseStatus(id, status, ifMatch);
+        return ResponseEntity.ok().eTag(eTag(license)).body(license);
     }
     
     @DeleteMapping("/{id}")
@@ -99,22 +343,49 @@ public class LicenseController {
     
     @GetMapping("/generate-key")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<String> generateLicenseKey() {
-        String licenseKey = licenseService.generateLicenseKey();
+    public ResponseEntity<String> generateLicenseKey(@RequestParam(required = false) String prefix) {
+        String licenseKey = licenseService.generateLicenseKey(prefix);
         return ResponseEntity.ok(licenseKey);
     }
     
     @GetMapping("/customers")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<List<String>> getAllCustomerNames() {
-        List<String> customerNames = licenseService.getAllCustomerNames();
+    public ResponseEntity<List<String>> getAllCustomerNames(@RequestParam(required = false) String prefix,
+                                                            @RequestParam(required = false) Integer limit) {
+        List<String> customerNames = licenseService.getAllCustomerNames(prefix, limit);
         return ResponseEntity.ok(customerNames);
     }
     
     @GetMapping("/products")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<List<String>> getAllProductNames() {
-        List<String> productNames = licenseService.getAllProductNames();
+    public ResponseEntity<List<String>> getAllProductNames(@RequestParam(required = false) String prefix,
+                                                           @RequestParam(required = false) Integer limit) {
+        List<String> productNames = licenseService.getAllProductNames(prefix, limit);
         return ResponseEntity.ok(productNames);
     }
-} 
\ No newline at end of file
+    
+    // 202 with the job to poll in Location
+    private static ResponseEntity<BulkOperationStatus> accepted(BulkOperationStatus job) {
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/licenses/bulk/jobs/{jobId}").buildAndExpand(job.getJobId()).toUri())
+                .body(job);
+    }
+    
+    private static String eTag(LicenseResponse license) {
+        return ETags.forLicense(license.getId(), license.getVersion());
+    }
+    
+    private static <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+    }
+    
+    // List endpoints: the tag comes from the in-memory change counter, so a 304 costs no query
+    private <T> ResponseEntity<T> collection(String ifNoneMatch, Supplier<T> body) {
+        String eTag = licenseChangeCounter.collectionETag();
+        if (ETags.matchesIfNoneMatch(ifNoneMatch, eTag)) {
+            return notModified(eTag);
+        }
+        return ResponseEntity.ok().eTag(eTag).body(body.get());
+    }
+}
@@ -2,6 +2,7 @@ package com.sow.simple.application.controller;
 
 import com.sow.simple.application.entity.User;
 import com.sow.simple.application.repository.UserRepository;
+import com.sow.simple.application.security.UserSecurityVersions;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -17,6 +18,7 @@ import java.util.List;
 public class UserController {
     
     private final UserRepository userRepository;
+    private final UserSecurityVersions userSecurityVersions;
     
     @GetMapping("/profile")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'USER')")
@@ -42,13 +44,26 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
     
+    @PostMapping("/{id}/revoke-tokens")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> revokeUserTokens(@PathVariable Long id) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        // Every token carries the version it was issued with, so bumping it invalidates them all
+        user.setSecurityVersion((user.getSecurityVersion() != null ? user.getSecurityVersion() : 0L) + 1);
+        userRepository.save(user);
+        userSecurityVersions.update(user);
+        return ResponseEntity.noContent().build();
+    }
+    
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new RuntimeException("User not found");
-        }
-        userRepository.deleteById(id);
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        userRepository.delete(user);
+        // Outstanding tokens of the deleted user stop working immediately
+        userSecurityVersions.revoke(user.getUsername());
         return ResponseEntity.noContent().build();
     }
 } 
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.sow.simple.application.dto;
+
+import com.sow.simple.application.event.LicenseChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditEntry {
+    private LocalDateTime occurredAt;
+    // Username, or "system" for changes made by the server itself (e.g. automatic expiry)
+    private String actor;
+    private LicenseChangeType action;
+    private Long licenseId;
+    private String licenseKey;
+    // Changed fields as "field: old -> new", separated by "; "; null for creations and deletions
+    private String details;
+}
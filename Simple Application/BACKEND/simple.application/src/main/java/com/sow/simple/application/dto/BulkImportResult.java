@@ -0,0 +1,31 @@
+package com.sow.simple.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImportResult {
+    private int total;
+    private int created;
+    private int failed;
+    private long durationMillis;
+    private List<RowResult> rows = new ArrayList<>();
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowResult {
+        // 1-based record number in the uploaded file (header excluded)
+        private int row;
+        private String licenseKey;
+        private Long id;
+        private boolean created;
+        private String message;
+    }
+}
@@ -0,0 +1,40 @@
+package com.sow.simple.application.dto;
+
+import com.sow.simple.application.entity.LicenseStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Target of a bulk operation: an id list, a filter, or both (a license must match every criterion given).
+ * At least one criterion is required, so an empty body can never select the whole table.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkLicenseRequest {
+    
+    private List<Long> ids;
+    
+    // Case-insensitive exact match, same as /licenses/customer/{name}
+    private String customerName;
+    
+    // Case-insensitive exact match, same as /licenses/product/{name}
+    private String productName;
+    
+    // Current status of the licenses to select
+    private LicenseStatus status;
+    
+    // Inclusive expiry date range; either end may be left open
+    private LocalDate expiryFrom;
+    private LocalDate expiryTo;
+    
+    // bulk/status: the status to set
+    private LicenseStatus newStatus;
+    
+    // bulk/extend-expiry: days added to each license's own expiry date
+    private Integer days;
+}
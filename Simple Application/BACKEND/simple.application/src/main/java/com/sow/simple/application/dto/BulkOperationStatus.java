@@ -0,0 +1,32 @@
+package com.sow.simple.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOperationStatus {
+    private String jobId;
+    private String operation;
+    private State state;
+    // Existing licenses matching the request when the job started
+    private long matched;
+    // Requested ids that no license has (not counted in matched)
+    private List<Long> unknownIds;
+    // Licenses examined so far, in committed chunks
+    private long processed;
+    // Licenses actually changed or deleted (already in the target state are skipped)
+    private long affected;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+    
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+}
@@ -0,0 +1,18 @@
+package com.sow.simple.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private int size;
+    private boolean hasMore;
+    // Opaque; pass back as ?cursor= to fetch the next page, null on the last page
+    private String nextCursor;
+}
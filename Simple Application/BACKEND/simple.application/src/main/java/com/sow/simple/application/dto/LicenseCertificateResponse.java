@@ -0,0 +1,20 @@
+package com.sow.simple.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LicenseCertificateResponse {
+    // Compact JWS; check it offline with the license-verifier library against /licenses/certificate-keys
+    private String certificate;
+    private String keyId;
+    private Instant issuedAt;
+    // Clients that can reach the server fetch a fresh certificate after this time
+    private Instant refreshAfter;
+    private Instant expiresAt;
+}
@@ -0,0 +1,10 @@
+package com.sow.simple.application.dto;
+
+import java.time.LocalDate;
+
+public interface LicenseExpiryView {
+    
+    Long getId();
+    
+    LocalDate getExpiryDate();
+}
@@ -0,0 +1,19 @@
+package com.sow.simple.application.dto;
+
+import com.sow.simple.application.entity.LicenseStatus;
+import com.sow.simple.application.event.LicenseChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Data of a "license" event on /licenses/changes; clients fetch the license itself when they need more
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LicenseFeedEvent {
+    private LicenseChangeType type;
+    private Long licenseId;
+    private String licenseKey;
+    // Status after the change; the last known status for DELETED
+    private LicenseStatus status;
+}
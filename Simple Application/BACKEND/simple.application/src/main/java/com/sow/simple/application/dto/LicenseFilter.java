@@ -0,0 +1,23 @@
+package com.sow.simple.application.dto;
+
+import com.sow.simple.application.entity.LicenseStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LicenseFilter {
+    
+    // Case-insensitive exact match, same as /licenses/customer/{name}
+    private String customerName;
+    
+    // Case-insensitive exact match, same as /licenses/product/{name}
+    private String productName;
+    
+    private LicenseStatus status;
+    
+    // Only licenses whose expiry date has passed, same as /licenses/expired
+    private boolean expired;
+}
@@ -0,0 +1,10 @@
+package com.sow.simple.application.dto;
+
+import java.time.LocalDateTime;
+
+public interface LicenseKeyView {
+    
+    String getLicenseKey();
+    
+    LocalDateTime getCreatedAt();
+}
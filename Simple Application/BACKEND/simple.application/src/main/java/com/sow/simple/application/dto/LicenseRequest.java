@@ -3,6 +3,7 @@ package com.sow.simple.application.dto;
 import com.sow.simple.application.entity.LicenseStatus;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -14,15 +15,20 @@ import java.time.LocalDate;
 @AllArgsConstructor
 public class LicenseRequest {
     
+    // Lengths match the VARCHAR(255) columns, so an oversized value is a validation error, not a database one
     @NotBlank(message = "License key is required")
+    @Size(max = 255, message = "License key must be at most 255 characters")
     private String licenseKey;
     
     @NotBlank(message = "Product name is required")
+    @Size(max = 255, message = "Product name must be at most 255 characters")
     private String productName;
     
     @NotBlank(message = "Customer name is required")
+    @Size(max = 255, message = "Customer name must be at most 255 characters")
     private String customerName;
     
+    @Size(max = 255, message = "Customer email must be at most 255 characters")
     private String customerEmail;
     
     @NotNull(message = "Issue date is required")
@@ -0,0 +1,66 @@
+package com.sow.simple.application.dto;
+
+import com.sow.simple.application.entity.License;
+import com.sow.simple.application.entity.LicenseStatus;
+import com.sow.simple.application.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * License as returned by the API. Read endpoints build it straight from a constructor expression
+ * (see {@link com.sow.simple.application.repository.LicenseRepository#RESPONSE}), so no entity is
+ * hydrated and the creator comes from the same joined statement.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LicenseResponse {
+    private Long id;
+    private String licenseKey;
+    private String productName;
+    private String customerName;
+    private String customerEmail;
+    private LocalDate issueDate;
+    private LocalDate expiryDate;
+    private LicenseStatus status;
+    private Integer maxUsers;
+    private Integer currentUsers;
+    private String description;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    // Row version; the ETag of GET /licenses/{id} is built from the id and this value
+    private Long version;
+    // Null for licenses without a recorded creator
+    private Creator createdBy;
+    
+    // Constructor expression target; the creator columns come from a left join
+    public LicenseResponse(Long id, String licenseKey, String productName, String customerName, String customerEmail,
+                           LocalDate issueDate, LocalDate expiryDate, LicenseStatus status, Integer maxUsers,
+                           Integer currentUsers, String description, LocalDateTime createdAt, LocalDateTime updatedAt,
+                           Long version, Long createdById, String createdByUsername) {
+        this(id, licenseKey, productName, customerName, customerEmail, issueDate, expiryDate, status, maxUsers,
+                currentUsers, description, createdAt, updatedAt, version,
+                createdById != null ? new Creator(createdById, createdByUsername) : null);
+    }
+    
+    // For write responses; the creator must already be loaded (it is never changed by an update)
+    public static LicenseResponse of(License license, User creator) {
+        return new LicenseResponse(license.getId(), license.getLicenseKey(), license.getProductName(),
+                license.getCustomerName(), license.getCustomerEmail(), license.getIssueDate(), license.getExpiryDate(),
+                license.getStatus(), license.getMaxUsers(), license.getCurrentUsers(), license.getDescription(),
+                license.getCreatedAt(), license.getUpdatedAt(), license.getVersion(),
+                creator != null ? new Creator(creator.getId(), creator.getUsername()) : null);
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Creator {
+        private Long id;
+        private String username;
+    }
+}
@@ -0,0 +1,49 @@
+package com.sow.simple.application.dto;
+
+import com.sow.simple.application.entity.LicenseStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LicenseStatsResponse {
+    private long total;
+    private Map<LicenseStatus, Long> byStatus;
+    // Top products and customers by license count, largest first
+    private Map<String, Long> byProduct;
+    private Map<String, Long> byCustomer;
+    private int productCount;
+    private int customerCount;
+    // Same rule as /licenses/expired: expiry date on or before today, any status
+    private long expired;
+    private ExpiryBuckets expiringWithin;
+    private Seats seats;
+    private LocalDate asOf;
+    private LocalDateTime reconciledAt;
+    
+    // ACTIVE licenses expiring after today and within the next 7, 30 and 90 days (cumulative)
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ExpiryBuckets {
+        private long days7;
+        private long days30;
+        private long days90;
+    }
+    
+    // Seat totals over ACTIVE licenses
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Seats {
+        private long maxUsers;
+        private long currentUsers;
+        private double utilisation;
+    }
+}
@@ -0,0 +1,25 @@
+package com.sow.simple.application.dto;
+
+import com.sow.simple.application.entity.LicenseStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LicenseValidationResponse {
+    private String licenseKey;
+    // True only for an existing, ACTIVE license whose expiry date has not been reached
+    private boolean valid;
+    private LicenseStatus status;
+    private LocalDate expiryDate;
+    private Integer maxUsers;
+    private Integer currentUsers;
+    
+    public static LicenseValidationResponse notFound(String licenseKey) {
+        return new LicenseValidationResponse(licenseKey, false, null, null, null, null);
+    }
+}
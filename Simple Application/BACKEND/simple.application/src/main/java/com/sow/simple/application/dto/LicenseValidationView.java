@@ -0,0 +1,18 @@
+package com.sow.simple.application.dto;
+
+import com.sow.simple.application.entity.LicenseStatus;
+
+import java.time.LocalDate;
+
+public interface LicenseValidationView {
+    
+    String getLicenseKey();
+    
+    LicenseStatus getStatus();
+    
+    LocalDate getExpiryDate();
+    
+    Integer getMaxUsers();
+    
+    Integer getCurrentUsers();
+}
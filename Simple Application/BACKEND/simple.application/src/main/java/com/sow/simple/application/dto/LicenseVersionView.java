@@ -0,0 +1,8 @@
+package com.sow.simple.application.dto;
+
+public interface LicenseVersionView {
+    
+    Long getId();
+    
+    Long getVersion();
+}
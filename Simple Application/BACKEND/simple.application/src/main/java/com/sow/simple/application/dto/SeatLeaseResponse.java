@@ -0,0 +1,19 @@
+package com.sow.simple.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatLeaseResponse {
+    private String leaseId;
+    private String licenseKey;
+    private String clientId;
+    // The seat is released unless a heartbeat arrives before this time
+    private LocalDateTime expiresAt;
+    private long leaseTtlSeconds;
+}
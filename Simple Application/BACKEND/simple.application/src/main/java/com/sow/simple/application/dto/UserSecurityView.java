@@ -0,0 +1,20 @@
+package com.sow.simple.application.dto;
+
+import com.sow.simple.application.entity.Role;
+
+import java.time.LocalDateTime;
+
+public interface UserSecurityView {
+    
+    Long getId();
+    
+    String getUsername();
+    
+    Role getRole();
+    
+    Boolean getActive();
+    
+    Long getSecurityVersion();
+    
+    LocalDateTime getUpdatedAt();
+}
@@ -1,6 +1,5 @@
 package com.sow.simple.application.entity;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -11,16 +10,18 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+// Never serialized directly; the API returns LicenseResponse
 @Entity
 @Table(name = "licenses")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class License {
     
+    // Pooled sequence ids let Hibernate batch inserts (IDENTITY forces one round-trip per row)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "licenses_seq")
+    @SequenceGenerator(name = "licenses_seq", sequenceName = "licenses_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "License key is required")
@@ -53,7 +54,8 @@ public class License {
     @Column(name = "max_users")
     private Integer maxUsers;
     
-    @Column(name = "current_users")
+    // Owned by LicenseSeatService's conditional updates; entity saves must never write back a stale count
+    @Column(name = "current_users", updatable = false)
     private Integer currentUsers = 0;
     
     @Column(columnDefinition = "TEXT")
@@ -67,9 +69,13 @@ public class License {
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by")
-    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler", "password", "authorities", "accountNonExpired", "accountNonLocked", "credentialsNonExpired", "enabled"})
     private User createdBy;
     
+    // Optimistic lock and ETag source; set-based updates of this table must bump it too
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
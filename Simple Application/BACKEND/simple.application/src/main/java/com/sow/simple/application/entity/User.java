@@ -58,6 +58,10 @@ public class User implements UserDetails {
     @Column(name = "is_active")
     private Boolean isActive = true;
     
+    // Bumped to invalidate every token issued to this user
+    @Column(name = "security_version")
+    private Long securityVersion = 0L;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
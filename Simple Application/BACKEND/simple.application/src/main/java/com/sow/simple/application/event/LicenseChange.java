@@ -0,0 +1,32 @@
+package com.sow.simple.application.event;
+
+import lombok.Value;
+
+@Value
+public class LicenseChange {
+    LicenseChangeType type;
+    // Null for CREATED
+    LicenseSnapshot before;
+    // Null for DELETED
+    LicenseSnapshot after;
+    
+    public static LicenseChange created(LicenseSnapshot after) {
+        return new LicenseChange(LicenseChangeType.CREATED, null, after);
+    }
+    
+    public static LicenseChange updated(LicenseSnapshot before, LicenseSnapshot after) {
+        return new LicenseChange(LicenseChangeType.UPDATED, before, after);
+    }
+    
+    public static LicenseChange statusChanged(LicenseSnapshot before, LicenseSnapshot after) {
+        return new LicenseChange(LicenseChangeType.STATUS_CHANGED, before, after);
+    }
+    
+    public static LicenseChange deleted(LicenseSnapshot before) {
+        return new LicenseChange(LicenseChangeType.DELETED, before, null);
+    }
+    
+    public Long getLicenseId() {
+        return after != null ? after.getId() : before.getId();
+    }
+}
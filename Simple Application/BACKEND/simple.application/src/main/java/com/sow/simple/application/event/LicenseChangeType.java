@@ -0,0 +1,8 @@
+package com.sow.simple.application.event;
+
+public enum LicenseChangeType {
+    CREATED,
+    UPDATED,
+    STATUS_CHANGED,
+    DELETED
+}
@@ -0,0 +1,18 @@
+package com.sow.simple.application.event;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Published by the license write paths after the change is committed. Single-row operations
+ * carry one change; chunked set-based operations carry one change per affected row.
+ */
+@Value
+public class LicenseChangedEvent {
+    List<LicenseChange> changes;
+    
+    public static LicenseChangedEvent of(LicenseChange change) {
+        return new LicenseChangedEvent(List.of(change));
+    }
+}
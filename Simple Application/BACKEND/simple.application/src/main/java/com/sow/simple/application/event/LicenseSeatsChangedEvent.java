@@ -0,0 +1,14 @@
+package com.sow.simple.application.event;
+
+import lombok.Value;
+
+/**
+ * Published by the seat service after a committed change to a license's {@code currentUsers}.
+ * Seat traffic is far heavier than license edits, so it gets its own small event instead of full snapshots.
+ */
+@Value
+public class LicenseSeatsChangedEvent {
+    String licenseKey;
+    // Positive for checkouts, negative for checkins and reaped leases
+    int delta;
+}
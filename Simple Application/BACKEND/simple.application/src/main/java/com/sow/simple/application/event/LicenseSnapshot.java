@@ -0,0 +1,35 @@
+package com.sow.simple.application.event;
+
+import com.sow.simple.application.entity.License;
+import com.sow.simple.application.entity.LicenseStatus;
+import lombok.Value;
+import lombok.With;
+
+import java.time.LocalDate;
+
+/**
+ * Immutable copy of the license columns that in-memory views (caches, indexes, counters) derive from.
+ * Taken before and after each mutation so listeners can retract the old state and apply the new one.
+ */
+@Value
+@With
+public class LicenseSnapshot {
+    Long id;
+    String licenseKey;
+    String productName;
+    String customerName;
+    String customerEmail;
+    LocalDate issueDate;
+    LocalDate expiryDate;
+    LicenseStatus status;
+    Integer maxUsers;
+    Integer currentUsers;
+    String description;
+    
+    public static LicenseSnapshot of(License license) {
+        return new LicenseSnapshot(license.getId(), license.getLicenseKey(), license.getProductName(),
+                license.getCustomerName(), license.getCustomerEmail(), license.getIssueDate(),
+                license.getExpiryDate(), license.getStatus(), license.getMaxUsers(), license.getCurrentUsers(),
+                license.getDescription());
+    }
+}
@@ -0,0 +1,8 @@
+package com.sow.simple.application.exception;
+
+public class ConflictException extends RuntimeException {
+    
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.sow.simple.application.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -1,21 +1,64 @@
 package com.sow.simple.application.repository;
 
+import com.sow.simple.application.dto.LicenseExpiryView;
+import com.sow.simple.application.dto.LicenseKeyView;
+import com.sow.simple.application.dto.LicenseResponse;
+import com.sow.simple.application.dto.LicenseValidationView;
+import com.sow.simple.application.dto.LicenseVersionView;
+import com.sow.simple.application.dto.NameCountView;
 import com.sow.simple.application.entity.License;
 import com.sow.simple.application.entity.LicenseStatus;
+import com.sow.simple.application.event.LicenseSnapshot;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface LicenseRepository extends JpaRepository<License, Long> {
     
+    // Read model: only the response columns, creator included through one left join (no entity, no lazy load)
+    String RESPONSE = "SELECT new com.sow.simple.application.dto.LicenseResponse(l.id, l.licenseKey, l.productName, " +
+            "l.customerName, l.customerEmail, l.issueDate, l.expiryDate, l.status, l.maxUsers, l.currentUsers, " +
+            "l.description, l.createdAt, l.updatedAt, l.version, u.id, u.username) FROM License l LEFT JOIN l.createdBy u ";
+    
     Optional<License> findByLicenseKey(String licenseKey);
     
+    // Writes load the creator up front so the response can be built without touching a lazy proxy
+    @Query("SELECT l FROM License l LEFT JOIN FETCH l.createdBy WHERE l.id = :id")
+    Optional<License> findWithCreatorById(@Param("id") Long id);
+    
+    @Query(RESPONSE + "WHERE l.id = :id")
+    Optional<LicenseResponse> findResponseById(@Param("id") Long id);
+    
+    @Query(RESPONSE + "WHERE l.licenseKey = :licenseKey")
+    Optional<LicenseResponse> findResponseByLicenseKey(@Param("licenseKey") String licenseKey);
+    
+    @Query(RESPONSE + "WHERE l.id IN :ids")
+    List<LicenseResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Conditional GETs: enough to build the ETag, answered from the primary key / unique key index
+    @Query("SELECT l.id AS id, l.version AS version FROM License l WHERE l.id = :id")
+    Optional<LicenseVersionView> findVersionById(@Param("id") Long id);
+    
+    @Query("SELECT l.id AS id, l.version AS version FROM License l WHERE l.licenseKey = :licenseKey")
+    Optional<LicenseVersionView> findVersionByLicenseKey(@Param("licenseKey") String licenseKey);
+    
+    // Only the columns the validation endpoint returns
+    @Query("SELECT l.licenseKey AS licenseKey, l.status AS status, l.expiryDate AS expiryDate, " +
+           "l.maxUsers AS maxUsers, l.currentUsers AS currentUsers FROM License l WHERE l.licenseKey = :licenseKey")
+    Optional<LicenseValidationView> findValidationViewByLicenseKey(@Param("licenseKey") String licenseKey);
+    
     List<License> findByCustomerName(String customerName);
     
     // Case-insensitive search for customer name
@@ -31,12 +74,84 @@ public interface LicenseRepository extends JpaRepository<License, Long> {
     @Query("SELECT l FROM License l WHERE l.expiryDate <= :date")
     List<License> findExpiredLicenses(@Param("date") LocalDate date);
     
-    @Query("SELECT l FROM License l WHERE l.expiryDate BETWEEN :startDate AND :endDate")
-    List<License> findLicensesExpiringBetween(@Param("startDate") LocalDate startDate, 
-                                            @Param("endDate") LocalDate endDate);
+    // Expiry engine window load: ids and dates only, keyset-paged by (expiryDate, id); start with afterDate = startDate - 1
+    @Query("SELECT l.id AS id, l.expiryDate AS expiryDate FROM License l " +
+           "WHERE l.status = :status AND l.expiryDate BETWEEN :startDate AND :endDate " +
+           "AND (l.expiryDate > :afterDate OR (l.expiryDate = :afterDate AND l.id > :afterId)) " +
+           "ORDER BY l.expiryDate, l.id")
+    List<LicenseExpiryView> findLicensesExpiringBetween(@Param("status") LicenseStatus status,
+                                                        @Param("startDate") LocalDate startDate,
+                                                        @Param("endDate") LocalDate endDate,
+                                                        @Param("afterDate") LocalDate afterDate,
+                                                        @Param("afterId") Long afterId, Pageable limit);
+    
+    @Query("SELECT l.id FROM License l WHERE l.status = :status AND l.expiryDate <= :date AND l.id > :afterId ORDER BY l.id")
+    List<Long> findIdsExpiringOnOrBefore(@Param("status") LicenseStatus status, @Param("date") LocalDate date,
+                                         @Param("afterId") Long afterId, Pageable limit);
+    
+    // Locks the rows that are still due, so the caller updates (and reports) exactly those; a row another node
+    // expired or edited meanwhile is re-checked after the lock wait and drops out
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.sow.simple.application.event.LicenseSnapshot(l.id, l.licenseKey, l.productName, " +
+           "l.customerName, l.customerEmail, l.issueDate, l.expiryDate, l.status, l.maxUsers, l.currentUsers, " +
+           "l.description) FROM License l WHERE l.id IN :ids AND l.status = :status AND l.expiryDate <= :date " +
+           "ORDER BY l.id")
+    List<LicenseSnapshot> lockSnapshotsExpiringOnOrBefore(@Param("ids") Collection<Long> ids,
+                                                          @Param("status") LicenseStatus status,
+                                                          @Param("date") LocalDate date);
+    
+    @Modifying
+    @Query("UPDATE License l SET l.status = :newStatus, l.updatedAt = :now, l.version = l.version + 1 " +
+           "WHERE l.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("newStatus") LicenseStatus newStatus,
+                     @Param("now") LocalDateTime now);
+    
+    // Keyset pages: callers pass PageRequest.ofSize(n) as a row limit only, so no OFFSET is ever generated
+    @Query(RESPONSE + "WHERE l.id > :afterId ORDER BY l.id")
+    List<LicenseResponse> findPageAfter(@Param("afterId") Long afterId, Pageable limit);
+    
+    @Query(RESPONSE + "WHERE UPPER(l.customerName) = UPPER(:customerName) AND l.id > :afterId ORDER BY l.id")
+    List<LicenseResponse> findPageByCustomerNameIgnoreCase(@Param("customerName") String customerName,
+                                                           @Param("afterId") Long afterId, Pageable limit);
+    
+    @Query(RESPONSE + "WHERE UPPER(l.productName) = UPPER(:productName) AND l.id > :afterId ORDER BY l.id")
+    List<LicenseResponse> findPageByProductNameIgnoreCase(@Param("productName") String productName,
+                                                          @Param("afterId") Long afterId, Pageable limit);
+    
+    @Query(RESPONSE + "WHERE l.status = :status AND l.id > :afterId ORDER BY l.id")
+    List<LicenseResponse> findPageByStatus(@Param("status") LicenseStatus status,
+                                           @Param("afterId") Long afterId, Pageable limit);
+    
+    @Query(RESPONSE + "WHERE l.expiryDate <= :date ORDER BY l.expiryDate, l.id")
+    List<LicenseResponse> findExpiredFirstPage(@Param("date") LocalDate date, Pageable limit);
+    
+    @Query(RESPONSE + "WHERE l.expiryDate <= :date " +
+           "AND (l.expiryDate > :afterDate OR (l.expiryDate = :afterDate AND l.id > :afterId)) " +
+           "ORDER BY l.expiryDate, l.id")
+    List<LicenseResponse> findExpiredPageAfter(@Param("date") LocalDate date, @Param("afterDate") LocalDate afterDate,
+                                               @Param("afterId") Long afterId, Pageable limit);
     
     boolean existsByLicenseKey(String licenseKey);
     
+    // Validation bloom filter catch-up: keys created since the watermark, including those created on other nodes
+    @Query("SELECT l.licenseKey AS licenseKey, l.createdAt AS createdAt FROM License l WHERE l.createdAt >= :since")
+    List<LicenseKeyView> findLicenseKeysCreatedSince(@Param("since") LocalDateTime since);
+    
+    // Validation cache catch-up: keys changed since the watermark, including changes made on other nodes
+    @Query("SELECT l.licenseKey FROM License l WHERE l.updatedAt >= :since")
+    List<String> findLicenseKeysUpdatedSince(@Param("since") LocalDateTime since);
+    
+    // Set-based duplicate check for bulk import: one query per chunk instead of one per row
+    @Query("SELECT l.licenseKey FROM License l WHERE l.licenseKey IN :licenseKeys")
+    List<String> findExistingLicenseKeys(@Param("licenseKeys") Collection<String> licenseKeys);
+    
+    // License counts per name, loaded once into the in-memory dictionaries
+    @Query("SELECT l.customerName AS name, COUNT(l) AS count FROM License l GROUP BY l.customerName")
+    List<NameCountView> countByCustomerName();
+    
+    @Query("SELECT l.productName AS name, COUNT(l) AS count FROM License l GROUP BY l.productName")
+    List<NameCountView> countByProductName();
+    
     // Get all unique customer names
     @Query("SELECT DISTINCT l.customerName FROM License l ORDER BY l.customerName")
     List<String> findAllCustomerNames();
@@ -1,9 +1,14 @@
 package com.sow.simple.application.repository;
 
+import com.sow.simple.application.dto.UserSecurityView;
 import com.sow.simple.application.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -16,4 +21,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
     
     boolean existsByEmail(String email);
+    
+    // Lightweight rows for the in-memory token version table
+    @Query("SELECT u.id AS id, u.username AS username, u.role AS role, u.isActive AS active, " +
+           "u.securityVersion AS securityVersion, u.updatedAt AS updatedAt FROM User u")
+    List<UserSecurityView> findAllSecurityViews();
+    
+    @Query("SELECT u.id AS id, u.username AS username, u.role AS role, u.isActive AS active, " +
+           "u.securityVersion AS securityVersion, u.updatedAt AS updatedAt FROM User u WHERE u.updatedAt >= :since")
+    List<UserSecurityView> findSecurityViewsUpdatedSince(@Param("since") LocalDateTime since);
+    
+    @Query("SELECT u.id AS id, u.username AS username, u.role AS role, u.isActive AS active, " +
+           "u.securityVersion AS securityVersion, u.updatedAt AS updatedAt FROM User u WHERE u.username = :username")
+    Optional<UserSecurityView> findSecurityViewByUsername(@Param("username") String username);
 } 
\ No newline at end of file
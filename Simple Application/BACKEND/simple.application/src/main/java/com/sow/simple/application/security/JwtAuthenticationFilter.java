@@ -1,26 +1,41 @@
 package com.sow.simple.application.security;
 
+import com.sow.simple.application.entity.Role;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
+    private static final Map<Role, List<GrantedAuthority>> AUTHORITIES = new EnumMap<>(Role.class);
+    
+    static {
+        for (Role role : Role.values()) {
+            AUTHORITIES.put(role, List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        }
+    }
+    
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final UserSecurityVersions userSecurityVersions;
+    private final RevokedTokenStore revokedTokenStore;
+    private final WebAuthenticationDetailsSource detailsSource = new WebAuthenticationDetailsSource();
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
@@ -37,21 +52,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         
         jwt = authHeader.substring(7);
-        username = jwtUtil.extractUsername(jwt);
+        // Single verified parse per token; reused for both username and expiry checks
+        final Claims claims = jwtUtil.extractAllClaims(jwt);
+        username = claims.getSubject();
         
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            // Principal comes from the verified claims; revocation is checked against the
+            // in-memory version table instead of loading the user from the database
+            Role role = jwtUtil.extractRole(claims);
+            if (!revokedTokenStore.isRevoked(claims.getId())
+                    && userSecurityVersions.isCurrent(username, jwtUtil.extractUserId(claims), role,
+                            jwtUtil.extractSecurityVersion(claims))) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                    userDetails,
+                    username,
                     null,
-                    userDetails.getAuthorities()
+                    AUTHORITIES.get(role)
                 );
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                authToken.setDetails(detailsSource.buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         }
         filterChain.doFilter(request, response);
     }
-} 
\ No newline at end of file
+}
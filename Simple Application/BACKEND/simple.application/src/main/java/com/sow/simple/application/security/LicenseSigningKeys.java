@@ -0,0 +1,266 @@
+package com.sow.simple.application.security;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Ed25519 keys that sign license certificates. Each key is one PEM file in {@code licenses.certificate.key-dir}
+ * named after its key id; ids start with the UTC creation time, so the newest key signs. A superseded key stays
+ * in the published key set until every certificate it or a node that had not yet reloaded signed has expired,
+ * then its file is removed.
+ * Nodes sharing the directory pick up a rotation on their next periodic reload. Rotation holds an exclusive lock on
+ * {@code .rotation.lock} in that directory and re-reads it first, so when several nodes find the key due at once
+ * only the first one rotates. Key files are written to a temporary file and renamed into place, so a reader never
+ * sees a partial key.
+ */
+@Slf4j
+@Component
+public class LicenseSigningKeys {
+    
+    private static final DateTimeFormatter KEY_ID_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+    private static final String PRIVATE_KEY_PEM = "PRIVATE KEY";
+    private static final String PUBLIC_KEY_PEM = "PUBLIC KEY";
+    private static final String LOCK_FILE = ".rotation.lock";
+    
+    private final Path keyDirectory;
+    private final Duration certificateValidity;
+    private final Duration rotationInterval;
+    private final Duration keyCheckInterval;
+    private final SecureRandom random = new SecureRandom();
+    
+    // FileChannel locks are per process, so a static lock keeps two instances in one JVM from rotating at once
+    private static final ReentrantLock ROTATION_LOCK = new ReentrantLock();
+    
+    // Oldest first; replaced as a whole on every reload
+    private volatile List<SigningKey> keys = List.of();
+    
+    public record SigningKey(String keyId, Instant createdAt, PrivateKey privateKey, PublicKey publicKey) {
+    }
+    
+    public LicenseSigningKeys(@Value("${licenses.certificate.key-dir:./data/certificate-keys}") String keyDirectory,
+                              @Value("${licenses.certificate.validity:7d}") Duration certificateValidity,
+                              @Value("${licenses.certificate.rotation-interval:90d}") Duration rotationInterval,
+                              @Value("${licenses.certificate.key-check-interval:3600000}") long keyCheckIntervalMillis) {
+        this.keyDirectory = Paths.get(keyDirectory);
+        this.certificateValidity = certificateValidity;
+        this.rotationInterval = rotationInterval;
+        this.keyCheckInterval = Duration.ofMillis(keyCheckIntervalMillis);
+    }
+    
+    @PostConstruct
+    void init() {
+        reload();
+        if (keys.isEmpty() && rotateIf(List::isEmpty) != null) {
+            log.info("No certificate signing key was in {}, generated one", keyDirectory.toAbsolutePath());
+        }
+    }
+    
+    public SigningKey activeKey() {
+        List<SigningKey> current = keys;
+        if (current.isEmpty()) {
+            throw new IllegalStateException("No certificate signing key loaded");
+        }
+        return current.get(current.size() - 1);
+    }
+    
+    // JWKS (RFC 7517/8037) of every key whose certificates may still be in use, newest first
+    public Map<String, Object> publishedKeySet() {
+        List<Map<String, Object>> published = new ArrayList<>();
+        List<SigningKey> current = keys;
+        for (int i = current.size() - 1; i >= 0; i--) {
+            SigningKey key = current.get(i);
+            Map<String, Object> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "OKP");
+            jwk.put("crv", "Ed25519");
+            jwk.put("use", "sig");
+            jwk.put("alg", "EdDSA");
+            jwk.put("kid", key.keyId());
+            jwk.put("x", Base64.getUrlEncoder().withoutPadding().encodeToString(rawPublicKey(key.publicKey())));
+            published.add(jwk);
+        }
+        return Map.of("keys", published);
+    }
+    
+    public SigningKey rotate() {
+        return rotateIf(current -> true);
+    }
+    
+    // Re-reads the directory under the lock, so a rotation another node just made is seen before deciding;
+    // returns the new key, or null if the condition no longer holds
+    private SigningKey rotateIf(Predicate<List<SigningKey>> due) {
+        ROTATION_LOCK.lock();
+        try {
+            Files.createDirectories(keyDirectory);
+            try (FileChannel channel = FileChannel.open(keyDirectory.resolve(LOCK_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock lock = channel.lock()) {
+                reload();
+                if (!due.test(keys)) {
+                    return null;
+                }
+                String keyId = writeNewKey();
+                reload();
+                log.info("Certificate signing key rotated, new key id {}", keyId);
+                return activeKey();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write signing key to " + keyDirectory, ex);
+        } finally {
+            ROTATION_LOCK.unlock();
+        }
+    }
+    
+    // Written owner-only from the start to a temporary name that reload() ignores, then renamed into place
+    private String writeNewKey() throws IOException {
+        KeyPair pair;
+        try {
+            pair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Ed25519 is not available", ex);
+        }
+        String keyId = KEY_ID_TIME.format(Instant.now()) + "-" + HexFormat.of().formatHex(randomBytes(3));
+        String pem = pem(PRIVATE_KEY_PEM, pair.getPrivate().getEncoded()) + pem(PUBLIC_KEY_PEM, pair.getPublic().getEncoded());
+        Path temp = Files.createTempFile(keyDirectory, "." + keyId, ".tmp", ownerOnly());
+        try {
+            Files.writeString(temp, pem, StandardCharsets.US_ASCII);
+            Files.move(temp, keyDirectory.resolve(keyId + ".pem"), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return keyId;
+    }
+    
+    // Picks up keys rotated by other nodes, rotates when the active key is due, and drops keys no certificate can still use
+    @Scheduled(fixedDelayString = "${licenses.certificate.key-check-interval:3600000}",
+               initialDelayString = "${licenses.certificate.key-check-interval:3600000}")
+    public void maintain() {
+        reload();
+        Instant now = Instant.now();
+        if (!rotationInterval.isZero() && isDue(keys, now)) {
+            rotateIf(current -> isDue(current, now));
+        }
+        List<SigningKey> current = keys;
+        for (int i = 0; i < current.size() - 1; i++) {
+            // Other nodes keep signing with a key until their next reload sees its successor, and the last
+            // certificate they sign expires one validity after that
+            Instant lastUse = current.get(i + 1).createdAt().plus(keyCheckInterval).plus(certificateValidity);
+            if (lastUse.isBefore(now)) {
+                try {
+                    Files.deleteIfExists(keyDirectory.resolve(current.get(i).keyId() + ".pem"));
+                    log.info("Removed retired certificate signing key {}", current.get(i).keyId());
+                } catch (IOException ex) {
+                    log.warn("Could not remove retired signing key {}", current.get(i).keyId(), ex);
+                }
+            }
+        }
+        reload();
+    }
+    
+    private boolean isDue(List<SigningKey> current, Instant now) {
+        return current.isEmpty() || current.get(current.size() - 1).createdAt().plus(rotationInterval).isBefore(now);
+    }
+    
+    private void reload() {
+        TreeMap<String, SigningKey> loaded = new TreeMap<>();
+        if (Files.isDirectory(keyDirectory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(keyDirectory, "*.pem")) {
+                for (Path file : files) {
+                    String keyId = file.getFileName().toString().replaceFirst("\\.pem$", "");
+                    loaded.put(keyId, read(keyId, Files.readString(file, StandardCharsets.US_ASCII)));
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not read signing keys from " + keyDirectory, ex);
+            }
+        }
+        keys = List.copyOf(loaded.values());
+    }
+    
+    private static SigningKey read(String keyId, String pem) {
+        try {
+            KeyFactory factory = KeyFactory.getInstance("Ed25519");
+            PrivateKey privateKey = factory.generatePrivate(new PKCS8EncodedKeySpec(pemBlock(pem, PRIVATE_KEY_PEM)));
+            PublicKey publicKey = factory.generatePublic(new X509EncodedKeySpec(pemBlock(pem, PUBLIC_KEY_PEM)));
+            Instant createdAt = KEY_ID_TIME.parse(keyId.substring(0, keyId.indexOf('-')), Instant::from);
+            return new SigningKey(keyId, createdAt, privateKey, publicKey);
+        } catch (GeneralSecurityException | RuntimeException ex) {
+            throw new IllegalStateException("Invalid certificate signing key file " + keyId + ".pem", ex);
+        }
+    }
+    
+    // The X.509 encoding of an Ed25519 key ends with the 32 raw key bytes that JWK "x" carries
+    private static byte[] rawPublicKey(PublicKey key) {
+        byte[] encoded = key.getEncoded();
+        return Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length);
+    }
+    
+    private static String pem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder(64, new byte[]{'\n'}).encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+    }
+    
+    private static byte[] pemBlock(String pem, String type) {
+        String begin = "-----BEGIN " + type + "-----";
+        int start = pem.indexOf(begin);
+        int end = pem.indexOf("-----END " + type + "-----");
+        if (start < 0 || end < start) {
+            throw new IllegalArgumentException("Missing " + type + " block");
+        }
+        return Base64.getMimeDecoder().decode(pem.substring(start + begin.length(), end));
+    }
+    
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+    
+    // Not a POSIX file system: rely on the directory's permissions
+    private FileAttribute<?>[] ownerOnly() {
+        if (!keyDirectory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            return new FileAttribute<?>[0];
+        }
+        return new FileAttribute<?>[]{PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------"))};
+    }
+}
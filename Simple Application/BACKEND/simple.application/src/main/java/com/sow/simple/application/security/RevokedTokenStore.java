@@ -0,0 +1,94 @@
+package com.sow.simple.application.security;
+
+import com.sow.simple.application.util.BloomFilter;
+import com.sow.simple.application.util.HashedTimingWheel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Denylist of revoked token ids (jti). Lookups on the request path hit a bloom filter first,
+ * so non-revoked tokens (the common case) never touch the exact set. Each entry is scheduled
+ * on a timing wheel at the token's own expiry and dropped then, since an expired token is
+ * rejected anyway; memory is bounded by live revocations only.
+ */
+@Component
+public class RevokedTokenStore {
+    
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final HashedTimingWheel<String> expiryWheel;
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+    private final Object writeLock = new Object();
+    
+    private volatile BloomFilter bloomFilter;
+    private long bloomCapacity;
+    private long removedSinceRebuild;
+    
+    public RevokedTokenStore(MeterRegistry meterRegistry,
+                             @Value("${jwt.revocation.expected-entries:100000}") long expectedRevocations,
+                             @Value("${jwt.revocation.false-positive-rate:0.001}") double falsePositiveRate,
+                             @Value("${jwt.revocation.tick-millis:1000}") long tickMillis,
+                             @Value("${jwt.revocation.wheel-size:4096}") int wheelSize) {
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bloomFilter = new BloomFilter(expectedRevocations, falsePositiveRate);
+        this.bloomCapacity = expectedRevocations;
+        this.expiryWheel = new HashedTimingWheel<>(tickMillis, wheelSize);
+        Gauge.builder("auth.tokens.revoked", revoked, Map::size)
+                .description("Revoked tokens that have not reached their natural expiry yet")
+                .register(meterRegistry);
+    }
+    
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        return bloomFilter.mightContain(tokenId) && revoked.containsKey(tokenId);
+    }
+    
+    public void revoke(String tokenId, long expiresAtMillis) {
+        if (tokenId == null || expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        synchronized (writeLock) {
+            if (revoked.putIfAbsent(tokenId, expiresAtMillis) == null) {
+                bloomFilter.put(tokenId);
+                expiryWheel.schedule(tokenId, expiresAtMillis);
+                if (revoked.size() > bloomCapacity) {
+                    rebuildBloomFilter();
+                }
+            }
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${jwt.revocation.tick-millis:1000}")
+    public void expire() {
+        int expired = expiryWheel.advance(System.currentTimeMillis(), revoked::remove);
+        if (expired == 0) {
+            return;
+        }
+        synchronized (writeLock) {
+            removedSinceRebuild += expired;
+            // Bloom filters cannot delete; rebuild once enough stale bits have piled up
+            if (removedSinceRebuild > Math.max(revoked.size(), expectedRevocations / 2)) {
+                rebuildBloomFilter();
+            }
+        }
+    }
+    
+    // Caller holds writeLock, so no revocation can slip in between the copy and the swap
+    private void rebuildBloomFilter() {
+        long capacity = Math.max(expectedRevocations, 2L * revoked.size());
+        BloomFilter rebuilt = new BloomFilter(capacity, falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::put);
+        bloomFilter = rebuilt;
+        bloomCapacity = capacity;
+        removedSinceRebuild = 0;
+    }
+}
@@ -0,0 +1,110 @@
+package com.sow.simple.application.security;
+
+import com.sow.simple.application.dto.UserSecurityView;
+import com.sow.simple.application.entity.Role;
+import com.sow.simple.application.entity.User;
+import com.sow.simple.application.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory table of the security state (id, role, active flag, version) of every user,
+ * so token checks on the request path need no database round-trip.
+ * Kept current by an incremental refresh on {@code updated_at}, a periodic full resync
+ * that drops deleted users, and direct updates from register/delete in this process.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserSecurityVersions {
+    
+    private final UserRepository userRepository;
+    
+    private final Map<String, SecurityState> states = new ConcurrentHashMap<>();
+    private volatile LocalDateTime watermark;
+    
+    public boolean isCurrent(String username, Long userId, Role role, Long version) {
+        if (userId == null || role == null || version == null) {
+            return false;
+        }
+        SecurityState state = states.get(username);
+        if (state == null) {
+            state = loadOnMiss(username);
+        }
+        return state.active() && state.id().equals(userId) && state.role() == role && state.version() == version;
+    }
+    
+    public void update(User user) {
+        states.put(user.getUsername(), new SecurityState(user.getId(), user.getRole(),
+                Boolean.TRUE.equals(user.getIsActive()), versionOf(user.getSecurityVersion())));
+    }
+    
+    public void revoke(String username) {
+        states.put(username, SecurityState.REVOKED);
+    }
+    
+    @Scheduled(fixedDelayString = "${jwt.user-versions.refresh-interval:5000}")
+    public void refresh() {
+        LocalDateTime since = watermark;
+        if (since == null) {
+            fullRefresh();
+            return;
+        }
+        apply(userRepository.findSecurityViewsUpdatedSince(since));
+    }
+    
+    @Scheduled(initialDelayString = "${jwt.user-versions.full-refresh-interval:600000}",
+               fixedDelayString = "${jwt.user-versions.full-refresh-interval:600000}")
+    public void fullRefresh() {
+        List<UserSecurityView> views = userRepository.findAllSecurityViews();
+        Set<String> present = new HashSet<>();
+        for (UserSecurityView view : views) {
+            present.add(view.getUsername());
+        }
+        // Users deleted on another node are only visible as missing rows
+        states.replaceAll((username, state) -> present.contains(username) ? state : SecurityState.REVOKED);
+        apply(views);
+        log.debug("Loaded security state for {} users", views.size());
+    }
+    
+    private void apply(List<UserSecurityView> views) {
+        LocalDateTime max = watermark;
+        for (UserSecurityView view : views) {
+            states.put(view.getUsername(), toState(view));
+            if (view.getUpdatedAt() != null && (max == null || view.getUpdatedAt().isAfter(max))) {
+                max = view.getUpdatedAt();
+            }
+        }
+        watermark = max != null ? max : LocalDateTime.now();
+    }
+    
+    private SecurityState loadOnMiss(String username) {
+        SecurityState state = userRepository.findSecurityViewByUsername(username)
+                .map(UserSecurityVersions::toState)
+                .orElse(SecurityState.REVOKED);
+        states.putIfAbsent(username, state);
+        return state;
+    }
+    
+    private static SecurityState toState(UserSecurityView view) {
+        return new SecurityState(view.getId(), view.getRole(), Boolean.TRUE.equals(view.getActive()),
+                versionOf(view.getSecurityVersion()));
+    }
+    
+    private static long versionOf(Long version) {
+        return version != null ? version : 0L;
+    }
+    
+    private record SecurityState(Long id, Role role, boolean active, long version) {
+        static final SecurityState REVOKED = new SecurityState(-1L, null, false, -1L);
+    }
+}
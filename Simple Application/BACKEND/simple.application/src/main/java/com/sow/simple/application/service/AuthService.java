@@ -7,23 +7,50 @@ import com.sow.simple.application.entity.Role;
 import com.sow.simple.application.entity.User;
 import com.sow.simple.application.repository.UserRepository;
 import com.sow.simple.application.security.JwtUtil;
-import lombok.RequiredArgsConstructor;
+import com.sow.simple.application.security.RevokedTokenStore;
+import com.sow.simple.application.security.UserSecurityVersions;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 @Service
-@RequiredArgsConstructor
 public class AuthService {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
+    private final UserSecurityVersions userSecurityVersions;
+    private final RevokedTokenStore revokedTokenStore;
+    // Registration and login run here; the password encoder hands only the BCrypt work to the hashing pool
+    private final Executor taskExecutor;
+    
+    public AuthService(UserRepository userRepository,
+                       PasswordEncoder passwordEncoder,
+                       JwtUtil jwtUtil,
+                       AuthenticationManager authenticationManager,
+                       UserSecurityVersions userSecurityVersions,
+                       RevokedTokenStore revokedTokenStore,
+                       @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor taskExecutor) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.jwtUtil = jwtUtil;
+        this.authenticationManager = authenticationManager;
+        this.userSecurityVersions = userSecurityVersions;
+        this.revokedTokenStore = revokedTokenStore;
+        this.taskExecutor = taskExecutor;
+    }
     
-    public AuthResponse register(UserRegistrationRequest request) {
+    public CompletableFuture<AuthResponse> register(UserRegistrationRequest request) {
         if (userRepository.existsByUsername(request.getUsername())) {
             throw new RuntimeException("Username already exists");
         }
@@ -32,34 +59,41 @@ public class AuthService {
             throw new RuntimeException("Email already exists");
         }
         
-        User user = new User();
-        user.setUsername(request.getUsername());
-        user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-        user.setFirstName(request.getFirstName());
-        user.setLastName(request.getLastName());
-        user.setRole(request.getRole());
-        user.setIsActive(true);
-        
-        userRepository.save(user);
-        
-        UserDetails userDetails = user;
-        String token = jwtUtil.generateToken(userDetails);
-        
-        return new AuthResponse(token, user.getUsername(), user.getRole().name(), "User registered successfully");
+        return CompletableFuture.supplyAsync(() -> {
+            String encodedPassword = passwordEncoder.encode(request.getPassword());
+            User user = new User();
+            user.setUsername(request.getUsername());
+            user.setEmail(request.getEmail());
+            user.setPassword(encodedPassword);
+            user.setFirstName(request.getFirstName());
+            user.setLastName(request.getLastName());
+            user.setRole(request.getRole());
+            user.setIsActive(true);
+            
+            userRepository.save(user);
+            userSecurityVersions.update(user);
+            
+            UserDetails userDetails = user;
+            String token = jwtUtil.generateToken(userDetails);
+            
+            return new AuthResponse(token, user.getUsername(), user.getRole().name(), "User registered successfully");
+        }, taskExecutor);
     }
     
-    public AuthResponse authenticate(AuthRequest request) {
-        authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
-        );
-        
-        UserDetails userDetails = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        String token = jwtUtil.generateToken(userDetails);
-        User user = (User) userDetails;
-        
-        return new AuthResponse(token, user.getUsername(), user.getRole().name(), "Authentication successful");
+    public CompletableFuture<AuthResponse> authenticate(AuthRequest request) {
+        // The provider loads the user and verifies (and, if needed, rehashes) the password
+        return CompletableFuture.supplyAsync(() -> {
+            Authentication authentication = authenticationManager.authenticate(
+            new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword()));
+            User user = (User) authentication.getPrincipal();
+            String token = jwtUtil.generateToken(user);
+            
+            return new AuthResponse(token, user.getUsername(), user.getRole().name(), "Authentication successful");
+        }, taskExecutor);
+    }
+    
+    public void logout(String token) {
+        Claims claims = jwtUtil.extractAllClaims(token);
+        revokedTokenStore.revoke(claims.getId(), claims.getExpiration().getTime());
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
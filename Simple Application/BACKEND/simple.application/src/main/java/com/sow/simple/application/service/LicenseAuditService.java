@@ -0,0 +1,426 @@
+package com.sow.simple.application.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sow.simple.application.dto.AuditEntry;
+import com.sow.simple.application.event.LicenseChange;
+import com.sow.simple.application.event.LicenseChangedEvent;
+import com.sow.simple.application.event.LicenseSnapshot;
+import com.sow.simple.application.util.RingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit trail of license mutations, kept off the request path. Committed change events are turned into
+ * entries on the publishing thread and offered to a bounded lock-free ring buffer; a single background
+ * writer drains it in batches, appends each batch as NDJSON to the current segment file (rotated by size,
+ * fsynced at most every {@code licenses.audit.fsync-interval}) and then inserts it into
+ * {@code license_audit} with one JDBC batch. When the buffer is full a producer waits up to
+ * {@code licenses.audit.offer-timeout} for the writer and then drops the entry, counting it. The segment
+ * files are the first copy: a failed database batch is logged and counted, not retried. The last
+ * {@code licenses.audit.tail-size} written entries are also kept in memory (reloaded from the newest
+ * segments at startup), and queries are answered from that tail without touching the disk.
+ */
+@Slf4j
+@Service
+public class LicenseAuditService {
+    
+    private static final String SYSTEM_ACTOR = "system";
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".ndjson";
+    private static final String INSERT = "INSERT INTO license_audit (occurred_at, actor, action, license_id, license_key, details) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final int MAX_DETAILS = 4000;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final RingBuffer<AuditEntry> buffer;
+    private final Path directory;
+    private final int batchSize;
+    private final long segmentBytes;
+    private final int maxSegments;
+    private final long fsyncIntervalNanos;
+    private final long offerTimeoutNanos;
+    private final int maxQueryLimit;
+    private final int tailSize;
+    // Newest last; appended by the writer, read by queries
+    private final Deque<AuditEntry> tail = new ArrayDeque<>();
+    
+    private final Counter published;
+    private final Counter backpressure;
+    private final Counter dropped;
+    private final Counter persistFailed;
+    private final Timer batchTimer;
+    private final Timer fsyncTimer;
+    
+    private final Thread writer;
+    private volatile boolean running;
+    // Owned by the writer thread
+    private FileChannel segment;
+    private long segmentSize;
+    private long lastFsync;
+    private boolean unsynced;
+    
+    public LicenseAuditService(JdbcTemplate jdbcTemplate,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               @Value("${licenses.audit.dir:./data/audit}") String directory,
+                               @Value("${licenses.audit.buffer-capacity:65536}") int bufferCapacity,
+                               @Value("${licenses.audit.batch-size:500}") int batchSize,
+                               @Value("${licenses.audit.segment-size:16MB}") DataSize segmentSize,
+                               @Value("${licenses.audit.max-segments:64}") int maxSegments,
+                               @Value("${licenses.audit.fsync-interval:1s}") Duration fsyncInterval,
+                               @Value("${licenses.audit.offer-timeout:5ms}") Duration offerTimeout,
+                               @Value("${licenses.audit.max-query-limit:1000}") int maxQueryLimit,
+                               @Value("${licenses.audit.tail-size:10000}") int tailSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.buffer = new RingBuffer<>(bufferCapacity);
+        this.directory = Paths.get(directory);
+        this.batchSize = batchSize;
+        this.segmentBytes = segmentSize.toBytes();
+        this.maxSegments = maxSegments;
+        this.fsyncIntervalNanos = fsyncInterval.toNanos();
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.maxQueryLimit = maxQueryLimit;
+        this.tailSize = Math.max(1, tailSize);
+        
+        this.published = Counter.builder("license.audit.published")
+                .description("Audit entries accepted into the buffer")
+                .register(meterRegistry);
+        this.backpressure = Counter.builder("license.audit.backpressure")
+                .description("Audit entries that found the buffer full and had to wait for the writer")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("license.audit.dropped")
+                .description("Audit entries lost because the buffer stayed full")
+                .register(meterRegistry);
+        this.persistFailed = Counter.builder("license.audit.persist.failed")
+                .description("Audit entries written to a segment but not to the database")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("license.audit.batch")
+                .description("Time to append one batch to the segment and insert it into the database")
+                .register(meterRegistry);
+        this.fsyncTimer = Timer.builder("license.audit.fsync")
+                .description("Time to force the current segment to disk")
+                .register(meterRegistry);
+        Gauge.builder("license.audit.buffer.size", buffer, RingBuffer::size)
+                .description("Audit entries waiting for the writer")
+                .register(meterRegistry);
+        Gauge.builder("license.audit.buffer.capacity", buffer, RingBuffer::capacity)
+                .register(meterRegistry);
+        
+        this.writer = new Thread(this::drainLoop, "license-audit-writer");
+        this.writer.setDaemon(true);
+    }
+    
+    @PostConstruct
+    void start() throws IOException {
+        Files.createDirectories(directory);
+        loadTail();
+        running = true;
+        writer.start();
+    }
+    
+    // Runs on the thread that committed the change, which still carries the caller's authentication
+    @EventListener
+    public void onLicenseChanged(LicenseChangedEvent event) {
+        String actor = currentActor();
+        LocalDateTime now = LocalDateTime.now();
+        for (LicenseChange change : event.getChanges()) {
+            LicenseSnapshot state = change.getAfter() != null ? change.getAfter() : change.getBefore();
+            offer(new AuditEntry(now, actor, change.getType(), state.getId(), state.getLicenseKey(), describe(change)));
+        }
+    }
+    
+    /**
+     * Most recent entries, newest first, optionally for one license and/or actor. Only the in-memory tail is
+     * searched; older history is in {@code license_audit} and the segment files. Entries still in the buffer
+     * (at most one batch interval old) are not visible yet.
+     */
+    public List<AuditEntry> recent(Long licenseId, String actor, Integer limit) {
+        int max = Math.max(1, Math.min(limit != null ? limit : 100, maxQueryLimit));
+        List<AuditEntry> result = new ArrayList<>(Math.min(max, 128));
+        synchronized (tail) {
+            Iterator<AuditEntry> newestFirst = tail.descendingIterator();
+            while (newestFirst.hasNext() && result.size() < max) {
+                AuditEntry entry = newestFirst.next();
+                if ((licenseId == null || licenseId.equals(entry.getLicenseId()))
+                        && (actor == null || actor.equals(entry.getActor()))) {
+                    result.add(entry);
+                }
+            }
+        }
+        return result;
+    }
+    
+    private void offer(AuditEntry entry) {
+        if (buffer.offer(entry)) {
+            published.increment();
+            return;
+        }
+        backpressure.increment();
+        LockSupport.unpark(writer);
+        long deadline = System.nanoTime() + offerTimeoutNanos;
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            if (buffer.offer(entry)) {
+                published.increment();
+                return;
+            }
+        }
+        dropped.increment();
+    }
+    
+    private void drainLoop() {
+        List<AuditEntry> batch = new ArrayList<>(batchSize);
+        while (running || buffer.size() > 0) {
+            buffer.drain(batch::add, batchSize);
+            if (batch.isEmpty()) {
+                syncIfDue();
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                batchTimer.record(() -> writeBatch(batch));
+            } catch (RuntimeException ex) {
+                log.error("Audit writer failed on a batch of {} entries", batch.size(), ex);
+            }
+            batch.clear();
+        }
+        closeSegment();
+    }
+    
+    private void writeBatch(List<AuditEntry> batch) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(batch.size() * 256);
+            for (AuditEntry entry : batch) {
+                objectMapper.writeValue(out, entry);
+                out.write('\n');
+            }
+            if (segment == null || segmentSize + out.size() > segmentBytes) {
+                rotate();
+            }
+            ByteBuffer bytes = ByteBuffer.wrap(out.toByteArray());
+            while (bytes.hasRemaining()) {
+                segmentSize += segment.write(bytes);
+            }
+            unsynced = true;
+            syncIfDue();
+        } catch (IOException ex) {
+            log.error("Could not append {} audit entries to {}", batch.size(), directory.toAbsolutePath(), ex);
+        }
+        appendToTail(batch);
+        
+        try {
+            jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), (ps, entry) -> {
+                ps.setTimestamp(1, Timestamp.valueOf(entry.getOccurredAt()));
+                ps.setString(2, entry.getActor());
+                ps.setString(3, entry.getAction().name());
+                ps.setLong(4, entry.getLicenseId());
+                ps.setString(5, entry.getLicenseKey());
+                ps.setString(6, entry.getDetails());
+            });
+        } catch (DataAccessException ex) {
+            persistFailed.increment(batch.size());
+            log.warn("Could not insert {} audit entries; they remain in the segment files", batch.size(), ex);
+        }
+    }
+    
+    // A new segment per process start as well, so a torn last line of the previous one is never appended to
+    private void rotate() throws IOException {
+        closeSegment();
+        Path file = directory.resolve(String.format("%s%013d%s", SEGMENT_PREFIX, System.currentTimeMillis(), SEGMENT_SUFFIX));
+        while (Files.exists(file)) {
+            file = directory.resolve(String.format("%s%013d%s", SEGMENT_PREFIX,
+                    Long.parseLong(segmentName(file)) + 1, SEGMENT_SUFFIX));
+        }
+        segment = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentSize = 0;
+        lastFsync = System.nanoTime();
+        
+        List<Path> segments = segments();
+        for (int i = 0; i < segments.size() - maxSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+    
+    private void syncIfDue() {
+        if (unsynced && System.nanoTime() - lastFsync >= fsyncIntervalNanos) {
+            sync();
+        }
+    }
+    
+    private void sync() {
+        long start = System.nanoTime();
+        try {
+            segment.force(false);
+        } catch (IOException ex) {
+            log.error("Could not fsync audit segment", ex);
+        }
+        lastFsync = System.nanoTime();
+        fsyncTimer.record(lastFsync - start, TimeUnit.NANOSECONDS);
+        unsynced = false;
+    }
+    
+    private void closeSegment() {
+        if (segment == null) {
+            return;
+        }
+        if (unsynced) {
+            sync();
+        }
+        try {
+            segment.close();
+        } catch (IOException ex) {
+            log.warn("Could not close audit segment", ex);
+        }
+        segment = null;
+    }
+    
+    private void appendToTail(List<AuditEntry> entries) {
+        synchronized (tail) {
+            for (AuditEntry entry : entries) {
+                if (tail.size() == tailSize) {
+                    tail.removeFirst();
+                }
+                tail.addLast(entry);
+            }
+        }
+    }
+    
+    // Reads the newest segments until the tail is full; each segment keeps only its last entries in memory
+    private void loadTail() {
+        Deque<AuditEntry> loaded = new ArrayDeque<>();
+        List<Path> segments = segments();
+        for (int i = segments.size() - 1; i >= 0 && loaded.size() < tailSize; i--) {
+            Deque<AuditEntry> last = new ArrayDeque<>();
+            try (BufferedReader reader = Files.newBufferedReader(segments.get(i), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    AuditEntry entry = parse(line);
+                    if (entry != null) {
+                        last.addLast(entry);
+                        if (last.size() > tailSize - loaded.size()) {
+                            last.removeFirst();
+                        }
+                    }
+                }
+            } catch (IOException ex) {
+                log.warn("Skipping unreadable audit segment {}", segments.get(i), ex);
+            }
+            while (!last.isEmpty()) {
+                loaded.addFirst(last.removeLast());
+            }
+        }
+        appendToTail(List.copyOf(loaded));
+    }
+    
+    // Oldest first; the names sort by creation time
+    private List<Path> segments() {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            files.forEach(segments::add);
+        } catch (IOException ex) {
+            log.warn("Could not list audit segments in {}", directory.toAbsolutePath(), ex);
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+    
+    private static String segmentName(Path file) {
+        String name = file.getFileName().toString();
+        return name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+    }
+    
+    // Null for a line being written right now or torn by a crash
+    private AuditEntry parse(String line) {
+        try {
+            return objectMapper.readValue(line, AuditEntry.class);
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+    
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return SYSTEM_ACTOR;
+        }
+        return authentication.getName();
+    }
+    
+    private static String describe(LicenseChange change) {
+        LicenseSnapshot before = change.getBefore();
+        LicenseSnapshot after = change.getAfter();
+        if (before == null || after == null) {
+            return null;
+        }
+        StringJoiner details = new StringJoiner("; ");
+        diff(details, "productName", before.getProductName(), after.getProductName());
+        diff(details, "customerName", before.getCustomerName(), after.getCustomerName());
+        diff(details, "customerEmail", before.getCustomerEmail(), after.getCustomerEmail());
+        diff(details, "issueDate", before.getIssueDate(), after.getIssueDate());
+        diff(details, "expiryDate", before.getExpiryDate(), after.getExpiryDate());
+        diff(details, "status", before.getStatus(), after.getStatus());
+        diff(details, "maxUsers", before.getMaxUsers(), after.getMaxUsers());
+        diff(details, "description", before.getDescription(), after.getDescription());
+        if (details.length() == 0) {
+            return null;
+        }
+        // Fits license_audit.details
+        return details.length() > MAX_DETAILS ? details.toString().substring(0, MAX_DETAILS) : details.toString();
+    }
+    
+    private static void diff(StringJoiner details, String field, Object before, Object after) {
+        if (!Objects.equals(before, after)) {
+            details.add(field + ": " + before + " -> " + after);
+        }
+    }
+    
+    // Entries already offered are written before the application context closes the data source
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
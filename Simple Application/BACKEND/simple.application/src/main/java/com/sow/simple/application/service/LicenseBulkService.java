@@ -0,0 +1,415 @@
+package com.sow.simple.application.service;
+
+import com.sow.simple.application.dto.BulkLicenseRequest;
+import com.sow.simple.application.dto.BulkOperationStatus;
+import com.sow.simple.application.entity.LicenseStatus;
+import com.sow.simple.application.event.LicenseChange;
+import com.sow.simple.application.event.LicenseChangedEvent;
+import com.sow.simple.application.event.LicenseSnapshot;
+import com.sow.simple.application.exception.ResourceNotFoundException;
+import com.sow.simple.application.exception.ServiceUnavailableException;
+import com.sow.simple.application.util.Threads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk status changes, expiry extensions and deletes. Jobs run in the background and report progress
+ * per committed chunk. Each chunk is one transaction: lock the chunk's rows (re-checking the filter, so
+ * rows changed since they were selected are skipped rather than overwritten), apply one set-based
+ * statement, and publish the before/after snapshots once committed so caches, indexes and counters
+ * stay consistent. Chunks that already committed stay applied if a later chunk fails. An id list is
+ * resolved against the table first, so only existing, matching licenses are counted and processed.
+ */
+@Slf4j
+@Service
+public class LicenseBulkService {
+    
+    public enum Operation {
+        STATUS("status"), EXTEND_EXPIRY("extend-expiry"), DELETE("delete");
+        
+        private final String path;
+        
+        Operation(String path) {
+            this.path = path;
+        }
+    }
+    
+    private static final String SNAPSHOT_COLUMNS = "l.id, l.license_key, l.product_name, l.customer_name, " +
+            "l.customer_email, l.issue_date, l.expiry_date, l.status, l.max_users, l.current_users, l.description";
+    
+    private static final RowMapper<LicenseSnapshot> SNAPSHOT = (rs, rowNum) -> new LicenseSnapshot(
+            rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+            rs.getDate(6).toLocalDate(), rs.getDate(7).toLocalDate(), LicenseStatus.valueOf(rs.getString(8)),
+            rs.getObject(9, Integer.class), rs.getObject(10, Integer.class), rs.getString(11));
+    
+    private static final String EXTEND_EXPIRY = "UPDATE licenses SET expiry_date = ?, updated_at = ?, version = version + 1 WHERE id = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final int maxIds;
+    private final Duration jobRetention;
+    private final ThreadPoolExecutor executor;
+    
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Map<Operation, Timer> chunkTimers = new EnumMap<>(Operation.class);
+    private final Map<Operation, Counter> affectedCounters = new EnumMap<>(Operation.class);
+    private volatile boolean stopping;
+    
+    public LicenseBulkService(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              ApplicationEventPublisher eventPublisher,
+                              MeterRegistry meterRegistry,
+                              @Value("${licenses.bulk.chunk-size:500}") int chunkSize,
+                              @Value("${licenses.bulk.max-ids:100000}") int maxIds,
+                              @Value("${licenses.bulk.max-concurrent-jobs:2}") int maxConcurrentJobs,
+                              @Value("${licenses.bulk.queue-capacity:10}") int queueCapacity,
+                              @Value("${licenses.bulk.job-retention:1h}") Duration jobRetention,
+                              @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.maxIds = maxIds;
+        this.jobRetention = jobRetention;
+        this.executor = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Threads.factory("license-bulk", virtualThreads),
+                new ThreadPoolExecutor.AbortPolicy());
+        for (Operation operation : Operation.values()) {
+            chunkTimers.put(operation, Timer.builder("license.bulk.chunk")
+                    .description("Time to lock, update and commit one bulk operation chunk")
+                    .tag("operation", operation.path)
+                    .register(meterRegistry));
+            affectedCounters.put(operation, Counter.builder("license.bulk.affected")
+                    .description("Licenses changed or deleted by bulk operations")
+                    .tag("operation", operation.path)
+                    .register(meterRegistry));
+        }
+    }
+    
+    public BulkOperationStatus changeStatus(BulkLicenseRequest request) {
+        if (request.getNewStatus() == null) {
+            throw new IllegalArgumentException("newStatus is required");
+        }
+        return submit(Operation.STATUS, request);
+    }
+    
+    public BulkOperationStatus extendExpiry(BulkLicenseRequest request) {
+        if (request.getDays() == null || request.getDays() <= 0) {
+            throw new IllegalArgumentException("days must be a positive number");
+        }
+        return submit(Operation.EXTEND_EXPIRY, request);
+    }
+    
+    public BulkOperationStatus delete(BulkLicenseRequest request) {
+        return submit(Operation.DELETE, request);
+    }
+    
+    public BulkOperationStatus getJob(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Bulk job", "id", jobId);
+        }
+        return job.toStatus();
+    }
+    
+    private BulkOperationStatus submit(Operation operation, BulkLicenseRequest request) {
+        Selection selection = Selection.of(request, maxIds);
+        pruneFinishedJobs();
+        Job job = new Job(UUID.randomUUID().toString(), operation);
+        jobs.put(job.id, job);
+        try {
+            // Carries the requester's authentication to the job thread, so audit entries name them
+            executor.execute(new DelegatingSecurityContextRunnable(() -> run(job, selection, request)));
+        } catch (RejectedExecutionException ex) {
+            jobs.remove(job.id);
+            throw new ServiceUnavailableException("Too many bulk operations are queued, please retry later");
+        }
+        return job.toStatus();
+    }
+    
+    private void run(Job job, Selection selection, BulkLicenseRequest request) {
+        job.startedAt = LocalDateTime.now();
+        job.state = BulkOperationStatus.State.RUNNING;
+        try {
+            if (selection.ids() != null) {
+                List<Long> matching = matchingIds(job, selection);
+                job.matched = matching.size();
+                for (int from = 0; from < matching.size(); from += chunkSize) {
+                    checkNotStopping();
+                    List<Long> ids = matching.subList(from, Math.min(from + chunkSize, matching.size()));
+                    processChunk(job, selection, ids, request);
+                }
+            } else {
+                job.matched = count(selection);
+                // Keyset walk over matching ids; each chunk is locked and re-checked in its own transaction
+                String sql = "SELECT l.id FROM licenses l WHERE l.id > ?" + selection.filter() +
+                        " ORDER BY l.id FETCH FIRST " + chunkSize + " ROWS ONLY";
+                long afterId = 0;
+                while (true) {
+                    checkNotStopping();
+                    List<Long> ids = jdbcTemplate.queryForList(sql, Long.class, selection.args(afterId));
+                    if (ids.isEmpty()) {
+                        break;
+                    }
+                    processChunk(job, selection, ids, request);
+                    afterId = ids.get(ids.size() - 1);
+                    if (ids.size() < chunkSize) {
+                        break;
+                    }
+                }
+            }
+            job.finish(BulkOperationStatus.State.COMPLETED, null);
+            log.info("Bulk {} job {} finished: {} licenses affected", job.operation.path, job.id, job.affected.get());
+        } catch (RuntimeException ex) {
+            job.finish(BulkOperationStatus.State.FAILED, ex.getMessage());
+            log.warn("Bulk {} job {} failed after {} licenses", job.operation.path, job.id, job.processed.get(), ex);
+        }
+    }
+    
+    private void processChunk(Job job, Selection selection, List<Long> ids, BulkLicenseRequest request) {
+        String lock = "SELECT " + SNAPSHOT_COLUMNS + " FROM licenses l WHERE l.id IN (" + placeholders(ids.size()) + ")" +
+                selection.filter() + " ORDER BY l.id FOR UPDATE";
+        List<Object> args = new ArrayList<>(ids);
+        args.addAll(selection.filterArgs());
+        
+        List<LicenseChange> changes = chunkTimers.get(job.operation).record(() -> transactionTemplate.execute(status -> {
+            List<LicenseSnapshot> locked = jdbcTemplate.query(lock, SNAPSHOT, args.toArray());
+            return switch (job.operation) {
+                case STATUS -> applyStatus(locked, request.getNewStatus());
+                case EXTEND_EXPIRY -> applyExtension(locked, request.getDays());
+                case DELETE -> applyDelete(locked);
+            };
+        }));
+        job.processed.addAndGet(ids.size());
+        if (changes != null && !changes.isEmpty()) {
+            job.affected.addAndGet(changes.size());
+            affectedCounters.get(job.operation).increment(changes.size());
+            eventPublisher.publishEvent(new LicenseChangedEvent(changes));
+        }
+    }
+    
+    private List<LicenseChange> applyStatus(List<LicenseSnapshot> locked, LicenseStatus newStatus) {
+        List<LicenseChange> changes = new ArrayList<>(locked.size());
+        List<Object> args = new ArrayList<>(locked.size() + 2);
+        args.add(newStatus.name());
+        args.add(Timestamp.valueOf(LocalDateTime.now()));
+        for (LicenseSnapshot before : locked) {
+            if (before.getStatus() != newStatus) {
+                changes.add(LicenseChange.statusChanged(before, before.withStatus(newStatus)));
+                args.add(before.getId());
+            }
+        }
+        if (!changes.isEmpty()) {
+            jdbcTemplate.update("UPDATE licenses SET status = ?, updated_at = ?, version = version + 1 WHERE id IN (" +
+                    placeholders(changes.size()) + ")", args.toArray());
+        }
+        return changes;
+    }
+    
+    // Each row gets its own date, so this is one JDBC batch per chunk (a single round trip) rather than one
+    // statement; date arithmetic in SQL differs between PostgreSQL and H2
+    private List<LicenseChange> applyExtension(List<LicenseSnapshot> locked, int days) {
+        List<LicenseChange> changes = new ArrayList<>(locked.size());
+        List<Object[]> batch = new ArrayList<>(locked.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (LicenseSnapshot before : locked) {
+            LicenseSnapshot after = before.withExpiryDate(before.getExpiryDate().plusDays(days));
+            changes.add(LicenseChange.updated(before, after));
+            batch.add(new Object[]{Date.valueOf(after.getExpiryDate()), now, before.getId()});
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(EXTEND_EXPIRY, batch);
+        }
+        return changes;
+    }
+    
+    // Seat leases go with the license (ON DELETE CASCADE)
+    private List<LicenseChange> applyDelete(List<LicenseSnapshot> locked) {
+        if (locked.isEmpty()) {
+            return List.of();
+        }
+        List<LicenseChange> changes = new ArrayList<>(locked.size());
+        List<Object> ids = new ArrayList<>(locked.size());
+        for (LicenseSnapshot before : locked) {
+            changes.add(LicenseChange.deleted(before));
+            ids.add(before.getId());
+        }
+        jdbcTemplate.update("DELETE FROM licenses WHERE id IN (" + placeholders(ids.size()) + ")", ids.toArray());
+        return changes;
+    }
+    
+    // Splits the requested ids into those matching the filter (returned) and those no license has (recorded
+    // on the job); ids of licenses that exist but fail the filter are neither
+    private List<Long> matchingIds(Job job, Selection selection) {
+        String sql = "SELECT l.id, CASE WHEN 1 = 1" + selection.filter() + " THEN 1 ELSE 0 END FROM licenses l WHERE l.id IN (";
+        List<Long> matching = new ArrayList<>();
+        List<Long> unknown = new ArrayList<>();
+        for (int from = 0; from < selection.ids().size(); from += chunkSize) {
+            checkNotStopping();
+            List<Long> ids = selection.ids().subList(from, Math.min(from + chunkSize, selection.ids().size()));
+            List<Object> args = new ArrayList<>(selection.filterArgs());
+            args.addAll(ids);
+            Map<Long, Boolean> found = new HashMap<>();
+            RowCallbackHandler collect = rs -> found.put(rs.getLong(1), rs.getInt(2) == 1);
+            jdbcTemplate.query(sql + placeholders(ids.size()) + ")", collect, args.toArray());
+            for (Long id : ids) {
+                Boolean matches = found.get(id);
+                if (matches == null) {
+                    unknown.add(id);
+                } else if (matches) {
+                    matching.add(id);
+                }
+            }
+        }
+        job.unknownIds = List.copyOf(unknown);
+        return matching;
+    }
+    
+    private long count(Selection selection) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM licenses l WHERE 1 = 1" + selection.filter(),
+                Long.class, selection.filterArgs().toArray());
+        return count != null ? count : 0;
+    }
+    
+    private void checkNotStopping() {
+        if (stopping) {
+            throw new IllegalStateException("Stopped by application shutdown");
+        }
+    }
+    
+    private void pruneFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(jobRetention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+    
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+    
+    // Running jobs stop at the next chunk boundary; the current chunk either commits or rolls back whole
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        executor.shutdown();
+    }
+    
+    /**
+     * Ids (sorted, distinct) and/or filter predicates; {@code filter} is a list of {@code " AND ..."} clauses.
+     */
+    private record Selection(List<Long> ids, String filter, List<Object> filterArgs) {
+        
+        static Selection of(BulkLicenseRequest request, int maxIds) {
+            StringBuilder filter = new StringBuilder();
+            List<Object> args = new ArrayList<>();
+            if (request.getCustomerName() != null) {
+                filter.append(" AND UPPER(l.customer_name) = UPPER(?)");
+                args.add(request.getCustomerName());
+            }
+            if (request.getProductName() != null) {
+                filter.append(" AND UPPER(l.product_name) = UPPER(?)");
+                args.add(request.getProductName());
+            }
+            if (request.getStatus() != null) {
+                filter.append(" AND l.status = ?");
+                args.add(request.getStatus().name());
+            }
+            if (request.getExpiryFrom() != null) {
+                filter.append(" AND l.expiry_date >= ?");
+                args.add(Date.valueOf(request.getExpiryFrom()));
+            }
+            if (request.getExpiryTo() != null) {
+                filter.append(" AND l.expiry_date <= ?");
+                args.add(Date.valueOf(request.getExpiryTo()));
+            }
+            
+            List<Long> ids = null;
+            if (request.getIds() != null && !request.getIds().isEmpty()) {
+                if (request.getIds().size() > maxIds) {
+                    throw new IllegalArgumentException("At most " + maxIds + " ids per request; use a filter instead");
+                }
+                TreeSet<Long> sorted = new TreeSet<>();
+                for (Long id : request.getIds()) {
+                    if (id != null) {
+                        sorted.add(id);
+                    }
+                }
+                ids = List.copyOf(sorted);
+            } else if (filter.isEmpty()) {
+                throw new IllegalArgumentException("Give ids or at least one filter (customerName, productName, status, expiryFrom, expiryTo)");
+            }
+            return new Selection(ids, filter.toString(), List.copyOf(args));
+        }
+        
+        Object[] args(long afterId) {
+            List<Object> all = new ArrayList<>(filterArgs.size() + 1);
+            all.add(afterId);
+            all.addAll(filterArgs);
+            return all.toArray();
+        }
+    }
+    
+    private static final class Job {
+        
+        private final String id;
+        private final Operation operation;
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong affected = new AtomicLong();
+        private volatile BulkOperationStatus.State state = BulkOperationStatus.State.QUEUED;
+        private volatile long matched;
+        private volatile List<Long> unknownIds = List.of();
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+        
+        Job(String id, Operation operation) {
+            this.id = id;
+            this.operation = operation;
+        }
+        
+        // finishedAt is written first so a poller that sees the final state also sees when it was reached
+        void finish(BulkOperationStatus.State finalState, String failure) {
+            error = failure;
+            finishedAt = LocalDateTime.now();
+            state = finalState;
+        }
+        
+        BulkOperationStatus toStatus() {
+            return new BulkOperationStatus(id, operation.path, state, matched, unknownIds, processed.get(), affected.get(),
+                    startedAt, finishedAt, error);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.sow.simple.application.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sow.simple.application.dto.LicenseCertificateResponse;
+import com.sow.simple.application.dto.LicenseResponse;
+import com.sow.simple.application.exception.ResourceNotFoundException;
+import com.sow.simple.application.repository.LicenseRepository;
+import com.sow.simple.application.security.LicenseSigningKeys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Signature;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Signed license certificates for offline checks. A certificate is a compact JWS signed with the active
+ * Ed25519 key from {@link LicenseSigningKeys}; clients verify it with the license-verifier library and
+ * only come back once {@code refreshAfter} has passed, instead of calling {@code /licenses/validate} on
+ * every start. The claim names here are the ones the verifier reads.
+ */
+@Service
+public class LicenseCertificateService {
+    
+    public static final String TYPE = "license+jws";
+    
+    private final LicenseRepository licenseRepository;
+    private final LicenseKeyGenerator licenseKeyGenerator;
+    private final LicenseSigningKeys signingKeys;
+    private final ObjectMapper objectMapper;
+    private final String issuer;
+    private final Duration validity;
+    private final Duration refreshAfter;
+    private final Counter issued;
+    
+    public LicenseCertificateService(LicenseRepository licenseRepository,
+                                     LicenseKeyGenerator licenseKeyGenerator,
+                                     LicenseSigningKeys signingKeys,
+                                     ObjectMapper objectMapper,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${licenses.certificate.issuer:license-server}") String issuer,
+                                     @Value("${licenses.certificate.validity:7d}") Duration validity,
+                                     @Value("${licenses.certificate.refresh-after:1d}") Duration refreshAfter) {
+        if (refreshAfter.compareTo(validity) >= 0) {
+            throw new IllegalArgumentException("licenses.certificate.refresh-after must be shorter than the validity");
+        }
+        this.licenseRepository = licenseRepository;
+        this.licenseKeyGenerator = licenseKeyGenerator;
+        this.signingKeys = signingKeys;
+        this.objectMapper = objectMapper;
+        this.issuer = issuer;
+        this.validity = validity;
+        this.refreshAfter = refreshAfter;
+        this.issued = Counter.builder("license.certificate.issued")
+                .description("Signed license certificates issued")
+                .register(meterRegistry);
+    }
+    
+    @Transactional(readOnly = true)
+    public LicenseCertificateResponse issue(Long id) {
+        return sign(licenseRepository.findResponseById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("License", "id", id)));
+    }
+    
+    @Transactional(readOnly = true)
+    public LicenseCertificateResponse issueByKey(String licenseKey) {
+        if (!licenseKeyGenerator.isWellFormed(licenseKey)) {
+            throw new ResourceNotFoundException("License", "licenseKey", licenseKey);
+        }
+        return sign(licenseRepository.findResponseByLicenseKey(licenseKey)
+                .orElseThrow(() -> new ResourceNotFoundException("License", "licenseKey", licenseKey)));
+    }
+    
+    public Map<String, Object> keySet() {
+        return signingKeys.publishedKeySet();
+    }
+    
+    public String rotateKey() {
+        return signingKeys.rotate().keyId();
+    }
+    
+    private LicenseCertificateResponse sign(LicenseResponse license) {
+        LicenseSigningKeys.SigningKey key = signingKeys.activeKey();
+        // JWS times are whole seconds
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Instant refreshAt = now.plus(refreshAfter);
+        Instant expiresAt = now.plus(validity);
+        
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("alg", "EdDSA");
+        header.put("typ", TYPE);
+        header.put("kid", key.keyId());
+        
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("iss", issuer);
+        claims.put("lid", license.getId());
+        claims.put("sub", license.getLicenseKey());
+        claims.put("prd", license.getProductName());
+        claims.put("cus", license.getCustomerName());
+        claims.put("sts", license.getStatus().name());
+        claims.put("lexp", license.getExpiryDate().toString());
+        claims.put("max", license.getMaxUsers());
+        claims.put("iat", now.getEpochSecond());
+        claims.put("rfa", refreshAt.getEpochSecond());
+        claims.put("exp", expiresAt.getEpochSecond());
+        
+        String signingInput = encode(header) + "." + encode(claims);
+        try {
+            Signature signature = Signature.getInstance("Ed25519");
+            signature.initSign(key.privateKey());
+            signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+            String certificate = signingInput + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature.sign());
+            issued.increment();
+            return new LicenseCertificateResponse(certificate, key.keyId(), now, refreshAt, expiresAt);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Could not sign license certificate", ex);
+        }
+    }
+    
+    private String encode(Map<String, Object> json) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(json));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize license certificate", ex);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.sow.simple.application.service;
+
+import com.sow.simple.application.event.LicenseChangedEvent;
+import com.sow.simple.application.event.LicenseSeatsChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collection ETag for license list endpoints, built without touching the database: a counter bumped by
+ * every license and seat change event, plus the process start so a restart never reuses a tag.
+ * Changes made through other nodes are not seen here, so the tag also rolls over every
+ * {@code licenses.etag.collection-max-age}; that bounds how long a 304 can hide another node's write
+ * (and covers the expired list moving with the date).
+ */
+@Component
+public class LicenseChangeCounter {
+    
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong changes = new AtomicLong();
+    private final long windowMillis;
+    
+    public LicenseChangeCounter(@Value("${licenses.etag.collection-max-age:60s}") Duration collectionMaxAge) {
+        this.windowMillis = Math.max(1, collectionMaxAge.toMillis());
+    }
+    
+    @EventListener
+    public void onLicenseChanged(LicenseChangedEvent event) {
+        changes.incrementAndGet();
+    }
+    
+    @EventListener
+    public void onSeatsChanged(LicenseSeatsChangedEvent event) {
+        changes.incrementAndGet();
+    }
+    
+    // Read before running the list query: a change racing the query then makes the next tag differ, never match
+    public String collectionETag() {
+        return "\"c" + epoch + "-" + changes.get() + "-" + System.currentTimeMillis() / windowMillis + "\"";
+    }
+}
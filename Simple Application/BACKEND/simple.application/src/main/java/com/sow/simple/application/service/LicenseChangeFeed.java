@@ -0,0 +1,324 @@
+package com.sow.simple.application.service;
+
+import com.sow.simple.application.dto.LicenseFeedEvent;
+import com.sow.simple.application.event.LicenseChange;
+import com.sow.simple.application.event.LicenseChangeType;
+import com.sow.simple.application.event.LicenseChangedEvent;
+import com.sow.simple.application.event.LicenseSnapshot;
+import com.sow.simple.application.exception.ServiceUnavailableException;
+import com.sow.simple.application.util.Threads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server-Sent Events feed of license changes for {@code GET /licenses/changes}. Every committed change gets
+ * a sequence number and goes into a bounded replay log, so a client reconnecting with {@code Last-Event-ID}
+ * receives what it missed; when the log no longer reaches back that far (or the server restarted) it gets a
+ * {@code reset} event and should reload the list. Subscribers are async requests, not threads: each only
+ * holds its pending events, keyed by license id so repeated changes to one license collapse into the latest,
+ * and a virtual thread writes to a subscriber only while it has something pending. A subscriber that
+ * falls more than {@code licenses.changes.max-pending} licenses behind is sent a {@code reset} instead.
+ */
+@Service
+public class LicenseChangeFeed {
+    
+    private static final String LICENSE_EVENT = "license";
+    private static final String RESET_EVENT = "reset";
+    
+    // Event ids are <epoch>-<sequence>; ids from before a restart are recognised and answered with a reset
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final int replaySize;
+    private final int maxPending;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final ExecutorService senders;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Entry> replay = new ArrayDeque<>();
+    private long lastSequence;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    
+    private final Counter sent;
+    private final Counter coalesced;
+    private final Counter resets;
+    
+    private record Entry(long sequence, LicenseFeedEvent event) {
+    }
+    
+    public LicenseChangeFeed(MeterRegistry meterRegistry,
+                             @Value("${licenses.changes.replay-size:10000}") int replaySize,
+                             @Value("${licenses.changes.max-pending:5000}") int maxPending,
+                             @Value("${licenses.changes.max-subscribers:5000}") int maxSubscribers,
+                             @Value("${licenses.changes.timeout:30m}") Duration timeout) {
+        this.replaySize = replaySize;
+        this.maxPending = maxPending;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeout.toMillis();
+        // One virtual thread per draining subscriber, whatever the serving mode: a send blocks on the client's
+        // socket, and a fixed pool would let a few stalled clients hold up delivery to everyone else
+        this.senders = Executors.newThreadPerTaskExecutor(Threads.factory("license-feed", true));
+        
+        this.sent = Counter.builder("license.changes.sent")
+                .description("License events written to change feed subscribers")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("license.changes.coalesced")
+                .description("License events replaced by a later change to the same license before being sent")
+                .register(meterRegistry);
+        this.resets = Counter.builder("license.changes.resets")
+                .description("Subscribers told to reload because the replay log or their backlog could not cover the gap")
+                .register(meterRegistry);
+        Gauge.builder("license.changes.subscribers", subscribers, Set::size)
+                .description("Open change feed streams")
+                .register(meterRegistry);
+    }
+    
+    public SseEmitter subscribe(String lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ServiceUnavailableException("Too many change feed subscribers, please retry later");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(ex -> subscribers.remove(subscriber));
+        
+        // Replay and registration happen under the publish lock, so no change falls in between
+        lock.lock();
+        try {
+            if (lastEventId != null) {
+                long from = parseSequence(lastEventId);
+                long oldest = replay.isEmpty() ? lastSequence + 1 : replay.peekFirst().sequence();
+                if (from < 0 || from > lastSequence || from + 1 < oldest) {
+                    subscriber.reset(lastSequence);
+                } else {
+                    for (Entry entry : replay) {
+                        if (entry.sequence() > from) {
+                            subscriber.enqueue(entry);
+                        }
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+        } finally {
+            lock.unlock();
+        }
+        // A first comment commits the response, so clients see the stream open before any change
+        subscriber.heartbeat();
+        return emitter;
+    }
+    
+    @EventListener
+    public void onLicenseChanged(LicenseChangedEvent event) {
+        lock.lock();
+        try {
+            for (LicenseChange change : event.getChanges()) {
+                Entry entry = new Entry(++lastSequence, toFeedEvent(change));
+                replay.addLast(entry);
+                if (replay.size() > replaySize) {
+                    replay.removeFirst();
+                }
+                for (Subscriber subscriber : subscribers) {
+                    subscriber.enqueue(entry);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        subscribers.forEach(Subscriber::schedule);
+    }
+    
+    // Keeps idle connections alive through proxies and finds clients that went away
+    @Scheduled(fixedDelayString = "${licenses.changes.heartbeat-interval:30000}")
+    public void heartbeat() {
+        subscribers.forEach(Subscriber::heartbeat);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+    
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+    
+    // -1 for ids this process did not hand out
+    private long parseSequence(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        if (dash < 0 || !eventId.substring(0, dash).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+    
+    private static LicenseFeedEvent toFeedEvent(LicenseChange change) {
+        LicenseSnapshot state = change.getAfter() != null ? change.getAfter() : change.getBefore();
+        return new LicenseFeedEvent(change.getType(), state.getId(), state.getLicenseKey(), state.getStatus());
+    }
+    
+    private final class Subscriber {
+        
+        private final SseEmitter emitter;
+        private final ReentrantLock pendingLock = new ReentrantLock();
+        // Latest pending change per license, in sequence order
+        private final Map<Long, Entry> pending = new LinkedHashMap<>();
+        private long resetSequence = -1;
+        private boolean heartbeatDue;
+        private boolean scheduled;
+        private boolean closed;
+        
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+        
+        private void enqueue(Entry entry) {
+            pendingLock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                Long licenseId = entry.event().getLicenseId();
+                // Removing first moves the license to the end, keeping ids increasing in send order
+                Entry previous = pending.remove(licenseId);
+                if (previous != null) {
+                    coalesced.increment();
+                    // Created and then edited before being sent is still news of a new license
+                    if (previous.event().getType() == LicenseChangeType.CREATED && entry.event().getType() != LicenseChangeType.DELETED) {
+                        LicenseFeedEvent event = entry.event();
+                        entry = new Entry(entry.sequence(), new LicenseFeedEvent(LicenseChangeType.CREATED,
+                                event.getLicenseId(), event.getLicenseKey(), event.getStatus()));
+                    }
+                }
+                if (pending.size() >= maxPending) {
+                    // Too far behind to catch up event by event; everything up to here is covered by a reload
+                    pending.clear();
+                    reset(entry.sequence());
+                    return;
+                }
+                pending.put(licenseId, entry);
+            } finally {
+                pendingLock.unlock();
+            }
+        }
+        
+        private void reset(long sequence) {
+            pendingLock.lock();
+            try {
+                resetSequence = sequence;
+                resets.increment();
+            } finally {
+                pendingLock.unlock();
+            }
+        }
+        
+        private void heartbeat() {
+            pendingLock.lock();
+            try {
+                heartbeatDue = true;
+            } finally {
+                pendingLock.unlock();
+            }
+            schedule();
+        }
+        
+        private void schedule() {
+            pendingLock.lock();
+            try {
+                if (scheduled || closed || (pending.isEmpty() && resetSequence < 0 && !heartbeatDue)) {
+                    return;
+                }
+                scheduled = true;
+            } finally {
+                pendingLock.unlock();
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException ex) {
+                // Shutting down
+            }
+        }
+        
+        // Writes until nothing is pending; a slow client blocks only its own thread while its backlog coalesces
+        private void drain() {
+            while (true) {
+                List<Entry> batch;
+                long reset;
+                boolean ping;
+                pendingLock.lock();
+                try {
+                    if (closed || (pending.isEmpty() && resetSequence < 0 && !heartbeatDue)) {
+                        scheduled = false;
+                        return;
+                    }
+                    batch = new ArrayList<>(pending.values());
+                    pending.clear();
+                    reset = resetSequence;
+                    resetSequence = -1;
+                    ping = heartbeatDue;
+                    heartbeatDue = false;
+                } finally {
+                    pendingLock.unlock();
+                }
+                
+                try {
+                    if (ping) {
+                        emitter.send(SseEmitter.event().comment("keepalive"));
+                    }
+                    if (reset >= 0) {
+                        emitter.send(SseEmitter.event().id(eventId(reset)).name(RESET_EVENT).data(""));
+                    }
+                    for (Entry entry : batch) {
+                        emitter.send(SseEmitter.event()
+                                .id(eventId(entry.sequence()))
+                                .name(LICENSE_EVENT)
+                                .data(entry.event(), MediaType.APPLICATION_JSON));
+                    }
+                    sent.increment(batch.size());
+                } catch (IOException | IllegalStateException ex) {
+                    // Client gone or the stream already completed
+                    close();
+                    emitter.completeWithError(ex);
+                    return;
+                }
+            }
+        }
+        
+        private void close() {
+            pendingLock.lock();
+            try {
+                closed = true;
+                pending.clear();
+            } finally {
+                pendingLock.unlock();
+            }
+            subscribers.remove(this);
+        }
+    }
+}
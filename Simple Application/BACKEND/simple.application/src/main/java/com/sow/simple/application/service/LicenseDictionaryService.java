@@ -0,0 +1,107 @@
+package com.sow.simple.application.service;
+
+import com.sow.simple.application.dto.NameCountView;
+import com.sow.simple.application.event.LicenseChange;
+import com.sow.simple.application.event.LicenseChangedEvent;
+import com.sow.simple.application.event.LicenseSnapshot;
+import com.sow.simple.application.repository.LicenseRepository;
+import com.sow.simple.application.util.RefCountedDictionary;
+import com.sow.simple.application.util.ReplayingRebuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory customer and product name dictionaries behind {@code /licenses/customers} and
+ * {@code /licenses/products}. Each name is counted once per license using it; license change
+ * events adjust the counts, so the lists and prefix lookups never query the database.
+ * A periodic GROUP BY rebuild ({@link ReplayingRebuilder}) corrects any drift (e.g. writes made on another node).
+ */
+@Slf4j
+@Service
+public class LicenseDictionaryService {
+    
+    private final LicenseRepository licenseRepository;
+    private final int maxSuggestions;
+    
+    private final ReplayingRebuilder<Names, LicenseChange> names = new ReplayingRebuilder<>(LicenseDictionaryService::apply);
+    
+    public LicenseDictionaryService(LicenseRepository licenseRepository,
+                                    @Value("${licenses.dictionary.max-suggestions:100}") int maxSuggestions) {
+        this.licenseRepository = licenseRepository;
+        this.maxSuggestions = maxSuggestions;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${licenses.dictionary.reconcile-interval:600000}",
+               initialDelayString = "${licenses.dictionary.reconcile-interval:600000}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Names loaded = names.rebuild(() -> new Names(
+                RefCountedDictionary.of(toMap(licenseRepository.countByCustomerName())),
+                RefCountedDictionary.of(toMap(licenseRepository.countByProductName()))));
+        log.debug("Loaded {} customer and {} product names in {} ms",
+                loaded.customers().size(), loaded.products().size(), System.currentTimeMillis() - start);
+    }
+    
+    @EventListener
+    public void onLicenseChanged(LicenseChangedEvent event) {
+        event.getChanges().forEach(names::apply);
+    }
+    
+    public List<String> getCustomerNames(String prefix, Integer limit) {
+        Names current = names.current();
+        if (current == null) {
+            return prefix == null ? licenseRepository.findAllCustomerNames() : List.of();
+        }
+        return lookup(current.customers(), prefix, limit);
+    }
+    
+    public List<String> getProductNames(String prefix, Integer limit) {
+        Names current = names.current();
+        if (current == null) {
+            return prefix == null ? licenseRepository.findAllProductNames() : List.of();
+        }
+        return lookup(current.products(), prefix, limit);
+    }
+    
+    private List<String> lookup(RefCountedDictionary dictionary, String prefix, Integer limit) {
+        if (prefix == null) {
+            return dictionary.names();
+        }
+        int size = limit == null ? 10 : Math.max(1, Math.min(limit, maxSuggestions));
+        return dictionary.startingWith(prefix, size);
+    }
+    
+    private static void apply(Names target, LicenseChange change) {
+        apply(target.customers(), change, LicenseSnapshot::getCustomerName);
+        apply(target.products(), change, LicenseSnapshot::getProductName);
+    }
+    
+    private static void apply(RefCountedDictionary dictionary, LicenseChange change,
+                              Function<LicenseSnapshot, String> name) {
+        String before = change.getBefore() != null ? name.apply(change.getBefore()) : null;
+        String after = change.getAfter() != null ? name.apply(change.getAfter()) : null;
+        if (Objects.equals(before, after)) {
+            return;
+        }
+        dictionary.decrement(before);
+        dictionary.increment(after);
+    }
+    
+    private static Map<String, Long> toMap(List<NameCountView> rows) {
+        return rows.stream().collect(Collectors.toMap(NameCountView::getName, NameCountView::getCount));
+    }
+    
+    private record Names(RefCountedDictionary customers, RefCountedDictionary products) {
+    }
+}
@@ -0,0 +1,311 @@
+package com.sow.simple.application.service;
+
+import com.sow.simple.application.dto.LicenseExpiryView;
+import com.sow.simple.application.entity.LicenseStatus;
+import com.sow.simple.application.event.LicenseChange;
+import com.sow.simple.application.event.LicenseChangedEvent;
+import com.sow.simple.application.event.LicenseSnapshot;
+import com.sow.simple.application.repository.LicenseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves ACTIVE licenses to EXPIRED once their expiry date is reached (a license expiring on D is
+ * expired from the start of D, matching {@code findExpiredLicenses}).
+ * Only licenses expiring within the next {@code licenses.expiry.horizon-days} are held in memory,
+ * ordered by date; the window is extended a day at a time, and license change events keep it current.
+ * Due licenses are flipped with chunked set-based updates. On startup, and periodically as a safety
+ * net for changes made on other nodes, an index-backed catch-up query flips anything already due.
+ */
+@Slf4j
+@Service
+public class LicenseExpiryEngine {
+    
+    private final LicenseRepository licenseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int horizonDays;
+    private final int chunkSize;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TreeMap<LocalDate, Set<Long>> idsByDate = new TreeMap<>();
+    private final Map<Long, LocalDate> dateById = new HashMap<>();
+    private LocalDate loadedThrough;
+    private volatile boolean started;
+    
+    private final Counter expired;
+    private final Timer runTimer;
+    
+    public LicenseExpiryEngine(LicenseRepository licenseRepository,
+                               PlatformTransactionManager transactionManager,
+                               ApplicationEventPublisher eventPublisher,
+                               MeterRegistry meterRegistry,
+                               @Value("${licenses.expiry.horizon-days:7}") int horizonDays,
+                               @Value("${licenses.expiry.chunk-size:500}") int chunkSize) {
+        this.licenseRepository = licenseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.horizonDays = horizonDays;
+        this.chunkSize = chunkSize;
+        
+        this.expired = Counter.builder("license.expiry.expired")
+                .description("Licenses moved from ACTIVE to EXPIRED")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("license.expiry.run")
+                .description("Time spent per expiry pass")
+                .register(meterRegistry);
+        Gauge.builder("license.expiry.pending", this, engine -> engine.pendingCount())
+                .description("Licenses scheduled in memory to expire within the horizon")
+                .register(meterRegistry);
+        Gauge.builder("license.expiry.lag.seconds", this, engine -> engine.lagSeconds())
+                .description("How long the oldest due license has been waiting to be expired")
+                .register(meterRegistry);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        LocalDate today = LocalDate.now();
+        catchUp(today);
+        lock.lock();
+        try {
+            loadedThrough = today;
+        } finally {
+            lock.unlock();
+        }
+        extendWindow(today.plusDays(horizonDays));
+        started = true;
+    }
+    
+    @Scheduled(fixedDelayString = "${licenses.expiry.tick-interval:60000}")
+    public void tick() {
+        if (!started) {
+            return;
+        }
+        runTimer.record(() -> {
+            LocalDate today = LocalDate.now();
+            extendWindow(today.plusDays(horizonDays));
+            List<Long> due = takeDue(today);
+            for (int from = 0; from < due.size(); from += chunkSize) {
+                List<Long> chunk = due.subList(from, Math.min(from + chunkSize, due.size()));
+                try {
+                    expire(chunk, today);
+                } catch (RuntimeException ex) {
+                    log.warn("Expiring {} licenses failed, will retry on the next tick", chunk.size(), ex);
+                    chunk.forEach(id -> schedule(id, today));
+                }
+            }
+        });
+    }
+    
+    // Safety net for licenses the in-memory window missed (e.g. created or edited on another node)
+    @Scheduled(fixedDelayString = "${licenses.expiry.catch-up-interval:3600000}",
+               initialDelayString = "${licenses.expiry.catch-up-interval:3600000}")
+    public void scheduledCatchUp() {
+        if (started) {
+            runTimer.record(() -> catchUp(LocalDate.now()));
+        }
+    }
+    
+    @EventListener
+    public void onLicenseChanged(LicenseChangedEvent event) {
+        for (LicenseChange change : event.getChanges()) {
+            unschedule(change.getLicenseId());
+            LicenseSnapshot after = change.getAfter();
+            if (after != null && after.getStatus() == LicenseStatus.ACTIVE) {
+                lock.lock();
+                try {
+                    // Beyond the window the license is picked up when the window reaches its date
+                    if (loadedThrough != null && !after.getExpiryDate().isAfter(loadedThrough)) {
+                        schedule(after.getId(), after.getExpiryDate());
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+    
+    private void catchUp(LocalDate today) {
+        long start = System.currentTimeMillis();
+        int total = 0;
+        Long afterId = 0L;
+        while (true) {
+            List<Long> ids = licenseRepository.findIdsExpiringOnOrBefore(LicenseStatus.ACTIVE, today, afterId,
+                    PageRequest.ofSize(chunkSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            total += expire(ids, today);
+            afterId = ids.get(ids.size() - 1);
+            if (ids.size() < chunkSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Expiry catch-up expired {} licenses in {} ms", total, System.currentTimeMillis() - start);
+        }
+    }
+    
+    // Loads (loadedThrough, through] page by page; only id and date are read
+    private void extendWindow(LocalDate through) {
+        LocalDate from;
+        lock.lock();
+        try {
+            if (!through.isAfter(loadedThrough)) {
+                return;
+            }
+            from = loadedThrough.plusDays(1);
+        } finally {
+            lock.unlock();
+        }
+        
+        LocalDate afterDate = from.minusDays(1);
+        Long afterId = 0L;
+        int loaded = 0;
+        while (true) {
+            List<LicenseExpiryView> page = licenseRepository.findLicensesExpiringBetween(LicenseStatus.ACTIVE,
+                    from, through, afterDate, afterId, PageRequest.ofSize(chunkSize));
+            lock.lock();
+            try {
+                page.forEach(view -> schedule(view.getId(), view.getExpiryDate()));
+            } finally {
+                lock.unlock();
+            }
+            loaded += page.size();
+            if (page.size() < chunkSize) {
+                break;
+            }
+            LicenseExpiryView last = page.get(page.size() - 1);
+            afterDate = last.getExpiryDate();
+            afterId = last.getId();
+        }
+        lock.lock();
+        try {
+            loadedThrough = through;
+        } finally {
+            lock.unlock();
+        }
+        log.debug("Expiry window extended to {} ({} licenses loaded)", through, loaded);
+    }
+    
+    private List<Long> takeDue(LocalDate today) {
+        List<Long> due = new ArrayList<>();
+        lock.lock();
+        try {
+            Iterator<Map.Entry<LocalDate, Set<Long>>> it = idsByDate.headMap(today, true).entrySet().iterator();
+            while (it.hasNext()) {
+                for (Long id : it.next().getValue()) {
+                    dateById.remove(id);
+                    due.add(id);
+                }
+                it.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return due;
+    }
+    
+    // Locks the chunk's still-due rows, flips exactly those in a single UPDATE, then publishes them once committed
+    private int expire(List<Long> ids, LocalDate today) {
+        List<LicenseSnapshot> expiredNow = transactionTemplate.execute(status -> {
+            List<LicenseSnapshot> due = licenseRepository.lockSnapshotsExpiringOnOrBefore(ids, LicenseStatus.ACTIVE,
+                    today);
+            if (!due.isEmpty()) {
+                licenseRepository.updateStatus(due.stream().map(LicenseSnapshot::getId).toList(),
+                        LicenseStatus.EXPIRED, LocalDateTime.now());
+            }
+            return due;
+        });
+        if (expiredNow.isEmpty()) {
+            return 0;
+        }
+        expired.increment(expiredNow.size());
+        List<LicenseChange> changes = new ArrayList<>(expiredNow.size());
+        for (LicenseSnapshot before : expiredNow) {
+            changes.add(LicenseChange.statusChanged(before, before.withStatus(LicenseStatus.EXPIRED)));
+        }
+        eventPublisher.publishEvent(new LicenseChangedEvent(changes));
+        return expiredNow.size();
+    }
+    
+    private void schedule(Long id, LocalDate date) {
+        lock.lock();
+        try {
+            LocalDate previous = dateById.put(id, date);
+            if (previous != null) {
+                removeFromDate(id, previous);
+            }
+            idsByDate.computeIfAbsent(date, d -> new HashSet<>()).add(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void unschedule(Long id) {
+        lock.lock();
+        try {
+            LocalDate previous = dateById.remove(id);
+            if (previous != null) {
+                removeFromDate(id, previous);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void removeFromDate(Long id, LocalDate date) {
+        Set<Long> ids = idsByDate.get(date);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            idsByDate.remove(date);
+        }
+    }
+    
+    private int pendingCount() {
+        lock.lock();
+        try {
+            return dateById.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private double lagSeconds() {
+        LocalDate oldest;
+        lock.lock();
+        try {
+            oldest = idsByDate.isEmpty() ? null : idsByDate.firstKey();
+        } finally {
+            lock.unlock();
+        }
+        if (oldest == null || oldest.isAfter(LocalDate.now())) {
+            return 0;
+        }
+        return Duration.between(oldest.atStartOfDay(), LocalDateTime.now()).toSeconds();
+    }
+}
@@ -0,0 +1,224 @@
+package com.sow.simple.application.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sow.simple.application.dto.ExportFormat;
+import com.sow.simple.application.dto.LicenseFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams licenses straight from a forward-only JDBC cursor to the response, one row at a time.
+ * No entities are hydrated and nothing is collected, so heap use does not grow with the table.
+ */
+@Service
+public class LicenseExportService {
+    
+    private static final String[] COLUMNS = {
+            "id", "licenseKey", "productName", "customerName", "customerEmail", "issueDate", "expiryDate",
+            "status", "maxUsers", "currentUsers", "description", "createdAt", "updatedAt"
+    };
+    
+    private static final String SELECT = "SELECT l.id, l.license_key, l.product_name, l.customer_name, l.customer_email, " +
+            "l.issue_date, l.expiry_date, l.status, l.max_users, l.current_users, l.description, l.created_at, l.updated_at " +
+            "FROM licenses l";
+    
+    private static final int FLUSH_EVERY_ROWS = 1000;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+    
+    public LicenseExportService(DataSource dataSource,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                @Value("${licenses.export.fetch-size:1000}") int fetchSize,
+                                @Value("${licenses.export.timeout:30m}") Duration timeout) {
+        // Dedicated template so the fetch size only applies to exports
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        // PostgreSQL only honours the fetch size (server-side cursor) with autocommit off
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+    }
+    
+    /**
+     * How long a single export request may stream before the container times it out.
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+    
+    public void export(LicenseFilter filter, ExportFormat format, OutputStream out) {
+        List<Object> args = new ArrayList<>();
+        String sql = SELECT + where(filter, args) + " ORDER BY l.id";
+        
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try {
+                if (format == ExportFormat.CSV) {
+                    exportCsv(sql, args, out);
+                } else {
+                    exportNdjson(sql, args, out);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+    
+    private static String where(LicenseFilter filter, List<Object> args) {
+        StringBuilder where = new StringBuilder();
+        if (filter.getCustomerName() != null) {
+            where.append(" AND UPPER(l.customer_name) = UPPER(?)");
+            args.add(filter.getCustomerName());
+        }
+        if (filter.getProductName() != null) {
+            where.append(" AND UPPER(l.product_name) = UPPER(?)");
+            args.add(filter.getProductName());
+        }
+        if (filter.getStatus() != null) {
+            where.append(" AND l.status = ?");
+            args.add(filter.getStatus().name());
+        }
+        if (filter.isExpired()) {
+            where.append(" AND l.expiry_date <= ?");
+            args.add(Date.valueOf(LocalDate.now()));
+        }
+        return where.isEmpty() ? "" : " WHERE" + where.substring(4);
+    }
+    
+    private void exportNdjson(String sql, List<Object> args, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // One object per line; the default separator between root values is a space
+        generator.setRootValueSeparator(null);
+        long[] rows = {0};
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+            try {
+                generator.writeStartObject();
+                generator.writeNumberField(COLUMNS[0], rs.getLong(1));
+                for (int i = 2; i <= 7; i++) {
+                    writeStringField(generator, COLUMNS[i - 1], text(rs, i));
+                }
+                writeStringField(generator, COLUMNS[7], rs.getString(8));
+                writeIntField(generator, COLUMNS[8], rs, 9);
+                writeIntField(generator, COLUMNS[9], rs, 10);
+                writeStringField(generator, COLUMNS[10], rs.getString(11));
+                writeStringField(generator, COLUMNS[11], text(rs, 12));
+                writeStringField(generator, COLUMNS[12], text(rs, 13));
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                flushPeriodically(generator, ++rows[0]);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }, args.toArray());
+        generator.flush();
+    }
+    
+    private void exportCsv(String sql, List<Object> args, OutputStream out) throws IOException {
+        out.write((String.join(",", COLUMNS) + "\n").getBytes(StandardCharsets.UTF_8));
+        // Header goes out before the query runs, so the client sees the first byte immediately
+        out.flush();
+        StringBuilder line = new StringBuilder(256);
+        long[] rows = {0};
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+            line.setLength(0);
+            for (int i = 1; i <= COLUMNS.length; i++) {
+                if (i > 1) {
+                    line.append(',');
+                }
+                appendCsv(line, text(rs, i));
+            }
+            line.append('\n');
+            try {
+                out.write(line.toString().getBytes(StandardCharsets.UTF_8));
+                if (++rows[0] % FLUSH_EVERY_ROWS == 0) {
+                    out.flush();
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }, args.toArray());
+        out.flush();
+    }
+    
+    private static void flushPeriodically(JsonGenerator generator, long rows) throws IOException {
+        if (rows == 1 || rows % FLUSH_EVERY_ROWS == 0) {
+            generator.flush();
+        }
+    }
+    
+    private static String text(ResultSet rs, int column) throws SQLException {
+        Object value = rs.getObject(column);
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Date date) {
+            return date.toLocalDate().toString();
+        }
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        return value.toString();
+    }
+    
+    private static void writeStringField(JsonGenerator generator, String name, String value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(name);
+        } else {
+            generator.writeStringField(name, value);
+        }
+    }
+    
+    private static void writeIntField(JsonGenerator generator, String name, ResultSet rs, int column) throws IOException, SQLException {
+        int value = rs.getInt(column);
+        if (rs.wasNull()) {
+            generator.writeNullField(name);
+        } else {
+            generator.writeNumberField(name, value);
+        }
+    }
+    
+    private static void appendCsv(StringBuilder line, String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,340 @@
+package com.sow.simple.application.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sow.simple.application.dto.BulkImportResult;
+import com.sow.simple.application.dto.ExportFormat;
+import com.sow.simple.application.dto.LicenseRequest;
+import com.sow.simple.application.entity.License;
+import com.sow.simple.application.entity.LicenseStatus;
+import com.sow.simple.application.entity.User;
+import com.sow.simple.application.event.LicenseChange;
+import com.sow.simple.application.event.LicenseChangedEvent;
+import com.sow.simple.application.event.LicenseSnapshot;
+import com.sow.simple.application.exception.ResourceNotFoundException;
+import com.sow.simple.application.repository.LicenseRepository;
+import com.sow.simple.application.repository.UserRepository;
+import com.sow.simple.application.util.CsvReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk license import. Records are read as a stream and processed in chunks: one set-based
+ * duplicate-key query per chunk, then a single transaction whose inserts Hibernate sends as
+ * JDBC batches (ids come from the pooled licenses_seq, so no per-row round-trip is needed).
+ * If a chunk's batch fails, its rows are retried one by one and the rows the database still
+ * rejects are reported as failed, so one bad row never aborts the rest of the upload.
+ */
+@Slf4j
+@Service
+public class LicenseImportService {
+    
+    private final LicenseRepository licenseRepository;
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LicenseKeyGenerator licenseKeyGenerator;
+    private final int chunkSize;
+    
+    public LicenseImportService(LicenseRepository licenseRepository,
+                                UserRepository userRepository,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                Validator validator,
+                                ApplicationEventPublisher eventPublisher,
+                                LicenseKeyGenerator licenseKeyGenerator,
+                                @Value("${licenses.import.chunk-size:1000}") int chunkSize) {
+        this.licenseRepository = licenseRepository;
+        this.userRepository = userRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.licenseKeyGenerator = licenseKeyGenerator;
+        this.chunkSize = chunkSize;
+    }
+    
+    public BulkImportResult importLicenses(InputStream in, ExportFormat format, String username) throws IOException {
+        long start = System.currentTimeMillis();
+        User creator = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        
+        BulkImportResult result = new BulkImportResult();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RecordSource source = format == ExportFormat.CSV ? csvSource(reader) : ndjsonSource(reader);
+        
+        List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+        ParsedRow row;
+        while ((row = source.next()) != null) {
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                processChunk(chunk, creator.getId(), result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(chunk, creator.getId(), result);
+        }
+        
+        result.getRows().sort(Comparator.comparingInt(BulkImportResult.RowResult::getRow));
+        result.setDurationMillis(System.currentTimeMillis() - start);
+        return result;
+    }
+    
+    private void processChunk(List<ParsedRow> chunk, Long creatorId, BulkImportResult result) {
+        List<ParsedRow> candidates = new ArrayList<>(chunk.size());
+        Set<String> keysInChunk = new HashSet<>();
+        for (ParsedRow row : chunk) {
+            if (row.error() == null) {
+                String violation = validate(row.request());
+                if (violation != null) {
+                    row = row.failed(violation);
+                } else if (!licenseKeyGenerator.isWellFormed(row.request().getLicenseKey())) {
+                    row = row.failed("Invalid license key format");
+                } else if (!keysInChunk.add(row.request().getLicenseKey())) {
+                    row = row.failed("Duplicate license key in upload");
+                }
+            }
+            if (row.error() != null) {
+                record(result, row, null);
+            } else {
+                candidates.add(row);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+        
+        Set<String> existing = new HashSet<>(licenseRepository.findExistingLicenseKeys(keysInChunk));
+        List<ParsedRow> toInsert = new ArrayList<>(candidates.size());
+        for (ParsedRow row : candidates) {
+            if (existing.contains(row.request().getLicenseKey())) {
+                record(result, row.failed("License key already exists"), null);
+            } else {
+                toInsert.add(row);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return;
+        }
+        
+        try {
+            List<License> saved = insert(toInsert, creatorId);
+            for (int i = 0; i < toInsert.size(); i++) {
+                record(result, toInsert.get(i), saved.get(i).getId());
+            }
+            publishCreated(saved);
+        } catch (DataIntegrityViolationException | PersistenceException ex) {
+            // A concurrent writer took one of the keys, or a row breaks a constraint; fall back to row-by-row for this chunk only
+            for (ParsedRow row : toInsert) {
+                try {
+                    List<License> saved = insert(List.of(row), creatorId);
+                    record(result, row, saved.get(0).getId());
+                    publishCreated(saved);
+                } catch (DataIntegrityViolationException | PersistenceException rowEx) {
+                    if (isDuplicateKey(rowEx, row.request().getLicenseKey())) {
+                        record(result, row.failed("License key already exists"), null);
+                    } else {
+                        log.warn("Import row {} rejected by the database", row.number(), rowEx);
+                        record(result, row.failed("Rejected by the database"), null);
+                    }
+                }
+            }
+        }
+    }
+    
+    // Only a lost race on license_key is reported as a duplicate; other rejections get a generic message
+    private boolean isDuplicateKey(RuntimeException ex, String licenseKey) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                // The unique constraint is unnamed in the schema, so check the key itself instead of the name
+                return violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE
+                        && !licenseRepository.findExistingLicenseKeys(List.of(licenseKey)).isEmpty();
+            }
+        }
+        return false;
+    }
+    
+    private List<License> insert(List<ParsedRow> rows, Long creatorId) {
+        return transactionTemplate.execute(status -> {
+            User creator = entityManager.getReference(User.class, creatorId);
+            List<License> licenses = new ArrayList<>(rows.size());
+            for (ParsedRow row : rows) {
+                License license = toLicense(row.request());
+                license.setCreatedBy(creator);
+                entityManager.persist(license);
+                licenses.add(license);
+            }
+            entityManager.flush();
+            // Detach the chunk so the persistence context does not grow with the upload
+            entityManager.clear();
+            return licenses;
+        });
+    }
+    
+    private void publishCreated(List<License> saved) {
+        List<LicenseChange> changes = new ArrayList<>(saved.size());
+        for (License license : saved) {
+            changes.add(LicenseChange.created(LicenseSnapshot.of(license)));
+        }
+        eventPublisher.publishEvent(new LicenseChangedEvent(changes));
+    }
+    
+    private static License toLicense(LicenseRequest request) {
+        License license = new License();
+        license.setLicenseKey(request.getLicenseKey());
+        license.setProductName(request.getProductName());
+        license.setCustomerName(request.getCustomerName());
+        license.setCustomerEmail(request.getCustomerEmail());
+        license.setIssueDate(request.getIssueDate());
+        license.setExpiryDate(request.getExpiryDate());
+        license.setStatus(request.getStatus());
+        license.setMaxUsers(request.getMaxUsers());
+        license.setDescription(request.getDescription());
+        return license;
+    }
+    
+    private String validate(LicenseRequest request) {
+        Set<ConstraintViolation<LicenseRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+    
+    private static void record(BulkImportResult result, ParsedRow row, Long id) {
+        boolean created = row.error() == null;
+        String licenseKey = row.request() != null ? row.request().getLicenseKey() : null;
+        result.getRows().add(new BulkImportResult.RowResult(row.number(), licenseKey, id, created,
+                created ? "Created" : row.error()));
+        result.setTotal(result.getTotal() + 1);
+        if (created) {
+            result.setCreated(result.getCreated() + 1);
+        } else {
+            result.setFailed(result.getFailed() + 1);
+        }
+    }
+    
+    private RecordSource ndjsonSource(BufferedReader reader) {
+        int[] number = {0};
+        return () -> {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            number[0]++;
+            try {
+                return new ParsedRow(number[0], objectMapper.readValue(line, LicenseRequest.class), null);
+            } catch (JsonProcessingException ex) {
+                return new ParsedRow(number[0], null, "Malformed JSON: " + ex.getOriginalMessage());
+            }
+        };
+    }
+    
+    private static RecordSource csvSource(BufferedReader reader) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return () -> null;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+        int[] number = {0};
+        return () -> {
+            List<String> fields;
+            do {
+                fields = csv.next();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isBlank());
+            number[0]++;
+            try {
+                return new ParsedRow(number[0], toRequest(columns, fields), null);
+            } catch (RuntimeException ex) {
+                return new ParsedRow(number[0], null, "Malformed row: " + ex.getMessage());
+            }
+        };
+    }
+    
+    // Columns are matched by header name, so extra columns (e.g. from /licenses/export) are ignored
+    private static LicenseRequest toRequest(Map<String, Integer> columns, List<String> fields) {
+        LicenseRequest request = new LicenseRequest();
+        request.setLicenseKey(field(columns, fields, "licenseKey"));
+        request.setProductName(field(columns, fields, "productName"));
+        request.setCustomerName(field(columns, fields, "customerName"));
+        request.setCustomerEmail(field(columns, fields, "customerEmail"));
+        String issueDate = field(columns, fields, "issueDate");
+        request.setIssueDate(issueDate != null ? LocalDate.parse(issueDate) : null);
+        String expiryDate = field(columns, fields, "expiryDate");
+        request.setExpiryDate(expiryDate != null ? LocalDate.parse(expiryDate) : null);
+        String status = field(columns, fields, "status");
+        if (status != null) {
+            request.setStatus(LicenseStatus.valueOf(status.toUpperCase(Locale.ROOT)));
+        }
+        String maxUsers = field(columns, fields, "maxUsers");
+        request.setMaxUsers(maxUsers != null ? Integer.valueOf(maxUsers) : null);
+        request.setDescription(field(columns, fields, "description"));
+        return request;
+    }
+    
+    private static String field(Map<String, Integer> columns, List<String> fields, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index);
+        return value.isEmpty() ? null : value;
+    }
+    
+    @FunctionalInterface
+    private interface RecordSource {
+        ParsedRow next() throws IOException;
+    }
+    
+    private record ParsedRow(int number, LicenseRequest request, String error) {
+        
+        ParsedRow failed(String message) {
+            return new ParsedRow(number, request, message);
+        }
+    }
+}
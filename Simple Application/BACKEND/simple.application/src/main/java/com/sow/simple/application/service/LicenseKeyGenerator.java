@@ -0,0 +1,92 @@
+package com.sow.simple.application.service;
+
+import com.sow.simple.application.util.LicenseKeyFormat;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Issues structured license keys (see {@link LicenseKeyFormat}). Serials are unique by construction:
+ * each node reserves a block of {@code licenses.key.block-size} serials with one sequence call and
+ * hands them out from memory, so issuing a key needs no uniqueness query.
+ */
+@Slf4j
+@Component
+public class LicenseKeyGenerator {
+    
+    // Created by the V1 migration
+    private static final String BLOCK_SEQUENCE = "license_key_block_seq";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final SecureRandom random = new SecureRandom();
+    // Held while the next block is fetched from the sequence
+    private final ReentrantLock serialLock = new ReentrantLock();
+    private final int blockSize;
+    private final String defaultPrefix;
+    private final boolean acceptLegacy;
+    
+    private String nextBlockSql;
+    private long nextSerial;
+    private long blockEnd;
+    
+    public LicenseKeyGenerator(JdbcTemplate jdbcTemplate,
+                               EntityManagerFactory entityManagerFactory,
+                               @Value("${licenses.key.block-size:1000}") int blockSize,
+                               @Value("${licenses.key.default-prefix:LIC}") String defaultPrefix,
+                               @Value("${licenses.key.accept-legacy:true}") boolean acceptLegacy) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.blockSize = blockSize;
+        this.defaultPrefix = defaultPrefix.isBlank() ? null : defaultPrefix;
+        this.acceptLegacy = acceptLegacy;
+    }
+    
+    @PostConstruct
+    void init() {
+        if (defaultPrefix != null && !LicenseKeyFormat.isValidPrefix(defaultPrefix)) {
+            throw new IllegalStateException("Invalid licenses.key.default-prefix: " + defaultPrefix);
+        }
+        // nextval syntax differs between PostgreSQL and H2; let the dialect render it
+        nextBlockSql = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport().getSequenceNextValString(BLOCK_SEQUENCE);
+    }
+    
+    public String generate(String prefix) {
+        String keyPrefix = prefix == null || prefix.isBlank() ? defaultPrefix : prefix.toUpperCase(Locale.ROOT);
+        if (keyPrefix != null && !LicenseKeyFormat.isValidPrefix(keyPrefix)) {
+            throw new IllegalArgumentException("Prefix must be " + LicenseKeyFormat.MIN_PREFIX_LENGTH + "-"
+                    + LicenseKeyFormat.MAX_PREFIX_LENGTH + " letters or digits");
+        }
+        long randomBits = random.nextLong() & ((1L << LicenseKeyFormat.RANDOM_BITS) - 1);
+        return LicenseKeyFormat.format(keyPrefix, nextSerial(), randomBits);
+    }
+    
+    // Pure CPU check used before any cache or database access
+    public boolean isWellFormed(String key) {
+        return LicenseKeyFormat.isValid(key) || acceptLegacy && LicenseKeyFormat.isLegacy(key);
+    }
+    
+    private long nextSerial() {
+        serialLock.lock();
+        try {
+            if (nextSerial == blockEnd) {
+                Long block = jdbcTemplate.queryForObject(nextBlockSql, Long.class);
+                nextSerial = block * blockSize;
+                blockEnd = nextSerial + blockSize;
+                log.debug("Reserved license key serial block {} ({}..{})", block, nextSerial, blockEnd - 1);
+            }
+            return nextSerial++;
+        } finally {
+            serialLock.unlock();
+        }
+    }
+}
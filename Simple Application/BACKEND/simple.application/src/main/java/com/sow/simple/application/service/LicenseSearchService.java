@@ -0,0 +1,211 @@
+package com.sow.simple.application.service;
+
+import com.sow.simple.application.dto.LicenseResponse;
+import com.sow.simple.application.event.LicenseChange;
+import com.sow.simple.application.event.LicenseChangeType;
+import com.sow.simple.application.event.LicenseChangedEvent;
+import com.sow.simple.application.event.LicenseSnapshot;
+import com.sow.simple.application.exception.ServiceUnavailableException;
+import com.sow.simple.application.repository.LicenseRepository;
+import com.sow.simple.application.util.InvertedIndex;
+import com.sow.simple.application.util.ReplayingRebuilder;
+import com.sow.simple.application.util.Threads;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Ranked, typo-tolerant search over licenses behind {@code /licenses/search}.
+ * Queries are answered from an in-memory {@link InvertedIndex}; only the top hits are then loaded
+ * by id. The index is built at startup by several threads, each reading one id range, and license
+ * change events keep it current. It is rebuilt when enough deleted documents have piled up.
+ */
+@Slf4j
+@Service
+public class LicenseSearchService {
+    
+    // Field order matches the columns read by LOAD_RANGE and fields(LicenseSnapshot)
+    private static final float[] FIELD_WEIGHTS = {4f, 3f, 3f, 1.5f, 1f};
+    private static final boolean[] FUZZY_FIELDS = {false, true, true, false, true};
+    
+    private static final String LOAD_RANGE = "SELECT id, license_key, customer_name, product_name, customer_email, description " +
+            "FROM licenses WHERE id > ? AND id <= ? ORDER BY id";
+    
+    private final LicenseRepository licenseRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Timer searchTimer;
+    private final int defaultLimit;
+    private final int maxLimit;
+    private final int loaderThreads;
+    private final double compactDeletedRatio;
+    private final ThreadFactory loaderThreadFactory;
+    
+    // The previous index keeps serving until a rebuilt one is swapped in
+    private final ReplayingRebuilder<InvertedIndex, LicenseChange> index = new ReplayingRebuilder<>(LicenseSearchService::apply);
+    
+    public LicenseSearchService(LicenseRepository licenseRepository,
+                                DataSource dataSource,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${licenses.search.default-limit:20}") int defaultLimit,
+                                @Value("${licenses.search.max-limit:100}") int maxLimit,
+                                @Value("${licenses.search.loader-threads:0}") int loaderThreads,
+                                @Value("${licenses.search.fetch-size:1000}") int fetchSize,
+                                @Value("${licenses.search.compact-deleted-ratio:0.25}") double compactDeletedRatio,
+                                @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.licenseRepository = licenseRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        // PostgreSQL only streams with the fetch size when autocommit is off
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+        this.loaderThreads = loaderThreads > 0 ? loaderThreads : Runtime.getRuntime().availableProcessors();
+        this.compactDeletedRatio = compactDeletedRatio;
+        this.loaderThreadFactory = Threads.factory("license-search-loader", virtualThreads);
+        
+        this.searchTimer = Timer.builder("license.search.duration")
+                .description("Index lookup time per search, excluding loading the hits")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("license.search.documents", this, service -> service.documentCount())
+                .description("Licenses held in the search index")
+                .register(meterRegistry);
+    }
+    
+    public List<LicenseResponse> search(String query, Integer limit) {
+        InvertedIndex current = index.current();
+        if (current == null) {
+            throw new ServiceUnavailableException("Search index is still loading, please retry shortly");
+        }
+        if (query == null || query.isBlank()) {
+            throw new RuntimeException("Search query must not be empty");
+        }
+        int size = limit == null ? defaultLimit : Math.max(1, Math.min(limit, maxLimit));
+        List<InvertedIndex.Hit> hits = searchTimer.record(() -> current.search(query, size));
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        
+        List<Long> ids = hits.stream().map(InvertedIndex.Hit::id).toList();
+        Map<Long, LicenseResponse> byId = licenseRepository.findResponsesByIdIn(ids).stream()
+                .collect(Collectors.toMap(LicenseResponse::getId, Function.identity()));
+        // Keep the ranking order; a hit deleted since the lookup is simply dropped
+        List<LicenseResponse> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            LicenseResponse license = byId.get(id);
+            if (license != null) {
+                results.add(license);
+            }
+        }
+        return results;
+    }
+    
+    @EventListener
+    public void onLicenseChanged(LicenseChangedEvent event) {
+        event.getChanges().forEach(index::apply);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        rebuild();
+    }
+    
+    // Removed and updated licenses leave tombstones behind; rebuild once they make up a large share
+    @Scheduled(fixedDelayString = "${licenses.search.compact-check-interval:600000}",
+               initialDelayString = "${licenses.search.compact-check-interval:600000}")
+    public void compactIfNeeded() {
+        InvertedIndex current = index.current();
+        if (current != null && current.deletedCount() > current.size() * compactDeletedRatio) {
+            rebuild();
+        }
+    }
+    
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        InvertedIndex rebuilt = index.rebuild(this::load);
+        log.info("Indexed {} licenses for search in {} ms", rebuilt.size(), System.currentTimeMillis() - start);
+    }
+    
+    // Splits [min, max] into one id range per loader thread and appends the parts in id order
+    private InvertedIndex load() {
+        Map<String, Object> bounds = jdbcTemplate.queryForMap("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM licenses");
+        InvertedIndex rebuilt = new InvertedIndex(FIELD_WEIGHTS, FUZZY_FIELDS);
+        if (bounds.get("min_id") == null) {
+            return rebuilt;
+        }
+        long low = ((Number) bounds.get("min_id")).longValue() - 1;
+        long high = ((Number) bounds.get("max_id")).longValue();
+        long step = Math.max(1, (high - low + loaderThreads - 1) / loaderThreads);
+        
+        ExecutorService executor = Executors.newFixedThreadPool(loaderThreads, loaderThreadFactory);
+        try {
+            List<CompletableFuture<InvertedIndex>> parts = new ArrayList<>();
+            for (long from = low; from < high; from += step) {
+                long fromId = from;
+                long toId = Math.min(from + step, high);
+                parts.add(CompletableFuture.supplyAsync(() -> loadRange(fromId, toId), executor));
+            }
+            rebuilt.appendAll(parts.stream().map(CompletableFuture::join).toList());
+            return rebuilt;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private InvertedIndex loadRange(long fromId, long toId) {
+        InvertedIndex part = new InvertedIndex(FIELD_WEIGHTS, FUZZY_FIELDS);
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(LOAD_RANGE,
+                (RowCallbackHandler) rs -> part.add(rs.getLong(1), new String[]{
+                        rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5), rs.getString(6)
+                }), fromId, toId));
+        return part;
+    }
+    
+    private static void apply(InvertedIndex target, LicenseChange change) {
+        if (change.getType() == LicenseChangeType.STATUS_CHANGED) {
+            // Status is not searchable
+            return;
+        }
+        if (change.getAfter() == null) {
+            target.remove(change.getLicenseId());
+        } else {
+            target.add(change.getLicenseId(), fields(change.getAfter()));
+        }
+    }
+    
+    private static String[] fields(LicenseSnapshot snapshot) {
+        return new String[]{
+                snapshot.getLicenseKey(), snapshot.getCustomerName(), snapshot.getProductName(),
+                snapshot.getCustomerEmail(), snapshot.getDescription()
+        };
+    }
+    
+    private int documentCount() {
+        InvertedIndex current = index.current();
+        return current != null ? current.size() : 0;
+    }
+}
@@ -0,0 +1,301 @@
+package com.sow.simple.application.service;
+
+import com.sow.simple.application.dto.SeatLeaseResponse;
+import com.sow.simple.application.entity.LicenseStatus;
+import com.sow.simple.application.event.LicenseSeatsChangedEvent;
+import com.sow.simple.application.exception.ConflictException;
+import com.sow.simple.application.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Leased seats on a license. A checkout takes a seat with one conditional UPDATE that only succeeds
+ * while {@code current_users < max_users}; the database row lock serializes racing clients and the
+ * condition is re-checked after the wait, so a license can never be over-allocated. The lease row is
+ * inserted in the same transaction. Leases expire unless renewed by a heartbeat; a reaper deletes
+ * expired leases and gives their seats back with the same kind of conditional update.
+ */
+@Slf4j
+@Service
+public class LicenseSeatService {
+    
+    private static final String TAKE_SEAT = "UPDATE licenses SET current_users = current_users + 1, version = version + 1 " +
+            "WHERE license_key = ? AND status = ? AND expiry_date > ? AND (max_users IS NULL OR current_users < max_users)";
+    private static final String RELEASE_SEATS = "UPDATE licenses SET current_users = " +
+            "CASE WHEN current_users > ? THEN current_users - ? ELSE 0 END, version = version + 1 WHERE id = ?";
+    private static final String INSERT_LEASE = "INSERT INTO seat_leases (id, license_id, client_id, expires_at, created_at) " +
+            "SELECT ?, id, ?, ?, ? FROM licenses WHERE license_key = ?";
+    // Leases are only extended while the license can still hold seats
+    private static final String USABLE_LICENSE = "(SELECT id FROM licenses WHERE license_key = ? AND status = ? AND expiry_date > ?)";
+    private static final String RENEW_CLIENT_LEASE = "UPDATE seat_leases SET expires_at = ? " +
+            "WHERE client_id = ? AND license_id = " + USABLE_LICENSE;
+    private static final String FIND_CLIENT_LEASE = "SELECT s.id FROM seat_leases s JOIN licenses l ON l.id = s.license_id " +
+            "WHERE l.license_key = ? AND s.client_id = ?";
+    private static final String HEARTBEAT = "UPDATE seat_leases SET expires_at = ? " +
+            "WHERE id = ? AND expires_at > ? AND license_id = " + USABLE_LICENSE;
+    private static final String FIND_LEASE_CLIENT = "SELECT client_id FROM seat_leases WHERE id = ?";
+    private static final String FIND_LEASE = "SELECT s.license_id FROM seat_leases s JOIN licenses l ON l.id = s.license_id " +
+            "WHERE s.id = ? AND l.license_key = ?";
+    private static final String DELETE_LEASE = "DELETE FROM seat_leases WHERE id = ?";
+    private static final String FIND_EXPIRED = "SELECT DISTINCT s.license_id, l.license_key FROM seat_leases s " +
+            "JOIN licenses l ON l.id = s.license_id WHERE s.expires_at <= ?";
+    private static final String DELETE_EXPIRED = "DELETE FROM seat_leases WHERE license_id = ? AND expires_at <= ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate reapQuery;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LicenseKeyGenerator licenseKeyGenerator;
+    private final Duration leaseTtl;
+    
+    // Checkouts in flight per license key; the count seen on entry is the contention metric
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Timer> checkoutTimers = new HashMap<>();
+    private final DistributionSummary contention;
+    private final Timer seatUpdate;
+    private final Counter reaped;
+    
+    public LicenseSeatService(JdbcTemplate jdbcTemplate,
+                              DataSource dataSource,
+                              PlatformTransactionManager transactionManager,
+                              ApplicationEventPublisher eventPublisher,
+                              LicenseKeyGenerator licenseKeyGenerator,
+                              MeterRegistry meterRegistry,
+                              @Value("${licenses.seats.lease-ttl:5m}") Duration leaseTtl,
+                              @Value("${licenses.seats.reap-batch-size:500}") int reapBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.licenseKeyGenerator = licenseKeyGenerator;
+        this.leaseTtl = leaseTtl;
+        // Separate template so the row cap only applies to the reaper's scan
+        this.reapQuery = new JdbcTemplate(dataSource);
+        this.reapQuery.setMaxRows(reapBatchSize);
+        
+        this.contention = DistributionSummary.builder("license.seats.checkout.concurrency")
+                .description("Checkouts already in flight on the same license when a checkout starts")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.seatUpdate = Timer.builder("license.seats.update")
+                .description("Conditional seat update time, including waiting for the license row lock")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.reaped = Counter.builder("license.seats.reaped")
+                .description("Leases released because no heartbeat arrived in time")
+                .register(meterRegistry);
+        for (String outcome : List.of("granted", "renewed", "denied", "error")) {
+            checkoutTimers.put(outcome, Timer.builder("license.seats.checkout")
+                    .description("Seat checkout latency by outcome")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+    
+    public SeatLeaseResponse checkout(String licenseKey, String clientId) {
+        requireWellFormed(licenseKey);
+        if (clientId != null && (clientId.isBlank() || clientId.length() > 128)) {
+            throw new RuntimeException("clientId must be 1-128 characters");
+        }
+        long start = System.nanoTime();
+        String outcome = "error";
+        AtomicInteger counter = inFlight.computeIfAbsent(licenseKey, key -> new AtomicInteger());
+        contention.record(counter.getAndIncrement());
+        try {
+            SeatLeaseResponse lease = clientId != null ? renew(licenseKey, clientId) : null;
+            if (lease != null) {
+                outcome = "renewed";
+                return lease;
+            }
+            lease = takeSeat(licenseKey, clientId);
+            if (lease == null && reapLicense(licenseKey) > 0) {
+                // Expired but not yet reaped leases were holding the seats
+                lease = takeSeat(licenseKey, clientId);
+            }
+            if (lease == null) {
+                outcome = "denied";
+                throw denial(licenseKey);
+            }
+            outcome = "granted";
+            eventPublisher.publishEvent(new LicenseSeatsChangedEvent(licenseKey, 1));
+            return lease;
+        } catch (DuplicateKeyException ex) {
+            // The same client raced itself; its other checkout holds the seat, so renew that lease
+            SeatLeaseResponse lease = clientId != null ? renew(licenseKey, clientId) : null;
+            if (lease == null) {
+                throw ex;
+            }
+            outcome = "renewed";
+            return lease;
+        } finally {
+            // A checkout arriving during this removal may get a fresh counter; that only blurs the metric
+            if (counter.decrementAndGet() == 0) {
+                inFlight.remove(licenseKey, counter);
+            }
+            checkoutTimers.get(outcome).record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+    
+    // The updated row stays locked until commit, so a concurrent reap cannot delete it before client_id is read
+    public SeatLeaseResponse heartbeat(String licenseKey, String leaseId) {
+        requireWellFormed(licenseKey);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(leaseTtl);
+        SeatLeaseResponse lease = transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update(HEARTBEAT, Timestamp.valueOf(expiresAt), leaseId, Timestamp.valueOf(now),
+                    licenseKey, LicenseStatus.ACTIVE.name(), Date.valueOf(LocalDate.now())) == 0) {
+                return null;
+            }
+            List<String> clientIds = jdbcTemplate.queryForList(FIND_LEASE_CLIENT, String.class, leaseId);
+            return clientIds.isEmpty() ? null
+                    : new SeatLeaseResponse(leaseId, licenseKey, clientIds.get(0), expiresAt, leaseTtl.toSeconds());
+        });
+        if (lease == null) {
+            RuntimeException unusable = unusableLicense(licenseKey);
+            throw unusable != null ? unusable : new ResourceNotFoundException("Seat lease not found or expired: " + leaseId);
+        }
+        return lease;
+    }
+    
+    public void checkin(String licenseKey, String leaseId) {
+        requireWellFormed(licenseKey);
+        boolean released = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            List<Long> licenseIds = jdbcTemplate.queryForList(FIND_LEASE, Long.class, leaseId, licenseKey);
+            if (licenseIds.isEmpty() || jdbcTemplate.update(DELETE_LEASE, leaseId) == 0) {
+                return false;
+            }
+            seatUpdate.record(() -> jdbcTemplate.update(RELEASE_SEATS, 1, 1, licenseIds.get(0)));
+            return true;
+        }));
+        if (!released) {
+            throw new ResourceNotFoundException("Seat lease not found: " + leaseId);
+        }
+        eventPublisher.publishEvent(new LicenseSeatsChangedEvent(licenseKey, -1));
+    }
+    
+    @Scheduled(fixedDelayString = "${licenses.seats.reap-interval:30000}")
+    public void reapExpired() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Map<String, Object>> licenses = reapQuery.queryForList(FIND_EXPIRED, now);
+        int total = 0;
+        for (Map<String, Object> row : licenses) {
+            total += reap(((Number) row.get("license_id")).longValue(), (String) row.get("license_key"), now);
+        }
+        if (total > 0) {
+            log.debug("Released {} expired seat leases on {} licenses", total, licenses.size());
+        }
+    }
+    
+    // Single-statement conditional increment plus the lease insert, in one transaction
+    private SeatLeaseResponse takeSeat(String licenseKey, String clientId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(leaseTtl);
+        String leaseId = UUID.randomUUID().toString();
+        String owner = clientId != null ? clientId : leaseId;
+        return transactionTemplate.execute(status -> {
+            Integer taken = seatUpdate.record(() -> jdbcTemplate.update(TAKE_SEAT, licenseKey, LicenseStatus.ACTIVE.name(),
+                    Date.valueOf(LocalDate.now())));
+            if (taken == null || taken == 0) {
+                return null;
+            }
+            jdbcTemplate.update(INSERT_LEASE, leaseId, owner, Timestamp.valueOf(expiresAt), Timestamp.valueOf(now), licenseKey);
+            return new SeatLeaseResponse(leaseId, licenseKey, owner, expiresAt, leaseTtl.toSeconds());
+        });
+    }
+    
+    // A client checking out again keeps its existing lease (and seat), even if the lease lapsed but was not yet reaped
+    // An inactive or expired license renews nothing; the checkout then falls through to the 409 from denial()
+    private SeatLeaseResponse renew(String licenseKey, String clientId) {
+        LocalDateTime expiresAt = LocalDateTime.now().plus(leaseTtl);
+        return transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update(RENEW_CLIENT_LEASE, Timestamp.valueOf(expiresAt), clientId, licenseKey,
+                    LicenseStatus.ACTIVE.name(), Date.valueOf(LocalDate.now())) == 0) {
+                return null;
+            }
+            List<String> ids = jdbcTemplate.queryForList(FIND_CLIENT_LEASE, String.class, licenseKey, clientId);
+            return ids.isEmpty() ? null
+                    : new SeatLeaseResponse(ids.get(0), licenseKey, clientId, expiresAt, leaseTtl.toSeconds());
+        });
+    }
+    
+    private int reapLicense(String licenseKey) {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM licenses WHERE license_key = ?", Long.class, licenseKey);
+        return ids.isEmpty() ? 0 : reap(ids.get(0), licenseKey, Timestamp.valueOf(LocalDateTime.now()));
+    }
+    
+    private int reap(long licenseId, String licenseKey, Timestamp now) {
+        Integer released = transactionTemplate.execute(status -> {
+            int deleted = jdbcTemplate.update(DELETE_EXPIRED, licenseId, now);
+            if (deleted > 0) {
+                seatUpdate.record(() -> jdbcTemplate.update(RELEASE_SEATS, deleted, deleted, licenseId));
+            }
+            return deleted;
+        });
+        int count = released != null ? released : 0;
+        if (count > 0) {
+            reaped.increment(count);
+            eventPublisher.publishEvent(new LicenseSeatsChangedEvent(licenseKey, -count));
+        }
+        return count;
+    }
+    
+    // Only reached when the conditional update matched nothing; explains why
+    private RuntimeException denial(String licenseKey) {
+        List<RuntimeException> reasons = jdbcTemplate.query(
+                "SELECT status, expiry_date, max_users FROM licenses WHERE license_key = ?", (rs, rowNum) -> {
+                    RuntimeException unusable = unusable(rs.getString(1), rs.getDate(2).toLocalDate());
+                    return unusable != null ? unusable : new ConflictException("All " + rs.getInt(3) + " seats are in use");
+                }, licenseKey);
+        return reasons.isEmpty() ? new ResourceNotFoundException("License", "licenseKey", licenseKey) : reasons.get(0);
+    }
+    
+    // 409 when the license exists but can no longer hold seats, 404 when it does not exist, null when it is usable
+    private RuntimeException unusableLicense(String licenseKey) {
+        List<RuntimeException> reasons = jdbcTemplate.query("SELECT status, expiry_date FROM licenses WHERE license_key = ?",
+                (rs, rowNum) -> unusable(rs.getString(1), rs.getDate(2).toLocalDate()), licenseKey);
+        if (reasons.isEmpty()) {
+            return new ResourceNotFoundException("License", "licenseKey", licenseKey);
+        }
+        return reasons.get(0);
+    }
+    
+    private static RuntimeException unusable(String status, LocalDate expiryDate) {
+        if (!LicenseStatus.ACTIVE.name().equals(status)) {
+            return new ConflictException("License is " + status + "; no seats can be checked out");
+        }
+        if (!expiryDate.isAfter(LocalDate.now())) {
+            return new ConflictException("License has expired; no seats can be checked out");
+        }
+        return null;
+    }
+    
+    private void requireWellFormed(String licenseKey) {
+        if (!licenseKeyGenerator.isWellFormed(licenseKey)) {
+            throw new ResourceNotFoundException("License", "licenseKey", licenseKey);
+        }
+    }
+}
@@ -1,19 +1,31 @@
 package com.sow.simple.application.service;
 
+import com.sow.simple.application.dto.CursorPage;
 import com.sow.simple.application.dto.LicenseRequest;
+import com.sow.simple.application.dto.LicenseResponse;
 import com.sow.simple.application.entity.License;
 import com.sow.simple.application.entity.LicenseStatus;
 import com.sow.simple.application.entity.User;
+import com.sow.simple.application.event.LicenseChange;
+import com.sow.simple.application.event.LicenseChangedEvent;
+import com.sow.simple.application.event.LicenseSnapshot;
+import com.sow.simple.application.exception.PreconditionFailedException;
 import com.sow.simple.application.exception.ResourceNotFoundException;
 import com.sow.simple.application.repository.LicenseRepository;
 import com.sow.simple.application.repository.UserRepository;
+import com.sow.simple.application.util.ETags;
+import com.sow.simple.application.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.UUID;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -21,8 +33,20 @@ public class LicenseService {
     
     private final LicenseRepository licenseRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LicenseKeyGenerator licenseKeyGenerator;
+    private final LicenseDictionaryService licenseDictionaryService;
     
-    public License createLicense(LicenseRequest request) {
+    @Value("${licenses.page.default-size:50}")
+    private int defaultPageSize;
+    
+    @Value("${licenses.page.max-size:500}")
+    private int maxPageSize;
+    
+    public LicenseResponse createLicense(LicenseRequest request) {
+        if (!licenseKeyGenerator.isWellFormed(request.getLicenseKey())) {
+            throw new RuntimeException("Invalid license key format");
+        }
         if (licenseRepository.existsByLicenseKey(request.getLicenseKey())) {
             throw new RuntimeException("License key already exists");
         }
@@ -44,49 +68,116 @@ public class LicenseService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         license.setCreatedBy(currentUser);
         
-        return licenseRepository.save(license);
+        License saved = licenseRepository.save(license);
+        eventPublisher.publishEvent(LicenseChangedEvent.of(LicenseChange.created(LicenseSnapshot.of(saved))));
+        return LicenseResponse.of(saved, currentUser);
+    }
+    
+    public LicenseResponse getLicenseById(Long id) {
+        return licenseRepository.findResponseById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("License", "id", id));
+    }
+    
+    // Current ETag from the version alone, so a matching If-None-Match is answered without building the response
+    public String getLicenseETag(Long id) {
+        return licenseRepository.findVersionById(id)
+                .map(view -> ETags.forLicense(view.getId(), view.getVersion()))
+                .orElse(null);
+    }
+    
+    public String getLicenseETagByKey(String licenseKey) {
+        if (!licenseKeyGenerator.isWellFormed(licenseKey)) {
+            return null;
+        }
+        return licenseRepository.findVersionByLicenseKey(licenseKey)
+                .map(view -> ETags.forLicense(view.getId(), view.getVersion()))
+                .orElse(null);
     }
     
-    public License getLicenseById(Long id) {
-        return licenseRepository.findById(id)
+    private License loadLicense(Long id) {
+        return licenseRepository.findWithCreatorById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("License", "id", id));
     }
     
-    public License getLicenseByKey(String licenseKey) {
-        return licenseRepository.findByLicenseKey(licenseKey)
+    public LicenseResponse getLicenseByKey(String licenseKey) {
+        // Malformed keys cannot exist, so they are answered without a query
+        if (!licenseKeyGenerator.isWellFormed(licenseKey)) {
+            throw new ResourceNotFoundException("License", "licenseKey", licenseKey);
+        }
+        return licenseRepository.findResponseByLicenseKey(licenseKey)
                 .orElseThrow(() -> new ResourceNotFoundException("License", "licenseKey", licenseKey));
     }
     
-    public List<License> getAllLicenses() {
-        return licenseRepository.findAll();
+    public CursorPage<LicenseResponse> getAllLicenses(String cursor, Integer size) {
+        int limit = pageSize(size);
+        List<LicenseResponse> rows = licenseRepository.findPageAfter(afterId(cursor), fetchLimit(limit));
+        return toPage(rows, limit, license -> new KeysetCursor(null, license.getId()));
     }
     
-    public List<License> getLicensesByCustomer(String customerName) {
-        List<License> licenses = licenseRepository.findByCustomerNameIgnoreCase(customerName);
-        if (licenses.isEmpty()) {
+    public CursorPage<LicenseResponse> getLicensesByCustomer(String customerName, String cursor, Integer size) {
+        int limit = pageSize(size);
+        List<LicenseResponse> rows = licenseRepository.findPageByCustomerNameIgnoreCase(customerName, afterId(cursor), fetchLimit(limit));
+        if (rows.isEmpty() && cursor == null) {
             throw new ResourceNotFoundException("No licenses found for customer: " + customerName);
         }
-        return licenses;
+        return toPage(rows, limit, license -> new KeysetCursor(null, license.getId()));
     }
     
-    public List<License> getLicensesByProduct(String productName) {
-        List<License> licenses = licenseRepository.findByProductNameIgnoreCase(productName);
-        if (licenses.isEmpty()) {
+    public CursorPage<LicenseResponse> getLicensesByProduct(String productName, String cursor, Integer size) {
+        int limit = pageSize(size);
+        List<LicenseResponse> rows = licenseRepository.findPageByProductNameIgnoreCase(productName, afterId(cursor), fetchLimit(limit));
+        if (rows.isEmpty() && cursor == null) {
             throw new ResourceNotFoundException("No licenses found for product: " + productName);
         }
-        return licenses;
+        return toPage(rows, limit, license -> new KeysetCursor(null, license.getId()));
     }
     
-    public List<License> getLicensesByStatus(LicenseStatus status) {
-        return licenseRepository.findByStatus(status);
+    public CursorPage<LicenseResponse> getLicensesByStatus(LicenseStatus status, String cursor, Integer size) {
+        int limit = pageSize(size);
+        List<LicenseResponse> rows = licenseRepository.findPageByStatus(status, afterId(cursor), fetchLimit(limit));
+        return toPage(rows, limit, license -> new KeysetCursor(null, license.getId()));
     }
     
-    public List<License> getExpiredLicenses() {
-        return licenseRepository.findExpiredLicenses(LocalDate.now());
+    public CursorPage<LicenseResponse> getExpiredLicenses(String cursor, Integer size) {
+        int limit = pageSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        if (after != null && after.sortKey() == null) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        List<LicenseResponse> rows = after == null
+                ? licenseRepository.findExpiredFirstPage(LocalDate.now(), fetchLimit(limit))
+                : licenseRepository.findExpiredPageAfter(LocalDate.now(), LocalDate.parse(after.sortKey()), after.id(), fetchLimit(limit));
+        return toPage(rows, limit, license -> new KeysetCursor(license.getExpiryDate().toString(), license.getId()));
     }
     
-    public License updateLicense(Long id, LicenseRequest request) {
-        License license = getLicenseById(id);
+    private int pageSize(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return Math.min(defaultPageSize, maxPageSize);
+        }
+        return Math.min(requested, maxPageSize);
+    }
+    
+    // One extra row tells us whether another page exists without a count query
+    private static Pageable fetchLimit(int limit) {
+        return PageRequest.ofSize(limit + 1);
+    }
+    
+    private static long afterId(String cursor) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        return after != null ? after.id() : 0L;
+    }
+    
+    private static CursorPage<LicenseResponse> toPage(List<LicenseResponse> rows, int limit, Function<LicenseResponse, KeysetCursor> cursorOf) {
+        boolean hasMore = rows.size() > limit;
+        List<LicenseResponse> items = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? cursorOf.apply(items.get(items.size() - 1)).encode() : null;
+        return new CursorPage<>(items, items.size(), hasMore, nextCursor);
+    }
+    
+    public LicenseResponse updateLicense(Long id, LicenseRequest request, String ifMatch) {
+        License license = loadLicense(id);
+        checkPrecondition(license, ifMatch);
+        LicenseSnapshot before = LicenseSnapshot.of(license);
         
         license.setProductName(request.getProductName());
         license.setCustomerName(request.getCustomerName());
@@ -97,31 +188,45 @@ public class LicenseService {
         license.setMaxUsers(request.getMaxUsers());
         license.setDescription(request.getDescription());
         
-        return licenseRepository.save(license);
+        License saved = licenseRepository.save(license);
+        eventPublisher.publishEvent(LicenseChangedEvent.of(LicenseChange.updated(before, LicenseSnapshot.of(saved))));
+        return LicenseResponse.of(saved, license.getCreatedBy());
     }
     
     public void deleteLicense(Long id) {
-        if (!licenseRepository.existsById(id)) {
-            throw new ResourceNotFoundException("License", "id", id);
-        }
-        licenseRepository.deleteById(id);
+        License license = licenseRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("License", "id", id));
+        licenseRepository.delete(license);
+        eventPublisher.publishEvent(LicenseChangedEvent.of(LicenseChange.deleted(LicenseSnapshot.of(license))));
     }
     
-    public License updateLicenseStatus(Long id, LicenseStatus status) {
-        License license = getLicenseById(id);
+    public LicenseResponse updateLicenseStatus(Long id, LicenseStatus status, String ifMatch) {
+        License license = loadLicense(id);
+        checkPrecondition(license, ifMatch);
+        LicenseSnapshot before = LicenseSnapshot.of(license);
         license.setStatus(status);
-        return licenseRepository.save(license);
+        License saved = licenseRepository.save(license);
+        eventPublisher.publishEvent(LicenseChangedEvent.of(LicenseChange.statusChanged(before, LicenseSnapshot.of(saved))));
+        return LicenseResponse.of(saved, license.getCreatedBy());
+    }
+    
+    // If-Match is optional; without it the @Version check on save still turns a lost update into a 409
+    private static void checkPrecondition(License license, String ifMatch) {
+        String current = ETags.forLicense(license.getId(), license.getVersion());
+        if (ifMatch != null && !ETags.matchesIfMatch(ifMatch, current)) {
+            throw new PreconditionFailedException("License " + license.getId() + " has changed; current ETag is " + current);
+        }
     }
     
-    public String generateLicenseKey() {
-        return "LIC-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    public String generateLicenseKey(String prefix) {
+        return licenseKeyGenerator.generate(prefix);
     }
     
-    public List<String> getAllCustomerNames() {
-        return licenseRepository.findAllCustomerNames();
+    public List<String> getAllCustomerNames(String prefix, Integer limit) {
+        return licenseDictionaryService.getCustomerNames(prefix, limit);
     }
     
-    public List<String> getAllProductNames() {
-        return licenseRepository.findAllProductNames();
+    public List<String> getAllProductNames(String prefix, Integer limit) {
+        return licenseDictionaryService.getProductNames(prefix, limit);
     }
 } 
\ No newline at end of file
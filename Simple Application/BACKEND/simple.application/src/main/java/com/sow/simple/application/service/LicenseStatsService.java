@@ -0,0 +1,230 @@
+package com.sow.simple.application.service;
+
+import com.sow.simple.application.dto.LicenseStatsResponse;
+import com.sow.simple.application.entity.LicenseStatus;
+import com.sow.simple.application.event.LicenseChange;
+import com.sow.simple.application.event.LicenseChangedEvent;
+import com.sow.simple.application.event.LicenseSeatsChangedEvent;
+import com.sow.simple.application.event.LicenseSnapshot;
+import com.sow.simple.application.exception.ServiceUnavailableException;
+import com.sow.simple.application.util.ReplayingRebuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Dashboard aggregates behind {@code /licenses/stats}, kept as in-memory counters.
+ * Every license change event retracts the old snapshot's contribution and adds the new one, so a
+ * request only sums a few small maps. Expiry counts are kept per date, which lets the 7/30/90 day
+ * buckets move with the calendar without touching the counters. A periodic GROUP BY over the
+ * table replaces the counters through a {@link ReplayingRebuilder} to correct drift (e.g. writes made on
+ * another node).
+ */
+@Slf4j
+@Service
+public class LicenseStatsService {
+    
+    private static final String GROUPED = "SELECT status, product_name, customer_name, expiry_date, COUNT(*), " +
+            "SUM(COALESCE(max_users, 0)), SUM(COALESCE(current_users, 0)) " +
+            "FROM licenses GROUP BY status, product_name, customer_name, expiry_date";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int topNames;
+    
+    private final ReplayingRebuilder<Counts, Consumer<Counts>> counts = new ReplayingRebuilder<>((target, change) -> change.accept(target));
+    // Bumped on every change; a cached response is served only while its version is current
+    private final AtomicLong version = new AtomicLong();
+    private volatile CachedStats cached;
+    
+    public LicenseStatsService(DataSource dataSource,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${licenses.stats.top-names:50}") int topNames,
+                               @Value("${licenses.stats.fetch-size:1000}") int fetchSize) {
+        // The grouped result can be large on tables with many distinct names; stream it
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.topNames = topNames;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${licenses.stats.reconcile-interval:600000}",
+               initialDelayString = "${licenses.stats.reconcile-interval:600000}")
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+        Counts previous = counts.current();
+        Counts loaded = counts.rebuild(this::load);
+        version.incrementAndGet();
+        if (previous != null && !previous.sameAs(loaded)) {
+            log.info("License stats drifted from the database and were corrected");
+        }
+        log.debug("Reconciled license stats ({} licenses) in {} ms", loaded.total, System.currentTimeMillis() - start);
+    }
+    
+    @EventListener
+    public void onLicenseChanged(LicenseChangedEvent event) {
+        apply(target -> {
+            for (LicenseChange change : event.getChanges()) {
+                target.apply(change.getBefore(), -1);
+                target.apply(change.getAfter(), 1);
+            }
+        });
+    }
+    
+    // Seats can only be checked out on ACTIVE licenses, so the delta goes to the active seat total
+    @EventListener
+    public void onSeatsChanged(LicenseSeatsChangedEvent event) {
+        apply(target -> target.addActiveSeats(event.getDelta()));
+    }
+    
+    public LicenseStatsResponse getStats() {
+        Counts current = counts.current();
+        if (current == null) {
+            throw new ServiceUnavailableException("License stats are still loading, please retry shortly");
+        }
+        LocalDate today = LocalDate.now();
+        long currentVersion = version.get();
+        CachedStats hit = cached;
+        if (hit != null && hit.version() == currentVersion && hit.response().getAsOf().equals(today)) {
+            return hit.response();
+        }
+        LicenseStatsResponse response = current.toResponse(today, topNames);
+        cached = new CachedStats(currentVersion, response);
+        return response;
+    }
+    
+    private void apply(Consumer<Counts> change) {
+        counts.apply(change);
+        version.incrementAndGet();
+    }
+    
+    private Counts load() {
+        Counts loaded = new Counts(LocalDateTime.now());
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(GROUPED, (RowCallbackHandler) rs -> {
+            Date expiry = rs.getDate(4);
+            loaded.add(LicenseStatus.valueOf(rs.getString(1)), rs.getString(2), rs.getString(3),
+                    expiry != null ? expiry.toLocalDate() : null, rs.getLong(5), rs.getLong(6), rs.getLong(7));
+        }));
+        return loaded;
+    }
+    
+    private record CachedStats(long version, LicenseStatsResponse response) {
+    }
+    
+    private static final class Counts {
+        
+        private final LocalDateTime reconciledAt;
+        private final Map<LicenseStatus, Long> byStatus = new EnumMap<>(LicenseStatus.class);
+        private final Map<String, Long> byProduct = new HashMap<>();
+        private final Map<String, Long> byCustomer = new HashMap<>();
+        // Licenses per expiry date (any status), and ACTIVE licenses per expiry date
+        private final TreeMap<LocalDate, Long> byExpiry = new TreeMap<>();
+        private final TreeMap<LocalDate, Long> activeByExpiry = new TreeMap<>();
+        private long total;
+        private long activeMaxUsers;
+        private long activeCurrentUsers;
+        
+        Counts(LocalDateTime reconciledAt) {
+            this.reconciledAt = reconciledAt;
+        }
+        
+        synchronized void apply(LicenseSnapshot snapshot, int sign) {
+            if (snapshot != null) {
+                add(snapshot.getStatus(), snapshot.getProductName(), snapshot.getCustomerName(), snapshot.getExpiryDate(),
+                        sign, sign * (long) valueOf(snapshot.getMaxUsers()), sign * (long) valueOf(snapshot.getCurrentUsers()));
+            }
+        }
+        
+        synchronized void add(LicenseStatus status, String product, String customer, LocalDate expiry,
+                              long count, long maxUsers, long currentUsers) {
+            total += count;
+            merge(byStatus, status, count);
+            merge(byProduct, product, count);
+            merge(byCustomer, customer, count);
+            merge(byExpiry, expiry, count);
+            if (status == LicenseStatus.ACTIVE) {
+                merge(activeByExpiry, expiry, count);
+                activeMaxUsers += maxUsers;
+                activeCurrentUsers += currentUsers;
+            }
+        }
+        
+        synchronized void addActiveSeats(int delta) {
+            activeCurrentUsers = Math.max(0, activeCurrentUsers + delta);
+        }
+        
+        synchronized LicenseStatsResponse toResponse(LocalDate today, int topNames) {
+            Map<LicenseStatus, Long> statuses = new EnumMap<>(LicenseStatus.class);
+            for (LicenseStatus status : LicenseStatus.values()) {
+                statuses.put(status, byStatus.getOrDefault(status, 0L));
+            }
+            LicenseStatsResponse.ExpiryBuckets buckets = new LicenseStatsResponse.ExpiryBuckets(
+                    activeExpiringWithin(today, 7), activeExpiringWithin(today, 30), activeExpiringWithin(today, 90));
+            double utilisation = activeMaxUsers == 0 ? 0 : (double) activeCurrentUsers / activeMaxUsers;
+            return new LicenseStatsResponse(total, statuses, top(byProduct, topNames), top(byCustomer, topNames),
+                    byProduct.size(), byCustomer.size(), sum(byExpiry.headMap(today, true)), buckets,
+                    new LicenseStatsResponse.Seats(activeMaxUsers, activeCurrentUsers, utilisation), today, reconciledAt);
+        }
+        
+        synchronized boolean sameAs(Counts other) {
+            return total == other.total && byStatus.equals(other.byStatus) && byProduct.equals(other.byProduct)
+                    && byCustomer.equals(other.byCustomer) && byExpiry.equals(other.byExpiry)
+                    && activeMaxUsers == other.activeMaxUsers && activeCurrentUsers == other.activeCurrentUsers;
+        }
+        
+        private long activeExpiringWithin(LocalDate today, int days) {
+            return sum(activeByExpiry.subMap(today, false, today.plusDays(days), true));
+        }
+        
+        private static long sum(Map<LocalDate, Long> counts) {
+            long sum = 0;
+            for (long count : counts.values()) {
+                sum += count;
+            }
+            return sum;
+        }
+        
+        private static Map<String, Long> top(Map<String, Long> counts, int limit) {
+            Map<String, Long> top = new LinkedHashMap<>();
+            counts.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+            return top;
+        }
+        
+        // Zero counts are dropped so retracted names and dates do not accumulate
+        private static <K> void merge(Map<K, Long> counts, K key, long delta) {
+            if (key != null) {
+                counts.merge(key, delta, (a, b) -> a + b == 0 ? null : a + b);
+            }
+        }
+        
+        private static int valueOf(Integer value) {
+            return value != null ? value : 0;
+        }
+    }
+}
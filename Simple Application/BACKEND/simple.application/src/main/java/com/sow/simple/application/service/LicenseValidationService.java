@@ -0,0 +1,285 @@
+package com.sow.simple.application.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sow.simple.application.dto.LicenseKeyView;
+import com.sow.simple.application.dto.LicenseValidationResponse;
+import com.sow.simple.application.dto.LicenseValidationView;
+import com.sow.simple.application.entity.LicenseStatus;
+import com.sow.simple.application.event.LicenseChange;
+import com.sow.simple.application.event.LicenseChangedEvent;
+import com.sow.simple.application.event.LicenseSeatsChangedEvent;
+import com.sow.simple.application.event.LicenseSnapshot;
+import com.sow.simple.application.repository.LicenseRepository;
+import com.sow.simple.application.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serves the high-QPS license validation API.
+ * Lookups go: key format check, positive near-cache, then a bloom filter of every known key
+ * (unknown keys are rejected without a query), then a short-lived negative cache, then the
+ * database. Concurrent misses on the same key are coalesced by the cache so they cost one read.
+ * The filter learns keys created in this process from change events, and keys created on other
+ * nodes from an incremental {@code created_at} catch-up. The same catch-up drops cached entries of
+ * licenses changed on other nodes ({@code updated_at}), so a revoke elsewhere is seen within one
+ * interval rather than after the cache TTL. The filter only rejects keys while it is
+ * complete: until the first full load, or when the catch-up has stopped succeeding, a bloom
+ * miss falls through to the database.
+ */
+@Slf4j
+@Service
+public class LicenseValidationService {
+    
+    private final LicenseRepository licenseRepository;
+    private final LicenseKeyGenerator licenseKeyGenerator;
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, ValidationEntry> positiveCache;
+    private final Cache<String, Boolean> negativeCache;
+    private final Counter bloomRejections;
+    private final Counter malformedRejections;
+    private final long minBloomCapacity;
+    private final double bloomFalsePositiveRate;
+    private final Duration catchUpOverlap;
+    private final long staleAfterMillis;
+    
+    private volatile BloomFilter knownKeys;
+    // Until this time a bloom miss is trusted; pushed forward by every successful load or catch-up
+    private volatile long authoritativeUntil;
+    private volatile LocalDateTime catchUpWatermark;
+    private volatile LocalDateTime updateWatermark;
+    private volatile long bloomCapacity;
+    private volatile Set<String> keysAddedDuringRebuild;
+    private final AtomicLong bloomInsertions = new AtomicLong();
+    // Held across the key scan
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    
+    public LicenseValidationService(LicenseRepository licenseRepository,
+                                    LicenseKeyGenerator licenseKeyGenerator,
+                                    JdbcTemplate jdbcTemplate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${licenses.validation.cache.max-entries:100000}") long maxEntries,
+                                    @Value("${licenses.validation.cache.ttl:10m}") Duration ttl,
+                                    @Value("${licenses.validation.negative-cache.max-entries:100000}") long negativeMaxEntries,
+                                    @Value("${licenses.validation.negative-cache.ttl:60s}") Duration negativeTtl,
+                                    @Value("${licenses.validation.bloom.expected-keys:1000000}") long minBloomCapacity,
+                                    @Value("${licenses.validation.bloom.false-positive-rate:0.01}") double bloomFalsePositiveRate,
+                                    @Value("${licenses.validation.bloom.catch-up-interval:5000}") long catchUpIntervalMillis,
+                                    @Value("${licenses.validation.bloom.catch-up-overlap:30s}") Duration catchUpOverlap) {
+        this.licenseRepository = licenseRepository;
+        this.licenseKeyGenerator = licenseKeyGenerator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.minBloomCapacity = minBloomCapacity;
+        this.bloomFalsePositiveRate = bloomFalsePositiveRate;
+        this.catchUpOverlap = catchUpOverlap;
+        // A few missed catch-ups are tolerated before the filter stops answering on its own
+        this.staleAfterMillis = 3 * catchUpIntervalMillis;
+        // TTL is only a safety net; writes here and the updated_at catch-up invalidate entries explicitly
+        this.positiveCache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.negativeCache = Caffeine.newBuilder()
+                .maximumSize(negativeMaxEntries)
+                .expireAfterWrite(negativeTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, positiveCache, "license.validation");
+        CaffeineCacheMetrics.monitor(meterRegistry, negativeCache, "license.validation.negative");
+        this.bloomRejections = Counter.builder("license.validation.bloom.rejections")
+                .description("Lookups of unknown keys answered by the bloom filter without a query")
+                .register(meterRegistry);
+        this.malformedRejections = Counter.builder("license.validation.malformed")
+                .description("Lookups rejected by the key format and check character")
+                .register(meterRegistry);
+    }
+    
+    public LicenseValidationResponse validate(String licenseKey) {
+        if (!licenseKeyGenerator.isWellFormed(licenseKey)) {
+            malformedRejections.increment();
+            return LicenseValidationResponse.notFound(licenseKey);
+        }
+        ValidationEntry entry = positiveCache.getIfPresent(licenseKey);
+        if (entry != null) {
+            return entry.toResponse(licenseKey);
+        }
+        
+        BloomFilter filter = knownKeys;
+        if (filter != null && System.currentTimeMillis() < authoritativeUntil && !filter.mightContain(licenseKey)) {
+            bloomRejections.increment();
+            return LicenseValidationResponse.notFound(licenseKey);
+        }
+        if (negativeCache.getIfPresent(licenseKey) != null) {
+            return LicenseValidationResponse.notFound(licenseKey);
+        }
+        
+        // Caffeine runs at most one loader per key; concurrent callers wait for its result
+        entry = positiveCache.get(licenseKey, this::load);
+        if (entry == null) {
+            negativeCache.put(licenseKey, Boolean.TRUE);
+            return LicenseValidationResponse.notFound(licenseKey);
+        }
+        return entry.toResponse(licenseKey);
+    }
+    
+    private ValidationEntry load(String licenseKey) {
+        Optional<LicenseValidationView> view = licenseRepository.findValidationViewByLicenseKey(licenseKey);
+        return view.map(v -> new ValidationEntry(v.getStatus(), v.getExpiryDate(), v.getMaxUsers(), v.getCurrentUsers()))
+                .orElse(null);
+    }
+    
+    @EventListener
+    public void onLicenseChanged(LicenseChangedEvent event) {
+        for (LicenseChange change : event.getChanges()) {
+            invalidate(change.getBefore());
+            LicenseSnapshot after = change.getAfter();
+            if (after != null) {
+                invalidate(after);
+                negativeCache.invalidate(after.getLicenseKey());
+                addKnownKey(after.getLicenseKey(), true);
+            }
+        }
+    }
+    
+    @EventListener
+    public void onSeatsChanged(LicenseSeatsChangedEvent event) {
+        positiveCache.invalidate(event.getLicenseKey());
+    }
+    
+    public void invalidate(String licenseKey) {
+        positiveCache.invalidate(licenseKey);
+    }
+    
+    private void invalidate(LicenseSnapshot snapshot) {
+        if (snapshot != null) {
+            positiveCache.invalidate(snapshot.getLicenseKey());
+        }
+    }
+    
+    private void addKnownKey(String licenseKey, boolean count) {
+        BloomFilter filter = knownKeys;
+        if (filter != null) {
+            filter.put(licenseKey);
+            if (count) {
+                bloomInsertions.incrementAndGet();
+            }
+        }
+        Set<String> pending = keysAddedDuringRebuild;
+        if (pending != null) {
+            pending.add(licenseKey);
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadKnownKeys() {
+        rebuildKnownKeys();
+    }
+    
+    // Change events only reach the node that made the change; keys created or changed elsewhere arrive here. The
+    // overlap re-reads rows committed late with an earlier timestamp, and rows from nodes whose clocks lag behind
+    @Scheduled(fixedDelayString = "${licenses.validation.bloom.catch-up-interval:5000}")
+    public void catchUpKnownKeys() {
+        LocalDateTime since = catchUpWatermark;
+        if (since == null) {
+            return;
+        }
+        invalidateUpdatedKeys();
+        List<LicenseKeyView> created = licenseRepository.findLicenseKeysCreatedSince(since.minus(catchUpOverlap));
+        LocalDateTime max = since;
+        for (LicenseKeyView view : created) {
+            // Rows inside the overlap were most likely added already and are not counted again
+            boolean isNew = view.getCreatedAt().isAfter(since);
+            addKnownKey(view.getLicenseKey(), isNew);
+            negativeCache.invalidate(view.getLicenseKey());
+            if (isNew && view.getCreatedAt().isAfter(max)) {
+                max = view.getCreatedAt();
+            }
+        }
+        catchUpWatermark = max;
+        authoritativeUntil = System.currentTimeMillis() + staleAfterMillis;
+    }
+    
+    // Deletes on other nodes leave no updated_at behind; their cached entries last until the TTL
+    private void invalidateUpdatedKeys() {
+        LocalDateTime queryStart = LocalDateTime.now();
+        for (String licenseKey : licenseRepository.findLicenseKeysUpdatedSince(updateWatermark.minus(catchUpOverlap))) {
+            positiveCache.invalidate(licenseKey);
+        }
+        updateWatermark = queryStart;
+    }
+    
+    // Deleted keys leave stale bits behind and new keys eat into the capacity; rebuild periodically
+    @Scheduled(fixedDelayString = "${licenses.validation.bloom.rebuild-interval:3600000}",
+               initialDelayString = "${licenses.validation.bloom.rebuild-interval:3600000}")
+    public void rebuildIfNeeded() {
+        if (knownKeys == null || bloomInsertions.get() > bloomCapacity / 4) {
+            rebuildKnownKeys();
+        }
+    }
+    
+    private void rebuildKnownKeys() {
+        rebuildLock.lock();
+        try {
+            loadKnownKeysLocked();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+    
+    private void loadKnownKeysLocked() {
+        long start = System.currentTimeMillis();
+        // Rows created after the scan starts are picked up by the catch-up from here
+        LocalDateTime scanStart = LocalDateTime.now();
+        Set<String> pending = ConcurrentHashMap.newKeySet();
+        keysAddedDuringRebuild = pending;
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM licenses", Long.class);
+        long capacity = Math.max(minBloomCapacity, 2 * (count != null ? count : 0));
+        BloomFilter rebuilt = new BloomFilter(capacity, bloomFalsePositiveRate);
+        jdbcTemplate.query("SELECT license_key FROM licenses",
+                (RowCallbackHandler) rs -> rebuilt.put(rs.getString(1)));
+        // The previous filter keeps serving until the swap; keys created meanwhile are replayed into the new one
+        knownKeys = rebuilt;
+        keysAddedDuringRebuild = null;
+        pending.forEach(rebuilt::put);
+        bloomCapacity = capacity;
+        bloomInsertions.set(0);
+        if (catchUpWatermark == null || scanStart.isBefore(catchUpWatermark)) {
+            catchUpWatermark = scanStart;
+        }
+        if (updateWatermark == null) {
+            updateWatermark = scanStart;
+        }
+        authoritativeUntil = System.currentTimeMillis() + staleAfterMillis;
+        log.info("Loaded {} license keys into the validation bloom filter in {} ms",
+                count, System.currentTimeMillis() - start);
+    }
+    
+    private record ValidationEntry(LicenseStatus status, LocalDate expiryDate, Integer maxUsers, Integer currentUsers) {
+        
+        // Validity is derived per call so a cached entry cannot outlive the expiry date
+        LicenseValidationResponse toResponse(String licenseKey) {
+            boolean valid = status == LicenseStatus.ACTIVE && expiryDate.isAfter(LocalDate.now());
+            return new LicenseValidationResponse(licenseKey, valid, status, expiryDate, maxUsers, currentUsers);
+        }
+    }
+}
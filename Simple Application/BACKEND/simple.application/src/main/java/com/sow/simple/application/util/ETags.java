@@ -0,0 +1,48 @@
+package com.sow.simple.application.util;
+
+/**
+ * Entity tags for license resources and the two precondition checks that use them (RFC 9110 section 13.1).
+ * License tags are strong and built from the id and row version, so they change with every write and
+ * never collide between a deleted license and a new one that reuses its key.
+ */
+public final class ETags {
+    
+    private ETags() {
+    }
+    
+    public static String forLicense(Long id, Long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+    
+    // If-None-Match uses weak comparison: W/ prefixes are ignored
+    public static boolean matchesIfNoneMatch(String header, String etag) {
+        return matches(header, etag, false);
+    }
+    
+    // If-Match uses strong comparison: a weak tag never matches
+    public static boolean matchesIfMatch(String header, String etag) {
+        return matches(header, etag, true);
+    }
+    
+    private static boolean matches(String header, String etag, boolean strong) {
+        if (header == null || header.isBlank()) {
+            return false;
+        }
+        if (header.trim().equals("*")) {
+            return true;
+        }
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                if (strong) {
+                    continue;
+                }
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,148 @@
+package com.sow.simple.application.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: items are bucketed by deadline tick modulo the wheel size, so
+ * scheduling is O(1) and each tick only visits one bucket. Items whose deadline lies
+ * more than one revolution ahead simply stay in their bucket until their tick comes round.
+ * The wheel has no thread of its own; the owner calls {@link #advance} periodically.
+ * Cancelling a scheduled item is O(1) as well: it stays in its bucket and is dropped
+ * without firing when its tick is visited.
+ */
+public class HashedTimingWheel<T> {
+    
+    private final long tickMillis;
+    private final long startMillis;
+    private final List<List<Timeout>> buckets;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long currentTick;
+    private int size;
+    
+    public HashedTimingWheel(long tickMillis, int wheelSize) {
+        this(tickMillis, wheelSize, System.currentTimeMillis());
+    }
+    
+    // Tests pin the start so that tick boundaries fall where they expect
+    HashedTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayList<>());
+        }
+    }
+    
+    public Timeout schedule(T item, long deadlineMillis) {
+        lock.lock();
+        try {
+            // Round up so an item never fires before its deadline
+            long deadlineTick = Math.max(currentTick + 1, (deadlineMillis - startMillis + tickMillis - 1) / tickMillis);
+            Timeout timeout = new Timeout(item, deadlineTick);
+            buckets.get((int) (deadlineTick % buckets.size())).add(timeout);
+            size++;
+            return timeout;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Fires every item whose deadline is at or before {@code nowMillis}, in tick order.
+     * Returns the number of items expired.
+     */
+    public int advance(long nowMillis, Consumer<T> onExpired) {
+        lock.lock();
+        try {
+            long targetTick = (nowMillis - startMillis) / tickMillis;
+            if (targetTick <= currentTick) {
+                return 0;
+            }
+            int expired = 0;
+            if (targetTick - currentTick >= buckets.size()) {
+                // Fell a full revolution behind: one pass over every bucket, starting at the next tick, catches up
+                for (long tick = currentTick + 1; tick <= currentTick + buckets.size(); tick++) {
+                    expired += expire(buckets.get((int) (tick % buckets.size())), targetTick, onExpired);
+                }
+            } else {
+                for (long tick = currentTick + 1; tick <= targetTick; tick++) {
+                    expired += expire(buckets.get((int) (tick % buckets.size())), tick, onExpired);
+                }
+            }
+            currentTick = targetTick;
+            return expired;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Caller holds the lock
+    private int expire(List<Timeout> bucket, long tick, Consumer<T> onExpired) {
+        int expired = 0;
+        Iterator<Timeout> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.cancelled) {
+                iterator.remove();
+            } else if (timeout.deadlineTick <= tick) {
+                iterator.remove();
+                timeout.fired = true;
+                size--;
+                onExpired.accept(timeout.item);
+                expired++;
+            }
+        }
+        return expired;
+    }
+    
+    /**
+     * Handle to a scheduled item.
+     */
+    public final class Timeout {
+        
+        private final T item;
+        private final long deadlineTick;
+        // Both guarded by the wheel's lock
+        private boolean fired;
+        private boolean cancelled;
+        
+        private Timeout(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+        
+        public T item() {
+            return item;
+        }
+        
+        /**
+         * Stops the item from firing. Returns false if it already fired or was cancelled before.
+         */
+        public boolean cancel() {
+            lock.lock();
+            try {
+                if (fired || cancelled) {
+                    return false;
+                }
+                cancelled = true;
+                size--;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
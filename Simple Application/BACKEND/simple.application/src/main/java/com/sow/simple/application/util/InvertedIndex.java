@@ -0,0 +1,562 @@
+package com.sow.simple.application.util;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Word-level inverted index with typo-tolerant, ranked lookups.
+ * Each document is a fixed list of fields; fields are split into lower-case words, and each word's
+ * postings list holds {@code (doc, field)} pairs in doc order. A query word matches exact terms,
+ * terms it is a prefix of, and (for fuzzy fields) terms containing it or within a small edit distance,
+ * found through a trigram index over the vocabulary rather than over the documents.
+ * Every query word must match (AND); scoring sums, per query word, the best
+ * {@code match weight x field weight x idf}. Removed documents are tombstoned until the index is rebuilt.
+ */
+public class InvertedIndex {
+    
+    private static final int FIELD_BITS = 3;
+    private static final int FIELD_MASK = (1 << FIELD_BITS) - 1;
+    private static final int MAX_QUERY_WORDS = 8;
+    private static final int MAX_EXPANSIONS = 64;
+    private static final float EXACT_WEIGHT = 1.0f;
+    private static final float PREFIX_WEIGHT = 0.7f;
+    private static final float INFIX_WEIGHT = 0.6f;
+    private static final float TYPO_WEIGHT = 0.5f;
+    private static final int MAX_POOLED_SCRATCH = Runtime.getRuntime().availableProcessors() * 2;
+    
+    private final float[] fieldWeights;
+    private final boolean[] fuzzyFields;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    private final TreeMap<String, Term> terms = new TreeMap<>();
+    private final Map<String, List<Term>> fuzzyTermsByTrigram = new HashMap<>();
+    private final Map<Long, Integer> docById = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private final Queue<Scratch> scratchPool = new ConcurrentLinkedQueue<>();
+    private long[] ids = new long[1024];
+    private int docCount;
+    private int deletedCount;
+    
+    public record Hit(long id, float score) {
+    }
+    
+    public InvertedIndex(float[] fieldWeights, boolean[] fuzzyFields) {
+        if (fieldWeights.length > FIELD_MASK + 1 || fieldWeights.length != fuzzyFields.length) {
+            throw new IllegalArgumentException("Up to " + (FIELD_MASK + 1) + " fields with one fuzzy flag each");
+        }
+        this.fieldWeights = fieldWeights.clone();
+        this.fuzzyFields = fuzzyFields.clone();
+    }
+    
+    public void add(long id, String[] fields) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            addLocked(id, fields);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docCount - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int deletedCount() {
+        lock.readLock().lock();
+        try {
+            return deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Concatenates independently built parts (e.g. one per loader thread) into this empty index
+    public void appendAll(List<InvertedIndex> parts) {
+        lock.writeLock().lock();
+        try {
+            for (InvertedIndex part : parts) {
+                int offset = docCount;
+                ensureCapacity(offset + part.docCount);
+                for (int doc = 0; doc < part.docCount; doc++) {
+                    int target = offset + doc;
+                    ids[target] = part.ids[doc];
+                    if (part.deleted.get(doc)) {
+                        deleted.set(target);
+                        deletedCount++;
+                    } else {
+                        docById.put(part.ids[doc], target);
+                    }
+                }
+                docCount += part.docCount;
+                for (Term source : part.terms.values()) {
+                    Term term = term(source.text, source.fuzzy);
+                    term.documentFrequency += source.documentFrequency;
+                    for (int i = 0; i < source.size; i++) {
+                        int posting = source.postings[i];
+                        term.append((((posting >>> FIELD_BITS) + offset) << FIELD_BITS) | (posting & FIELD_MASK));
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public List<Hit> search(String query, int limit) {
+        List<String> words = new ArrayList<>(tokenize(query));
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        if (words.size() > MAX_QUERY_WORDS) {
+            words = words.subList(0, MAX_QUERY_WORDS);
+        }
+        
+        lock.readLock().lock();
+        try {
+            List<List<Expansion>> groups = new ArrayList<>(words.size());
+            for (String word : words) {
+                List<Expansion> expansions = expand(word);
+                if (expansions.isEmpty()) {
+                    return List.of();
+                }
+                groups.add(expansions);
+            }
+            // Rarest word first keeps the candidate set small for the rest
+            groups.sort(Comparator.comparingLong(InvertedIndex::postingCount));
+            
+            Scratch scratch = acquireScratch();
+            try {
+                return rank(groups, scratch, limit);
+            } finally {
+                releaseScratch(scratch);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void addLocked(long id, String[] fields) {
+        ensureCapacity(docCount + 1);
+        int doc = docCount++;
+        ids[doc] = id;
+        docById.put(id, doc);
+        
+        Map<String, Integer> fieldsByWord = new HashMap<>();
+        for (int field = 0; field < fields.length; field++) {
+            if (fields[field] == null) {
+                continue;
+            }
+            for (String word : tokenize(fields[field])) {
+                fieldsByWord.merge(word, 1 << field, (a, b) -> a | b);
+            }
+        }
+        fieldsByWord.forEach((word, fieldMask) -> {
+            boolean fuzzy = false;
+            for (int field = 0; field < fieldWeights.length; field++) {
+                fuzzy |= (fieldMask & (1 << field)) != 0 && fuzzyFields[field];
+            }
+            Term term = term(word, fuzzy);
+            term.documentFrequency++;
+            for (int field = 0; field < fieldWeights.length; field++) {
+                if ((fieldMask & (1 << field)) != 0) {
+                    term.append((doc << FIELD_BITS) | field);
+                }
+            }
+        });
+    }
+    
+    private void removeLocked(long id) {
+        Integer doc = docById.remove(id);
+        if (doc != null) {
+            deleted.set(doc);
+            deletedCount++;
+        }
+    }
+    
+    private Term term(String word, boolean fuzzy) {
+        Term term = terms.get(word);
+        if (term == null) {
+            term = new Term(word);
+            terms.put(word, term);
+        }
+        // Only words from free-text fields feed the trigram index; keys and emails are matched exactly or by prefix
+        if (fuzzy && !term.fuzzy) {
+            term.fuzzy = true;
+            for (String trigram : trigrams(word)) {
+                fuzzyTermsByTrigram.computeIfAbsent(trigram, t -> new ArrayList<>()).add(term);
+            }
+        }
+        return term;
+    }
+    
+    private List<Expansion> expand(String word) {
+        Map<Term, Float> matches = new HashMap<>();
+        Term exact = terms.get(word);
+        if (exact != null) {
+            matches.put(exact, EXACT_WEIGHT);
+        }
+        if (word.length() >= 2) {
+            int added = 0;
+            for (Term term : terms.subMap(word, false, word + Character.MAX_VALUE, false).values()) {
+                if (added++ == MAX_EXPANSIONS) {
+                    break;
+                }
+                matches.putIfAbsent(term, PREFIX_WEIGHT);
+            }
+        }
+        if (word.length() >= 3) {
+            expandFuzzy(word, matches);
+        }
+        
+        List<Expansion> expansions = new ArrayList<>(matches.size());
+        matches.forEach((term, weight) -> expansions.add(new Expansion(term, weight)));
+        if (expansions.size() > MAX_EXPANSIONS) {
+            expansions.sort(Comparator.comparingDouble((Expansion e) -> -e.weight()));
+            return expansions.subList(0, MAX_EXPANSIONS);
+        }
+        return expansions;
+    }
+    
+    // Candidates share trigrams with the word; each is then checked for containment or a small edit distance
+    private void expandFuzzy(String word, Map<Term, Float> matches) {
+        int maxEdits = word.length() >= 8 ? 2 : word.length() >= 4 ? 1 : 0;
+        List<String> wordTrigrams = trigrams(word);
+        Map<Term, Integer> shared = new HashMap<>();
+        for (String trigram : wordTrigrams) {
+            List<Term> postings = fuzzyTermsByTrigram.get(trigram);
+            if (postings != null) {
+                for (Term term : postings) {
+                    shared.merge(term, 1, Integer::sum);
+                }
+            }
+        }
+        // An edit touches at most three trigrams; infix matches share every inner trigram
+        int minShared = Math.max(1, Math.min(wordTrigrams.size() - 2, wordTrigrams.size() - 3 * maxEdits));
+        shared.forEach((term, count) -> {
+            if (count < minShared || matches.containsKey(term)) {
+                return;
+            }
+            if (term.text.contains(word)) {
+                matches.put(term, INFIX_WEIGHT);
+            } else if (maxEdits > 0 && Math.abs(term.text.length() - word.length()) <= maxEdits) {
+                int distance = editDistance(word, term.text, maxEdits);
+                if (distance <= maxEdits) {
+                    matches.put(term, TYPO_WEIGHT / distance);
+                }
+            }
+        });
+    }
+    
+    // Scores accumulate in dense per-doc arrays; only touched slots are reset afterwards
+    private List<Hit> rank(List<List<Expansion>> groups, Scratch scratch, int limit) {
+        float liveDocs = Math.max(1, docCount - deletedCount);
+        IntList candidates = null;
+        IntList firstCandidates = null;
+        try {
+            for (int g = 0; g < groups.size(); g++) {
+                IntList touched = new IntList();
+                for (Expansion expansion : groups.get(g)) {
+                    Term term = expansion.term();
+                    float base = expansion.weight() * (float) Math.log(1 + liveDocs / Math.max(1, term.documentFrequency));
+                    if (candidates != null && (long) candidates.size * 16 < term.size) {
+                        // Few candidates against a long list: binary-search each candidate instead of scanning
+                        for (int c = 0; c < candidates.size; c++) {
+                            int doc = candidates.values[c];
+                            for (int i = term.lowerBound(doc << FIELD_BITS); i < term.size && term.postings[i] >>> FIELD_BITS == doc; i++) {
+                                score(scratch, touched, doc, base * fieldWeights[term.postings[i] & FIELD_MASK]);
+                            }
+                        }
+                        continue;
+                    }
+                    for (int i = 0; i < term.size; i++) {
+                        int posting = term.postings[i];
+                        int doc = posting >>> FIELD_BITS;
+                        if (candidates == null ? deleted.get(doc) : scratch.matched[doc] != g) {
+                            continue;
+                        }
+                        score(scratch, touched, doc, base * fieldWeights[posting & FIELD_MASK]);
+                    }
+                }
+                // Docs matching this word move on; the others drop out
+                for (int t = 0; t < touched.size; t++) {
+                    int doc = touched.values[t];
+                    scratch.total[doc] += scratch.best[doc];
+                    scratch.best[doc] = 0;
+                    scratch.matched[doc] = (byte) (g + 1);
+                }
+                candidates = touched;
+                if (firstCandidates == null) {
+                    firstCandidates = touched;
+                }
+                if (touched.size == 0) {
+                    return List.of();
+                }
+            }
+            return topK(candidates, scratch.total, limit);
+        } finally {
+            if (firstCandidates != null) {
+                for (int t = 0; t < firstCandidates.size; t++) {
+                    int doc = firstCandidates.values[t];
+                    scratch.total[doc] = 0;
+                    scratch.matched[doc] = 0;
+                }
+            }
+        }
+    }
+    
+    // Per query word a document keeps its best-scoring match
+    private static void score(Scratch scratch, IntList touched, int doc, float score) {
+        float current = scratch.best[doc];
+        if (current == 0) {
+            touched.add(doc);
+        }
+        if (score > current) {
+            scratch.best[doc] = score;
+        }
+    }
+    
+    // Bounded min-heap over primitive arrays; ties go to the older document
+    private List<Hit> topK(IntList candidates, float[] scores, int limit) {
+        int[] heap = new int[Math.min(limit, candidates.size)];
+        int size = 0;
+        for (int c = 0; c < candidates.size; c++) {
+            int doc = candidates.values[c];
+            if (size < heap.length) {
+                heap[size++] = doc;
+                siftUp(heap, size - 1, scores);
+            } else if (heap.length > 0 && worse(heap[0], doc, scores)) {
+                heap[0] = doc;
+                siftDown(heap, size, scores);
+            }
+        }
+        Hit[] hits = new Hit[size];
+        for (int i = size - 1; i >= 0; i--) {
+            int doc = heap[0];
+            hits[i] = new Hit(ids[doc], scores[doc]);
+            heap[0] = heap[i];
+            siftDown(heap, i, scores);
+        }
+        return List.of(hits);
+    }
+    
+    private static boolean worse(int a, int b, float[] scores) {
+        return scores[a] < scores[b] || scores[a] == scores[b] && a > b;
+    }
+    
+    private static void siftUp(int[] heap, int index, float[] scores) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!worse(heap[index], heap[parent], scores)) {
+                return;
+            }
+            int swap = heap[index];
+            heap[index] = heap[parent];
+            heap[parent] = swap;
+            index = parent;
+        }
+    }
+    
+    private static void siftDown(int[] heap, int size, float[] scores) {
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                return;
+            }
+            if (child + 1 < size && worse(heap[child + 1], heap[child], scores)) {
+                child++;
+            }
+            if (!worse(heap[child], heap[index], scores)) {
+                return;
+            }
+            int swap = heap[index];
+            heap[index] = heap[child];
+            heap[child] = swap;
+            index = child;
+        }
+    }
+    
+    private Scratch acquireScratch() {
+        Scratch scratch = scratchPool.poll();
+        if (scratch == null || scratch.total.length < docCount) {
+            scratch = new Scratch(docCount + (docCount >> 3) + 1024);
+        }
+        return scratch;
+    }
+    
+    private void releaseScratch(Scratch scratch) {
+        if (scratchPool.size() < MAX_POOLED_SCRATCH) {
+            scratchPool.offer(scratch);
+        }
+    }
+    
+    private void ensureCapacity(int capacity) {
+        if (capacity > ids.length) {
+            long[] grown = new long[Math.max(capacity, ids.length + (ids.length >> 1))];
+            System.arraycopy(ids, 0, grown, 0, docCount);
+            ids = grown;
+        }
+    }
+    
+    private static long postingCount(List<Expansion> group) {
+        long count = 0;
+        for (Expansion expansion : group) {
+            count += expansion.term().size;
+        }
+        return count;
+    }
+    
+    public static Set<String> tokenize(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        if (text == null) {
+            return words;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+    
+    // Padded so the first and last letters get trigrams of their own
+    private static List<String> trigrams(String word) {
+        String padded = "$" + word + "$";
+        List<String> trigrams = new ArrayList<>(padded.length());
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+    
+    // Optimal string alignment distance (adjacent swaps cost one), abandoned once it exceeds max
+    private static int editDistance(String a, String b, int max) {
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+    
+    private record Expansion(Term term, float weight) {
+    }
+    
+    // Per-query working arrays indexed by doc; pooled because they are sized to the whole index
+    private static final class Scratch {
+        
+        final float[] total;
+        final float[] best;
+        final byte[] matched;
+        
+        Scratch(int capacity) {
+            total = new float[capacity];
+            best = new float[capacity];
+            matched = new byte[capacity];
+        }
+    }
+    
+    private static final class IntList {
+        
+        int[] values = new int[16];
+        int size;
+        
+        void add(int value) {
+            if (size == values.length) {
+                int[] grown = new int[values.length * 2];
+                System.arraycopy(values, 0, grown, 0, size);
+                values = grown;
+            }
+            values[size++] = value;
+        }
+    }
+    
+    private static final class Term {
+        
+        final String text;
+        int[] postings = new int[2];
+        int size;
+        int documentFrequency;
+        boolean fuzzy;
+        
+        Term(String text) {
+            this.text = text;
+        }
+        
+        void append(int posting) {
+            if (size == postings.length) {
+                int[] grown = new int[postings.length + (postings.length >> 1) + 1];
+                System.arraycopy(postings, 0, grown, 0, size);
+                postings = grown;
+            }
+            postings[size++] = posting;
+        }
+        
+        int lowerBound(int posting) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (postings[mid] < posting) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
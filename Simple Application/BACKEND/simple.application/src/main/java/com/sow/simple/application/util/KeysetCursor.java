@@ -0,0 +1,30 @@
+package com.sow.simple.application.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor over {@code (sort key, id)}: the position after the last row of a page.
+ * Clients treat it as an opaque string; it is Base64url of {@code "<sortKey>|<id>"}.
+ */
+public record KeysetCursor(String sortKey, long id) {
+    
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            String sortKey = raw.substring(0, separator);
+            return new KeysetCursor(sortKey.isEmpty() ? null : sortKey, Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+    
+    public String encode() {
+        String raw = (sortKey != null ? sortKey : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
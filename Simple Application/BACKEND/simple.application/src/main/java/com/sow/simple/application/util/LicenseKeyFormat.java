@@ -0,0 +1,157 @@
+package com.sow.simple.application.util;
+
+import java.util.Arrays;
+
+/**
+ * Structured license key format: {@code [PREFIX-]XXXXX-XXXXX-XXXXX-XXXXC}.
+ * The 19 body characters are Crockford base32 (no I, L, O, U) and carry a 40-bit serial followed by
+ * 55 random bits; {@code C} is a Luhn mod 32 check character over the body, so any single mistyped
+ * character and every adjacent swap except 0/Z are detected without a lookup. The optional prefix is 2-8
+ * upper-case letters or digits (e.g. a product code) and is not covered by the check character.
+ */
+public final class LicenseKeyFormat {
+    
+    public static final int SERIAL_BITS = 40;
+    public static final int RANDOM_BITS = 55;
+    public static final int MIN_PREFIX_LENGTH = 2;
+    public static final int MAX_PREFIX_LENGTH = 8;
+    // licenses.license_key is VARCHAR(255)
+    public static final int MAX_LEGACY_LENGTH = 255;
+    
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int BASE = ALPHABET.length;
+    private static final int BODY_CHARS = 19;
+    private static final int GROUP_LENGTH = 5;
+    private static final int GROUPS = 4;
+    // Four groups of five plus three separators
+    private static final int KEY_TAIL_LENGTH = GROUPS * GROUP_LENGTH + GROUPS - 1;
+    private static final int[] VALUES = new int[128];
+    
+    static {
+        Arrays.fill(VALUES, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = i;
+        }
+    }
+    
+    private LicenseKeyFormat() {
+    }
+    
+    public static String format(String prefix, long serial, long random) {
+        if (serial < 0 || serial >= 1L << SERIAL_BITS) {
+            throw new IllegalArgumentException("Serial out of range: " + serial);
+        }
+        if (prefix != null && !isValidPrefix(prefix)) {
+            throw new IllegalArgumentException("Invalid license key prefix: " + prefix);
+        }
+        int[] body = new int[BODY_CHARS];
+        // 8 characters of serial, then 11 characters of random bits
+        for (int i = 7; i >= 0; i--) {
+            body[i] = (int) (serial & 31);
+            serial >>>= 5;
+        }
+        for (int i = BODY_CHARS - 1; i >= 8; i--) {
+            body[i] = (int) (random & 31);
+            random >>>= 5;
+        }
+        
+        StringBuilder key = new StringBuilder(MAX_PREFIX_LENGTH + 1 + KEY_TAIL_LENGTH);
+        if (prefix != null) {
+            key.append(prefix).append('-');
+        }
+        for (int i = 0; i < BODY_CHARS; i++) {
+            if (i > 0 && i % GROUP_LENGTH == 0) {
+                key.append('-');
+            }
+            key.append(ALPHABET[body[i]]);
+        }
+        key.append(ALPHABET[checkValue(body)]);
+        return key.toString();
+    }
+    
+    // True only for a structured key whose check character matches; costs one pass over the string
+    public static boolean isValid(String key) {
+        if (key == null || key.length() < KEY_TAIL_LENGTH) {
+            return false;
+        }
+        int tailStart = key.length() - KEY_TAIL_LENGTH;
+        if (tailStart > 0) {
+            int prefixLength = tailStart - 1;
+            if (key.charAt(prefixLength) != '-' || prefixLength < MIN_PREFIX_LENGTH || prefixLength > MAX_PREFIX_LENGTH
+                    || !isValidPrefix(key.substring(0, prefixLength))) {
+                return false;
+            }
+        }
+        
+        int[] body = new int[BODY_CHARS];
+        int index = 0;
+        for (int i = 0; i < KEY_TAIL_LENGTH; i++) {
+            char c = key.charAt(tailStart + i);
+            if (i % (GROUP_LENGTH + 1) == GROUP_LENGTH) {
+                if (c != '-') {
+                    return false;
+                }
+                continue;
+            }
+            int value = c < 128 ? VALUES[c] : -1;
+            if (value < 0) {
+                return false;
+            }
+            if (index == BODY_CHARS) {
+                return value == checkValue(body);
+            }
+            body[index++] = value;
+        }
+        return false;
+    }
+    
+    // Shaped like a structured key (separators in place), whether or not its characters and check are valid
+    public static boolean hasStructuredShape(String key) {
+        if (key == null || key.length() < KEY_TAIL_LENGTH) {
+            return false;
+        }
+        int tailStart = key.length() - KEY_TAIL_LENGTH;
+        for (int i = GROUP_LENGTH; i < KEY_TAIL_LENGTH; i += GROUP_LENGTH + 1) {
+            if (key.charAt(tailStart + i) != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // Keys issued before this format: the old "LIC-" + 8 hex generator, or any non-blank key the client chose
+    // (the only rule before was @NotBlank), so every stored key stays reachable. Keys shaped like structured
+    // ones are not legacy; they must pass the check character, so their typos are still caught
+    public static boolean isLegacy(String key) {
+        return key != null && !key.isBlank() && key.length() <= MAX_LEGACY_LENGTH && !hasStructuredShape(key);
+    }
+    
+    public static boolean isValidPrefix(String prefix) {
+        if (prefix.length() < MIN_PREFIX_LENGTH || prefix.length() > MAX_PREFIX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (!(c >= 'A' && c <= 'Z') && !(c >= '0' && c <= '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // Luhn mod N: double every second value from the right, fold back into the base, and sum
+    private static int checkValue(int[] body) {
+        int sum = 0;
+        boolean doubled = true;
+        for (int i = body.length - 1; i >= 0; i--) {
+            int addend = body[i];
+            if (doubled) {
+                addend *= 2;
+                addend = addend / BASE + addend % BASE;
+            }
+            sum += addend;
+            doubled = !doubled;
+        }
+        return (BASE - sum % BASE) % BASE;
+    }
+}
@@ -0,0 +1,65 @@
+package com.sow.simple.application.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Sorted set of names with a reference count per name; a name disappears when its count drops to zero.
+ * Ordered case-insensitively (ties broken by exact case) so a prefix search is a single range scan:
+ * seek to the prefix, then read forward until names stop matching.
+ */
+public class RefCountedDictionary {
+    
+    private static final Comparator<String> ORDER = String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+    
+    private final ConcurrentSkipListMap<String, Integer> counts = new ConcurrentSkipListMap<>(ORDER);
+    
+    public static RefCountedDictionary of(Map<String, Long> initialCounts) {
+        RefCountedDictionary dictionary = new RefCountedDictionary();
+        initialCounts.forEach((name, count) -> {
+            if (name != null && count > 0) {
+                dictionary.counts.put(name, count.intValue());
+            }
+        });
+        return dictionary;
+    }
+    
+    public void increment(String name) {
+        if (name != null) {
+            counts.merge(name, 1, Integer::sum);
+        }
+    }
+    
+    public void decrement(String name) {
+        if (name != null) {
+            counts.computeIfPresent(name, (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+    
+    public List<String> names() {
+        return new ArrayList<>(counts.keySet());
+    }
+    
+    // First {@code limit} names starting with the prefix, ignoring case, in dictionary order
+    public List<String> startingWith(String prefix, int limit) {
+        List<String> matches = new ArrayList<>(Math.min(limit, 16));
+        // Among names equal ignoring case the all-upper-case form sorts first, so seek from it
+        ConcurrentNavigableMap<String, Integer> tail = counts.tailMap(prefix.toUpperCase(Locale.ROOT), true);
+        for (String name : tail.keySet()) {
+            if (matches.size() == limit || !name.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                break;
+            }
+            matches.add(name);
+        }
+        return matches;
+    }
+    
+    public int size() {
+        return counts.size();
+    }
+}
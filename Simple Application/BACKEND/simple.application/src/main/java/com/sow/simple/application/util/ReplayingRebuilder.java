@@ -0,0 +1,79 @@
+package com.sow.simple.application.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * In-memory state that is kept current by applying changes to it and is periodically rebuilt from the database.
+ * The current state keeps serving while a rebuild loads; changes applied meanwhile are buffered and replayed
+ * into the loaded state before the swap, so none is lost. A change that was already in the load may be replayed
+ * once more; the next rebuild corrects that.
+ *
+ * @param <T> the state, e.g. an index or a set of counters
+ * @param <C> a change applied to it
+ */
+public class ReplayingRebuilder<T, C> {
+    
+    private final BiConsumer<T, C> applier;
+    // Loaders query the database while holding this, and a monitor would pin a virtual thread for the whole query
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final Object applyLock = new Object();
+    private volatile T current;
+    private List<C> changesDuringRebuild;
+    
+    public ReplayingRebuilder(BiConsumer<T, C> applier) {
+        this.applier = applier;
+    }
+    
+    /**
+     * The state loaded by the last rebuild, or {@code null} before the first one completes.
+     */
+    public T current() {
+        return current;
+    }
+    
+    public void apply(C change) {
+        synchronized (applyLock) {
+            T state = current;
+            if (state != null) {
+                applier.accept(state, change);
+            }
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        }
+    }
+    
+    /**
+     * Loads a new state, replays the changes applied since the load started and swaps it in.
+     * Rebuilds are serialised; if the loader fails the current state is kept.
+     */
+    public T rebuild(Supplier<T> loader) {
+        rebuildLock.lock();
+        try {
+            synchronized (applyLock) {
+                changesDuringRebuild = new ArrayList<>();
+            }
+            T loaded;
+            try {
+                loaded = loader.get();
+            } catch (RuntimeException ex) {
+                synchronized (applyLock) {
+                    changesDuringRebuild = null;
+                }
+                throw ex;
+            }
+            synchronized (applyLock) {
+                changesDuringRebuild.forEach(change -> applier.accept(loaded, change));
+                changesDuringRebuild = null;
+                current = loaded;
+            }
+            return loaded;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.sow.simple.application.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer. Each slot carries a sequence number:
+ * a producer claims a position with one CAS on the tail, stores the element and then publishes the slot by
+ * advancing its sequence; the consumer takes slots in order once published and hands them back by moving
+ * their sequence one lap ahead. {@link #offer} never blocks and fails when the buffer is full.
+ * Capacity is rounded up to a power of two, and is at least two: with a single slot a published element's
+ * sequence would equal the next free position.
+ */
+public class RingBuffer<E> {
+    
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Written only by the consumer; volatile so size() can be read from other threads
+    private volatile long head;
+    
+    public RingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+    
+    public boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[index] = element;
+                    // Volatile write publishes the element to the consumer
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (available < 0) {
+                // The slot still holds an element from the previous lap
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+    
+    /**
+     * Hands up to {@code max} elements to {@code consumer} in offer order. Must only be called from one
+     * thread at a time. Returns the number of elements drained.
+     */
+    @SuppressWarnings("unchecked")
+    public int drain(Consumer<? super E> consumer, int max) {
+        long position = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            E element = (E) slots[index];
+            slots[index] = null;
+            sequences.set(index, position + slots.length);
+            position++;
+            head = position;
+            consumer.accept(element);
+            drained++;
+        }
+        return drained;
+    }
+    
+    // Approximate while producers and the consumer are running
+    public int size() {
+        return (int) Math.max(0, Math.min(slots.length, tail.get() - head));
+    }
+    
+    public int capacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,22 @@
+package com.sow.simple.application.util;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Thread factories for the application's own background pools. With {@code spring.threads.virtual.enabled}
+ * the I/O-bound pools (bulk jobs, index loaders) use virtual threads like the request and scheduler threads
+ * do; CPU-bound work such as password hashing stays on platform threads either way.
+ */
+public final class Threads {
+    
+    private Threads() {
+    }
+    
+    // Threads are named prefix-1, prefix-2, ... in both modes
+    public static ThreadFactory factory(String prefix, boolean virtual) {
+        String name = prefix + "-";
+        return virtual
+                ? Thread.ofVirtual().name(name, 1).factory()
+                : Thread.ofPlatform().name(name, 1).factory();
+    }
+}
@@ -0,0 +1,39 @@
+-- Baseline schema (H2 development databases). Mirrors db/migration/postgresql.
+
+CREATE TABLE IF NOT EXISTS users (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username         VARCHAR(255) NOT NULL UNIQUE,
+    email            VARCHAR(255) NOT NULL UNIQUE,
+    password         VARCHAR(255) NOT NULL,
+    first_name       VARCHAR(255) NOT NULL,
+    last_name        VARCHAR(255) NOT NULL,
+    role             VARCHAR(255) NOT NULL,
+    is_active        BOOLEAN,
+    security_version BIGINT,
+    created_at       TIMESTAMP(6),
+    updated_at       TIMESTAMP(6)
+);
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS security_version BIGINT;
+UPDATE users SET security_version = 0 WHERE security_version IS NULL;
+
+CREATE TABLE IF NOT EXISTS licenses (
+    id             BIGINT PRIMARY KEY,
+    license_key    VARCHAR(255) NOT NULL UNIQUE,
+    product_name   VARCHAR(255) NOT NULL,
+    customer_name  VARCHAR(255) NOT NULL,
+    customer_email VARCHAR(255),
+    issue_date     DATE NOT NULL,
+    expiry_date    DATE NOT NULL,
+    status         VARCHAR(255) NOT NULL,
+    max_users      INTEGER,
+    current_users  INTEGER,
+    -- Unbounded VARCHAR rather than TEXT (a CLOB in H2) so schema validation matches the entity
+    description    CHARACTER VARYING,
+    created_at     TIMESTAMP(6),
+    updated_at     TIMESTAMP(6),
+    created_by     BIGINT REFERENCES users (id)
+);
+
+CREATE SEQUENCE IF NOT EXISTS licenses_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS license_key_block_seq;
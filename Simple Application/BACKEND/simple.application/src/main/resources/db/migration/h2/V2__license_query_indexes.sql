@@ -0,0 +1,9 @@
+-- H2 has no expression indexes, so the case-insensitive lookups use plain name indexes here.
+
+CREATE INDEX IF NOT EXISTS idx_licenses_customer_name ON licenses (customer_name);
+CREATE INDEX IF NOT EXISTS idx_licenses_product_name ON licenses (product_name);
+CREATE INDEX IF NOT EXISTS idx_licenses_status_id ON licenses (status, id);
+CREATE INDEX IF NOT EXISTS idx_licenses_status_expiry_date_id ON licenses (status, expiry_date, id);
+CREATE INDEX IF NOT EXISTS idx_licenses_expiry_date_id ON licenses (expiry_date, id);
+CREATE INDEX IF NOT EXISTS idx_licenses_created_by ON licenses (created_by);
+CREATE INDEX IF NOT EXISTS idx_users_updated_at ON users (updated_at);
@@ -0,0 +1,14 @@
+-- Leased seats (H2 development databases). Mirrors db/migration/postgresql.
+
+CREATE TABLE IF NOT EXISTS seat_leases (
+    id          VARCHAR(36) PRIMARY KEY,
+    license_id  BIGINT NOT NULL REFERENCES licenses (id) ON DELETE CASCADE,
+    client_id   VARCHAR(128) NOT NULL,
+    expires_at  TIMESTAMP(6) NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_seat_leases_license_client UNIQUE (license_id, client_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_seat_leases_expires_at ON seat_leases (expires_at);
+
+UPDATE licenses SET current_users = 0 WHERE current_users IS NULL;
@@ -0,0 +1,3 @@
+-- Row version (H2 development databases). Mirrors db/migration/postgresql.
+
+ALTER TABLE licenses ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,13 @@
+-- Audit trail of license mutations (H2 development databases). Mirrors db/migration/postgresql.
+
+CREATE TABLE IF NOT EXISTS license_audit (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    occurred_at TIMESTAMP(6) NOT NULL,
+    actor       VARCHAR(255) NOT NULL,
+    action      VARCHAR(32) NOT NULL,
+    license_id  BIGINT NOT NULL,
+    license_key VARCHAR(255),
+    details     VARCHAR(4000)
+);
+
+CREATE INDEX IF NOT EXISTS idx_license_audit_license ON license_audit (license_id, occurred_at);
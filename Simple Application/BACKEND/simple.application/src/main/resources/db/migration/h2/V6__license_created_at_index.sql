@@ -0,0 +1,3 @@
+-- Index for the validation bloom filter catch-up (H2 development databases). Mirrors db/migration/postgresql.
+
+CREATE INDEX IF NOT EXISTS idx_licenses_created_at ON licenses (created_at);
@@ -0,0 +1,3 @@
+-- Index for the validation cache catch-up (H2 development databases). Mirrors db/migration/postgresql.
+
+CREATE INDEX IF NOT EXISTS idx_licenses_updated_at ON licenses (updated_at);
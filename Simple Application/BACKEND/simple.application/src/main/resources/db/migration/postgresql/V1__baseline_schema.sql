@@ -0,0 +1,46 @@
+-- Baseline schema. Every statement is idempotent so databases created earlier by
+-- hibernate.ddl-auto=update are brought under Flyway in place (baseline-version=0).
+
+CREATE TABLE IF NOT EXISTS users (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username         VARCHAR(255) NOT NULL UNIQUE,
+    email            VARCHAR(255) NOT NULL UNIQUE,
+    password         VARCHAR(255) NOT NULL,
+    first_name       VARCHAR(255) NOT NULL,
+    last_name        VARCHAR(255) NOT NULL,
+    role             VARCHAR(255) NOT NULL,
+    is_active        BOOLEAN,
+    security_version BIGINT,
+    created_at       TIMESTAMP(6),
+    updated_at       TIMESTAMP(6)
+);
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS security_version BIGINT;
+UPDATE users SET security_version = 0 WHERE security_version IS NULL;
+
+CREATE TABLE IF NOT EXISTS licenses (
+    id             BIGINT PRIMARY KEY,
+    license_key    VARCHAR(255) NOT NULL UNIQUE,
+    product_name   VARCHAR(255) NOT NULL,
+    customer_name  VARCHAR(255) NOT NULL,
+    customer_email VARCHAR(255),
+    issue_date     DATE NOT NULL,
+    expiry_date    DATE NOT NULL,
+    status         VARCHAR(255) NOT NULL,
+    max_users      INTEGER,
+    current_users  INTEGER,
+    description    TEXT,
+    created_at     TIMESTAMP(6),
+    updated_at     TIMESTAMP(6),
+    created_by     BIGINT REFERENCES users (id)
+);
+
+-- Pooled id sequence (allocationSize = 50). Tables created with IDENTITY ids already hold rows,
+-- so move the sequence past them; GREATEST keeps it monotonic if it was already in use.
+CREATE SEQUENCE IF NOT EXISTS licenses_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('licenses_seq',
+              GREATEST((SELECT COALESCE(MAX(id), 0) FROM licenses) + 50,
+                       (SELECT last_value FROM licenses_seq)));
+
+-- Serial blocks for the license key generator
+CREATE SEQUENCE IF NOT EXISTS license_key_block_seq;
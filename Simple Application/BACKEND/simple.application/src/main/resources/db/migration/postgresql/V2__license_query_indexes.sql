@@ -0,0 +1,28 @@
+-- Indexes matching the LicenseRepository / UserRepository access paths.
+-- Built CONCURRENTLY so large tables stay writable; Flyway runs this script outside a transaction.
+-- If a build is interrupted, drop the INVALID index before re-running (IF NOT EXISTS would skip it).
+
+-- findByCustomerNameIgnoreCase, findPageByCustomerNameIgnoreCase: UPPER(customer_name) = UPPER(?) [AND id > ?] ORDER BY id
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_licenses_upper_customer_name_id ON licenses (UPPER(customer_name), id);
+
+-- findByProductNameIgnoreCase, findPageByProductNameIgnoreCase
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_licenses_upper_product_name_id ON licenses (UPPER(product_name), id);
+
+-- findAllCustomerNames / findAllProductNames (DISTINCT ... ORDER BY) and exact-case lookups
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_licenses_customer_name ON licenses (customer_name);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_licenses_product_name ON licenses (product_name);
+
+-- findByStatus, findPageByStatus: status = ? AND id > ? ORDER BY id
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_licenses_status_id ON licenses (status, id);
+
+-- Expiry engine: status = 'ACTIVE' AND expiry_date BETWEEN / <= ? ORDER BY expiry_date, id
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_licenses_status_expiry_date_id ON licenses (status, expiry_date, id);
+
+-- findExpiredLicenses, findExpiredFirstPage, findExpiredPageAfter: expiry_date <= ? ORDER BY expiry_date, id
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_licenses_expiry_date_id ON licenses (expiry_date, id);
+
+-- Foreign key to users; keeps user deletes from scanning licenses
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_licenses_created_by ON licenses (created_by);
+
+-- UserSecurityVersions incremental refresh: updated_at >= ?
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_updated_at ON users (updated_at);
@@ -0,0 +1,5 @@
+-- Row version for optimistic locking (License.version) and per-license ETags.
+-- Bumped by every write: JPA updates through @Version, set-based updates (expiry, seats) explicitly.
+-- A constant default makes this a catalog-only change on PostgreSQL 11+, so existing rows are not rewritten.
+
+ALTER TABLE licenses ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,16 @@
+-- Audit trail of license mutations (LicenseAuditService). Append-only and written in batches by a background
+-- writer; no foreign key to licenses, since entries must outlive the licenses they describe.
+
+CREATE TABLE IF NOT EXISTS license_audit (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    occurred_at TIMESTAMP(6) NOT NULL,
+    actor       VARCHAR(255) NOT NULL,
+    action      VARCHAR(32) NOT NULL,
+    license_id  BIGINT NOT NULL,
+    license_key VARCHAR(255),
+    -- Changed fields as "field: old -> new", separated by "; "
+    details     VARCHAR(4000)
+);
+
+-- History of one license, newest first
+CREATE INDEX IF NOT EXISTS idx_license_audit_license ON license_audit (license_id, occurred_at);
@@ -0,0 +1,4 @@
+-- Index for the validation bloom filter catch-up (findLicenseKeysCreatedSince: created_at >= ?).
+-- Built CONCURRENTLY so large tables stay writable; Flyway runs this script outside a transaction.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_licenses_created_at ON licenses (created_at);
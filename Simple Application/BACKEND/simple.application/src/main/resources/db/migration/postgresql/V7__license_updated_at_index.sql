@@ -0,0 +1,4 @@
+-- Index for the validation cache catch-up (findLicenseKeysUpdatedSince: updated_at >= ?).
+-- Built CONCURRENTLY so large tables stay writable; Flyway runs this script outside a transaction.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_licenses_updated_at ON licenses (updated_at);
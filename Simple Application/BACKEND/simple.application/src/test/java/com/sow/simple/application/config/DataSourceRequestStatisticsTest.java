@@ -0,0 +1,75 @@
+package com.sow.simple.application.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DataSourceRequestStatisticsTest {
+
+    private final DataSource dataSource = (DataSource) new DataSourceRequestStatistics().postProcessAfterInitialization(
+            new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""), "dataSource");
+    private final JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+    @AfterEach
+    void endRequest() {
+        RequestStatistics.end();
+    }
+
+    @Test
+    void jdbcTemplateStatementsAndBatchesAreCounted() {
+        jdbc.execute("CREATE TABLE item (id INT PRIMARY KEY)");
+        RequestStatistics statistics = RequestStatistics.begin();
+
+        jdbc.batchUpdate("INSERT INTO item (id) VALUES (?)", List.of(new Object[]{1}, new Object[]{2}));
+        assertEquals(2, jdbc.queryForObject("SELECT COUNT(*) FROM item", Integer.class));
+        jdbc.execute("DELETE FROM item");
+
+        assertEquals(2, statistics.statements);
+        assertEquals(1, statistics.batches);
+        assertEquals(3, statistics.sqlCount());
+        assertEquals(1, statistics.prepares);
+        assertTrue(statistics.sqlNanos() > 0);
+        assertTrue(statistics.connectionAcquireNanos > 0);
+    }
+
+    @Test
+    void nothingIsCountedOutsideARequest() {
+        jdbc.execute("CREATE TABLE item (id INT PRIMARY KEY)");
+        jdbc.update("INSERT INTO item (id) VALUES (1)");
+        RequestStatistics statistics = RequestStatistics.begin();
+
+        assertEquals(0, statistics.sqlCount());
+        assertEquals(0, statistics.connectionAcquireNanos);
+    }
+
+    @Test
+    void transactionsSeeTheSameConnectionThroughout() {
+        jdbc.execute("CREATE TABLE item (id INT PRIMARY KEY)");
+        RequestStatistics statistics = RequestStatistics.begin();
+
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(status -> {
+            jdbc.update("INSERT INTO item (id) VALUES (1)");
+            jdbc.update("INSERT INTO item (id) VALUES (2)");
+        });
+
+        assertEquals(2, statistics.statements);
+        assertEquals(2, jdbc.queryForObject("SELECT COUNT(*) FROM item", Integer.class));
+    }
+
+    @Test
+    void theWrappedDataSourceIsNotWrappedAgain() {
+        DataSourceRequestStatistics statistics = new DataSourceRequestStatistics();
+        assertSame(dataSource, statistics.postProcessAfterInitialization(dataSource, "dataSource"));
+    }
+}
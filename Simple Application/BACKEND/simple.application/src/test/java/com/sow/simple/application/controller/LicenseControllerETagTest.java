@@ -0,0 +1,177 @@
+package com.sow.simple.application.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sow.simple.application.dto.LicenseRequest;
+import com.sow.simple.application.entity.LicenseStatus;
+import com.sow.simple.application.service.LicenseKeyGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Conditional requests on the license endpoints: 304 for a current If-None-Match, 412 for a stale If-Match,
+ * and seat changes (which update the row outside JPA) moving both the license and the collection ETags.
+ */
+// The collection ETag also rolls over every collection-max-age; a long one keeps that out of the 304 checks
+@SpringBootTest(properties = {"licenses.audit.dir=target/test-audit", "licenses.certificate.key-dir=target/test-keys",
+        "licenses.etag.collection-max-age=1d"})
+@ActiveProfiles("h2")
+@AutoConfigureMockMvc
+@WithMockUser(username = "admin", roles = "ADMIN")
+class LicenseControllerETagTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LicenseKeyGenerator keyGenerator;
+
+    @Test
+    void aCurrentETagIsAnsweredWithNotModified() throws Exception {
+        JsonNode license = create();
+        String eTag = eTag(license);
+
+        mockMvc.perform(get("/licenses/{id}", license.get("id").asLong()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+        // If-None-Match compares weakly and accepts a list
+        mockMvc.perform(get("/licenses/key/{key}", license.get("licenseKey").asText())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + eTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/licenses/{id}", license.get("id").asLong()).header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+    }
+
+    @Test
+    void aStaleIfMatchIsRejectedWithPreconditionFailed() throws Exception {
+        JsonNode license = create();
+        long id = license.get("id").asLong();
+        String original = eTag(license);
+
+        MvcResult suspended = mockMvc.perform(patch("/licenses/{id}/status", id).param("status", "SUSPENDED")
+                        .header(HttpHeaders.IF_MATCH, original))
+                .andExpect(status().isOk())
+                .andReturn();
+        String current = suspended.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(original, current);
+
+        mockMvc.perform(put("/licenses/{id}", id).header(HttpHeaders.IF_MATCH, original)
+                        .contentType(MediaType.APPLICATION_JSON).content(body(request(license.get("licenseKey").asText()))))
+                .andExpect(status().isPreconditionFailed());
+        // If-Match compares strongly, so a weak copy of the current tag does not match either
+        mockMvc.perform(patch("/licenses/{id}/status", id).param("status", "ACTIVE").header(HttpHeaders.IF_MATCH, "W/" + current))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(get("/licenses/{id}", id))
+                .andExpect(jsonPath("$.status").value("SUSPENDED"));
+
+        mockMvc.perform(patch("/licenses/{id}/status", id).param("status", "ACTIVE").header(HttpHeaders.IF_MATCH, current))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void seatChangesMoveTheLicenseETag() throws Exception {
+        JsonNode license = create();
+        long id = license.get("id").asLong();
+        String key = license.get("licenseKey").asText();
+        String beforeCheckout = eTag(license);
+
+        MvcResult checkout = mockMvc.perform(post("/licenses/key/{key}/seats/checkout", key))
+                .andExpect(status().isOk())
+                .andReturn();
+        String leaseId = objectMapper.readTree(checkout.getResponse().getContentAsString()).get("leaseId").asText();
+
+        MvcResult afterCheckout = mockMvc.perform(get("/licenses/{id}", id).header(HttpHeaders.IF_NONE_MATCH, beforeCheckout))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.currentUsers").value(1))
+                .andReturn();
+        String checkedOut = afterCheckout.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(beforeCheckout, checkedOut);
+        // A write based on the pre-checkout representation would overwrite the seat count
+        mockMvc.perform(patch("/licenses/{id}/status", id).param("status", "SUSPENDED").header(HttpHeaders.IF_MATCH, beforeCheckout))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(post("/licenses/key/{key}/seats/checkin", key).param("leaseId", leaseId))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/licenses/{id}", id).header(HttpHeaders.IF_NONE_MATCH, checkedOut))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.currentUsers").value(0));
+    }
+
+    @Test
+    void theCollectionETagChangesWithLicensesAndSeats() throws Exception {
+        JsonNode license = create();
+        String first = mockMvc.perform(get("/licenses").param("size", "5"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/licenses").param("size", "5").header(HttpHeaders.IF_NONE_MATCH, first))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(post("/licenses/key/{key}/seats/checkout", license.get("licenseKey").asText()))
+                .andExpect(status().isOk());
+        String afterSeat = mockMvc.perform(get("/licenses").param("size", "5").header(HttpHeaders.IF_NONE_MATCH, first))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(first, afterSeat);
+
+        create();
+        mockMvc.perform(get("/licenses").param("size", "5").header(HttpHeaders.IF_NONE_MATCH, afterSeat))
+                .andExpect(status().isOk());
+    }
+
+    private JsonNode create() throws Exception {
+        MvcResult result = mockMvc.perform(post("/licenses").contentType(MediaType.APPLICATION_JSON)
+                        .content(body(request(keyGenerator.generate(null)))))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode license = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertEquals(eTag(license), result.getResponse().getHeader(HttpHeaders.ETAG));
+        return license;
+    }
+
+    private String body(LicenseRequest request) throws Exception {
+        return objectMapper.writeValueAsString(request);
+    }
+
+    private static LicenseRequest request(String licenseKey) {
+        LicenseRequest request = new LicenseRequest();
+        request.setLicenseKey(licenseKey);
+        request.setProductName("ETag Product");
+        request.setCustomerName("ETag Customer");
+        request.setIssueDate(LocalDate.now().minusDays(1));
+        request.setExpiryDate(LocalDate.now().plusDays(30));
+        request.setStatus(LicenseStatus.ACTIVE);
+        request.setMaxUsers(3);
+        return request;
+    }
+
+    private static String eTag(JsonNode license) {
+        return "\"" + license.get("id").asLong() + "-" + license.get("version").asLong() + "\"";
+    }
+}
@@ -0,0 +1,205 @@
+package com.sow.simple.application.repository;
+
+import com.sow.simple.application.dto.LicenseResponse;
+import com.sow.simple.application.entity.LicenseStatus;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Named;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Plan-regression suite: runs each repository query against a seeded PostgreSQL, captures the SQL
+ * Hibernate generated and fails if its EXPLAIN contains a sequential scan. Needs Docker; skipped otherwise.
+ * Whole-table reads by design (e.g. {@code findAllSecurityViews}) are intentionally not listed.
+ * The read-model queries are also checked to cost exactly one statement, creator included.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.sow.simple.application.repository.LicenseRepositoryQueryPlanTest$SqlCapture")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Sql(scripts = "/db/query-plan-seed.sql", config = @SqlConfig(transactionMode = SqlConfig.TransactionMode.ISOLATED))
+class LicenseRepositoryQueryPlanTest {
+
+    // 16+ for EXPLAIN (GENERIC_PLAN), which plans the captured SQL without bind values
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private LicenseRepository licenseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    static Stream<Arguments> queries() {
+        Pageable page = PageRequest.ofSize(50);
+        LocalDate today = LocalDate.now();
+        LocalDate early = LocalDate.of(2021, 1, 10);
+        return Stream.of(
+                license("findByLicenseKey", r -> r.findByLicenseKey("SEED-42")),
+                license("findWithCreatorById", r -> r.findWithCreatorById(42L)),
+                license("findResponseById", r -> r.findResponseById(42L)),
+                license("findResponseByLicenseKey", r -> r.findResponseByLicenseKey("SEED-42")),
+                license("findResponsesByIdIn", r -> r.findResponsesByIdIn(List.of(1L, 2L, 3L))),
+                license("findVersionById", r -> r.findVersionById(42L)),
+                license("findVersionByLicenseKey", r -> r.findVersionByLicenseKey("SEED-42")),
+                license("findValidationViewByLicenseKey", r -> r.findValidationViewByLicenseKey("SEED-42")),
+                license("existsByLicenseKey", r -> r.existsByLicenseKey("SEED-42")),
+                license("findLicenseKeysCreatedSince", r -> r.findLicenseKeysCreatedSince(LocalDateTime.now().minusMinutes(5))),
+                license("findExistingLicenseKeys", r -> r.findExistingLicenseKeys(List.of("SEED-1", "SEED-2", "NONE"))),
+                license("findByCustomerName", r -> r.findByCustomerName("Customer 42")),
+                license("findByCustomerNameIgnoreCase", r -> r.findByCustomerNameIgnoreCase("customer 42")),
+                license("findByProductName", r -> r.findByProductName("Product 7")),
+                license("findByProductNameIgnoreCase", r -> r.findByProductNameIgnoreCase("product 7")),
+                license("findByStatus", r -> r.findByStatus(LicenseStatus.REVOKED)),
+                license("findExpiredLicenses", r -> r.findExpiredLicenses(early)),
+                license("findLicensesExpiringBetween", r -> r.findLicensesExpiringBetween(LicenseStatus.ACTIVE,
+                        early, early.plusDays(7), early.minusDays(1), 0L, page)),
+                license("findIdsExpiringOnOrBefore", r -> r.findIdsExpiringOnOrBefore(LicenseStatus.ACTIVE, early, 0L, page)),
+                license("findPageAfter", r -> r.findPageAfter(1000L, page)),
+                license("findPageByCustomerNameIgnoreCase", r -> r.findPageByCustomerNameIgnoreCase("customer 42", 0L, page)),
+                license("findPageByProductNameIgnoreCase", r -> r.findPageByProductNameIgnoreCase("product 7", 0L, page)),
+                license("findPageByStatus", r -> r.findPageByStatus(LicenseStatus.REVOKED, 0L, page)),
+                license("findExpiredFirstPage", r -> r.findExpiredFirstPage(today, page)),
+                license("findExpiredPageAfter", r -> r.findExpiredPageAfter(today, LocalDate.of(2022, 1, 1), 0L, page)),
+                license("lockSnapshotsExpiringOnOrBefore", r -> r.lockSnapshotsExpiringOnOrBefore(List.of(1L, 2L, 3L),
+                        LicenseStatus.ACTIVE, early)),
+                license("updateStatus", r -> r.updateStatus(List.of(1L, 2L, 3L), LicenseStatus.EXPIRED,
+                        LocalDateTime.now())),
+                license("findAllCustomerNames", LicenseRepository::findAllCustomerNames),
+                license("findAllProductNames", LicenseRepository::findAllProductNames),
+                license("countByCustomerName", LicenseRepository::countByCustomerName),
+                license("countByProductName", LicenseRepository::countByProductName),
+                user("findByUsername", r -> r.findByUsername("seed-user-42")),
+                user("findByEmail", r -> r.findByEmail("seed-42@example.com")),
+                user("findSecurityViewByUsername", r -> r.findSecurityViewByUsername("seed-user-42")),
+                user("findSecurityViewsUpdatedSince", r -> r.findSecurityViewsUpdatedSince(LocalDateTime.now().minusMinutes(5)))
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("queries")
+    void queryDoesNotScanTable(BiConsumer<LicenseRepository, UserRepository> query) {
+        SqlCapture.clear();
+        query.accept(licenseRepository, userRepository);
+        List<String> statements = SqlCapture.statements();
+        assertFalse(statements.isEmpty(), "The query did not reach the database");
+
+        // On a small seeded table a sequential scan can be genuinely cheapest; with it disabled the
+        // planner still falls back to one when no index can serve the query, which is what we catch
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        for (String sql : statements) {
+            String plan = String.join("\n",
+                    jdbcTemplate.queryForList("EXPLAIN (GENERIC_PLAN) " + numberParameters(sql), String.class));
+            assertFalse(plan.contains("Seq Scan"), () -> "Sequential scan in plan of\n" + sql + "\n" + plan);
+        }
+    }
+
+    // Every license read endpoint returns a page or a single license; none may lazy-load the creator per row
+    @ParameterizedTest
+    @MethodSource("responseQueries")
+    void responseQueryIsOneStatement(Function<LicenseRepository, Object> query) {
+        SqlCapture.clear();
+        Object result = query.apply(licenseRepository);
+        List<String> statements = SqlCapture.statements();
+        assertEquals(1, statements.size(), () -> "Expected a single statement but got " + statements);
+        List<?> rows = result instanceof Optional<?> optional ? optional.stream().toList() : (List<?>) result;
+        assertFalse(rows.isEmpty(), "The seed data should match");
+        for (Object row : rows) {
+            LicenseResponse response = (LicenseResponse) row;
+            assertNotNull(response.getCreatedBy(), "Creator should come from the joined statement");
+            assertNotNull(response.getCreatedBy().getUsername());
+        }
+    }
+
+    static Stream<Arguments> responseQueries() {
+        Pageable page = PageRequest.ofSize(50);
+        LocalDate today = LocalDate.now();
+        return Stream.of(
+                response("findResponseById", r -> r.findResponseById(42L)),
+                response("findResponseByLicenseKey", r -> r.findResponseByLicenseKey("SEED-42")),
+                response("findResponsesByIdIn", r -> r.findResponsesByIdIn(List.of(1L, 2L, 3L))),
+                response("findPageAfter", r -> r.findPageAfter(0L, page)),
+                response("findPageByCustomerNameIgnoreCase", r -> r.findPageByCustomerNameIgnoreCase("customer 42", 0L, page)),
+                response("findPageByProductNameIgnoreCase", r -> r.findPageByProductNameIgnoreCase("product 7", 0L, page)),
+                response("findPageByStatus", r -> r.findPageByStatus(LicenseStatus.REVOKED, 0L, page)),
+                response("findExpiredFirstPage", r -> r.findExpiredFirstPage(today, page))
+        );
+    }
+
+    private static Arguments response(String name, Function<LicenseRepository, Object> call) {
+        return Arguments.of(Named.of(name, call));
+    }
+
+    private static Arguments license(String name, Consumer<LicenseRepository> call) {
+        return Arguments.of(Named.of(name, (BiConsumer<LicenseRepository, UserRepository>) (l, u) -> call.accept(l)));
+    }
+
+    private static Arguments user(String name, Consumer<UserRepository> call) {
+        return Arguments.of(Named.of(name, (BiConsumer<LicenseRepository, UserRepository>) (l, u) -> call.accept(u)));
+    }
+
+    // JDBC placeholders to PostgreSQL's numbered form, which EXPLAIN (GENERIC_PLAN) accepts
+    private static String numberParameters(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length() + 16);
+        int parameter = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+
+    public static class SqlCapture implements StatementInspector {
+
+        private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        static void clear() {
+            STATEMENTS.clear();
+        }
+
+        static List<String> statements() {
+            return List.copyOf(STATEMENTS);
+        }
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
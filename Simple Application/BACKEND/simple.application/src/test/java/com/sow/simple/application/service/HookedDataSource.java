@@ -0,0 +1,35 @@
+package com.sow.simple.application.service;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Private in-memory H2 database that can run a hook when the next connection is taken. Tests use it to
+ * publish a change while a service is in the middle of reloading its in-memory view.
+ */
+final class HookedDataSource extends DelegatingDataSource {
+
+    private volatile Runnable hook;
+
+    HookedDataSource() {
+        super(new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+    }
+
+    void beforeNextConnection(Runnable hook) {
+        this.hook = hook;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Runnable next = hook;
+        hook = null;
+        if (next != null) {
+            next.run();
+        }
+        return super.getConnection();
+    }
+}
@@ -0,0 +1,200 @@
+package com.sow.simple.application.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sow.simple.application.dto.AuditEntry;
+import com.sow.simple.application.entity.LicenseStatus;
+import com.sow.simple.application.event.LicenseChange;
+import com.sow.simple.application.event.LicenseChangeType;
+import com.sow.simple.application.event.LicenseChangedEvent;
+import com.sow.simple.application.event.LicenseSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static com.sow.simple.application.service.LicenseFixtures.snapshot;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The background writer against a temporary segment directory and a mocked {@link JdbcTemplate}. Every
+ * test shuts the service down before looking at the files, which drains the buffer and closes the segment.
+ */
+class LicenseAuditServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger inserted = new AtomicInteger();
+
+    @TempDir
+    private Path directory;
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void entriesGoToRotatedSegmentsAndTheDatabaseInOrder() throws Exception {
+        countInserts();
+        LicenseAuditService service = start(10_000, 20, 100);
+        for (long id = 1; id <= 30; id++) {
+            service.onLicenseChanged(created(id));
+        }
+        service.shutdown();
+
+        List<Path> segments = segments();
+        assertTrue(segments.size() > 1, "Segments rotate at 1KB");
+        for (Path segment : segments) {
+            assertTrue(Files.size(segment) <= 1024, segment + " is larger than the segment size");
+        }
+        assertEquals(ids(1, 30), segmentIds());
+        assertEquals(30, inserted.get());
+    }
+
+    @Test
+    void segmentsBeyondTheLimitArePruned() throws Exception {
+        countInserts();
+        LicenseAuditService service = start(10_000, 2, 100);
+        for (long id = 1; id <= 30; id++) {
+            service.onLicenseChanged(created(id));
+        }
+        service.shutdown();
+
+        assertEquals(2, segments().size());
+        List<Long> kept = segmentIds();
+        assertEquals(30L, kept.get(kept.size() - 1));
+        assertEquals(ids(31 - kept.size(), 30), kept);
+    }
+
+    @Test
+    void recentSearchesTheTailNewestFirst() throws Exception {
+        countInserts();
+        LicenseAuditService service = start(10_000, 20, 5);
+        for (long id = 1; id <= 8; id++) {
+            SecurityContextHolder.getContext().setAuthentication(
+                    new TestingAuthenticationToken(id % 2 == 0 ? "manager" : "admin", null));
+            service.onLicenseChanged(created(id));
+        }
+        service.shutdown();
+
+        // Only the last five entries are in memory
+        assertEquals(List.of(8L, 7L, 6L, 5L, 4L), licenseIds(service.recent(null, null, null)));
+        assertEquals(List.of(8L, 6L, 4L), licenseIds(service.recent(null, "manager", null)));
+        assertEquals(List.of(7L), licenseIds(service.recent(7L, null, null)));
+        assertEquals(List.of(), licenseIds(service.recent(2L, null, null)));
+        assertEquals(List.of(8L, 7L), licenseIds(service.recent(null, null, 2)));
+    }
+
+    @Test
+    void theTailIsReloadedFromTheNewestSegmentsAtStartup() throws Exception {
+        countInserts();
+        LicenseAuditService first = start(10_000, 20, 100);
+        for (long id = 1; id <= 30; id++) {
+            first.onLicenseChanged(created(id));
+        }
+        LicenseSnapshot before = snapshot(31L);
+        first.onLicenseChanged(new LicenseChangedEvent(List.of(
+                LicenseChange.statusChanged(before, before.withStatus(LicenseStatus.SUSPENDED)))));
+        first.shutdown();
+
+        LicenseAuditService restarted = start(10_000, 20, 12);
+        try {
+            List<AuditEntry> recent = restarted.recent(null, null, null);
+            assertEquals(ids(20, 31).reversed(), licenseIds(recent));
+            AuditEntry newest = recent.get(0);
+            assertEquals(LicenseChangeType.STATUS_CHANGED, newest.getAction());
+            assertEquals("system", newest.getActor());
+            assertEquals("status: ACTIVE -> SUSPENDED", newest.getDetails());
+            assertNull(recent.get(1).getDetails());
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    @Test
+    void aFailedDatabaseBatchIsCountedAndLeftInTheSegments() throws Exception {
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("database down"));
+        LicenseAuditService service = start(10_000, 20, 100);
+        for (long id = 1; id <= 5; id++) {
+            service.onLicenseChanged(created(id));
+        }
+        service.shutdown();
+
+        assertEquals(ids(1, 5), segmentIds());
+        assertEquals(5.0, meterRegistry.counter("license.audit.persist.failed").count());
+        assertEquals(5, service.recent(null, null, null).size());
+    }
+
+    private LicenseAuditService start(int bufferCapacity, int maxSegments, int tailSize) throws IOException {
+        LicenseAuditService service = new LicenseAuditService(jdbcTemplate, objectMapper, meterRegistry,
+                directory.toString(), bufferCapacity, 2, DataSize.ofKilobytes(1), maxSegments,
+                Duration.ofMillis(10), Duration.ofSeconds(1), 1000, tailSize);
+        service.start();
+        return service;
+    }
+
+    private void countInserts() {
+        doAnswer(invocation -> {
+            inserted.addAndGet(invocation.<Collection<?>>getArgument(1).size());
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private List<Long> segmentIds() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        for (Path segment : segments()) {
+            for (String line : Files.readAllLines(segment)) {
+                ids.add(objectMapper.readValue(line, AuditEntry.class).getLicenseId());
+            }
+        }
+        return ids;
+    }
+
+    private static List<Long> licenseIds(List<AuditEntry> entries) {
+        return entries.stream().map(AuditEntry::getLicenseId).toList();
+    }
+
+    private static List<Long> ids(long from, long to) {
+        List<Long> ids = new ArrayList<>();
+        for (long id = from; id <= to; id++) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private static LicenseChangedEvent created(long id) {
+        return new LicenseChangedEvent(List.of(LicenseChange.created(snapshot(id))));
+    }
+}
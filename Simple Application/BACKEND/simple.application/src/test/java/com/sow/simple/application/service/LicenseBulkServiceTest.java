@@ -0,0 +1,153 @@
+package com.sow.simple.application.service;
+
+import com.sow.simple.application.dto.BulkLicenseRequest;
+import com.sow.simple.application.dto.BulkOperationStatus;
+import com.sow.simple.application.entity.LicenseStatus;
+import com.sow.simple.application.event.LicenseChange;
+import com.sow.simple.application.event.LicenseChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bulk jobs against a private in-memory H2 table with a chunk size of two, so every job spans several
+ * chunk transactions.
+ */
+class LicenseBulkServiceTest {
+
+    private static final LocalDate EXPIRY = LocalDate.of(2030, 1, 1);
+
+    private final HookedDataSource dataSource = new HookedDataSource();
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private final List<LicenseChangedEvent> events = new CopyOnWriteArrayList<>();
+    private LicenseBulkService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("CREATE TABLE licenses (id BIGINT PRIMARY KEY, license_key VARCHAR(255), product_name VARCHAR(255), " +
+                "customer_name VARCHAR(255), customer_email VARCHAR(255), issue_date DATE, expiry_date DATE, status VARCHAR(32), " +
+                "max_users INT, current_users INT, description VARCHAR(1000), updated_at TIMESTAMP, version BIGINT DEFAULT 0)");
+        for (long id = 1; id <= 5; id++) {
+            jdbcTemplate.update("INSERT INTO licenses (id, license_key, product_name, customer_name, issue_date, expiry_date, " +
+                    "status, max_users, current_users) VALUES (?, ?, 'Suite', ?, ?, ?, 'ACTIVE', 5, 0)",
+                    id, "KEY-" + id, id <= 4 ? "Acme" : "Globex", EXPIRY.minusYears(1), EXPIRY);
+        }
+        service = new LicenseBulkService(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                event -> events.add((LicenseChangedEvent) event), new SimpleMeterRegistry(),
+                2, 100, 1, 10, Duration.ofHours(1), false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void filterJobsWalkTheMatchesChunkByChunk() throws InterruptedException {
+        jdbcTemplate.update("UPDATE licenses SET status = 'SUSPENDED' WHERE id = 2");
+
+        BulkOperationStatus job = await(service.changeStatus(request(null, "acme", LicenseStatus.REVOKED)));
+
+        assertEquals(BulkOperationStatus.State.COMPLETED, job.getState());
+        assertEquals(4, job.getMatched());
+        assertEquals(4, job.getProcessed());
+        assertEquals(4, job.getAffected());
+        assertEquals(List.of(), job.getUnknownIds());
+        assertEquals(List.of("REVOKED", "REVOKED", "REVOKED", "REVOKED", "ACTIVE"), statuses());
+        // One event per committed chunk, carrying the before and after of each row
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L, 4L)), changedIds());
+        LicenseChange change = events.get(0).getChanges().get(1);
+        assertEquals(LicenseStatus.SUSPENDED, change.getBefore().getStatus());
+        assertEquals(LicenseStatus.REVOKED, change.getAfter().getStatus());
+    }
+
+    @Test
+    void unknownIdsAreReportedAndNotCountedAsMatched() throws InterruptedException {
+        BulkLicenseRequest request = request(List.of(5L, 99L, 1L, 3L, 98L, 1L), null, null);
+        request.setDays(30);
+
+        BulkOperationStatus job = await(service.extendExpiry(request));
+
+        assertEquals(BulkOperationStatus.State.COMPLETED, job.getState());
+        assertEquals(3, job.getMatched());
+        assertEquals(List.of(98L, 99L), job.getUnknownIds());
+        assertEquals(3, job.getProcessed());
+        assertEquals(3, job.getAffected());
+        assertEquals(List.of(List.of(1L, 3L), List.of(5L)), changedIds());
+        assertEquals(EXPIRY.plusDays(30), jdbcTemplate.queryForObject(
+                "SELECT expiry_date FROM licenses WHERE id = 5", LocalDate.class));
+        assertEquals(EXPIRY, jdbcTemplate.queryForObject("SELECT expiry_date FROM licenses WHERE id = 2", LocalDate.class));
+    }
+
+    @Test
+    void idsFailingTheFilterAreNeitherMatchedNorUnknown() throws InterruptedException {
+        BulkOperationStatus job = await(service.delete(request(List.of(1L, 5L, 7L), "Globex", null)));
+
+        assertEquals(1, job.getMatched());
+        assertEquals(List.of(7L), job.getUnknownIds());
+        assertEquals(1, job.getAffected());
+        assertEquals(List.of(List.of(5L)), changedIds());
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM licenses", Integer.class));
+    }
+
+    @Test
+    void aFailingChunkKeepsEarlierChunksAndStopsTheJob() throws InterruptedException {
+        // Only license 3 refuses the new status, which fails the second chunk
+        jdbcTemplate.execute("ALTER TABLE licenses ADD CONSTRAINT no_suspend_3 CHECK (id <> 3 OR status <> 'SUSPENDED')");
+
+        BulkOperationStatus job = await(service.changeStatus(request(null, "Acme", LicenseStatus.SUSPENDED)));
+
+        assertEquals(BulkOperationStatus.State.FAILED, job.getState());
+        assertNotNull(job.getError());
+        assertEquals(4, job.getMatched());
+        assertEquals(2, job.getProcessed());
+        assertEquals(2, job.getAffected());
+        // The failed chunk rolled back whole and published nothing
+        assertEquals(List.of("SUSPENDED", "SUSPENDED", "ACTIVE", "ACTIVE", "ACTIVE"), statuses());
+        assertEquals(List.of(List.of(1L, 2L)), changedIds());
+    }
+
+    private BulkOperationStatus await(BulkOperationStatus submitted) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        BulkOperationStatus job = service.getJob(submitted.getJobId());
+        while (job.getFinishedAt() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            job = service.getJob(submitted.getJobId());
+        }
+        assertTrue(job.getFinishedAt() != null, "Job did not finish");
+        return job;
+    }
+
+    private List<String> statuses() {
+        return jdbcTemplate.queryForList("SELECT status FROM licenses ORDER BY id", String.class);
+    }
+
+    private List<List<Long>> changedIds() {
+        List<List<Long>> ids = new ArrayList<>();
+        for (LicenseChangedEvent event : events) {
+            ids.add(event.getChanges().stream().map(change -> change.getBefore().getId()).toList());
+        }
+        return ids;
+    }
+
+    private static BulkLicenseRequest request(List<Long> ids, String customerName, LicenseStatus newStatus) {
+        BulkLicenseRequest request = new BulkLicenseRequest();
+        request.setIds(ids);
+        request.setCustomerName(customerName);
+        request.setNewStatus(newStatus);
+        return request;
+    }
+}
@@ -0,0 +1,267 @@
+package com.sow.simple.application.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sow.simple.application.dto.LicenseFeedEvent;
+import com.sow.simple.application.entity.LicenseStatus;
+import com.sow.simple.application.event.LicenseChange;
+import com.sow.simple.application.event.LicenseChangeType;
+import com.sow.simple.application.event.LicenseChangedEvent;
+import com.sow.simple.application.event.LicenseSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.sow.simple.application.service.LicenseFixtures.snapshot;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Streams are opened through a minimal controller on standalone MockMvc and read back as SSE text. Every
+ * read publishes a change to a fresh marker license (which takes the next sequence number), so once the
+ * marker arrives nothing else is still on its way. Markers are left out of the license ids compared.
+ */
+class LicenseChangeFeedTest {
+
+    private static final long FIRST_MARKER = 1_000L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<LicenseChangeFeed> feeds = new ArrayList<>();
+    private long nextMarker = FIRST_MARKER;
+
+    @AfterEach
+    void shutdown() {
+        feeds.forEach(LicenseChangeFeed::shutdown);
+    }
+
+    @Test
+    void lastEventIdReplaysWhatWasMissed() throws Exception {
+        LicenseChangeFeed feed = feed(100, 100);
+        MvcResult first = open(feed, null);
+        for (long id = 1; id <= 3; id++) {
+            feed.onLicenseChanged(event(LicenseChange.created(snapshot(id))));
+        }
+        List<SseEvent> seen = read(feed, first);
+        assertEquals(List.of(1L, 2L, 3L), licenseIds(seen));
+
+        // Reconnects after the first event
+        MvcResult resumed = open(feed, seen.get(0).id());
+        List<SseEvent> replayed = read(feed, resumed);
+        assertEquals(List.of(2L, 3L), licenseIds(replayed));
+        assertEquals(seen.get(1).id(), replayed.get(0).id());
+        assertEquals(seen.get(2).id(), replayed.get(1).id());
+        LicenseFeedEvent data = objectMapper.readValue(replayed.get(0).data(), LicenseFeedEvent.class);
+        assertEquals(LicenseChangeType.CREATED, data.getType());
+        assertEquals("KEY-2", data.getLicenseKey());
+        assertEquals(LicenseStatus.ACTIVE, data.getStatus());
+
+        // Already up to date: nothing is replayed
+        MvcResult current = open(feed, replayed.get(replayed.size() - 1).id());
+        List<SseEvent> none = read(feed, current);
+        assertEquals(1, none.size());
+        assertEquals(List.of(), licenseIds(none));
+    }
+
+    @Test
+    void idsFromAnotherEpochGetAReset() throws Exception {
+        LicenseChangeFeed before = feed(100, 100);
+        MvcResult stream = open(before, null);
+        before.onLicenseChanged(event(LicenseChange.created(snapshot(1L))));
+        String oldId = read(before, stream).get(0).id();
+
+        // A restarted server hands out ids under a new epoch
+        Thread.sleep(5);
+        LicenseChangeFeed after = feed(100, 100);
+        after.onLicenseChanged(event(LicenseChange.created(snapshot(2L))));
+        long latest = 1;
+        for (String lastEventId : List.of(oldId, "garbage", "x-y")) {
+            List<SseEvent> events = read(after, open(after, lastEventId));
+            assertEquals("reset", events.get(0).name(), lastEventId);
+            assertNotEquals(epoch(oldId), epoch(events.get(0).id()));
+            assertTrue(events.get(0).id().endsWith("-" + latest), "A reset carries the latest sequence");
+            assertEquals(List.of(), licenseIds(events));
+            // The read's marker
+            latest++;
+        }
+    }
+
+    @Test
+    void aLastEventIdOlderThanTheReplayLogGetsAReset() throws Exception {
+        LicenseChangeFeed feed = feed(3, 100);
+        MvcResult stream = open(feed, null);
+        for (long id = 1; id <= 5; id++) {
+            feed.onLicenseChanged(event(LicenseChange.created(snapshot(id))));
+        }
+        List<SseEvent> seen = read(feed, stream);
+
+        // Only 4, 5 and the marker (6) are still in the log, so resuming after 1 would miss 2 and 3
+        List<SseEvent> tooOld = read(feed, open(feed, seen.get(0).id()));
+        assertEquals("reset", tooOld.get(0).name());
+        assertEquals(seen.get(5).id(), tooOld.get(0).id());
+        assertEquals(List.of(), licenseIds(tooOld));
+        assertEquals(1.0, meterRegistry.counter("license.changes.resets").count());
+
+        // Now 5, 6 and 7 are in the log, which is just enough to resume after 4
+        List<SseEvent> covered = read(feed, open(feed, seen.get(3).id()));
+        assertEquals("license", covered.get(0).name());
+        assertEquals(seen.get(4).id(), covered.get(0).id());
+        assertEquals(List.of(5L), licenseIds(covered));
+        assertEquals(1.0, meterRegistry.counter("license.changes.resets").count());
+    }
+
+    @Test
+    void pendingChangesToOneLicenseCoalesceIntoTheLatest() throws Exception {
+        LicenseChangeFeed feed = feed(100, 100);
+        LicenseSnapshot one = snapshot(1L);
+        LicenseSnapshot two = snapshot(2L);
+        LicenseSnapshot three = snapshot(3L);
+        feed.onLicenseChanged(event(
+                LicenseChange.created(one),
+                LicenseChange.statusChanged(one, one.withStatus(LicenseStatus.SUSPENDED)),
+                LicenseChange.updated(two, two.withDescription("renewed")),
+                LicenseChange.updated(one, one.withStatus(LicenseStatus.SUSPENDED).withMaxUsers(9)),
+                LicenseChange.created(three),
+                LicenseChange.deleted(three)));
+
+        // Replayed changes are all pending before the first send, like those of a client that reads slowly
+        List<SseEvent> events = read(feed, open(feed, beforeFirstChange(feed)));
+        // Each license moves to the position of its latest change
+        assertEquals(List.of(2L, 1L, 3L), licenseIds(events));
+        LicenseFeedEvent created = objectMapper.readValue(events.get(1).data(), LicenseFeedEvent.class);
+        assertEquals(LicenseChangeType.CREATED, created.getType(), "Still news of a new license");
+        assertEquals(LicenseStatus.SUSPENDED, created.getStatus());
+        assertTrue(events.get(1).id().endsWith("-4"));
+        assertEquals(LicenseChangeType.DELETED,
+                objectMapper.readValue(events.get(2).data(), LicenseFeedEvent.class).getType());
+        assertEquals(3.0, meterRegistry.counter("license.changes.coalesced").count());
+    }
+
+    @Test
+    void aSubscriberTooFarBehindGetsAResetInsteadOfTheBacklog() throws Exception {
+        LicenseChangeFeed feed = feed(100, 3);
+        List<LicenseChange> changes = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            changes.add(LicenseChange.created(snapshot(id)));
+        }
+        feed.onLicenseChanged(new LicenseChangedEvent(changes));
+
+        List<SseEvent> events = read(feed, open(feed, beforeFirstChange(feed)));
+        // The fourth change found three pending; it and everything before it are covered by the reset
+        assertEquals("reset", events.get(0).name());
+        assertTrue(events.get(0).id().endsWith("-4"));
+        assertEquals(List.of(5L), licenseIds(events));
+        assertEquals(1.0, meterRegistry.counter("license.changes.resets").count());
+    }
+
+    private LicenseChangeFeed feed(int replaySize, int maxPending) {
+        LicenseChangeFeed feed = new LicenseChangeFeed(meterRegistry, replaySize, maxPending, 10, Duration.ofMinutes(1));
+        feeds.add(feed);
+        return feed;
+    }
+
+    private static String beforeFirstChange(LicenseChangeFeed feed) {
+        return ReflectionTestUtils.getField(feed, "epoch") + "-0";
+    }
+
+    private static MvcResult open(LicenseChangeFeed feed, String lastEventId) throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new FeedController(feed)).build();
+        return mockMvc.perform(lastEventId != null ? get("/changes").header("Last-Event-ID", lastEventId) : get("/changes"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    // Publishes a change to a new marker license and returns every event the stream has had up to it
+    private List<SseEvent> read(LicenseChangeFeed feed, MvcResult stream) throws Exception {
+        long marker = nextMarker++;
+        feed.onLicenseChanged(event(LicenseChange.created(snapshot(marker))));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            List<SseEvent> events = parse(stream.getResponse().getContentAsString());
+            if (!events.isEmpty() && events.get(events.size() - 1).data().contains("\"licenseId\":" + marker)) {
+                return events;
+            }
+            Thread.sleep(10);
+        }
+        fail("Marker never arrived: " + stream.getResponse().getContentAsString());
+        return List.of();
+    }
+
+    private static List<SseEvent> parse(String body) {
+        List<SseEvent> events = new ArrayList<>();
+        for (String block : body.split("\n\n")) {
+            String id = null;
+            String name = null;
+            StringBuilder data = new StringBuilder();
+            for (String line : block.split("\n")) {
+                if (line.startsWith("id:")) {
+                    id = line.substring(3);
+                } else if (line.startsWith("event:")) {
+                    name = line.substring(6);
+                } else if (line.startsWith("data:")) {
+                    data.append(line.substring(5));
+                }
+            }
+            // Comment-only blocks are keepalives
+            if (name != null) {
+                events.add(new SseEvent(id, name, data.toString()));
+            }
+        }
+        return events;
+    }
+
+    private List<Long> licenseIds(List<SseEvent> events) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        for (SseEvent event : events) {
+            if (event.name().equals("license")) {
+                long id = objectMapper.readValue(event.data(), LicenseFeedEvent.class).getLicenseId();
+                if (id < FIRST_MARKER) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static String epoch(String eventId) {
+        return eventId.substring(0, eventId.lastIndexOf('-'));
+    }
+
+    private static LicenseChangedEvent event(LicenseChange... changes) {
+        return new LicenseChangedEvent(List.of(changes));
+    }
+
+    private record SseEvent(String id, String name, String data) {
+    }
+
+    @RestController
+    private static final class FeedController {
+
+        private final LicenseChangeFeed feed;
+
+        private FeedController(LicenseChangeFeed feed) {
+            this.feed = feed;
+        }
+
+        @GetMapping("/changes")
+        SseEmitter changes(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+            return feed.subscribe(lastEventId);
+        }
+    }
+}
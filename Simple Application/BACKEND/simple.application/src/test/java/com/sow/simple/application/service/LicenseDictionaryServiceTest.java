@@ -0,0 +1,100 @@
+package com.sow.simple.application.service;
+
+import com.sow.simple.application.dto.NameCountView;
+import com.sow.simple.application.event.LicenseChange;
+import com.sow.simple.application.event.LicenseChangedEvent;
+import com.sow.simple.application.event.LicenseSnapshot;
+import com.sow.simple.application.repository.LicenseRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.sow.simple.application.service.LicenseFixtures.snapshot;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LicenseDictionaryServiceTest {
+
+    private final LicenseRepository licenseRepository = mock(LicenseRepository.class);
+    private final LicenseDictionaryService service = new LicenseDictionaryService(licenseRepository, 100);
+
+    @Test
+    void fallsBackToTheDatabaseUntilLoaded() {
+        when(licenseRepository.findAllCustomerNames()).thenReturn(List.of("Acme"));
+
+        assertEquals(List.of("Acme"), service.getCustomerNames(null, null));
+        assertEquals(List.of(), service.getCustomerNames("Ac", null));
+    }
+
+    @Test
+    void changesAdjustTheLoadedCounts() {
+        when(licenseRepository.countByCustomerName()).thenReturn(List.of(count("Acme", 1)));
+        when(licenseRepository.countByProductName()).thenReturn(List.of(count("Suite", 1)));
+        service.rebuild();
+
+        LicenseSnapshot acme = snapshot(1L, "Acme", "Suite");
+        LicenseSnapshot globex = snapshot(2L, "Globex", "Suite");
+        service.onLicenseChanged(new LicenseChangedEvent(List.of(LicenseChange.created(globex))));
+        assertEquals(List.of("Acme", "Globex"), service.getCustomerNames(null, null));
+
+        // Renaming the only Acme license retires the name
+        service.onLicenseChanged(new LicenseChangedEvent(List.of(LicenseChange.updated(acme, acme.withCustomerName("Initech")))));
+        assertEquals(List.of("Globex", "Initech"), service.getCustomerNames(null, null));
+
+        service.onLicenseChanged(new LicenseChangedEvent(List.of(LicenseChange.deleted(globex))));
+        assertEquals(List.of("Initech"), service.getCustomerNames(null, null));
+        assertEquals(List.of("Suite"), service.getProductNames(null, null));
+        assertEquals(List.of("Initech"), service.getCustomerNames("ini", 5));
+    }
+
+    @Test
+    void changesPublishedDuringARebuildAreReplayedIntoIt() {
+        when(licenseRepository.countByCustomerName()).thenReturn(List.of(count("Acme", 1)));
+        when(licenseRepository.countByProductName()).thenReturn(List.of(count("Suite", 1)));
+        service.rebuild();
+
+        // The GROUP BY snapshot predates a create and a delete that are published while it runs
+        LicenseSnapshot acme = snapshot(1L, "Acme", "Suite");
+        when(licenseRepository.countByCustomerName()).thenAnswer(invocation -> {
+            service.onLicenseChanged(new LicenseChangedEvent(List.of(
+                    LicenseChange.created(snapshot(2L, "Globex", "Platform")),
+                    LicenseChange.deleted(acme))));
+            return List.of(count("Acme", 1));
+        });
+        service.rebuild();
+
+        assertEquals(List.of("Globex"), service.getCustomerNames(null, null));
+        assertEquals(List.of("Platform"), service.getProductNames(null, null));
+    }
+
+    @Test
+    void aFailedRebuildKeepsServingAndStopsBuffering() {
+        when(licenseRepository.countByCustomerName()).thenReturn(List.of(count("Acme", 1)));
+        when(licenseRepository.countByProductName()).thenReturn(List.of(count("Suite", 1)));
+        service.rebuild();
+
+        when(licenseRepository.countByCustomerName()).thenThrow(new IllegalStateException("database down"));
+        try {
+            service.rebuild();
+        } catch (IllegalStateException expected) {
+            // The previous dictionaries stay in place
+        }
+        service.onLicenseChanged(new LicenseChangedEvent(List.of(LicenseChange.created(snapshot(2L, "Globex", "Suite")))));
+        assertEquals(List.of("Acme", "Globex"), service.getCustomerNames(null, null));
+    }
+
+    private static NameCountView count(String name, long count) {
+        return new NameCountView() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Long getCount() {
+                return count;
+            }
+        };
+    }
+}
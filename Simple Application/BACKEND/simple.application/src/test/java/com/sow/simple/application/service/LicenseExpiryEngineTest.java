@@ -0,0 +1,215 @@
+package com.sow.simple.application.service;
+
+import com.sow.simple.application.dto.LicenseExpiryView;
+import com.sow.simple.application.entity.LicenseStatus;
+import com.sow.simple.application.event.LicenseChange;
+import com.sow.simple.application.event.LicenseChangedEvent;
+import com.sow.simple.application.event.LicenseSnapshot;
+import com.sow.simple.application.repository.LicenseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.sow.simple.application.service.LicenseFixtures.snapshot;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Expiry engine against a mocked repository with a horizon of seven days and chunks of two, so the catch-up
+ * and the window load both take several pages.
+ */
+class LicenseExpiryEngineTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private final LicenseRepository repository = mock(LicenseRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<LicenseChangedEvent> events = new ArrayList<>();
+    private LicenseExpiryEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(repository.findIdsExpiringOnOrBefore(any(), any(), any(), any())).thenReturn(List.of());
+        when(repository.findLicensesExpiringBetween(any(), any(), any(), any(), any(), any())).thenReturn(List.of());
+        engine = new LicenseExpiryEngine(repository, transactionManager, event -> events.add((LicenseChangedEvent) event),
+                meterRegistry, 7, 2);
+    }
+
+    @Test
+    void startupCatchUpExpiresEverythingAlreadyDuePageByPage() {
+        when(repository.findIdsExpiringOnOrBefore(LicenseStatus.ACTIVE, TODAY, 0L, PageRequest.ofSize(2)))
+                .thenReturn(List.of(1L, 2L));
+        when(repository.findIdsExpiringOnOrBefore(LicenseStatus.ACTIVE, TODAY, 2L, PageRequest.ofSize(2)))
+                .thenReturn(List.of(3L));
+        dueInTheDatabase(1L, 2L, 3L);
+
+        engine.start();
+
+        verify(repository).updateStatus(eq(List.of(1L, 2L)), eq(LicenseStatus.EXPIRED), any());
+        verify(repository).updateStatus(eq(List.of(3L)), eq(LicenseStatus.EXPIRED), any());
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L)), expiredIds());
+        LicenseChange change = events.get(0).getChanges().get(0);
+        assertEquals(LicenseStatus.ACTIVE, change.getBefore().getStatus());
+        assertEquals(LicenseStatus.EXPIRED, change.getAfter().getStatus());
+        assertEquals(3, meterRegistry.get("license.expiry.expired").counter().count());
+    }
+
+    @Test
+    void theWindowHoldsOnlyTheHorizonAndLoadsItByKeyset() {
+        when(repository.findLicensesExpiringBetween(LicenseStatus.ACTIVE, TODAY.plusDays(1), TODAY.plusDays(7),
+                TODAY, 0L, PageRequest.ofSize(2)))
+                .thenReturn(List.of(view(10L, TODAY.plusDays(1)), view(11L, TODAY.plusDays(3))));
+        when(repository.findLicensesExpiringBetween(LicenseStatus.ACTIVE, TODAY.plusDays(1), TODAY.plusDays(7),
+                TODAY.plusDays(3), 11L, PageRequest.ofSize(2)))
+                .thenReturn(List.of(view(12L, TODAY.plusDays(7))));
+
+        engine.start();
+
+        assertEquals(3, pending());
+        // Nothing in the window is due yet
+        engine.tick();
+        verify(repository, never()).lockSnapshotsExpiringOnOrBefore(anyCollection(), any(), any());
+        assertEquals(3, pending());
+    }
+
+    @Test
+    void aLicenseChangedToExpireTodayIsExpiredOnTheNextTick() {
+        engine.start();
+        dueInTheDatabase(5L);
+
+        engine.onLicenseChanged(new LicenseChangedEvent(List.of(LicenseChange.created(snapshot(5L).withExpiryDate(TODAY)))));
+        assertEquals(1, pending());
+        engine.tick();
+
+        verify(repository).updateStatus(eq(List.of(5L)), eq(LicenseStatus.EXPIRED), any());
+        assertEquals(List.of(List.of(5L)), expiredIds());
+        assertEquals(0, pending());
+    }
+
+    @Test
+    void changesBeyondTheWindowAreLeftForTheWindowToReach() {
+        engine.start();
+
+        engine.onLicenseChanged(new LicenseChangedEvent(List.of(LicenseChange.created(snapshot(5L).withExpiryDate(TODAY.plusDays(8))))));
+
+        assertEquals(0, pending());
+    }
+
+    @Test
+    void licensesThatLeaveActiveOrMoveTheirDateAreRescheduled() {
+        engine.start();
+        LicenseSnapshot suspended = snapshot(5L).withExpiryDate(TODAY);
+        LicenseSnapshot extended = snapshot(6L).withExpiryDate(TODAY);
+        engine.onLicenseChanged(new LicenseChangedEvent(List.of(LicenseChange.created(suspended), LicenseChange.created(extended))));
+
+        engine.onLicenseChanged(new LicenseChangedEvent(List.of(
+                LicenseChange.statusChanged(suspended, suspended.withStatus(LicenseStatus.SUSPENDED)),
+                LicenseChange.updated(extended, extended.withExpiryDate(TODAY.plusDays(2))))));
+        engine.tick();
+
+        assertEquals(1, pending());
+        verify(repository, never()).lockSnapshotsExpiringOnOrBefore(anyCollection(), any(), any());
+    }
+
+    @Test
+    void aLicenseNoLongerDueInTheDatabaseIsNotReported() {
+        engine.start();
+        engine.onLicenseChanged(new LicenseChangedEvent(List.of(LicenseChange.created(snapshot(5L).withExpiryDate(TODAY)))));
+        // Renewed on another node since the event
+        when(repository.lockSnapshotsExpiringOnOrBefore(List.of(5L), LicenseStatus.ACTIVE, TODAY)).thenReturn(List.of());
+
+        engine.tick();
+
+        verify(repository, never()).updateStatus(anyList(), any(), any());
+        assertTrue(events.isEmpty());
+        assertEquals(0, pending());
+    }
+
+    @Test
+    void aFailedChunkIsRetriedOnTheNextTick() {
+        engine.start();
+        engine.onLicenseChanged(new LicenseChangedEvent(List.of(LicenseChange.created(snapshot(5L).withExpiryDate(TODAY)))));
+        when(repository.lockSnapshotsExpiringOnOrBefore(List.of(5L), LicenseStatus.ACTIVE, TODAY))
+                .thenThrow(new IllegalStateException("connection lost"))
+                .thenReturn(List.of(snapshot(5L).withExpiryDate(TODAY)));
+
+        engine.tick();
+        assertEquals(1, pending());
+        assertTrue(events.isEmpty());
+
+        engine.tick();
+        assertEquals(List.of(List.of(5L)), expiredIds());
+        assertEquals(0, pending());
+    }
+
+    @Test
+    void theScheduledCatchUpExpiresLicensesTheWindowMissed() {
+        engine.start();
+        when(repository.findIdsExpiringOnOrBefore(LicenseStatus.ACTIVE, TODAY, 0L, PageRequest.ofSize(2)))
+                .thenReturn(List.of(7L));
+        dueInTheDatabase(7L);
+
+        engine.scheduledCatchUp();
+
+        assertEquals(List.of(List.of(7L)), expiredIds());
+    }
+
+    @Test
+    void nothingRunsBeforeStartup() {
+        engine.tick();
+        engine.scheduledCatchUp();
+
+        verify(repository, never()).findIdsExpiringOnOrBefore(any(), any(), any(), any());
+        verify(repository, never()).findLicensesExpiringBetween(any(), any(), any(), any(), any(), any());
+    }
+
+    private void dueInTheDatabase(Long... ids) {
+        when(repository.lockSnapshotsExpiringOnOrBefore(anyCollection(), eq(LicenseStatus.ACTIVE), eq(TODAY)))
+                .thenAnswer(invocation -> {
+                    List<Long> requested = new ArrayList<>(invocation.getArgument(0));
+                    requested.retainAll(List.of(ids));
+                    return requested.stream().map(id -> snapshot(id).withExpiryDate(TODAY)).toList();
+                });
+    }
+
+    private List<List<Long>> expiredIds() {
+        return events.stream()
+                .map(event -> event.getChanges().stream().map(LicenseChange::getLicenseId).toList())
+                .toList();
+    }
+
+    private double pending() {
+        return meterRegistry.get("license.expiry.pending").gauge().value();
+    }
+
+    private static LicenseExpiryView view(Long id, LocalDate expiryDate) {
+        return new LicenseExpiryView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDate getExpiryDate() {
+                return expiryDate;
+            }
+        };
+    }
+}
@@ -0,0 +1,194 @@
+package com.sow.simple.application.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sow.simple.application.dto.ExportFormat;
+import com.sow.simple.application.dto.LicenseFilter;
+import com.sow.simple.application.entity.LicenseStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * NDJSON and CSV exports against the embedded H2 schema, plus the download headers and async timeout
+ * of the export endpoint. Every test exports its own customer, so rows from other tests never show up.
+ */
+@SpringBootTest(properties = {"licenses.audit.dir=target/test-audit", "licenses.certificate.key-dir=target/test-keys"})
+@ActiveProfiles("h2")
+class LicenseExportServiceTest {
+
+    private static final AtomicLong IDS = new AtomicLong(1_100_000_000L);
+
+    private static final String CSV_HEADER = "id,licenseKey,productName,customerName,customerEmail,issueDate,expiryDate," +
+            "status,maxUsers,currentUsers,description,createdAt,updatedAt";
+
+    @Autowired
+    private LicenseExportService exportService;
+
+    @Autowired
+    private LicenseKeyGenerator keyGenerator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Test
+    void ndjsonWritesOneObjectPerLineInIdOrder() throws IOException {
+        String customer = customer();
+        long first = license(customer, "Export Product", LicenseStatus.ACTIVE, LocalDate.now().plusDays(30), null);
+        long second = license(customer, "Export Product", LicenseStatus.SUSPENDED, LocalDate.now().plusDays(30), "second");
+
+        List<String> lines = export(new LicenseFilter(customer, null, null, false), ExportFormat.NDJSON);
+        assertEquals(2, lines.size());
+        JsonNode row = objectMapper.readTree(lines.get(0));
+        assertEquals(first, row.get("id").asLong());
+        assertEquals(customer, row.get("customerName").asText());
+        assertEquals("ACTIVE", row.get("status").asText());
+        assertEquals(5, row.get("maxUsers").asInt());
+        assertTrue(row.get("description").isNull());
+        assertEquals(LocalDate.now().plusDays(30).toString(), row.get("expiryDate").asText());
+        assertEquals(second, objectMapper.readTree(lines.get(1)).get("id").asLong());
+    }
+
+    @Test
+    void filtersMatchTheListEndpoints() throws IOException {
+        String customer = customer();
+        long active = license(customer, "Export Product", LicenseStatus.ACTIVE, LocalDate.now().plusDays(30), null);
+        license(customer, "Other Product", LicenseStatus.ACTIVE, LocalDate.now().plusDays(30), null);
+        // Not ACTIVE, so the expiry engine leaves it alone while the test runs
+        long lapsed = license(customer, "Export Product", LicenseStatus.SUSPENDED, LocalDate.now().minusDays(1), null);
+        license(customer, "Export Product", LicenseStatus.REVOKED, LocalDate.now().plusDays(30), null);
+
+        // Customer and product match case-insensitively, as on the list endpoints
+        assertEquals(List.of(active), ids(export(
+                new LicenseFilter(customer.toLowerCase(Locale.ROOT), "EXPORT PRODUCT", LicenseStatus.ACTIVE, false), ExportFormat.NDJSON)));
+        assertEquals(List.of(lapsed), ids(export(
+                new LicenseFilter(customer, null, null, true), ExportFormat.NDJSON)));
+    }
+
+    @Test
+    void csvQuotesValuesThatNeedIt() {
+        String customer = customer();
+        long id = license(customer, "Export Product", LicenseStatus.ACTIVE, LocalDate.now().plusDays(30),
+                "Seats, \"floating\"\nrenewed yearly");
+
+        List<String> lines = export(new LicenseFilter(customer, null, null, false), ExportFormat.CSV);
+        assertEquals(CSV_HEADER, lines.get(0));
+        // The quoted description spans two physical lines
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(1).startsWith(id + ","));
+        assertTrue(lines.get(1).contains("," + customer + ",,"), "A null email is an empty field");
+        assertTrue(lines.get(1).endsWith(",ACTIVE,5,0,\"Seats, \"\"floating\"\""));
+        assertTrue(lines.get(2).startsWith("renewed yearly\","));
+    }
+
+    @Test
+    void csvWithNoMatchesIsJustTheHeader() {
+        assertEquals(List.of(CSV_HEADER), export(new LicenseFilter(customer(), null, null, false), ExportFormat.CSV));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void gzipExportIsAGzipFileWithoutContentEncoding() throws Exception {
+        String customer = customer();
+        long id = license(customer, "Export Product", LicenseStatus.ACTIVE, LocalDate.now().plusDays(30), null);
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+
+        MvcResult started = mockMvc.perform(get("/licenses/export")
+                        .param("format", "csv").param("gzip", "true").param("customer", customer))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(exportService.getTimeout().toMillis(), started.getRequest().getAsyncContext().getTimeout());
+
+        MvcResult result = mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn();
+        assertEquals("application/gzip", result.getResponse().getContentType());
+        assertEquals("attachment; filename=\"licenses.csv.gz\"", result.getResponse().getHeader(HttpHeaders.CONTENT_DISPOSITION));
+        assertNull(result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<String> lines = csv.lines().toList();
+        assertEquals(CSV_HEADER, lines.get(0));
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(1).startsWith(id + ","));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void plainExportKeepsItsFormatContentType() throws Exception {
+        String customer = customer();
+        license(customer, "Export Product", LicenseStatus.ACTIVE, LocalDate.now().plusDays(30), null);
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+
+        MvcResult started = mockMvc.perform(get("/licenses/export").param("customer", customer))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn();
+        assertEquals("application/x-ndjson", result.getResponse().getContentType());
+        assertEquals("attachment; filename=\"licenses.ndjson\"", result.getResponse().getHeader(HttpHeaders.CONTENT_DISPOSITION));
+        assertEquals(1, result.getResponse().getContentAsString().lines().count());
+    }
+
+    private List<String> export(LicenseFilter filter, ExportFormat format) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(filter, format, out);
+        return out.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    private List<Long> ids(List<String> ndjson) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        for (String line : ndjson) {
+            ids.add(objectMapper.readTree(line).get("id").asLong());
+        }
+        return ids;
+    }
+
+    private static String customer() {
+        return "Export Customer " + UUID.randomUUID();
+    }
+
+    private long license(String customer, String product, LicenseStatus status, LocalDate expiryDate, String description) {
+        long id = IDS.incrementAndGet();
+        jdbcTemplate.update("INSERT INTO licenses (id, license_key, product_name, customer_name, issue_date, expiry_date, " +
+                "status, max_users, current_users, description, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, 5, 0, ?, ?, ?)",
+                id, keyGenerator.generate(null), product, customer, LocalDate.now().minusDays(10), expiryDate,
+                status.name(), description, LocalDateTime.now(), LocalDateTime.now());
+        return id;
+    }
+}
@@ -0,0 +1,28 @@
+package com.sow.simple.application.service;
+
+import com.sow.simple.application.entity.LicenseStatus;
+import com.sow.simple.application.event.LicenseSnapshot;
+
+import java.time.LocalDate;
+
+/**
+ * Snapshots for tests that hand change events to a service directly: an ACTIVE "Suite" license of "Acme" with
+ * five unused seats, issued a month ago and valid for another year. Tests adjust the fields they care about
+ * with the snapshot's {@code with...} methods.
+ */
+final class LicenseFixtures {
+
+    static final LocalDate ISSUED = LocalDate.now().minusDays(30);
+    static final LocalDate EXPIRES = LocalDate.now().plusYears(1);
+
+    private LicenseFixtures() {
+    }
+
+    static LicenseSnapshot snapshot(long id) {
+        return new LicenseSnapshot(id, "KEY-" + id, "Suite", "Acme", null, ISSUED, EXPIRES, LicenseStatus.ACTIVE, 5, 0, null);
+    }
+
+    static LicenseSnapshot snapshot(long id, String customer, String product) {
+        return snapshot(id).withCustomerName(customer).withProductName(product);
+    }
+}
@@ -0,0 +1,137 @@
+package com.sow.simple.application.service;
+
+import com.sow.simple.application.dto.BulkImportResult;
+import com.sow.simple.application.dto.ExportFormat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bulk import against the embedded H2 schema: per-row failures, including rows the database rejects, are
+ * reported in the result, and only a taken license key is reported as a duplicate.
+ */
+@SpringBootTest(properties = {"licenses.audit.dir=target/test-audit", "licenses.certificate.key-dir=target/test-keys"})
+@ActiveProfiles("h2")
+class LicenseImportServiceTest {
+
+    private static final AtomicLong IDS = new AtomicLong(1_200_000_000L);
+
+    private static final String HEADER = "licenseKey,productName,customerName,issueDate,expiryDate,status,maxUsers";
+
+    @Autowired
+    private LicenseImportService importService;
+
+    @Autowired
+    private LicenseKeyGenerator keyGenerator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void importsValidRowsAndReportsTheRest() throws IOException {
+        String customer = customer();
+        String existing = keyGenerator.generate(null);
+        jdbcTemplate.update("INSERT INTO licenses (id, license_key, product_name, customer_name, issue_date, expiry_date, " +
+                "status, current_users, created_at, updated_at) VALUES (?, ?, 'Import Product', ?, ?, ?, 'ACTIVE', 0, ?, ?)",
+                IDS.incrementAndGet(), existing, customer,
+                LocalDate.now(), LocalDate.now().plusDays(30), LocalDateTime.now(), LocalDateTime.now());
+        String fresh = keyGenerator.generate(null);
+        // Structured shape, wrong check character: rejected even though legacy keys are accepted
+        String mistyped = mistype(keyGenerator.generate(null));
+
+        BulkImportResult result = importCsv(HEADER,
+                row(fresh, customer),
+                row(existing, customer),
+                row(fresh, customer),
+                row(mistyped, customer),
+                ",Import Product," + customer + ",2026-01-01,2027-01-01,active,",
+                row(keyGenerator.generate(null), customer).replace(",active,", ",lapsed,"));
+
+        assertEquals(6, result.getTotal());
+        assertEquals(1, result.getCreated());
+        assertEquals(5, result.getFailed());
+        List<BulkImportResult.RowResult> rows = result.getRows();
+        assertTrue(rows.get(0).isCreated());
+        assertNotNull(rows.get(0).getId());
+        assertEquals("License key already exists", rows.get(1).getMessage());
+        assertEquals("Duplicate license key in upload", rows.get(2).getMessage());
+        assertEquals("Invalid license key format", rows.get(3).getMessage());
+        assertEquals("licenseKey: License key is required", rows.get(4).getMessage());
+        assertTrue(rows.get(5).getMessage().startsWith("Malformed row: "));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM licenses WHERE customer_name = ?",
+                Integer.class, customer));
+    }
+
+    @Test
+    void valuesTooLongForTheirColumnsFailValidation() throws IOException {
+        String customer = customer();
+        String tooLong = keyGenerator.generate(null);
+
+        BulkImportResult result = importCsv(HEADER,
+                tooLong + "," + "P".repeat(256) + "," + customer + ",2026-01-01,2027-01-01,active,5");
+
+        assertEquals(1, result.getFailed());
+        assertEquals("productName: Product name must be at most 255 characters", result.getRows().get(0).getMessage());
+    }
+
+    @Test
+    void rowsTheDatabaseRejectsAreReportedAndTheRestImported() throws IOException {
+        String customer = customer();
+        String first = keyGenerator.generate(null);
+        String rejected = keyGenerator.generate(null);
+        String last = keyGenerator.generate(null);
+        // Passes request validation, so only the insert finds out
+        jdbcTemplate.execute("ALTER TABLE licenses ADD CONSTRAINT import_test_rejects CHECK (product_name <> 'Rejected Product')");
+        BulkImportResult result;
+        try {
+            result = importCsv(HEADER,
+                    row(first, customer),
+                    row(rejected, customer).replace(",Import Product,", ",Rejected Product,"),
+                    row(last, customer));
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE licenses DROP CONSTRAINT import_test_rejects");
+        }
+
+        // The batch failed, and the row-by-row fallback kept the good rows on either side of the bad one
+        assertEquals(2, result.getCreated());
+        assertEquals(1, result.getFailed());
+        assertEquals("Rejected by the database", result.getRows().get(1).getMessage());
+        assertFalse(result.getRows().get(1).isCreated());
+        assertEquals(List.of(first, last), jdbcTemplate.queryForList(
+                "SELECT license_key FROM licenses WHERE customer_name = ? ORDER BY id", String.class, customer));
+    }
+
+    private BulkImportResult importCsv(String... lines) throws IOException {
+        byte[] csv = (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8);
+        return importService.importLicenses(new ByteArrayInputStream(csv), ExportFormat.CSV, "admin");
+    }
+
+    private static String row(String licenseKey, String customer) {
+        return licenseKey + ",Import Product," + customer + ",2026-01-01,2027-01-01,active,5";
+    }
+
+    private static String mistype(String key) {
+        char last = key.charAt(key.length() - 1);
+        return key.substring(0, key.length() - 1) + (last == '0' ? '1' : '0');
+    }
+
+    private static String customer() {
+        return "Import Customer " + UUID.randomUUID();
+    }
+}
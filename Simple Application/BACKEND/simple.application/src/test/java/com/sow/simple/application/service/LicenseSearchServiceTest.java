@@ -0,0 +1,114 @@
+package com.sow.simple.application.service;
+
+import com.sow.simple.application.dto.LicenseResponse;
+import com.sow.simple.application.event.LicenseChange;
+import com.sow.simple.application.event.LicenseChangedEvent;
+import com.sow.simple.application.event.LicenseSnapshot;
+import com.sow.simple.application.exception.ServiceUnavailableException;
+import com.sow.simple.application.repository.LicenseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.util.Collection;
+import java.util.List;
+
+import static com.sow.simple.application.service.LicenseFixtures.snapshot;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Index loading and change replay against a private in-memory H2 table. A {@link HookedDataSource}
+ * publishes changes in the middle of a rebuild.
+ */
+class LicenseSearchServiceTest {
+
+    private final HookedDataSource dataSource = new HookedDataSource();
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private final LicenseRepository licenseRepository = mock(LicenseRepository.class);
+    private LicenseSearchService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("CREATE TABLE licenses (id BIGINT PRIMARY KEY, license_key VARCHAR(255), " +
+                "customer_name VARCHAR(255), product_name VARCHAR(255), customer_email VARCHAR(255), description VARCHAR(1000))");
+        insert(1, "Acme", "Suite");
+        insert(2, "Globex", "Platform");
+        when(licenseRepository.findResponsesByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> {
+                LicenseResponse response = new LicenseResponse();
+                response.setId(id);
+                return response;
+            }).toList();
+        });
+        service = new LicenseSearchService(licenseRepository, dataSource, new DataSourceTransactionManager(dataSource),
+                new SimpleMeterRegistry(), 20, 100, 2, 100, 0.25, false);
+    }
+
+    @Test
+    void searchIsUnavailableUntilTheIndexIsLoaded() {
+        assertThrows(ServiceUnavailableException.class, () -> service.search("acme", null));
+
+        service.loadIndex();
+        assertEquals(List.of(1L), ids("acme"));
+        assertEquals(List.of(2L), ids("globex platform"));
+    }
+
+    @Test
+    void changesAfterTheLoadAreApplied() {
+        service.loadIndex();
+        LicenseSnapshot globex = snapshot(2L, "Globex", "Platform");
+
+        service.onLicenseChanged(new LicenseChangedEvent(List.of(
+                LicenseChange.updated(globex, globex.withCustomerName("Initech")),
+                LicenseChange.created(snapshot(3L, "Umbrella", "Suite")))));
+        assertEquals(List.of(), ids("globex"));
+        assertEquals(List.of(2L), ids("initech"));
+        assertEquals(List.of(1L, 3L), ids("suite"));
+
+        service.onLicenseChanged(new LicenseChangedEvent(List.of(LicenseChange.deleted(snapshot(1L, "Acme", "Suite")))));
+        assertEquals(List.of(3L), ids("suite"));
+    }
+
+    @Test
+    void changesPublishedDuringARebuildAreReplayedIntoIt() {
+        service.loadIndex();
+        LicenseSnapshot globex = snapshot(2L, "Globex", "Platform");
+
+        // The rebuild reads the table as it was before these changes committed
+        dataSource.beforeNextConnection(() -> service.onLicenseChanged(new LicenseChangedEvent(List.of(
+                LicenseChange.updated(globex, globex.withCustomerName("Initech")),
+                LicenseChange.created(snapshot(3L, "Umbrella", "Suite")),
+                LicenseChange.deleted(snapshot(1L, "Acme", "Suite"))))));
+        service.loadIndex();
+
+        assertEquals(List.of(), ids("globex"));
+        assertEquals(List.of(2L), ids("initech"));
+        assertEquals(List.of(3L), ids("umbrella"));
+        assertEquals(List.of(), ids("acme"));
+    }
+
+    @Test
+    void changesAfterARebuildAreNoLongerBuffered() {
+        service.loadIndex();
+        service.loadIndex();
+
+        service.onLicenseChanged(new LicenseChangedEvent(List.of(LicenseChange.created(snapshot(3L, "Umbrella", "Suite")))));
+        assertEquals(List.of(3L), ids("umbrella"));
+    }
+
+    private List<Long> ids(String query) {
+        return service.search(query, null).stream().map(LicenseResponse::getId).toList();
+    }
+
+    private void insert(long id, String customer, String product) {
+        jdbcTemplate.update("INSERT INTO licenses (id, license_key, customer_name, product_name) VALUES (?, ?, ?, ?)",
+                id, "KEY-" + id, customer, product);
+    }
+}
@@ -0,0 +1,236 @@
+package com.sow.simple.application.service;
+
+import com.sow.simple.application.dto.SeatLeaseResponse;
+import com.sow.simple.application.entity.LicenseStatus;
+import com.sow.simple.application.exception.ConflictException;
+import com.sow.simple.application.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Seat checkout, renewal, heartbeat, checkin and reaping against the embedded H2 schema. Licenses are
+ * inserted directly with ids far above the pooled sequence, so they never collide with other tests.
+ */
+@SpringBootTest(properties = {"licenses.audit.dir=target/test-audit", "licenses.certificate.key-dir=target/test-keys"})
+@ActiveProfiles("h2")
+class LicenseSeatServiceTest {
+
+    private static final AtomicLong IDS = new AtomicLong(1_000_000_000L);
+
+    @Autowired
+    private LicenseSeatService seatService;
+
+    @Autowired
+    private LicenseKeyGenerator keyGenerator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void checkoutTakesSeatAndCheckinGivesItBack() {
+        String key = license(LicenseStatus.ACTIVE, LocalDate.now().plusDays(30), 2);
+
+        SeatLeaseResponse first = seatService.checkout(key, null);
+        SeatLeaseResponse second = seatService.checkout(key, "client-b");
+        assertEquals(first.getLeaseId(), first.getClientId(), "Anonymous leases are owned by their own id");
+        assertEquals("client-b", second.getClientId());
+        assertEquals(2, currentUsers(key));
+
+        seatService.checkin(key, first.getLeaseId());
+        assertEquals(1, currentUsers(key));
+        assertThrows(ResourceNotFoundException.class, () -> seatService.checkin(key, first.getLeaseId()));
+        assertEquals(1, currentUsers(key));
+    }
+
+    @Test
+    void checkoutIsDeniedWhenAllSeatsAreTaken() {
+        String key = license(LicenseStatus.ACTIVE, LocalDate.now().plusDays(30), 1);
+        seatService.checkout(key, "client-a");
+
+        ConflictException denied = assertThrows(ConflictException.class, () -> seatService.checkout(key, "client-b"));
+        assertEquals("All 1 seats are in use", denied.getMessage());
+        assertEquals(1, currentUsers(key));
+    }
+
+    @Test
+    void concurrentCheckoutsNeverExceedTheSeatLimit() throws Exception {
+        int seats = 5;
+        int clients = 40;
+        String key = license(LicenseStatus.ACTIVE, LocalDate.now().plusDays(30), seats);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch go = new CountDownLatch(1);
+        try {
+            List<Future<SeatLeaseResponse>> results = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                String clientId = "client-" + i;
+                Callable<SeatLeaseResponse> checkout = () -> {
+                    go.await();
+                    return seatService.checkout(key, clientId);
+                };
+                results.add(executor.submit(checkout));
+            }
+            go.countDown();
+
+            int granted = 0;
+            int denied = 0;
+            for (Future<SeatLeaseResponse> result : results) {
+                try {
+                    result.get();
+                    granted++;
+                } catch (ExecutionException ex) {
+                    assertInstanceOf(ConflictException.class, ex.getCause());
+                    denied++;
+                }
+            }
+            assertEquals(seats, granted);
+            assertEquals(clients - seats, denied);
+            assertEquals(seats, currentUsers(key));
+            assertEquals(seats, leaseCount(key));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void checkoutByTheSameClientRenewsItsLease() {
+        String key = license(LicenseStatus.ACTIVE, LocalDate.now().plusDays(30), 1);
+        SeatLeaseResponse first = seatService.checkout(key, "client-a");
+        // Lapsed but not yet reaped: the client still owns the seat
+        expireLeases(key);
+
+        SeatLeaseResponse renewed = seatService.checkout(key, "client-a");
+        assertEquals(first.getLeaseId(), renewed.getLeaseId());
+        assertEquals(1, currentUsers(key));
+        assertEquals(1, leaseCount(key));
+    }
+
+    @Test
+    void heartbeatExtendsTheLease() {
+        String key = license(LicenseStatus.ACTIVE, LocalDate.now().plusDays(30), 1);
+        SeatLeaseResponse lease = seatService.checkout(key, "client-a");
+        jdbcTemplate.update("UPDATE seat_leases SET expires_at = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().plusSeconds(5)), lease.getLeaseId());
+
+        SeatLeaseResponse beat = seatService.heartbeat(key, lease.getLeaseId());
+        assertEquals("client-a", beat.getClientId());
+        LocalDateTime stored = jdbcTemplate.queryForObject("SELECT expires_at FROM seat_leases WHERE id = ?",
+                Timestamp.class, lease.getLeaseId()).toLocalDateTime();
+        // The column keeps microseconds
+        assertTrue(Duration.between(beat.getExpiresAt(), stored).abs().toMillis() < 1);
+        assertTrue(stored.isAfter(LocalDateTime.now().plusSeconds(60)));
+    }
+
+    @Test
+    void heartbeatOnUnknownOrLapsedLeaseIsNotFound() {
+        String key = license(LicenseStatus.ACTIVE, LocalDate.now().plusDays(30), 1);
+        SeatLeaseResponse lease = seatService.checkout(key, "client-a");
+        expireLeases(key);
+
+        assertThrows(ResourceNotFoundException.class, () -> seatService.heartbeat(key, lease.getLeaseId()));
+        assertThrows(ResourceNotFoundException.class, () -> seatService.heartbeat(key, "no-such-lease"));
+    }
+
+    @Test
+    void reaperReleasesLapsedLeases() {
+        String key = license(LicenseStatus.ACTIVE, LocalDate.now().plusDays(30), 2);
+        SeatLeaseResponse lapsed = seatService.checkout(key, "client-a");
+        seatService.checkout(key, "client-b");
+        jdbcTemplate.update("UPDATE seat_leases SET expires_at = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)), lapsed.getLeaseId());
+
+        seatService.reapExpired();
+        assertEquals(1, currentUsers(key));
+        assertEquals(1, leaseCount(key));
+        assertThrows(ResourceNotFoundException.class, () -> seatService.heartbeat(key, lapsed.getLeaseId()));
+    }
+
+    @Test
+    void checkoutReapsLapsedLeasesWhenFull() {
+        String key = license(LicenseStatus.ACTIVE, LocalDate.now().plusDays(30), 1);
+        seatService.checkout(key, "client-a");
+        expireLeases(key);
+
+        SeatLeaseResponse lease = seatService.checkout(key, "client-b");
+        assertEquals("client-b", lease.getClientId());
+        assertEquals(1, currentUsers(key));
+        assertEquals(1, leaseCount(key));
+    }
+
+    @Test
+    void inactiveLicenseRefusesCheckoutRenewalAndHeartbeat() {
+        String key = license(LicenseStatus.ACTIVE, LocalDate.now().plusDays(30), 2);
+        SeatLeaseResponse lease = seatService.checkout(key, "client-a");
+        jdbcTemplate.update("UPDATE licenses SET status = ? WHERE license_key = ?", LicenseStatus.SUSPENDED.name(), key);
+
+        assertThrows(ConflictException.class, () -> seatService.checkout(key, "client-b"));
+        assertThrows(ConflictException.class, () -> seatService.checkout(key, "client-a"));
+        assertThrows(ConflictException.class, () -> seatService.heartbeat(key, lease.getLeaseId()));
+        assertEquals(1, currentUsers(key));
+    }
+
+    @Test
+    void expiredLicenseRefusesCheckoutRenewalAndHeartbeat() {
+        String key = license(LicenseStatus.ACTIVE, LocalDate.now().plusDays(30), 2);
+        SeatLeaseResponse lease = seatService.checkout(key, "client-a");
+        // Past its expiry date but not yet flipped to EXPIRED by the expiry engine
+        jdbcTemplate.update("UPDATE licenses SET expiry_date = ? WHERE license_key = ?", LocalDate.now(), key);
+
+        ConflictException denied = assertThrows(ConflictException.class, () -> seatService.checkout(key, "client-b"));
+        assertEquals("License has expired; no seats can be checked out", denied.getMessage());
+        assertThrows(ConflictException.class, () -> seatService.checkout(key, "client-a"));
+        assertThrows(ConflictException.class, () -> seatService.heartbeat(key, lease.getLeaseId()));
+    }
+
+    @Test
+    void unknownLicenseIsNotFound() {
+        String key = keyGenerator.generate(null);
+        assertThrows(ResourceNotFoundException.class, () -> seatService.checkout(key, null));
+        assertThrows(ResourceNotFoundException.class, () -> seatService.heartbeat(key, "no-such-lease"));
+        assertThrows(ResourceNotFoundException.class, () -> seatService.checkout("not-a-key", null));
+    }
+
+    private String license(LicenseStatus status, LocalDate expiryDate, int maxUsers) {
+        String key = keyGenerator.generate(null);
+        jdbcTemplate.update("INSERT INTO licenses (id, license_key, product_name, customer_name, issue_date, expiry_date, " +
+                "status, max_users, current_users, created_at, updated_at) VALUES (?, ?, 'Seat Product', 'Seat Customer', " +
+                "?, ?, ?, ?, 0, ?, ?)", IDS.incrementAndGet(), key, LocalDate.now().minusDays(1), expiryDate,
+                status.name(), maxUsers, LocalDateTime.now(), LocalDateTime.now());
+        return key;
+    }
+
+    private int currentUsers(String key) {
+        return jdbcTemplate.queryForObject("SELECT current_users FROM licenses WHERE license_key = ?", Integer.class, key);
+    }
+
+    private int leaseCount(String key) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM seat_leases s JOIN licenses l ON l.id = s.license_id " +
+                "WHERE l.license_key = ?", Integer.class, key);
+    }
+
+    private void expireLeases(String key) {
+        jdbcTemplate.update("UPDATE seat_leases SET expires_at = ? WHERE license_id = " +
+                "(SELECT id FROM licenses WHERE license_key = ?)", Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)), key);
+    }
+}
@@ -0,0 +1,122 @@
+package com.sow.simple.application.service;
+
+import com.sow.simple.application.dto.LicenseStatsResponse;
+import com.sow.simple.application.entity.LicenseStatus;
+import com.sow.simple.application.event.LicenseChange;
+import com.sow.simple.application.event.LicenseChangedEvent;
+import com.sow.simple.application.event.LicenseSeatsChangedEvent;
+import com.sow.simple.application.event.LicenseSnapshot;
+import com.sow.simple.application.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Counter maintenance and reconcile replay against a private in-memory H2 table.
+ */
+class LicenseStatsServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private final HookedDataSource dataSource = new HookedDataSource();
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private LicenseStatsService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("CREATE TABLE licenses (id BIGINT PRIMARY KEY, status VARCHAR(32), product_name VARCHAR(255), " +
+                "customer_name VARCHAR(255), expiry_date DATE, max_users INT, current_users INT)");
+        insert(1, LicenseStatus.ACTIVE, "Suite", "Acme", TODAY.plusDays(5), 10, 4);
+        insert(2, LicenseStatus.ACTIVE, "Suite", "Globex", TODAY.plusDays(60), null, 0);
+        insert(3, LicenseStatus.EXPIRED, "Platform", "Acme", TODAY.minusDays(1), 5, 0);
+        service = new LicenseStatsService(dataSource, new DataSourceTransactionManager(dataSource), 50, 100);
+    }
+
+    @Test
+    void statsAreUnavailableUntilTheFirstReconcile() {
+        assertThrows(ServiceUnavailableException.class, () -> service.getStats());
+    }
+
+    @Test
+    void reconcileLoadsTheAggregates() {
+        service.reconcile();
+
+        LicenseStatsResponse stats = service.getStats();
+        assertEquals(3, stats.getTotal());
+        assertEquals(2, stats.getByStatus().get(LicenseStatus.ACTIVE));
+        assertEquals(0, stats.getByStatus().get(LicenseStatus.SUSPENDED));
+        assertEquals(Map.of("Suite", 2L, "Platform", 1L), stats.getByProduct());
+        assertEquals(List.of("Acme", "Globex"), List.copyOf(stats.getByCustomer().keySet()));
+        assertEquals(1, stats.getExpired());
+        assertEquals(new LicenseStatsResponse.ExpiryBuckets(1, 1, 2), stats.getExpiringWithin());
+        assertEquals(10, stats.getSeats().getMaxUsers());
+        assertEquals(4, stats.getSeats().getCurrentUsers());
+        // Unchanged counters serve the cached response
+        assertSame(stats, service.getStats());
+    }
+
+    @Test
+    void changesMoveTheCounters() {
+        service.reconcile();
+        LicenseSnapshot globex = snapshot(2L, LicenseStatus.ACTIVE, "Suite", "Globex", TODAY.plusDays(60), null, 0);
+
+        service.onLicenseChanged(new LicenseChangedEvent(List.of(
+                LicenseChange.statusChanged(globex, globex.withStatus(LicenseStatus.SUSPENDED)),
+                LicenseChange.created(snapshot(4L, LicenseStatus.ACTIVE, "Platform", "Initech", TODAY.plusDays(20), 3, 0)))));
+        service.onSeatsChanged(new LicenseSeatsChangedEvent("KEY-1", 2));
+
+        LicenseStatsResponse stats = service.getStats();
+        assertEquals(4, stats.getTotal());
+        assertEquals(1, stats.getByStatus().get(LicenseStatus.SUSPENDED));
+        assertEquals(new LicenseStatsResponse.ExpiryBuckets(1, 2, 2), stats.getExpiringWithin());
+        assertEquals(13, stats.getSeats().getMaxUsers());
+        assertEquals(6, stats.getSeats().getCurrentUsers());
+    }
+
+    @Test
+    void changesPublishedDuringAReconcileAreReplayedIntoIt() {
+        service.reconcile();
+
+        // The GROUP BY reads the table as it was before these changes committed
+        dataSource.beforeNextConnection(() -> {
+            service.onLicenseChanged(new LicenseChangedEvent(List.of(
+                    LicenseChange.deleted(snapshot(3L, LicenseStatus.EXPIRED, "Platform", "Acme", TODAY.minusDays(1), 5, 0)),
+                    LicenseChange.created(snapshot(4L, LicenseStatus.ACTIVE, "Platform", "Initech", TODAY.plusDays(20), 3, 0)))));
+            service.onSeatsChanged(new LicenseSeatsChangedEvent("KEY-1", 1));
+        });
+        service.reconcile();
+
+        LicenseStatsResponse stats = service.getStats();
+        assertEquals(3, stats.getTotal());
+        assertEquals(0, stats.getExpired());
+        assertEquals(Map.of("Suite", 2L, "Platform", 1L), stats.getByProduct());
+        assertEquals(Map.of("Acme", 1L, "Globex", 1L, "Initech", 1L), stats.getByCustomer());
+        assertEquals(13, stats.getSeats().getMaxUsers());
+        assertEquals(5, stats.getSeats().getCurrentUsers());
+
+        // Buffering stopped with the swap
+        service.onSeatsChanged(new LicenseSeatsChangedEvent("KEY-1", -1));
+        assertEquals(4, service.getStats().getSeats().getCurrentUsers());
+    }
+
+    private void insert(long id, LicenseStatus status, String product, String customer, LocalDate expiry,
+                        Integer maxUsers, int currentUsers) {
+        jdbcTemplate.update("INSERT INTO licenses VALUES (?, ?, ?, ?, ?, ?, ?)",
+                id, status.name(), product, customer, expiry, maxUsers, currentUsers);
+    }
+
+    private static LicenseSnapshot snapshot(Long id, LicenseStatus status, String product, String customer,
+                                            LocalDate expiry, Integer maxUsers, Integer currentUsers) {
+        return LicenseFixtures.snapshot(id, customer, product).withStatus(status).withExpiryDate(expiry)
+                .withMaxUsers(maxUsers).withCurrentUsers(currentUsers);
+    }
+}
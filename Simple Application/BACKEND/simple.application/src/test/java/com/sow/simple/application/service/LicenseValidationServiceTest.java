@@ -0,0 +1,239 @@
+package com.sow.simple.application.service;
+
+import com.sow.simple.application.dto.LicenseKeyView;
+import com.sow.simple.application.dto.LicenseValidationResponse;
+import com.sow.simple.application.dto.LicenseValidationView;
+import com.sow.simple.application.entity.LicenseStatus;
+import com.sow.simple.application.event.LicenseChange;
+import com.sow.simple.application.event.LicenseChangedEvent;
+import com.sow.simple.application.event.LicenseSnapshot;
+import com.sow.simple.application.repository.LicenseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.sow.simple.application.service.LicenseFixtures.snapshot;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The validation lookup chain against a mocked repository: near-cache, bloom filter, negative cache and
+ * single-flight loads, plus the catch-up that brings in keys and changes from other nodes.
+ */
+class LicenseValidationServiceTest {
+
+    private static final String KNOWN = "KNOWN-KEY";
+    private static final String UNKNOWN = "UNKNOWN-KEY";
+
+    private final LicenseRepository licenseRepository = mock(LicenseRepository.class);
+    private final LicenseKeyGenerator keyGenerator = mock(LicenseKeyGenerator.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private LicenseValidationService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(keyGenerator.isWellFormed(anyString())).thenReturn(true);
+        when(keyGenerator.isWellFormed("malformed")).thenReturn(false);
+        when(licenseRepository.findValidationViewByLicenseKey(anyString())).thenReturn(Optional.empty());
+        when(licenseRepository.findValidationViewByLicenseKey(KNOWN)).thenReturn(Optional.of(view(KNOWN, LicenseStatus.ACTIVE)));
+        when(licenseRepository.findLicenseKeysCreatedSince(any())).thenReturn(List.of());
+        when(licenseRepository.findLicenseKeysUpdatedSince(any())).thenReturn(List.of());
+        // The full key scan finds only KNOWN
+        when(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM licenses", Long.class)).thenReturn(1L);
+        ResultSet row = mock(ResultSet.class);
+        when(row.getString(1)).thenReturn(KNOWN);
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(eq("SELECT license_key FROM licenses"), any(RowCallbackHandler.class));
+        service = service(60_000);
+    }
+
+    @Test
+    void malformedKeysNeverReachTheDatabase() {
+        assertFalse(service.validate("malformed").isValid());
+        verify(licenseRepository, never()).findValidationViewByLicenseKey(anyString());
+    }
+
+    @Test
+    void knownKeysAreCachedUntilAChangeInvalidatesThem() {
+        service.loadKnownKeys();
+        assertTrue(service.validate(KNOWN).isValid());
+        assertTrue(service.validate(KNOWN).isValid());
+        verify(licenseRepository, times(1)).findValidationViewByLicenseKey(KNOWN);
+
+        LicenseSnapshot before = snapshot(1L).withLicenseKey(KNOWN);
+        when(licenseRepository.findValidationViewByLicenseKey(KNOWN)).thenReturn(Optional.of(view(KNOWN, LicenseStatus.REVOKED)));
+        service.onLicenseChanged(new LicenseChangedEvent(List.of(
+                LicenseChange.statusChanged(before, before.withStatus(LicenseStatus.REVOKED)))));
+
+        LicenseValidationResponse response = service.validate(KNOWN);
+        assertFalse(response.isValid());
+        assertEquals(LicenseStatus.REVOKED, response.getStatus());
+        verify(licenseRepository, times(2)).findValidationViewByLicenseKey(KNOWN);
+    }
+
+    @Test
+    void changesOnOtherNodesLeaveTheCacheAtTheNextCatchUp() {
+        service.loadKnownKeys();
+        assertTrue(service.validate(KNOWN).isValid());
+
+        // Suspended elsewhere: no event here, only a new updated_at
+        when(licenseRepository.findValidationViewByLicenseKey(KNOWN)).thenReturn(Optional.of(view(KNOWN, LicenseStatus.SUSPENDED)));
+        assertTrue(service.validate(KNOWN).isValid(), "Served from the cache until the catch-up");
+        when(licenseRepository.findLicenseKeysUpdatedSince(any())).thenReturn(List.of(KNOWN));
+        service.catchUpKnownKeys();
+
+        assertEquals(LicenseStatus.SUSPENDED, service.validate(KNOWN).getStatus());
+    }
+
+    @Test
+    void theBloomFilterRejectsUnknownKeysWithoutAQuery() {
+        service.loadKnownKeys();
+
+        LicenseValidationResponse response = service.validate(UNKNOWN);
+        assertFalse(response.isValid());
+        assertNull(response.getStatus());
+        verify(licenseRepository, never()).findValidationViewByLicenseKey(UNKNOWN);
+    }
+
+    @Test
+    void keysCreatedOnOtherNodesReachTheFilterAtTheNextCatchUp() {
+        service.loadKnownKeys();
+        assertFalse(service.validate("REMOTE-KEY").isValid());
+
+        when(licenseRepository.findValidationViewByLicenseKey("REMOTE-KEY"))
+                .thenReturn(Optional.of(view("REMOTE-KEY", LicenseStatus.ACTIVE)));
+        when(licenseRepository.findLicenseKeysCreatedSince(any())).thenReturn(List.of(keyView("REMOTE-KEY")));
+        service.catchUpKnownKeys();
+
+        assertTrue(service.validate("REMOTE-KEY").isValid());
+    }
+
+    @Test
+    void withoutAFilterUnknownKeysAreQueriedOnceAndThenNegativelyCached() {
+        assertFalse(service.validate(UNKNOWN).isValid());
+        assertFalse(service.validate(UNKNOWN).isValid());
+        verify(licenseRepository, times(1)).findValidationViewByLicenseKey(UNKNOWN);
+
+        // Creating the key clears its negative entry
+        when(licenseRepository.findValidationViewByLicenseKey(UNKNOWN)).thenReturn(Optional.of(view(UNKNOWN, LicenseStatus.ACTIVE)));
+        service.onLicenseChanged(new LicenseChangedEvent(List.of(LicenseChange.created(snapshot(1L).withLicenseKey(UNKNOWN)))));
+        assertTrue(service.validate(UNKNOWN).isValid());
+    }
+
+    @Test
+    void aStaleFilterNoLongerAnswersOnItsOwn() throws InterruptedException {
+        // Three missed 1 ms catch-ups make the filter stale
+        service = service(1);
+        service.loadKnownKeys();
+        Thread.sleep(20);
+
+        assertFalse(service.validate(UNKNOWN).isValid());
+        verify(licenseRepository, times(1)).findValidationViewByLicenseKey(UNKNOWN);
+    }
+
+    @Test
+    void concurrentMissesOnOneKeyShareASingleLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(licenseRepository.findValidationViewByLicenseKey(KNOWN)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(view(KNOWN, LicenseStatus.ACTIVE));
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<LicenseValidationResponse>> responses = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                responses.add(executor.submit(() -> service.validate(KNOWN)));
+            }
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            // Give the other callers time to reach the cache and wait on the running load
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<LicenseValidationResponse> response : responses) {
+                assertTrue(response.get(5, TimeUnit.SECONDS).isValid());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(licenseRepository, times(1)).findValidationViewByLicenseKey(KNOWN);
+    }
+
+    private LicenseValidationService service(long catchUpIntervalMillis) {
+        return new LicenseValidationService(licenseRepository, keyGenerator, jdbcTemplate, new SimpleMeterRegistry(),
+                1000, Duration.ofMinutes(10), 1000, Duration.ofSeconds(60), 1000, 0.01,
+                catchUpIntervalMillis, Duration.ofSeconds(30));
+    }
+
+    private static LicenseValidationView view(String licenseKey, LicenseStatus status) {
+        return new LicenseValidationView() {
+            @Override
+            public String getLicenseKey() {
+                return licenseKey;
+            }
+
+            @Override
+            public LicenseStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public LocalDate getExpiryDate() {
+                return LicenseFixtures.EXPIRES;
+            }
+
+            @Override
+            public Integer getMaxUsers() {
+                return 5;
+            }
+
+            @Override
+            public Integer getCurrentUsers() {
+                return 0;
+            }
+        };
+    }
+
+    private static LicenseKeyView keyView(String licenseKey) {
+        LocalDateTime createdAt = LocalDateTime.now();
+        return new LicenseKeyView() {
+            @Override
+            public String getLicenseKey() {
+                return licenseKey;
+            }
+
+            @Override
+            public LocalDateTime getCreatedAt() {
+                return createdAt;
+            }
+        };
+    }
+}
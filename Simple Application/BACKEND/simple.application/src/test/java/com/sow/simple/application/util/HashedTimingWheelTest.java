@@ -0,0 +1,94 @@
+package com.sow.simple.application.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedTimingWheelTest {
+
+    private static final long START = 1_000_000L;
+    private static final long TICK = 100;
+
+    private final HashedTimingWheel<String> wheel = new HashedTimingWheel<>(TICK, 8, START);
+    private final List<String> fired = new ArrayList<>();
+
+    @Test
+    void firesInDeadlineOrderAndNeverEarly() {
+        wheel.schedule("c", START + 550);
+        wheel.schedule("a", START + 150);
+        wheel.schedule("b", START + 300);
+
+        // 300 is due at tick 3, and 150 rounds up to tick 2
+        assertEquals(0, wheel.advance(START + 199, fired::add));
+        assertEquals(2, wheel.advance(START + 399, fired::add));
+        assertEquals(List.of("a", "b"), fired);
+        assertEquals(0, wheel.advance(START + 599, fired::add));
+        assertEquals(1, wheel.advance(START + 600, fired::add));
+        assertEquals(List.of("a", "b", "c"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void itemsMoreThanOneRevolutionAheadWaitForTheirTick() {
+        // Ticks 3 and 11 share a bucket on an 8-slot wheel
+        wheel.schedule("near", START + 300);
+        wheel.schedule("far", START + 1100);
+
+        wheel.advance(START + 300, fired::add);
+        assertEquals(List.of("near"), fired);
+        wheel.advance(START + 1099, fired::add);
+        assertEquals(List.of("near"), fired);
+        wheel.advance(START + 1100, fired::add);
+        assertEquals(List.of("near", "far"), fired);
+    }
+
+    @Test
+    void catchingUpAfterAFullRevolutionFiresEverythingDueInTickOrder() {
+        wheel.advance(START + 500, fired::add);
+        wheel.schedule("x", START + 1200);
+        wheel.schedule("w", START + 700);
+        wheel.schedule("later", START + 5000);
+
+        assertEquals(2, wheel.advance(START + 2000, fired::add));
+        assertEquals(List.of("w", "x"), fired);
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void deadlinesInThePastFireOnTheNextTick() {
+        wheel.advance(START + 500, fired::add);
+        wheel.schedule("late", START);
+
+        assertEquals(1, wheel.advance(START + 600, fired::add));
+        assertEquals(List.of("late"), fired);
+    }
+
+    @Test
+    void cancelledItemsNeverFire() {
+        HashedTimingWheel<String>.Timeout cancelled = wheel.schedule("cancelled", START + 200);
+        wheel.schedule("kept", START + 200);
+        assertEquals(2, wheel.size());
+
+        assertTrue(cancelled.cancel());
+        assertFalse(cancelled.cancel());
+        assertEquals(1, wheel.size());
+        assertEquals(1, wheel.advance(START + 200, fired::add));
+        assertEquals(List.of("kept"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancellingAfterFiringHasNoEffect() {
+        HashedTimingWheel<String>.Timeout timeout = wheel.schedule("done", START + 100);
+        wheel.advance(START + 100, fired::add);
+
+        assertFalse(timeout.cancel());
+        assertEquals(0, wheel.size());
+        assertEquals("done", timeout.item());
+    }
+}
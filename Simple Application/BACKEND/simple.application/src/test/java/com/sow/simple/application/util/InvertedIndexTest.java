@@ -0,0 +1,150 @@
+package com.sow.simple.application.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvertedIndexTest {
+
+    // Same layout as the search service: key, customer, product, email, description
+    private static final float[] WEIGHTS = {4f, 3f, 3f, 1.5f, 1f};
+    private static final boolean[] FUZZY = {false, true, true, false, true};
+
+    private final InvertedIndex index = new InvertedIndex(WEIGHTS, FUZZY);
+
+    @Test
+    void findsDocumentsByExactWordAndPrefixIgnoringCase() {
+        index.add(1, fields("LIC-1", "Acme Corp", "Suite", "ops@acme.test", null));
+        index.add(2, fields("LIC-2", "Globex", "Platform", null, "Seats for ACME partners"));
+
+        assertEquals(List.of(1L, 2L), ids("acme"));
+        assertEquals(List.of(2L), ids("glob"));
+        assertEquals(List.of(1L), ids("lic 1"));
+        assertEquals(List.of(), ids("initech"));
+        assertEquals(List.of(), ids("  ,;  "));
+    }
+
+    @Test
+    void updatingADocumentReplacesItsIndexedFields() {
+        index.add(1, fields("LIC-1", "Acme", "Suite", null, null));
+        index.add(1, fields("LIC-1", "Globex", "Suite", null, null));
+
+        assertEquals(List.of(), ids("acme"));
+        assertEquals(List.of(1L), ids("globex"));
+        assertEquals(1, index.size());
+        assertEquals(1, index.deletedCount());
+    }
+
+    @Test
+    void removedDocumentsStopMatching() {
+        index.add(1, fields("LIC-1", "Acme", "Suite", null, null));
+        index.add(2, fields("LIC-2", "Acme", "Platform", null, null));
+
+        index.remove(1);
+        index.remove(42);
+        assertEquals(List.of(2L), ids("acme"));
+        assertEquals(List.of(), ids("suite"));
+        assertEquals(1, index.size());
+        assertEquals(1, index.deletedCount());
+    }
+
+    @Test
+    void everyQueryWordMustMatchSomeField() {
+        index.add(1, fields("LIC-1", "Acme", "Suite", null, null));
+        index.add(2, fields("LIC-2", "Acme", "Platform", null, null));
+        index.add(3, fields("LIC-3", "Globex", "Suite", null, null));
+
+        assertEquals(List.of(1L), ids("acme suite"));
+        assertEquals(List.of(1L), ids("suite acme"));
+        assertEquals(List.of(), ids("globex platform"));
+        assertEquals(List.of(), ids("acme nothing"));
+    }
+
+    @Test
+    void intersectionWithAShortCandidateListSkipsDeletedDocuments() {
+        // A rare word against a long postings list takes the binary-search path
+        for (long id = 1; id <= 200; id++) {
+            index.add(id, fields("LIC-" + id, "Customer " + id, "Product", null, "common"));
+        }
+        index.add(201, fields("LIC-201", "Customer 201", "Product", null, "common rare"));
+        index.add(202, fields("LIC-202", "Customer 202", "Product", null, "common rare"));
+        index.remove(201);
+
+        assertEquals(List.of(202L), ids("rare common"));
+        assertEquals(List.of(202L), ids("common rare"));
+    }
+
+    @Test
+    void exactMatchesOutrankPrefixesAndHeavierFieldsOutrankLighterOnes() {
+        index.add(1, fields("LIC-1", "Acmeco", "Suite", null, null));
+        index.add(2, fields("LIC-2", "Acme", "Suite", null, null));
+        index.add(3, fields("LIC-3", "Other", "Suite", null, "widget"));
+        index.add(4, fields("LIC-4", "Widget", "Suite", null, null));
+
+        List<InvertedIndex.Hit> hits = index.search("acme", 10);
+        assertEquals(List.of(2L, 1L), hits.stream().map(InvertedIndex.Hit::id).toList());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+        // Same term, so only the field weight differs
+        assertEquals(List.of(4L, 3L), ids("widget"));
+    }
+
+    @Test
+    void limitKeepsTheBestHitsWithTiesGoingToOlderDocuments() {
+        for (long id = 1; id <= 1500; id++) {
+            index.add(id, fields("LIC-" + id, "Acme", "Suite", null, null));
+        }
+        // Per query word a document scores its best field, and the key outweighs the customer name
+        index.add(1501, fields("ACME-1501", "Acme", "Suite", null, null));
+
+        assertEquals(List.of(1501L, 1L, 2L), ids("acme", 3));
+        assertEquals(1501, index.search("acme suite", 2000).size());
+        assertEquals(1, index.search("acme", 1).size());
+    }
+
+    @Test
+    void typosAreToleratedOnlyInFreeTextFields() {
+        index.add(1, fields("quartz", "Globex", "Suite", null, null));
+
+        assertEquals(List.of(1L), ids("globx"));
+        assertEquals(List.of(1L), ids("lobex"));
+        assertEquals(List.of(), ids("quarts"));
+    }
+
+    @Test
+    void appendedPartsKeepTheirIdsAndTombstones() {
+        InvertedIndex first = new InvertedIndex(WEIGHTS, FUZZY);
+        first.add(10, fields("LIC-10", "Acme", "Suite", null, null));
+        first.add(11, fields("LIC-11", "Globex", "Suite", null, null));
+        InvertedIndex second = new InvertedIndex(WEIGHTS, FUZZY);
+        second.add(20, fields("LIC-20", "Acme", "Platform", null, null));
+        second.add(21, fields("LIC-21", "Initech", "Platform", null, null));
+        second.remove(21);
+
+        index.appendAll(List.of(first, second));
+        assertEquals(3, index.size());
+        assertEquals(1, index.deletedCount());
+        assertEquals(List.of(10L, 20L), ids("acme"));
+        assertEquals(List.of(20L), ids("acme platform"));
+        assertEquals(List.of(), ids("initech"));
+
+        // The merged index stays writable
+        index.add(20, fields("LIC-20", "Initech", "Platform", null, null));
+        assertEquals(List.of(10L), ids("acme"));
+        assertEquals(List.of(20L), ids("initech"));
+    }
+
+    private List<Long> ids(String query) {
+        return ids(query, 20);
+    }
+
+    private List<Long> ids(String query, int limit) {
+        return index.search(query, limit).stream().map(InvertedIndex.Hit::id).toList();
+    }
+
+    private static String[] fields(String key, String customer, String product, String email, String description) {
+        return new String[]{key, customer, product, email, description};
+    }
+}
@@ -0,0 +1,166 @@
+package com.sow.simple.application.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LicenseKeyFormatTest {
+
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Test
+    void formattedKeysAreValidAndDistinct() {
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            long serial = random.nextLong(1L << LicenseKeyFormat.SERIAL_BITS);
+            String key = LicenseKeyFormat.format(i % 2 == 0 ? null : "PRO", serial, random.nextLong());
+            assertTrue(LicenseKeyFormat.isValid(key), key);
+            assertTrue(keys.add(key), key);
+        }
+    }
+
+    @Test
+    void keysHaveFourGroupsOfFiveAfterTheOptionalPrefix() {
+        String key = LicenseKeyFormat.format(null, 0, 0);
+        assertTrue(key.matches("[0-9A-Z]{5}(-[0-9A-Z]{5}){3}"), key);
+        assertTrue(LicenseKeyFormat.format("AB12", 1, 1).matches("AB12-[0-9A-Z]{5}(-[0-9A-Z]{5}){3}"));
+    }
+
+    @Test
+    void extremeSerialsAndRandomBitsRoundTrip() {
+        long maxSerial = (1L << LicenseKeyFormat.SERIAL_BITS) - 1;
+        for (long serial : new long[]{0, 1, maxSerial}) {
+            for (long bits : new long[]{0, -1, Long.MAX_VALUE}) {
+                String key = LicenseKeyFormat.format("XY", serial, bits);
+                assertTrue(LicenseKeyFormat.isValid(key), key);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> LicenseKeyFormat.format(null, -1, 0));
+        assertThrows(IllegalArgumentException.class, () -> LicenseKeyFormat.format(null, maxSerial + 1, 0));
+    }
+
+    @Test
+    void everySingleCharacterTypoIsDetected() {
+        for (int n = 0; n < 50; n++) {
+            String key = LicenseKeyFormat.format(null, random.nextLong(1L << LicenseKeyFormat.SERIAL_BITS), random.nextLong());
+            for (int position = 0; position < key.length(); position++) {
+                if (key.charAt(position) == '-') {
+                    continue;
+                }
+                for (char replacement : ALPHABET.toCharArray()) {
+                    if (replacement == key.charAt(position)) {
+                        continue;
+                    }
+                    String typo = key.substring(0, position) + replacement + key.substring(position + 1);
+                    assertFalse(LicenseKeyFormat.isValid(typo), key + " -> " + typo);
+                }
+            }
+        }
+    }
+
+    @Test
+    void charactersOutsideTheAlphabetAreRejected() {
+        String key = LicenseKeyFormat.format(null, 12345, 67890);
+        for (char c : new char[]{'I', 'L', 'O', 'U', 'a', '*', ' ', 'É'}) {
+            assertFalse(LicenseKeyFormat.isValid(c + key.substring(1)), c + key.substring(1));
+        }
+    }
+
+    // Luhn mod 32 misses exactly one transposition: 0 and Z, whose doubled values fold to the same difference
+    @Test
+    void adjacentSwapsAreDetectedExceptZeroAndZ() {
+        int swaps = 0;
+        for (int n = 0; n < 200; n++) {
+            String key = LicenseKeyFormat.format(null, random.nextLong(1L << LicenseKeyFormat.SERIAL_BITS), random.nextLong());
+            for (int position = 0; position + 1 < key.length(); position++) {
+                char first = key.charAt(position);
+                char second = key.charAt(position + 1);
+                if (first == second || first == '-' || second == '-') {
+                    continue;
+                }
+                String swapped = key.substring(0, position) + second + first + key.substring(position + 2);
+                boolean zeroAndZ = (first == '0' && second == 'Z') || (first == 'Z' && second == '0');
+                assertEquals(zeroAndZ, LicenseKeyFormat.isValid(swapped), key + " -> " + swapped);
+                swaps++;
+            }
+        }
+        assertTrue(swaps > 1000);
+    }
+
+    @Test
+    void swapsAcrossASeparatorBreakTheShape() {
+        String key = LicenseKeyFormat.format(null, 99, 99);
+        String swapped = key.substring(0, 4) + key.charAt(5) + key.charAt(4) + key.substring(6);
+        assertFalse(LicenseKeyFormat.isValid(swapped));
+        assertFalse(LicenseKeyFormat.hasStructuredShape(swapped));
+    }
+
+    @Test
+    void prefixesAreTwoToEightUpperCaseLettersOrDigits() {
+        assertTrue(LicenseKeyFormat.isValidPrefix("AB"));
+        assertTrue(LicenseKeyFormat.isValidPrefix("ABCDEFG8"));
+        assertFalse(LicenseKeyFormat.isValidPrefix("A"));
+        assertFalse(LicenseKeyFormat.isValidPrefix("ABCDEFGH9"));
+        assertFalse(LicenseKeyFormat.isValidPrefix("ab"));
+        assertFalse(LicenseKeyFormat.isValidPrefix("A-B"));
+
+        assertThrows(IllegalArgumentException.class, () -> LicenseKeyFormat.format("A", 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> LicenseKeyFormat.format("ABCDEFGH9", 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> LicenseKeyFormat.format("pro", 1, 1));
+    }
+
+    @Test
+    void keysWithAnInvalidPrefixAreRejected() {
+        String tail = LicenseKeyFormat.format(null, 7, 7);
+        assertTrue(LicenseKeyFormat.isValid("ABCDEFGH-" + tail));
+        assertFalse(LicenseKeyFormat.isValid("A-" + tail));
+        assertFalse(LicenseKeyFormat.isValid("ABCDEFGHJ-" + tail));
+        assertFalse(LicenseKeyFormat.isValid("pro-" + tail));
+        assertFalse(LicenseKeyFormat.isValid("PRO_" + tail));
+        assertFalse(LicenseKeyFormat.isValid("-" + tail));
+    }
+
+    @Test
+    void theCheckCharacterDoesNotCoverThePrefix() {
+        String key = LicenseKeyFormat.format("AAA", 5, 5);
+        assertTrue(LicenseKeyFormat.isValid("BBB" + key.substring(3)));
+    }
+
+    @Test
+    void structuredShapeOnlyLooksAtTheSeparators() {
+        String key = LicenseKeyFormat.format("PRO", 1, 2);
+        String typo = key.substring(0, key.length() - 1) + (key.endsWith("0") ? '1' : '0');
+        assertTrue(LicenseKeyFormat.hasStructuredShape(key));
+        assertTrue(LicenseKeyFormat.hasStructuredShape(typo));
+        assertTrue(LicenseKeyFormat.hasStructuredShape("lower-cases-still-shape"));
+        assertFalse(LicenseKeyFormat.hasStructuredShape("LIC-1A2B3C4D"));
+        assertFalse(LicenseKeyFormat.hasStructuredShape(key.replace("-", "")));
+        assertFalse(LicenseKeyFormat.hasStructuredShape(key.substring(key.length() - 22)));
+        assertFalse(LicenseKeyFormat.hasStructuredShape(null));
+    }
+
+    @Test
+    void legacyKeysAreNonBlankUnstructuredKeysThatFitTheColumn() {
+        assertTrue(LicenseKeyFormat.isLegacy("LIC-1A2B3C4D"));
+        assertTrue(LicenseKeyFormat.isLegacy("customer chosen key"));
+        assertTrue(LicenseKeyFormat.isLegacy("x".repeat(LicenseKeyFormat.MAX_LEGACY_LENGTH)));
+        assertFalse(LicenseKeyFormat.isLegacy("x".repeat(LicenseKeyFormat.MAX_LEGACY_LENGTH + 1)));
+        assertFalse(LicenseKeyFormat.isLegacy(""));
+        assertFalse(LicenseKeyFormat.isLegacy("   "));
+        assertFalse(LicenseKeyFormat.isLegacy(null));
+
+        String key = LicenseKeyFormat.format(null, 3, 3);
+        String typo = key.substring(0, key.length() - 1) + (key.endsWith("0") ? '1' : '0');
+        assertFalse(LicenseKeyFormat.isLegacy(key));
+        assertFalse(LicenseKeyFormat.isLegacy(typo));
+    }
+}
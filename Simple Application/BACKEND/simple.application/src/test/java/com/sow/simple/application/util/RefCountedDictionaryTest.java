@@ -0,0 +1,65 @@
+package com.sow.simple.application.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RefCountedDictionaryTest {
+
+    @Test
+    void nameDisappearsWithItsLastReference() {
+        RefCountedDictionary dictionary = RefCountedDictionary.of(Map.of("Acme", 2L));
+
+        dictionary.decrement("Acme");
+        assertEquals(List.of("Acme"), dictionary.names());
+        dictionary.decrement("Acme");
+        assertEquals(List.of(), dictionary.names());
+        // Decrementing an absent name does not resurrect it or go negative
+        dictionary.decrement("Acme");
+        dictionary.increment("Acme");
+        assertEquals(List.of("Acme"), dictionary.names());
+        dictionary.decrement("Acme");
+        assertEquals(0, dictionary.size());
+    }
+
+    @Test
+    void initialCountsSkipNullNamesAndEmptyCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        counts.put(null, 3L);
+        counts.put("Gone", 0L);
+        counts.put("Kept", 1L);
+
+        RefCountedDictionary dictionary = RefCountedDictionary.of(counts);
+        assertEquals(List.of("Kept"), dictionary.names());
+        dictionary.increment(null);
+        dictionary.decrement(null);
+        assertEquals(1, dictionary.size());
+    }
+
+    @Test
+    void namesAreOrderedIgnoringCaseWithExactCaseAsTieBreak() {
+        RefCountedDictionary dictionary = RefCountedDictionary.of(Map.of());
+        for (String name : List.of("beta", "Alpha", "ALPHA", "alpha", "Gamma")) {
+            dictionary.increment(name);
+        }
+
+        assertEquals(List.of("ALPHA", "Alpha", "alpha", "beta", "Gamma"), dictionary.names());
+    }
+
+    @Test
+    void prefixSearchIgnoresCaseAndStopsAtTheLimit() {
+        RefCountedDictionary dictionary = RefCountedDictionary.of(Map.of());
+        for (String name : List.of("Acme", "ACME Labs", "acme widgets", "Acorn", "Beta", "Ac")) {
+            dictionary.increment(name);
+        }
+
+        assertEquals(List.of("Acme", "ACME Labs", "acme widgets"), dictionary.startingWith("acm", 10));
+        assertEquals(List.of("Ac", "Acme"), dictionary.startingWith("AC", 2));
+        assertEquals(List.of("Beta"), dictionary.startingWith("b", 10));
+        assertEquals(List.of(), dictionary.startingWith("z", 10));
+    }
+}
@@ -0,0 +1,18 @@
+-- Seed data for LicenseRepositoryQueryPlanTest; inserts only into an empty database.
+INSERT INTO users (username, email, password, first_name, last_name, role, is_active, security_version, created_at, updated_at)
+SELECT 'seed-user-' || g, 'seed-' || g || '@example.com', 'n/a', 'Seed', 'User', 'USER', TRUE, 0,
+       now() - g * INTERVAL '1 minute', now() - g * INTERVAL '1 minute'
+FROM generate_series(1, 2000) AS g
+WHERE NOT EXISTS (SELECT 1 FROM users);
+
+INSERT INTO licenses (id, license_key, product_name, customer_name, customer_email, issue_date, expiry_date,
+                      status, max_users, current_users, description, created_at, updated_at, created_by)
+SELECT g, 'SEED-' || g, 'Product ' || (g % 40), 'Customer ' || (g % 5000), 'customer' || g || '@example.com',
+       DATE '2020-01-01' + (g % 1500), DATE '2020-01-01' + (g % 1500) + 365 + (g % 730),
+       (ARRAY ['ACTIVE', 'ACTIVE', 'ACTIVE', 'EXPIRED', 'SUSPENDED', 'REVOKED'])[1 + g % 6],
+       10, 0, NULL, now(), now(), (SELECT MIN(id) FROM users) + g % 2000
+FROM generate_series(1, 20000) AS g
+WHERE NOT EXISTS (SELECT 1 FROM licenses);
+
+ANALYZE users;
+ANALYZE licenses;